@@ -0,0 +1,84 @@
+package org.mino.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.mino.json.ModelJsonModule;
+import org.mino.model.ApiResponse;
+import org.mino.model.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 列表接口响应序列化：Spring Boot 默认 ObjectMapper（反射）与注册 ModelJsonModule（手写序列化器）对比
+ * setUp 中先校验两者输出逐字节一致：
+ * <pre>
+ * mvn -Pjmh test-compile exec:exec -Djmh.args="JsonSerializationBenchmark -prof gc"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonSerializationBenchmark {
+
+    /** 响应中的用户数 */
+    @Param({"1", "20", "1000"})
+    private int size;
+
+    private ObjectMapper reflective;
+
+    private ObjectMapper handWritten;
+
+    private ApiResponse<List<User>> response;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        reflective = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build();
+        handWritten = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .modulesToInstall(new ModelJsonModule()).build();
+        LocalDateTime base = LocalDateTime.of(2024, 3, 1, 8, 0, 0, 123_000_000);
+        List<User> users = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            User user = new User((long) i + 1, "user" + i, "user" + i + "@example.com", "138" + (10_000_000 + i));
+            user.setCreateTime(base.plusSeconds(i * 37L));
+            user.setUpdateTime(base.plusMinutes(i));
+            user.setVersion(i % 5);
+            users.add(user);
+        }
+        response = ApiResponse.success("用户列表查询成功", users);
+        if (!Arrays.equals(reflective.writeValueAsBytes(response), handWritten.writeValueAsBytes(response))) {
+            throw new IllegalStateException("hand-written serializers produce different JSON");
+        }
+    }
+
+    @Benchmark
+    public byte[] reflective() throws Exception {
+        return reflective.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public byte[] handWritten() throws Exception {
+        return handWritten.writeValueAsBytes(response);
+    }
+}
@@ -0,0 +1,116 @@
+package org.mino.benchmark;
+
+import org.mino.config.LogInterceptorProperties;
+import org.mino.interceptor.LogInterceptor;
+import org.mino.model.CursorPage;
+import org.mino.model.OperationLog;
+import org.mino.service.LogService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * LogInterceptor 单次请求开销：preHandle + afterCompletion，目标低于 5µs。
+ * 日志服务只计数，不包含队列和写库开销：
+ * <pre>
+ * mvn -Pjmh test-compile exec:exec -Djmh.args="LogInterceptorBenchmark -prof gc"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LogInterceptorBenchmark {
+
+    private CountingLogService logService;
+
+    private LogInterceptor interceptor;
+
+    private HandlerMethod handler;
+
+    private MockHttpServletRequest request;
+
+    private MockHttpServletResponse response;
+
+    @Setup
+    public void setUp() throws NoSuchMethodException {
+        logService = new CountingLogService();
+        interceptor = new LogInterceptor(logService, new LogInterceptorProperties());
+        handler = new HandlerMethod(new LogInterceptorBenchmark(), "handle");
+        request = new MockHttpServletRequest("GET", "/api/users/1");
+        request.setQueryString("fields=username,email&verbose=true");
+        request.addHeader(LogInterceptor.USER_ID_HEADER, "42");
+        request.addHeader("X-Forwarded-For", "10.0.0.1, 10.0.0.2");
+        response = new MockHttpServletResponse();
+    }
+
+    @Benchmark
+    public long interceptRequest() {
+        interceptor.preHandle(request, response, handler);
+        interceptor.afterCompletion(request, response, handler, null);
+        return logService.records;
+    }
+
+    public void handle() {
+        // 仅作为 HandlerMethod 目标
+    }
+
+    /**
+     * 只计数的日志服务
+     */
+    private static final class CountingLogService implements LogService {
+        private long records;
+
+        @Override
+        public void recordOperationLog(OperationLog operationLog) {
+            records += operationLog.getCostTime() != null ? 1 : 0;
+        }
+
+        @Override
+        public List<OperationLog> getOperationLogsByUserId(Long userId) {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public CursorPage<OperationLog> getOperationLogsByUserId(Long userId, String cursor, int size) {
+            return new CursorPage<>(Collections.emptyList(), null, false);
+        }
+
+        @Override
+        public List<OperationLog> getOperationLogsByPage(int page, int size) {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public CursorPage<OperationLog> getOperationLogsByCursor(String cursor, int size) {
+            return new CursorPage<>(Collections.emptyList(), null, false);
+        }
+
+        @Override
+        public Long getOperationLogsCount() {
+            return 0L;
+        }
+
+        @Override
+        public Map<String, Object> cleanOldLogs(int days) {
+            return Collections.emptyMap();
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package org.mino.benchmark;
+
+import org.mino.util.ListUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ListUtils 用户ID集合运算：装箱集合版本、long[] 哈希版本和 long[] 有序归并版本对比
+ * 乱序输入用于集合版本和哈希版本，有序版本使用同样数据排序后的副本：
+ * <pre>
+ * mvn -Pjmh test-compile exec:exec -Djmh.args="LongListUtilsBenchmark -p size=10000000 -prof gc"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms3g", "-Xmx3g"})
+public class LongListUtilsBenchmark {
+
+    @Param({"1000", "100000", "10000000"})
+    private int size;
+
+    /** second 中与 first 相同的元素比例 */
+    @Param({"0.0", "0.5", "1.0"})
+    private double overlap;
+
+    private List<Long> boxedFirst;
+
+    private List<Long> boxedSecond;
+
+    private long[] first;
+
+    private long[] second;
+
+    private long[] sortedFirst;
+
+    private long[] sortedSecond;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        int shared = (int) Math.round(size * overlap);
+        first = new long[size];
+        second = new long[size];
+        for (int i = 0; i < size; i++) {
+            first[i] = i * 3L;
+            second[i] = i < shared ? first[(int) ((long) i * size / shared)] : i * 3L + 1;
+        }
+        shuffle(first, random);
+        shuffle(second, random);
+        sortedFirst = first.clone();
+        sortedSecond = second.clone();
+        Arrays.sort(sortedFirst);
+        Arrays.sort(sortedSecond);
+        boxedFirst = box(first);
+        boxedSecond = box(second);
+    }
+
+    private static void shuffle(long[] values, Random random) {
+        for (int i = values.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            long tmp = values[i];
+            values[i] = values[j];
+            values[j] = tmp;
+        }
+    }
+
+    private static List<Long> box(long[] values) {
+        List<Long> list = new ArrayList<>(values.length);
+        for (long value : values) {
+            list.add(value);
+        }
+        return list;
+    }
+
+    @Benchmark
+    public List<Long> boxedIntersection() {
+        return ListUtils.intersection(boxedFirst, boxedSecond);
+    }
+
+    @Benchmark
+    public long[] primitiveIntersection() {
+        return ListUtils.intersectionLongs(first, second);
+    }
+
+    @Benchmark
+    public long[] sortedIntersection() {
+        return ListUtils.intersectionSorted(sortedFirst, sortedSecond);
+    }
+
+    @Benchmark
+    public List<Long> boxedUnion() {
+        return ListUtils.union(boxedFirst, boxedSecond);
+    }
+
+    @Benchmark
+    public long[] primitiveUnion() {
+        return ListUtils.unionLongs(first, second);
+    }
+
+    @Benchmark
+    public long[] sortedUnion() {
+        return ListUtils.unionSorted(sortedFirst, sortedSecond);
+    }
+
+    @Benchmark
+    public List<Long> boxedDifference() {
+        return ListUtils.difference(boxedFirst, boxedSecond);
+    }
+
+    @Benchmark
+    public long[] primitiveDifference() {
+        return ListUtils.differenceLongs(first, second);
+    }
+
+    @Benchmark
+    public long[] sortedDifference() {
+        return ListUtils.differenceSorted(sortedFirst, sortedSecond);
+    }
+}
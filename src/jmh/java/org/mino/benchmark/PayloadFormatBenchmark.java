@@ -0,0 +1,118 @@
+package org.mino.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import io.airlift.compress.zstd.ZstdOutputStream;
+import org.mino.json.ModelJsonModule;
+import org.mino.model.ApiResponse;
+import org.mino.model.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 列表接口响应的编码对比：JSON / CBOR / Smile 序列化耗时，以及 JSON 经 gzip / zstd 压缩后的耗时
+ * setUp 中打印各方式的负载大小：
+ * <pre>
+ * mvn -Pjmh test-compile exec:exec -Djmh.args="PayloadFormatBenchmark"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PayloadFormatBenchmark {
+
+    /** 响应中的用户数 */
+    @Param({"20", "1000"})
+    private int size;
+
+    private ObjectMapper json;
+
+    private ObjectMapper cbor;
+
+    private ObjectMapper smile;
+
+    private ApiResponse<List<User>> response;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        json = mapper(Jackson2ObjectMapperBuilder.json());
+        cbor = mapper(Jackson2ObjectMapperBuilder.json().factory(new CBORFactory()));
+        smile = mapper(Jackson2ObjectMapperBuilder.json().factory(new SmileFactory()));
+        LocalDateTime base = LocalDateTime.of(2024, 3, 1, 8, 0, 0, 123_000_000);
+        List<User> users = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            User user = new User((long) i + 1, "user" + i, "user" + i + "@example.com", "138" + (10_000_000 + i));
+            user.setCreateTime(base.plusSeconds(i * 37L));
+            user.setUpdateTime(base.plusMinutes(i));
+            user.setVersion(i % 5);
+            users.add(user);
+        }
+        response = ApiResponse.success("用户列表查询成功", users);
+        System.out.printf("%n[size=%d] json=%d cbor=%d smile=%d json+gzip=%d json+zstd=%d smile+gzip=%d bytes%n",
+                size, json().length, cbor().length, smile().length, jsonGzip().length, jsonZstd().length,
+                compress(smile(), false).length);
+    }
+
+    @Benchmark
+    public byte[] json() throws Exception {
+        return json.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public byte[] cbor() throws Exception {
+        return cbor.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public byte[] smile() throws Exception {
+        return smile.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public byte[] jsonGzip() throws Exception {
+        return compress(json(), false);
+    }
+
+    @Benchmark
+    public byte[] jsonZstd() throws Exception {
+        return compress(json(), true);
+    }
+
+    private static ObjectMapper mapper(Jackson2ObjectMapperBuilder builder) {
+        return builder.featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .modulesToInstall(new ModelJsonModule()).build();
+    }
+
+    private static byte[] compress(byte[] data, boolean zstd) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(data.length / 4 + 64);
+        try (OutputStream out = zstd ? new ZstdOutputStream(bytes) : new GZIPOutputStream(bytes)) {
+            out.write(data);
+        }
+        return bytes.toByteArray();
+    }
+}
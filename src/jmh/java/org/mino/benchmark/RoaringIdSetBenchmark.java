@@ -0,0 +1,115 @@
+package org.mino.benchmark;
+
+import org.mino.util.ListUtils;
+import org.mino.util.RoaringIdSet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 稠密用户ID集合运算：RoaringIdSet 与 ListUtils 的 long[] 有序归并版本对比
+ * 两个集合各自从 [1, range] 中按 density 随机抽取自增ID，模拟人群圈选：
+ * <pre>
+ * mvn -Pjmh test-compile exec:exec -Djmh.args="RoaringIdSetBenchmark -p range=50000000 -prof gc"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class RoaringIdSetBenchmark {
+
+    /** ID 值域 */
+    @Param({"1000000", "50000000"})
+    private int range;
+
+    /** 每个ID出现在集合中的概率 */
+    @Param({"0.05", "0.5", "0.95"})
+    private double density;
+
+    private long[] sortedFirst;
+
+    private long[] sortedSecond;
+
+    private RoaringIdSet first;
+
+    private RoaringIdSet second;
+
+    private byte[] serialized;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        sortedFirst = sample(random);
+        sortedSecond = sample(random);
+        first = RoaringIdSet.of(sortedFirst);
+        second = RoaringIdSet.of(sortedSecond);
+        serialized = first.serialize();
+    }
+
+    private long[] sample(Random random) {
+        long[] ids = new long[range];
+        int count = 0;
+        for (long id = 1; id <= range; id++) {
+            if (random.nextDouble() < density) {
+                ids[count++] = id;
+            }
+        }
+        return Arrays.copyOf(ids, count);
+    }
+
+    @Benchmark
+    public long[] sortedIntersection() {
+        return ListUtils.intersectionSorted(sortedFirst, sortedSecond);
+    }
+
+    @Benchmark
+    public RoaringIdSet roaringAnd() {
+        return first.and(second);
+    }
+
+    @Benchmark
+    public long[] sortedUnion() {
+        return ListUtils.unionSorted(sortedFirst, sortedSecond);
+    }
+
+    @Benchmark
+    public RoaringIdSet roaringOr() {
+        return first.or(second);
+    }
+
+    @Benchmark
+    public long[] sortedDifference() {
+        return ListUtils.differenceSorted(sortedFirst, sortedSecond);
+    }
+
+    @Benchmark
+    public RoaringIdSet roaringAndNot() {
+        return first.andNot(second);
+    }
+
+    @Benchmark
+    public long roaringCardinality() {
+        return first.cardinality();
+    }
+
+    @Benchmark
+    public RoaringIdSet roaringDeserialize() {
+        return RoaringIdSet.deserialize(serialized);
+    }
+}
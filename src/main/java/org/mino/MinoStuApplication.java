@@ -2,8 +2,12 @@ package org.mino;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@ConfigurationPropertiesScan("org.mino.config")
+@EnableScheduling
 public class MinoStuApplication {
     public static void main(String[] args) {
         SpringApplication.run(MinoStuApplication.class, args);
@@ -0,0 +1,279 @@
+package org.mino.cache;
+
+import jakarta.annotation.PreDestroy;
+import org.mino.config.UserLoaderProperties;
+import org.mino.datasource.ReadWriteRoutingDataSource;
+import org.mino.mapper.UserMapper;
+import org.mino.metrics.SqlBudget;
+import org.mino.model.User;
+import org.mino.util.ThreadFactories;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 用户按ID批量加载器（DataLoader模式）
+ * 没有批量查询在执行时立即分派，不等待固定窗口；查询执行期间到达的请求排队，合并为下一条 selectByIds 查询，
+ * 积压超过已有批次的容量时再开一个批次，同时执行的批次不超过 threads。
+ * 批量查询在专用线程上以独立的只读事务走主库执行（结果用于回填缓存），不加入任何调用方的事务和路由；
+ * 查询的语句数、连接数和耗时按等待者平均分摊，计入各自请求的 SQL 预算。
+ * 调用方处在写事务中时直接在调用线程上查询，保证读到本事务未提交的修改。
+ * 虚拟线程模式下每个批次在新的虚拟线程上执行，不再使用固定线程池
+ */
+@Component
+public class UserBatchLoader {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserBatchLoader.class);
+
+    private final UserMapper userMapper;
+    private final boolean enabled;
+    private final int threads;
+    private final int maxBatchSize;
+    private final long timeoutNanos;
+    private final TransactionTemplate transactionTemplate;
+    private final ExecutorService executor;
+
+    private final ConcurrentLinkedQueue<Request> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicInteger running = new AtomicInteger();
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder keys = new LongAdder();
+    private final LongAdder direct = new LongAdder();
+
+    public UserBatchLoader(UserLoaderProperties properties, UserMapper userMapper,
+                           PlatformTransactionManager transactionManager) {
+        this.userMapper = userMapper;
+        this.enabled = properties.isEnabled();
+        this.threads = Math.max(1, properties.getThreads());
+        this.maxBatchSize = Math.max(1, properties.getMaxBatchSize());
+        this.timeoutNanos = properties.getTimeout().toNanos();
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.executor = enabled ? createExecutor(properties.isVirtualThreads()) : null;
+        logger.info("UserBatchLoader initialized, enabled: {}, threads: {}, maxBatchSize: {}, virtualThreads: {}",
+                enabled, threads, maxBatchSize, properties.isVirtualThreads());
+    }
+
+    /**
+     * 按ID加载用户，不存在时返回null
+     */
+    public User load(Long id) {
+        if (!enabled || inWriteTransaction()) {
+            direct.increment();
+            return ReadWriteRoutingDataSource.readFromPrimary(() -> userMapper.selectById(id));
+        }
+        requests.increment();
+        Request request = new Request(id);
+        queue.offer(request);
+        queued.incrementAndGet();
+        startBatch();
+        User user = request.await(timeoutNanos);
+        request.charge();
+        return user;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * 加载器统计信息
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("requestCount", requests.sum());
+        stats.put("batchCount", batches.sum());
+        stats.put("keyCount", keys.sum());
+        stats.put("directCount", direct.sum());
+        stats.put("queued", queued.get());
+        stats.put("running", running.get());
+        long batchCount = batches.sum();
+        stats.put("averageBatchSize", batchCount == 0 ? 0.0 : (double) keys.sum() / batchCount);
+        return stats;
+    }
+
+    /**
+     * 平台线程使用固定线程池；虚拟线程不池化，每个批次新建一个线程，同时执行的批次数由 running 限制
+     */
+    private ExecutorService createExecutor(boolean virtual) {
+        ThreadFactory threadFactory = ThreadFactories.create("user-batch-loader-", virtual);
+        if (!virtual) {
+            return Executors.newFixedThreadPool(threads, threadFactory);
+        }
+        return new ThreadPoolExecutor(0, Integer.MAX_VALUE, 0L, TimeUnit.NANOSECONDS,
+                new SynchronousQueue<>(), threadFactory);
+    }
+
+    private static boolean inWriteTransaction() {
+        return TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+    }
+
+    /**
+     * 没有批次在执行，或者积压超过执行中批次的容量时，再开一个批次
+     */
+    private void startBatch() {
+        while (true) {
+            int current = running.get();
+            if (current >= threads || (current > 0 && queued.get() <= current * maxBatchSize)) {
+                return;
+            }
+            if (running.compareAndSet(current, current + 1)) {
+                try {
+                    executor.execute(this::drain);
+                } catch (RejectedExecutionException e) {
+                    // 关闭期间仍有请求时在调用线程上执行
+                    drain();
+                }
+                return;
+            }
+        }
+    }
+
+    /**
+     * 连续执行批次直到队列为空
+     */
+    private void drain() {
+        try {
+            while (dispatch()) {
+                // 执行期间排队的请求合并为下一批
+            }
+        } finally {
+            running.decrementAndGet();
+        }
+        // 退出前入队的请求可能看到本批次仍在执行而没有开新批次
+        if (!queue.isEmpty()) {
+            startBatch();
+        }
+    }
+
+    /**
+     * 取出一批请求执行查询
+     * @return 是否取到了请求
+     */
+    private boolean dispatch() {
+        List<Request> batch = new ArrayList<>();
+        Request request;
+        while (batch.size() < maxBatchSize && (request = queue.poll()) != null) {
+            batch.add(request);
+        }
+        if (batch.isEmpty()) {
+            return false;
+        }
+        queued.addAndGet(-batch.size());
+
+        Set<Long> ids = new LinkedHashSet<>();
+        for (Request r : batch) {
+            ids.add(r.id);
+        }
+        batches.increment();
+        keys.add(ids.size());
+        Map<Long, User> users = new HashMap<>();
+        RuntimeException failure = null;
+        SqlBudget.Usage usage = SqlBudget.begin();
+        try {
+            List<User> found = ReadWriteRoutingDataSource.readFromPrimary(
+                    () -> transactionTemplate.execute(status -> userMapper.selectByIds(ids)));
+            if (found != null) {
+                for (User user : found) {
+                    users.put(user.getId(), user);
+                }
+            }
+            logger.debug("UserBatchLoader loaded {} ids for {} requests", ids.size(), batch.size());
+        } catch (RuntimeException e) {
+            logger.error("Error loading users by ids: {}", ids, e);
+            failure = e;
+        } finally {
+            usage.close();
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            Request r = batch.get(i);
+            r.share(usage, i, batch.size());
+            if (failure == null) {
+                r.future.complete(users.get(r.id));
+            } else {
+                r.future.completeExceptionally(failure);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 排队中的查询请求
+     */
+    private static final class Request {
+        private final Long id;
+        private final CompletableFuture<User> future = new CompletableFuture<>();
+        private int statements;
+        private int connections;
+        private long dbNanos;
+
+        private Request(Long id) {
+            this.id = id;
+        }
+
+        /**
+         * 分摊批量查询的开销：整数部分平均分配，余数依次分给前几个请求，各份之和等于实际开销
+         */
+        private void share(SqlBudget.Usage usage, int index, int size) {
+            statements = usage.getStatements() / size + (index < usage.getStatements() % size ? 1 : 0);
+            connections = usage.getConnections() / size + (index < usage.getConnections() % size ? 1 : 0);
+            dbNanos = usage.getDbNanos() / size;
+        }
+
+        /**
+         * 把分摊的开销计入当前线程的 SQL 预算，结果完成前写入的字段对等待线程可见
+         */
+        private void charge() {
+            SqlBudget.recordShare(statements, connections, dbNanos);
+        }
+
+        private User await(long timeoutNanos) {
+            try {
+                return future.get(timeoutNanos, TimeUnit.NANOSECONDS);
+            } catch (ExecutionException e) {
+                charge();
+                Throwable cause = e.getCause();
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+                throw new RuntimeException(cause);
+            } catch (TimeoutException e) {
+                throw new RuntimeException("批量查询用户超时");
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("批量查询用户被中断");
+            }
+        }
+    }
+}
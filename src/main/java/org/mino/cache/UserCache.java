@@ -0,0 +1,241 @@
+package org.mino.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.mino.config.UserCacheProperties;
+import org.mino.model.User;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+
+/**
+ * 用户本地缓存
+ * 按ID缓存用户，用户名只缓存到ID的映射，命中后再校验用户名，避免改名后读到旧数据。
+ * 失效时递增该ID所在分段的代数和全局代数；加载前记下代数，回填时在该ID的 compute 内校验代数未变才写入，
+ * 加载期间发生的失效（包括事务提交后的失效）会让这次回填作废，不会把旧数据写回缓存
+ */
+@Component
+public class UserCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserCache.class);
+
+    /**
+     * 代数分段数，不同ID落在同一分段时只会多放弃一次回填
+     */
+    private static final int GENERATION_STRIPES = 1024;
+
+    private final boolean enabled;
+    private final Cache<Long, User> usersById;
+    private final Cache<String, Long> idsByUsername;
+    private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+    private final AtomicLong generation = new AtomicLong();
+    private final LongAdder usernameHits = new LongAdder();
+    private final LongAdder usernameMisses = new LongAdder();
+
+    public UserCache(UserCacheProperties properties) {
+        this.enabled = properties.isEnabled();
+        this.usersById = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(properties.getExpireAfterWrite())
+                .recordStats()
+                .build();
+        this.idsByUsername = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(properties.getExpireAfterWrite())
+                .build();
+        logger.info("UserCache initialized, enabled: {}, maximumSize: {}, expireAfterWrite: {}",
+                enabled, properties.getMaximumSize(), properties.getExpireAfterWrite());
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 按ID读取用户，未命中时通过loader加载并回填
+     */
+    public User getById(Long id, Function<Long, User> loader) {
+        if (!enabled) {
+            return loader.apply(id);
+        }
+        User cached = usersById.getIfPresent(id);
+        if (cached != null) {
+            return cached;
+        }
+        // 不使用 Cache.get(key, loader)：加载期间会锁住哈希桶，阻塞同桶其他ID的并发加载；
+        // 改为加载前记下代数，回填时校验
+        long stamp = generations.get(stripe(id));
+        User user = loader.apply(id);
+        if (user != null && id.equals(user.getId())) {
+            putIfCurrent(user, () -> generations.get(stripe(id)) == stamp);
+        }
+        return user;
+    }
+
+    /**
+     * 按用户名读取用户，未命中时通过loader加载并回填
+     */
+    public User getByUsername(String username, Function<String, User> loader) {
+        if (!enabled) {
+            return loader.apply(username);
+        }
+        Long id = idsByUsername.getIfPresent(username);
+        if (id != null) {
+            // asMap().get 不计入ID缓存的命中统计
+            User cached = usersById.asMap().get(id);
+            if (cached != null && username.equals(cached.getUsername())) {
+                usernameHits.increment();
+                return cached;
+            }
+        }
+        usernameMisses.increment();
+        // 加载前不知道ID，只能记下全局代数：期间任何用户失效都会放弃这次回填
+        long stamp = generation.get();
+        User user = loader.apply(username);
+        put(user, stamp);
+        return user;
+    }
+
+    /**
+     * 只读取已缓存的用户，不加载，不计入命中统计
+     */
+    public User peek(Long id) {
+        if (!enabled || id == null) {
+            return null;
+        }
+        return usersById.asMap().get(id);
+    }
+
+    /**
+     * 按用户名只读取已缓存的用户，不加载，不计入命中统计
+     */
+    public User peekByUsername(String username) {
+        if (!enabled || username == null) {
+            return null;
+        }
+        Long id = idsByUsername.getIfPresent(username);
+        User cached = id == null ? null : usersById.asMap().get(id);
+        return cached != null && username.equals(cached.getUsername()) ? cached : null;
+    }
+
+    /**
+     * 批量读取已缓存的用户
+     */
+    public Map<Long, User> getAllPresent(Collection<Long> ids) {
+        if (!enabled) {
+            return Collections.emptyMap();
+        }
+        return usersById.getAllPresent(ids);
+    }
+
+    /**
+     * 当前全局代数，任何用户失效都会使其递增；在加载前取得，传给 {@link #put(User, long)}
+     */
+    public long generation() {
+        return generation.get();
+    }
+
+    /**
+     * 写入加载结果，取得 stamp 之后有过失效时放弃写入
+     */
+    public void put(User user, long stamp) {
+        if (!enabled || user == null || user.getId() == null) {
+            return;
+        }
+        putIfCurrent(user, () -> generation.get() == stamp);
+    }
+
+    /**
+     * 在该ID的 compute 内校验代数，与 {@link #invalidate(Long)} 互斥
+     */
+    private void putIfCurrent(User user, BooleanSupplier current) {
+        boolean[] written = new boolean[1];
+        usersById.asMap().compute(user.getId(), (key, existing) -> {
+            if (!current.getAsBoolean()) {
+                return existing;
+            }
+            written[0] = true;
+            return user;
+        });
+        if (written[0] && user.getUsername() != null) {
+            idsByUsername.put(user.getUsername(), user.getId());
+        }
+    }
+
+    /**
+     * 失效指定用户
+     * 在事务中调用时，提交后会再失效一次，防止提交前被并发读回填旧数据
+     */
+    public void evict(Long id) {
+        if (!enabled || id == null) {
+            return;
+        }
+        invalidate(id);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidate(id);
+                }
+            });
+        }
+        logger.debug("User cache evicted for ID: {}", id);
+    }
+
+    /**
+     * 在该ID的 compute 内递增代数并移除条目，之后完成的加载不会再回填
+     */
+    private void invalidate(Long id) {
+        usersById.asMap().compute(id, (key, existing) -> {
+            generations.incrementAndGet(stripe(key));
+            generation.incrementAndGet();
+            return null;
+        });
+    }
+
+    private static int stripe(Long id) {
+        return Long.hashCode(id * 0x9E3779B97F4A7C15L) & (GENERATION_STRIPES - 1);
+    }
+
+    /**
+     * 清空缓存
+     */
+    public void clear() {
+        for (int i = 0; i < GENERATION_STRIPES; i++) {
+            generations.incrementAndGet(i);
+        }
+        generation.incrementAndGet();
+        usersById.invalidateAll();
+        idsByUsername.invalidateAll();
+    }
+
+    /**
+     * 缓存统计信息
+     */
+    public Map<String, Object> stats() {
+        CacheStats byId = usersById.stats();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("size", usersById.estimatedSize());
+        stats.put("hitCount", byId.hitCount());
+        stats.put("missCount", byId.missCount());
+        stats.put("hitRate", byId.hitRate());
+        stats.put("evictionCount", byId.evictionCount());
+        stats.put("usernameHitCount", usernameHits.sum());
+        stats.put("usernameMissCount", usernameMisses.sum());
+        return stats;
+    }
+}
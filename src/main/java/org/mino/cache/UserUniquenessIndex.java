@@ -0,0 +1,176 @@
+package org.mino.cache;
+
+import org.mino.config.UserIndexProperties;
+import org.mino.mapper.UserMapper;
+import org.mino.model.User;
+import org.mino.util.BloomFilter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 用户名/邮箱唯一性索引
+ * 基于布隆过滤器，只用于写入前的预检查："不存在"时跳过预检查查询直接写库，由数据库唯一约束判定冲突，
+ * "可能存在"时再回源数据库。过滤器只在本进程内加载和登记，多实例部署时看不到其他实例的写入，
+ * 所以默认情况下"不存在"不是最终结论，对外的存在性查询不能以它为准；
+ * 单实例部署且用户表只由本服务写入时可开启 authoritative，加载完成后"不存在"即为结论，存在性查询不再回源。
+ * 过滤器只增不删，删除或改名后残留的旧值只会多一次数据库查询，不会影响正确性
+ */
+@Component
+public class UserUniquenessIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserUniquenessIndex.class);
+
+    private final UserMapper userMapper;
+    private final UserIndexProperties properties;
+    private final BloomFilter usernames;
+    private final BloomFilter emails;
+    private final AtomicLong loadedRows = new AtomicLong();
+    private final LongAdder definiteMisses = new LongAdder();
+    private final LongAdder fallbacks = new LongAdder();
+    private volatile boolean ready;
+
+    public UserUniquenessIndex(UserIndexProperties properties, UserMapper userMapper) {
+        this.properties = properties;
+        this.userMapper = userMapper;
+        this.usernames = BloomFilter.create(properties.getExpectedInsertions(), properties.getFpp());
+        this.emails = BloomFilter.create(properties.getExpectedInsertions(), properties.getFpp());
+    }
+
+    /**
+     * 应用启动后在后台线程加载，加载完成前所有判断都回源数据库
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadAsync() {
+        if (!properties.isEnabled()) {
+            logger.info("UserUniquenessIndex disabled");
+            return;
+        }
+        // 启动时执行一次的全表流式读取，虚拟线程模式下也保留平台线程：整个过程都在驱动的 synchronized 读取中，会钉住载体线程
+        Thread loader = new Thread(this::load, "user-index-loader");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    /**
+     * 从用户表全量加载用户名和邮箱
+     */
+    public void load() {
+        long start = System.currentTimeMillis();
+        try {
+            userMapper.selectAllUniqueKeys(context -> {
+                add(context.getResultObject());
+                loadedRows.incrementAndGet();
+            });
+            ready = true;
+            logger.info("UserUniquenessIndex loaded {} users in {}ms", loadedRows.get(), System.currentTimeMillis() - start);
+            if (loadedRows.get() > properties.getExpectedInsertions()) {
+                logger.warn("User count {} exceeds expected insertions {}, false positive rate will rise",
+                        loadedRows.get(), properties.getExpectedInsertions());
+            }
+        } catch (Exception e) {
+            logger.error("Error loading UserUniquenessIndex, falling back to database checks", e);
+        }
+    }
+
+    /**
+     * 用户名是否可能存在；返回false只表示本实例没有见过，写入时仍由唯一约束兜底
+     */
+    public boolean mightContainUsername(String username) {
+        return mightContain(usernames, username);
+    }
+
+    /**
+     * 邮箱是否可能存在
+     */
+    public boolean mightContainEmail(String email) {
+        return mightContain(emails, email);
+    }
+
+    /**
+     * 登记用户的用户名和邮箱，需在写库之前调用，保证过滤器始终覆盖数据库
+     */
+    public void add(User user) {
+        if (user == null) {
+            return;
+        }
+        String username = normalize(user.getUsername());
+        if (username != null) {
+            usernames.put(username);
+        }
+        String email = normalize(user.getEmail());
+        if (email != null) {
+            emails.put(email);
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * 索引判定"不存在"是否可以作为最终结论：开启 authoritative 且加载完成
+     */
+    public boolean isAuthoritative() {
+        return properties.isEnabled() && properties.isAuthoritative() && ready;
+    }
+
+    /**
+     * 索引统计信息
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", properties.isEnabled());
+        stats.put("ready", ready);
+        stats.put("authoritative", isAuthoritative());
+        stats.put("loadedRows", loadedRows.get());
+        stats.put("definiteMissCount", definiteMisses.sum());
+        stats.put("fallbackCount", fallbacks.sum());
+        stats.put("usernameFillRatio", usernames.fillRatio());
+        stats.put("emailFillRatio", emails.fillRatio());
+        return stats;
+    }
+
+    private boolean mightContain(BloomFilter filter, String value) {
+        if (!properties.isEnabled() || !ready) {
+            fallbacks.increment();
+            return true;
+        }
+        String key = normalize(value);
+        if (key == null || filter.mightContain(key)) {
+            fallbacks.increment();
+            return true;
+        }
+        definiteMisses.increment();
+        return false;
+    }
+
+    /**
+     * 按 utf8mb4_unicode_ci 的比较规则归一化：忽略大小写和尾部空格
+     * 含非可打印ASCII字符时返回null，此时无法保证与排序规则一致，一律回源数据库
+     */
+    static String normalize(String value) {
+        if (value == null) {
+            return null;
+        }
+        int end = value.length();
+        while (end > 0 && value.charAt(end - 1) == ' ') {
+            end--;
+        }
+        for (int i = 0; i < end; i++) {
+            char c = value.charAt(i);
+            if (c < 0x20 || c > 0x7e) {
+                return null;
+            }
+        }
+        return value.substring(0, end).toLowerCase(Locale.ROOT);
+    }
+}
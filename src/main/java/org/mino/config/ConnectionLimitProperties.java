@@ -0,0 +1,53 @@
+package org.mino.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * 数据库连接获取限流配置
+ * 虚拟线程模式下并发请求数不再受 Tomcat 线程数限制，需要在连接池之前排队
+ */
+@ConfigurationProperties(prefix = "app.datasource.connection-limit")
+public class ConnectionLimitProperties {
+
+    /**
+     * 是否启用连接获取限流
+     */
+    private boolean enabled = false;
+
+    /**
+     * 每个连接池同时持有连接的最大数量，0 表示取该连接池的 max-active（启用读写分离时主库和各从库分别限流）
+     */
+    private int permits = 0;
+
+    /**
+     * 排队等待许可的超时时间
+     */
+    private Duration acquireTimeout = Duration.ofSeconds(60);
+
+    // Getter和Setter方法
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getPermits() {
+        return permits;
+    }
+
+    public void setPermits(int permits) {
+        this.permits = permits;
+    }
+
+    public Duration getAcquireTimeout() {
+        return acquireTimeout;
+    }
+
+    public void setAcquireTimeout(Duration acquireTimeout) {
+        this.acquireTimeout = acquireTimeout;
+    }
+}
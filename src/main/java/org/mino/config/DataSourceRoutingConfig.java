@@ -0,0 +1,85 @@
+package org.mino.config;
+
+import com.alibaba.druid.pool.DruidDataSource;
+import com.alibaba.druid.spring.boot.autoconfigure.DruidDataSourceBuilder;
+import org.mino.datasource.ReadWriteRoutingDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 读写分离数据源配置
+ * 主库沿用 spring.datasource 配置，从库复制主库连接池参数，只替换连接信息
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.datasource.routing", name = "enabled", havingValue = "true")
+public class DataSourceRoutingConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(DataSourceRoutingConfig.class);
+
+    /**
+     * 主库连接池
+     */
+    @Bean(initMethod = "init")
+    @ConfigurationProperties("spring.datasource.druid")
+    public DruidDataSource primaryDataSource() {
+        return DruidDataSourceBuilder.create().build();
+    }
+
+    /**
+     * 路由数据源，持有全部从库连接池，按 health-check-interval 定期探活。
+     * 连接获取计时和限流按连接池分别包装，主库的许可数不会借给从库，反之亦然
+     */
+    @Bean
+    public ReadWriteRoutingDataSource routingDataSource(DruidDataSource primaryDataSource,
+                                                       DataSourceRoutingProperties properties,
+                                                       ConnectionLimitProperties connectionLimitProperties) {
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        List<DataSourceRoutingProperties.Replica> configs = properties.getReplicas();
+        for (int i = 0; i < configs.size(); i++) {
+            String name = "replica-" + i;
+            DruidDataSource replica = createReplica(primaryDataSource, configs.get(i), name, properties.getReplicaMaxWait());
+            replicas.put(name, DataSourceWrapperConfig.wrapPool(name, replica, connectionLimitProperties));
+        }
+        DataSource primary = DataSourceWrapperConfig.wrapPool("primary", primaryDataSource,
+                connectionLimitProperties);
+        return new ReadWriteRoutingDataSource(primary, replicas, properties.getReadAfterWriteWindow());
+    }
+
+    /**
+     * 对外暴露的数据源，延迟到第一条语句执行时才获取物理连接，此时事务只读标记已就绪
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(ReadWriteRoutingDataSource routingDataSource) {
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+
+    private DruidDataSource createReplica(DruidDataSource primary, DataSourceRoutingProperties.Replica config,
+                                          String name, long maxWait) {
+        DruidDataSource replica = primary.cloneDruidDataSource();
+        replica.setName(name);
+        replica.setUrl(config.getUrl());
+        replica.setUsername(config.getUsername());
+        replica.setPassword(config.getPassword());
+        replica.setMaxWait(maxWait);
+        try {
+            replica.init();
+        } catch (SQLException e) {
+            // 从库不可用不影响启动，读请求先回退主库，由健康检查恢复
+            logger.warn("Error initializing {}, reads will fall back to primary until it recovers", name, e);
+        }
+        return replica;
+    }
+}
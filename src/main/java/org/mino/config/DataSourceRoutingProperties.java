@@ -0,0 +1,112 @@
+package org.mino.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 读写分离数据源配置
+ */
+@ConfigurationProperties(prefix = "app.datasource.routing")
+public class DataSourceRoutingProperties {
+
+    /**
+     * 是否启用读写分离
+     */
+    private boolean enabled = false;
+
+    /**
+     * 从库列表，连接池参数沿用主库 spring.datasource.druid 配置
+     */
+    private List<Replica> replicas = new ArrayList<>();
+
+    /**
+     * 从库获取连接的最长等待时间（毫秒），超时后回退主库
+     */
+    private long replicaMaxWait = 1000;
+
+    /**
+     * 从库健康检查间隔（毫秒）
+     */
+    private long healthCheckInterval = 5000;
+
+    /**
+     * 写事务提交后同一线程的读请求继续走主库的时间（毫秒），0表示不启用
+     */
+    private long readAfterWriteWindow = 1000;
+
+    // Getter和Setter方法
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public List<Replica> getReplicas() {
+        return replicas;
+    }
+
+    public void setReplicas(List<Replica> replicas) {
+        this.replicas = replicas;
+    }
+
+    public long getReplicaMaxWait() {
+        return replicaMaxWait;
+    }
+
+    public void setReplicaMaxWait(long replicaMaxWait) {
+        this.replicaMaxWait = replicaMaxWait;
+    }
+
+    public long getHealthCheckInterval() {
+        return healthCheckInterval;
+    }
+
+    public void setHealthCheckInterval(long healthCheckInterval) {
+        this.healthCheckInterval = healthCheckInterval;
+    }
+
+    public long getReadAfterWriteWindow() {
+        return readAfterWriteWindow;
+    }
+
+    public void setReadAfterWriteWindow(long readAfterWriteWindow) {
+        this.readAfterWriteWindow = readAfterWriteWindow;
+    }
+
+    /**
+     * 从库连接信息
+     */
+    public static class Replica {
+        private String url;
+        private String username;
+        private String password;
+
+        public String getUrl() {
+            return url;
+        }
+
+        public void setUrl(String url) {
+            this.url = url;
+        }
+
+        public String getUsername() {
+            return username;
+        }
+
+        public void setUsername(String username) {
+            this.username = username;
+        }
+
+        public String getPassword() {
+            return password;
+        }
+
+        public void setPassword(String password) {
+            this.password = password;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package org.mino.config;
+
+import com.alibaba.druid.pool.DruidDataSource;
+import org.mino.datasource.AcquireTimingDataSource;
+import org.mino.datasource.ConnectionLimitingDataSource;
+import org.mino.datasource.ReadWriteRoutingDataSource;
+import org.mino.datasource.SqlBudgetDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+
+/**
+ * 业务数据源包装配置
+ * 所有对 dataSource 的包装都在这里按固定顺序完成，由外到内：
+ * SqlBudgetDataSource（连接计数）→ AcquireTimingDataSource（连接获取计时）→
+ * ConnectionLimitingDataSource（连接获取限流）→ 连接池。
+ * 计时和限流按连接池分别包装，限流许可数取各自的 max-active：启用读写分离时由 {@link DataSourceRoutingConfig}
+ * 在路由之前用 {@link #wrapPool} 包装主库和各从库，否则包装 dataSource 本身。
+ * 计时包在真正借出物理连接的位置，延迟获取连接时等待时间也能计入触发借出的语句。
+ * 包装类都继承 DelegatingDataSource，连接池和路由数据源可以通过 {@link DataSource#unwrap} 取到
+ */
+@Configuration
+public class DataSourceWrapperConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(DataSourceWrapperConfig.class);
+
+    private static final String DATA_SOURCE_BEAN_NAME = "dataSource";
+
+    @Bean
+    public static BeanPostProcessor dataSourceWrapperPostProcessor(
+            ObjectProvider<ConnectionLimitProperties> connectionLimitProperties,
+            ObjectProvider<SqlBudgetProperties> sqlBudgetProperties) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!DATA_SOURCE_BEAN_NAME.equals(beanName) || !(bean instanceof DataSource dataSource)) {
+                    return bean;
+                }
+                DataSource wrapped = dataSource;
+                if (!isRouting(dataSource)) {
+                    wrapped = wrapPool(DATA_SOURCE_BEAN_NAME, dataSource, connectionLimitProperties.getObject());
+                }
+                if (sqlBudgetProperties.getObject().isEnabled()) {
+                    wrapped = new SqlBudgetDataSource(wrapped);
+                }
+                return wrapped;
+            }
+        };
+    }
+
+    /**
+     * 包装单个连接池：启用限流时先包一层限流，许可数未配置时取该连接池的 max-active；外层始终包连接获取计时
+     */
+    public static DataSource wrapPool(String name, DataSource pool, ConnectionLimitProperties limit) {
+        DataSource wrapped = pool;
+        if (limit.isEnabled()) {
+            int permits = limit.getPermits() > 0 ? limit.getPermits() : poolSize(pool);
+            logger.info("Connection limit enabled for {}, permits: {}, acquireTimeout: {}",
+                    name, permits, limit.getAcquireTimeout());
+            wrapped = new ConnectionLimitingDataSource(pool, permits, limit.getAcquireTimeout());
+        }
+        return new AcquireTimingDataSource(wrapped);
+    }
+
+    private static boolean isRouting(DataSource dataSource) {
+        try {
+            return dataSource.isWrapperFor(ReadWriteRoutingDataSource.class);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    /**
+     * 连接池的 max-active
+     */
+    static int poolSize(DataSource pool) {
+        int size = 0;
+        try {
+            if (pool.isWrapperFor(DruidDataSource.class)) {
+                size = pool.unwrap(DruidDataSource.class).getMaxActive();
+            }
+        } catch (SQLException e) {
+            logger.warn("Error resolving connection pool size: {}", e.getMessage());
+        }
+        if (size <= 0) {
+            throw new IllegalStateException("无法确定连接池大小，请配置 app.datasource.connection-limit.permits");
+        }
+        return size;
+    }
+}
@@ -0,0 +1,83 @@
+package org.mino.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * 请求日志拦截器配置
+ */
+@ConfigurationProperties(prefix = "app.log.interceptor")
+public class LogInterceptorProperties {
+
+    /**
+     * 是否记录 /api/** 请求
+     */
+    private boolean enabled = true;
+
+    /**
+     * 每 N 个请求记录 1 次查询参数，0 表示不记录
+     */
+    private int paramSampleRate = 10;
+
+    /**
+     * 查询参数最大记录长度，超出部分截断
+     */
+    private int maxParamLength = 256;
+
+    /**
+     * 是否从 X-Forwarded-For 取客户端IP，只在部署于反向代理之后时开启；
+     * 该请求头可由客户端任意填写，直连部署时开启会让调用方伪造记录的IP
+     */
+    private boolean trustForwardedFor = false;
+
+    /**
+     * 可信代理地址（正则），默认与 Tomcat RemoteIpValve 的内网地址一致。
+     * 只有直连地址是可信代理时才读取 X-Forwarded-For，并从右往左跳过可信代理取第一个地址
+     */
+    private String trustedProxies = "10\\.\\d{1,3}\\.\\d{1,3}\\.\\d{1,3}|"
+            + "192\\.168\\.\\d{1,3}\\.\\d{1,3}|"
+            + "169\\.254\\.\\d{1,3}\\.\\d{1,3}|"
+            + "127\\.\\d{1,3}\\.\\d{1,3}\\.\\d{1,3}|"
+            + "172\\.(1[6-9]|2[0-9]|3[0-1])\\.\\d{1,3}\\.\\d{1,3}|"
+            + "0:0:0:0:0:0:0:1|::1";
+
+    // Getter和Setter方法
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getParamSampleRate() {
+        return paramSampleRate;
+    }
+
+    public void setParamSampleRate(int paramSampleRate) {
+        this.paramSampleRate = paramSampleRate;
+    }
+
+    public int getMaxParamLength() {
+        return maxParamLength;
+    }
+
+    public void setMaxParamLength(int maxParamLength) {
+        this.maxParamLength = maxParamLength;
+    }
+
+    public boolean isTrustForwardedFor() {
+        return trustForwardedFor;
+    }
+
+    public void setTrustForwardedFor(boolean trustForwardedFor) {
+        this.trustForwardedFor = trustForwardedFor;
+    }
+
+    public String getTrustedProxies() {
+        return trustedProxies;
+    }
+
+    public void setTrustedProxies(String trustedProxies) {
+        this.trustedProxies = trustedProxies;
+    }
+}
@@ -0,0 +1,76 @@
+package org.mino.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * 接口延迟指标配置
+ */
+@ConfigurationProperties(prefix = "app.metrics")
+public class MetricsProperties {
+
+    /**
+     * 是否记录 /api/** 各接口的延迟直方图
+     */
+    private boolean enabled = true;
+
+    /**
+     * 滚动窗口每个时间片的长度（毫秒）
+     */
+    private long slotInterval = 10000;
+
+    /**
+     * 滚动窗口的时间片数量，窗口长度 = slotInterval * slots
+     */
+    private int slots = 6;
+
+    /**
+     * 慢SQL阈值（毫秒），达到阈值的语句连同绑定参数保留样本
+     */
+    private long slowStatementThreshold = 200;
+
+    /**
+     * 保留的慢SQL样本数量，0 表示不采集
+     */
+    private int slowStatementSamples = 50;
+
+    // Getter和Setter方法
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public long getSlotInterval() {
+        return slotInterval;
+    }
+
+    public void setSlotInterval(long slotInterval) {
+        this.slotInterval = slotInterval;
+    }
+
+    public int getSlots() {
+        return slots;
+    }
+
+    public void setSlots(int slots) {
+        this.slots = slots;
+    }
+
+    public long getSlowStatementThreshold() {
+        return slowStatementThreshold;
+    }
+
+    public void setSlowStatementThreshold(long slowStatementThreshold) {
+        this.slowStatementThreshold = slowStatementThreshold;
+    }
+
+    public int getSlowStatementSamples() {
+        return slowStatementSamples;
+    }
+
+    public void setSlowStatementSamples(int slowStatementSamples) {
+        this.slowStatementSamples = slowStatementSamples;
+    }
+}
@@ -0,0 +1,66 @@
+package org.mino.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * 操作日志本地落盘（数据库不可用时）配置
+ */
+@ConfigurationProperties(prefix = "app.log.journal")
+public class OperationLogJournalProperties {
+
+    /**
+     * 是否在写库失败时落盘
+     */
+    private boolean enabled = true;
+
+    /**
+     * 段文件目录
+     */
+    private String dir = "logs/journal";
+
+    /**
+     * 单个段文件大小，写满后切换新段
+     */
+    private DataSize segmentSize = DataSize.ofMegabytes(64);
+
+    /**
+     * 写库失败后重试回放的间隔
+     */
+    private Duration retryInterval = Duration.ofSeconds(5);
+
+    // Getter和Setter方法
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public String getDir() {
+        return dir;
+    }
+
+    public void setDir(String dir) {
+        this.dir = dir;
+    }
+
+    public DataSize getSegmentSize() {
+        return segmentSize;
+    }
+
+    public void setSegmentSize(DataSize segmentSize) {
+        this.segmentSize = segmentSize;
+    }
+
+    public Duration getRetryInterval() {
+        return retryInterval;
+    }
+
+    public void setRetryInterval(Duration retryInterval) {
+        this.retryInterval = retryInterval;
+    }
+}
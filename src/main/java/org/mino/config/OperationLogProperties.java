@@ -0,0 +1,129 @@
+package org.mino.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * 操作日志异步写入配置
+ */
+@ConfigurationProperties(prefix = "app.log.operation")
+public class OperationLogProperties {
+
+    /**
+     * 是否写入数据库，关闭时只输出日志
+     */
+    private boolean enabled = true;
+
+    /**
+     * 队列容量，向上取整为2的幂
+     */
+    private int capacity = 8192;
+
+    /**
+     * 单次 INSERT 的最大行数
+     */
+    private int batchSize = 500;
+
+    /**
+     * 队列未攒满一批时的最长等待时间
+     */
+    private Duration flushInterval = Duration.ofMillis(200);
+
+    /**
+     * 队列满时的处理策略
+     */
+    private OverflowPolicy overflowPolicy = OverflowPolicy.DROP_OLDEST;
+
+    /**
+     * BLOCK 策略下调用方的最长等待时间，超时后丢弃
+     */
+    private Duration blockTimeout = Duration.ofMillis(100);
+
+    /**
+     * SAMPLE 策略下开始采样的队列水位（0~1）
+     */
+    private double sampleThreshold = 0.75;
+
+    /**
+     * SAMPLE 策略下超过水位后每 N 条保留 1 条
+     */
+    private int sampleRate = 10;
+
+    /**
+     * 队列溢出策略
+     */
+    public enum OverflowPolicy {
+        /** 调用方等待队列空位，超过 blockTimeout 后丢弃 */
+        BLOCK,
+        /** 丢弃最旧的一条，保留最新的日志 */
+        DROP_OLDEST,
+        /** 超过水位后按比例采样，队满时丢弃新日志 */
+        SAMPLE
+    }
+
+    // Getter和Setter方法
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public void setCapacity(int capacity) {
+        this.capacity = capacity;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public Duration getFlushInterval() {
+        return flushInterval;
+    }
+
+    public void setFlushInterval(Duration flushInterval) {
+        this.flushInterval = flushInterval;
+    }
+
+    public OverflowPolicy getOverflowPolicy() {
+        return overflowPolicy;
+    }
+
+    public void setOverflowPolicy(OverflowPolicy overflowPolicy) {
+        this.overflowPolicy = overflowPolicy;
+    }
+
+    public Duration getBlockTimeout() {
+        return blockTimeout;
+    }
+
+    public void setBlockTimeout(Duration blockTimeout) {
+        this.blockTimeout = blockTimeout;
+    }
+
+    public double getSampleThreshold() {
+        return sampleThreshold;
+    }
+
+    public void setSampleThreshold(double sampleThreshold) {
+        this.sampleThreshold = sampleThreshold;
+    }
+
+    public int getSampleRate() {
+        return sampleRate;
+    }
+
+    public void setSampleRate(int sampleRate) {
+        this.sampleRate = sampleRate;
+    }
+}
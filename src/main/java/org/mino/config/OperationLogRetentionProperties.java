@@ -0,0 +1,117 @@
+package org.mino.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * 操作日志保留（过期清理）配置
+ */
+@ConfigurationProperties(prefix = "app.log.retention")
+public class OperationLogRetentionProperties {
+
+    /**
+     * 是否启用定时清理
+     */
+    private boolean enabled = true;
+
+    /**
+     * 日志保留天数
+     */
+    private int days = 30;
+
+    /**
+     * 定时清理的 cron 表达式
+     */
+    private String cron = "0 30 3 * * *";
+
+    /**
+     * 表已按天分区时提前创建的分区天数
+     */
+    private int premakeDays = 3;
+
+    /**
+     * 未分区时每次 DELETE 的最大行数
+     */
+    private int chunkSize = 5000;
+
+    /**
+     * 两次 DELETE 之间的停顿，给复制和其他事务让出资源
+     */
+    private Duration pause = Duration.ofMillis(100);
+
+    /**
+     * 单次清理的最长执行时间，剩余数据留到下一次
+     */
+    private Duration maxDuration = Duration.ofMinutes(30);
+
+    /**
+     * 手动触发的后台清理是否在虚拟线程上执行（需 Java 21），默认跟随 spring.threads.virtual.enabled
+     */
+    private boolean virtualThreads = false;
+
+    // Getter和Setter方法
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getDays() {
+        return days;
+    }
+
+    public void setDays(int days) {
+        this.days = days;
+    }
+
+    public String getCron() {
+        return cron;
+    }
+
+    public void setCron(String cron) {
+        this.cron = cron;
+    }
+
+    public int getPremakeDays() {
+        return premakeDays;
+    }
+
+    public void setPremakeDays(int premakeDays) {
+        this.premakeDays = premakeDays;
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    public void setChunkSize(int chunkSize) {
+        this.chunkSize = chunkSize;
+    }
+
+    public Duration getPause() {
+        return pause;
+    }
+
+    public void setPause(Duration pause) {
+        this.pause = pause;
+    }
+
+    public Duration getMaxDuration() {
+        return maxDuration;
+    }
+
+    public void setMaxDuration(Duration maxDuration) {
+        this.maxDuration = maxDuration;
+    }
+
+    public boolean isVirtualThreads() {
+        return virtualThreads;
+    }
+
+    public void setVirtualThreads(boolean virtualThreads) {
+        this.virtualThreads = virtualThreads;
+    }
+}
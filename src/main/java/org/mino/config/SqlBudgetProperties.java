@@ -0,0 +1,76 @@
+package org.mino.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * 请求级SQL往返预算配置
+ */
+@ConfigurationProperties(prefix = "app.metrics.sql-budget")
+public class SqlBudgetProperties {
+
+    /**
+     * 是否统计每个请求的语句数、数据库耗时和借出连接数
+     */
+    private boolean enabled = true;
+
+    /**
+     * 单个请求允许的最大语句数
+     */
+    private int maxStatements = 4;
+
+    /**
+     * 单个请求允许借出的最大连接数
+     */
+    private int maxConnections = 2;
+
+    /**
+     * 单个请求允许的最大数据库耗时（毫秒）
+     */
+    private long maxDbTime = 500;
+
+    /**
+     * 超出预算最多的接口列出的数量
+     */
+    private int topOffenders = 10;
+
+    // Getter和Setter方法
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getMaxStatements() {
+        return maxStatements;
+    }
+
+    public void setMaxStatements(int maxStatements) {
+        this.maxStatements = maxStatements;
+    }
+
+    public int getMaxConnections() {
+        return maxConnections;
+    }
+
+    public void setMaxConnections(int maxConnections) {
+        this.maxConnections = maxConnections;
+    }
+
+    public long getMaxDbTime() {
+        return maxDbTime;
+    }
+
+    public void setMaxDbTime(long maxDbTime) {
+        this.maxDbTime = maxDbTime;
+    }
+
+    public int getTopOffenders() {
+        return topOffenders;
+    }
+
+    public void setTopOffenders(int topOffenders) {
+        this.topOffenders = topOffenders;
+    }
+}
@@ -0,0 +1,64 @@
+package org.mino.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * 用户名/邮箱唯一性索引（布隆过滤器）配置
+ */
+@ConfigurationProperties(prefix = "app.cache.user-index")
+public class UserIndexProperties {
+
+    /**
+     * 是否启用唯一性索引
+     */
+    private boolean enabled = true;
+
+    /**
+     * 预期用户数量
+     */
+    private long expectedInsertions = 1_000_000;
+
+    /**
+     * 误判率
+     */
+    private double fpp = 0.01;
+
+    /**
+     * 是否以索引为准回答存在性查询：判定不存在时不再查询数据库。
+     * 只适用于单实例部署且用户表只由本服务写入的场景，多实例时其他实例的写入不在本实例索引中，必须保持关闭
+     */
+    private boolean authoritative = false;
+
+    // Getter和Setter方法
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public long getExpectedInsertions() {
+        return expectedInsertions;
+    }
+
+    public void setExpectedInsertions(long expectedInsertions) {
+        this.expectedInsertions = expectedInsertions;
+    }
+
+    public double getFpp() {
+        return fpp;
+    }
+
+    public void setFpp(double fpp) {
+        this.fpp = fpp;
+    }
+
+    public boolean isAuthoritative() {
+        return authoritative;
+    }
+
+    public void setAuthoritative(boolean authoritative) {
+        this.authoritative = authoritative;
+    }
+}
@@ -0,0 +1,78 @@
+package org.mino.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * 用户按ID批量加载（请求合并）配置
+ */
+@ConfigurationProperties(prefix = "app.cache.user-loader")
+public class UserLoaderProperties {
+
+    /**
+     * 是否启用请求合并
+     */
+    private boolean enabled = true;
+
+    /**
+     * 执行批量查询的线程数，也是同时进行的批量查询上限
+     */
+    private int threads = 2;
+
+    /**
+     * 单批最大ID数量，积压超过已有批次的容量时再开一个批次
+     */
+    private int maxBatchSize = 100;
+
+    /**
+     * 等待批量查询结果的超时时间
+     */
+    private Duration timeout = Duration.ofSeconds(5);
+
+    /**
+     * 是否在虚拟线程上执行批量查询（需 Java 21），默认跟随 spring.threads.virtual.enabled
+     */
+    private boolean virtualThreads = false;
+
+    // Getter和Setter方法
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public void setThreads(int threads) {
+        this.threads = threads;
+    }
+
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    public void setMaxBatchSize(int maxBatchSize) {
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    public Duration getTimeout() {
+        return timeout;
+    }
+
+    public void setTimeout(Duration timeout) {
+        this.timeout = timeout;
+    }
+
+    public boolean isVirtualThreads() {
+        return virtualThreads;
+    }
+
+    public void setVirtualThreads(boolean virtualThreads) {
+        this.virtualThreads = virtualThreads;
+    }
+}
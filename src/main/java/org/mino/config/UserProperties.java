@@ -0,0 +1,25 @@
+package org.mino.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * 用户业务配置
+ */
+@ConfigurationProperties(prefix = "app.user")
+public class UserProperties {
+
+    /**
+     * 创建用户时直接插入，由 uk_username / uk_email 唯一约束判定冲突；
+     * 关闭时先查询用户名和邮箱再插入
+     */
+    private boolean insertFirst = true;
+
+    // Getter和Setter方法
+    public boolean isInsertFirst() {
+        return insertFirst;
+    }
+
+    public void setInsertFirst(boolean insertFirst) {
+        this.insertFirst = insertFirst;
+    }
+}
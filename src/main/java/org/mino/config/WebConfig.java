@@ -1,7 +1,17 @@
 package org.mino.config;
 
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.mino.interceptor.LogInterceptor;
+import org.mino.interceptor.MetricsInterceptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 /**
@@ -10,6 +20,28 @@ import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
     
+    private final LogInterceptor logInterceptor;
+    
+    private final MetricsInterceptor metricsInterceptor;
+    
+    @Autowired
+    public WebConfig(LogInterceptor logInterceptor, MetricsInterceptor metricsInterceptor) {
+        this.logInterceptor = logInterceptor;
+        this.metricsInterceptor = metricsInterceptor;
+    }
+    
+    /**
+     * 注册日志拦截器和接口延迟拦截器（指标接口本身不计入）
+     */
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(logInterceptor)
+                .addPathPatterns("/api/**");
+        registry.addInterceptor(metricsInterceptor)
+                .addPathPatterns("/api/**")
+                .excludePathPatterns("/api/metrics/**");
+    }
+    
     /**
      * 配置跨域请求
      */
@@ -17,9 +49,26 @@ public class WebConfig implements WebMvcConfigurer {
     public void addCorsMappings(CorsRegistry registry) {
         registry.addMapping("/api/**")
                 .allowedOriginPatterns("*")
-                .allowedMethods("GET", "POST", "PUT", "DELETE", "OPTIONS")
+                .allowedMethods("GET", "POST", "PUT", "PATCH", "DELETE", "OPTIONS")
                 .allowedHeaders("*")
                 .allowCredentials(true)
                 .maxAge(3600);
     }
+    
+    /**
+     * CBOR 内容协商（Accept: application/cbor），与 JSON 共用 Spring Boot 的 Jackson 配置和模块
+     * 替换 Spring MVC 按默认配置创建的同类转换器，保持在 JSON 之后，未指定 Accept 时仍返回 JSON
+     */
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+    
+    /**
+     * Smile 内容协商（Accept: application/x-jackson-smile），重复的字段名以回引用编码
+     */
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+    }
 }
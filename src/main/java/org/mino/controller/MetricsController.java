@@ -0,0 +1,246 @@
+package org.mino.controller;
+
+import org.mino.metrics.EndpointMetrics;
+import org.mino.metrics.LatencyHistogram;
+import org.mino.metrics.SqlBudgetMonitor;
+import org.mino.metrics.StatementMetrics;
+import org.mino.model.ApiResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * 接口延迟和SQL语句指标控制器
+ * 分位数、平均值和吞吐量基于滚动窗口，请求总数和耗时总和为启动以来的累计值
+ */
+@RestController
+@RequestMapping("/api/metrics")
+public class MetricsController {
+
+    private static final String PROMETHEUS_CONTENT_TYPE = "text/plain;version=0.0.4;charset=utf-8";
+
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+
+    private static final String[] QUANTILE_NAMES = {"p50", "p90", "p99", "p999"};
+
+    private final EndpointMetrics endpointMetrics;
+
+    private final StatementMetrics statementMetrics;
+
+    private final SqlBudgetMonitor sqlBudgetMonitor;
+
+    @Autowired
+    public MetricsController(EndpointMetrics endpointMetrics, StatementMetrics statementMetrics,
+                             SqlBudgetMonitor sqlBudgetMonitor) {
+        this.endpointMetrics = endpointMetrics;
+        this.statementMetrics = statementMetrics;
+        this.sqlBudgetMonitor = sqlBudgetMonitor;
+    }
+
+    /**
+     * 各接口和各 MyBatis 语句的延迟分布（毫秒）和吞吐量（次/秒）
+     */
+    @GetMapping
+    public ApiResponse<Map<String, Object>> getMetrics() {
+        List<Map<String, Object>> endpoints = new ArrayList<>();
+        for (EndpointMetrics.Endpoint endpoint : endpointMetrics.getEndpoints()) {
+            LatencyHistogram.Snapshot snapshot = endpoint.getHistogram().snapshot();
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("endpoint", endpoint.getName());
+            item.put("method", endpoint.getHttpMethod());
+            item.put("uri", endpoint.getUri());
+            item.put("count", snapshot.getCount());
+            item.put("throughput", round(snapshot.getThroughput()));
+            item.put("mean", toMillis(snapshot.getMean()));
+            for (int i = 0; i < QUANTILES.length; i++) {
+                item.put(QUANTILE_NAMES[i], toMillis(snapshot.getValueAtQuantile(QUANTILES[i])));
+            }
+            item.put("max", toMillis(snapshot.getMax()));
+            item.put("totalCount", snapshot.getTotalCount());
+            endpoints.add(item);
+        }
+        List<Map<String, Object>> statements = new ArrayList<>();
+        for (StatementMetrics.Statement statement : statementMetrics.getStatements()) {
+            LatencyHistogram.Snapshot snapshot = statement.getTotal().snapshot();
+            LatencyHistogram.Snapshot acquire = statement.getAcquire().snapshot();
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("statement", statement.getId());
+            item.put("count", snapshot.getCount());
+            item.put("throughput", round(snapshot.getThroughput()));
+            item.put("mean", toMillis(snapshot.getMean()));
+            for (int i = 0; i < QUANTILES.length; i++) {
+                item.put(QUANTILE_NAMES[i], toMillis(snapshot.getValueAtQuantile(QUANTILES[i])));
+            }
+            item.put("max", toMillis(snapshot.getMax()));
+            item.put("acquireMean", toMillis(acquire.getMean()));
+            item.put("acquireP99", toMillis(acquire.getValueAtQuantile(0.99)));
+            item.put("totalCount", snapshot.getTotalCount());
+            item.put("totalAcquire", toMillis(statement.getAcquireSum()));
+            item.put("totalExecute", toMillis(statement.getExecuteSum()));
+            item.put("totalRows", statement.getRows());
+            item.put("cacheHits", statement.getCacheHits());
+            item.put("errors", statement.getErrors());
+            statements.add(item);
+        }
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", endpointMetrics.isEnabled());
+        result.put("window", endpointMetrics.getWindow());
+        result.put("unit", "ms");
+        result.put("endpoints", endpoints);
+        result.put("statements", statements);
+        return ApiResponse.success("接口指标查询成功", result);
+    }
+
+    /**
+     * 最近的慢SQL样本（含绑定参数），最新的在前
+     */
+    @GetMapping("/slow-statements")
+    public ApiResponse<List<StatementMetrics.SlowStatement>> getSlowStatements() {
+        return ApiResponse.success("慢SQL查询成功", statementMetrics.getSlowStatements());
+    }
+
+    /**
+     * 每个请求的SQL往返预算和超出预算最多的接口
+     */
+    @GetMapping("/sql-budget")
+    public ApiResponse<Map<String, Object>> getSqlBudget() {
+        return ApiResponse.success("SQL预算统计查询成功", sqlBudgetMonitor.stats());
+    }
+
+    /**
+     * Prometheus 文本格式：接口和语句各一个 summary（窗口分位数 + 累计 count/sum，单位秒），
+     * 接口窗口吞吐量 gauge，语句的连接获取/执行耗时、行数和异常计数器，以及接口的SQL往返和超预算计数器
+     */
+    @GetMapping(value = "/prometheus", produces = PROMETHEUS_CONTENT_TYPE)
+    public String getPrometheusMetrics() {
+        StringBuilder sb = new StringBuilder(1024);
+        sb.append("# HELP http_server_requests_seconds API request latency\n");
+        sb.append("# TYPE http_server_requests_seconds summary\n");
+        List<EndpointMetrics.Endpoint> endpoints = endpointMetrics.getEndpoints();
+        List<LatencyHistogram.Snapshot> snapshots = new ArrayList<>(endpoints.size());
+        for (EndpointMetrics.Endpoint endpoint : endpoints) {
+            LatencyHistogram.Snapshot snapshot = endpoint.getHistogram().snapshot();
+            snapshots.add(snapshot);
+            String labels = labels(endpoint);
+            for (double quantile : QUANTILES) {
+                sb.append("http_server_requests_seconds{").append(labels)
+                        .append(",quantile=\"").append(quantile).append("\"} ")
+                        .append(snapshot.getValueAtQuantile(quantile) / 1e9).append('\n');
+            }
+            sb.append("http_server_requests_seconds_count{").append(labels).append("} ")
+                    .append(snapshot.getTotalCount()).append('\n');
+            sb.append("http_server_requests_seconds_sum{").append(labels).append("} ")
+                    .append(snapshot.getTotalSum() / 1e9).append('\n');
+        }
+        sb.append("# HELP http_server_requests_per_second API request throughput over the rolling window\n");
+        sb.append("# TYPE http_server_requests_per_second gauge\n");
+        for (int i = 0; i < endpoints.size(); i++) {
+            sb.append("http_server_requests_per_second{").append(labels(endpoints.get(i))).append("} ")
+                    .append(snapshots.get(i).getThroughput()).append('\n');
+        }
+        appendStatements(sb);
+        appendSqlBudget(sb);
+        return sb.toString();
+    }
+
+    private void appendSqlBudget(StringBuilder sb) {
+        List<SqlBudgetMonitor.Endpoint> endpoints = sqlBudgetMonitor.getEndpoints();
+        appendEndpointCounter(sb, endpoints, "http_server_request_sql_statements_total",
+                "SQL statements issued by API requests", SqlBudgetMonitor.Endpoint::getStatements);
+        appendEndpointCounter(sb, endpoints, "http_server_request_sql_connections_total",
+                "Connections borrowed by API requests", SqlBudgetMonitor.Endpoint::getConnections);
+        appendEndpointCounter(sb, endpoints, "http_server_request_sql_budget_violations_total",
+                "API requests that exceeded the SQL budget", SqlBudgetMonitor.Endpoint::getViolations);
+    }
+
+    private static void appendEndpointCounter(StringBuilder sb, List<SqlBudgetMonitor.Endpoint> endpoints,
+                                              String name, String help,
+                                              ToLongFunction<SqlBudgetMonitor.Endpoint> value) {
+        sb.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        sb.append("# TYPE ").append(name).append(" counter\n");
+        for (SqlBudgetMonitor.Endpoint endpoint : endpoints) {
+            sb.append(name).append('{').append(labels(endpoint.getName(), endpoint.getHttpMethod(),
+                    endpoint.getUri())).append("} ").append(value.applyAsLong(endpoint)).append('\n');
+        }
+    }
+
+    private void appendStatements(StringBuilder sb) {
+        List<StatementMetrics.Statement> statements = statementMetrics.getStatements();
+        sb.append("# HELP mybatis_statement_seconds MyBatis mapped statement latency\n");
+        sb.append("# TYPE mybatis_statement_seconds summary\n");
+        for (StatementMetrics.Statement statement : statements) {
+            LatencyHistogram.Snapshot snapshot = statement.getTotal().snapshot();
+            String labels = "statement=\"" + escape(statement.getId()) + "\"";
+            for (double quantile : QUANTILES) {
+                sb.append("mybatis_statement_seconds{").append(labels)
+                        .append(",quantile=\"").append(quantile).append("\"} ")
+                        .append(snapshot.getValueAtQuantile(quantile) / 1e9).append('\n');
+            }
+            sb.append("mybatis_statement_seconds_count{").append(labels).append("} ")
+                    .append(snapshot.getTotalCount()).append('\n');
+            sb.append("mybatis_statement_seconds_sum{").append(labels).append("} ")
+                    .append(snapshot.getTotalSum() / 1e9).append('\n');
+        }
+        appendCounter(sb, statements, "mybatis_statement_acquire_seconds_total",
+                "Time spent waiting for the pool to hand out a connection", s -> s.getAcquireSum() / 1e9);
+        appendCounter(sb, statements, "mybatis_statement_execute_seconds_total",
+                "Time spent executing the statement and mapping results", s -> s.getExecuteSum() / 1e9);
+        appendCounter(sb, statements, "mybatis_statement_rows_total",
+                "Rows returned or affected", s -> s.getRows());
+        appendCounter(sb, statements, "mybatis_statement_cache_hits_total",
+                "Executions served from the MyBatis cache", s -> s.getCacheHits());
+        appendCounter(sb, statements, "mybatis_statement_errors_total",
+                "Executions that threw an exception", s -> s.getErrors());
+    }
+
+    private static void appendCounter(StringBuilder sb, List<StatementMetrics.Statement> statements, String name,
+                                      String help, ToDoubleFunction<StatementMetrics.Statement> value) {
+        sb.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        sb.append("# TYPE ").append(name).append(" counter\n");
+        for (StatementMetrics.Statement statement : statements) {
+            sb.append(name).append("{statement=\"").append(escape(statement.getId())).append("\"} ");
+            double v = value.applyAsDouble(statement);
+            if (v == Math.rint(v)) {
+                sb.append((long) v);
+            } else {
+                sb.append(v);
+            }
+            sb.append('\n');
+        }
+    }
+
+    private static String labels(EndpointMetrics.Endpoint endpoint) {
+        return labels(endpoint.getName(), endpoint.getHttpMethod(), endpoint.getUri());
+    }
+
+    private static String labels(String name, String httpMethod, String uri) {
+        return "endpoint=\"" + escape(name) + "\",method=\"" + escape(httpMethod)
+                + "\",uri=\"" + escape(uri) + "\"";
+    }
+
+    /**
+     * 转义标签值中的反斜杠、双引号和换行
+     */
+    private static String escape(String value) {
+        if (value == null) {
+            return "";
+        }
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    private static double toMillis(double nanos) {
+        return round(nanos / 1_000_000d);
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 1000) / 1000d;
+    }
+}
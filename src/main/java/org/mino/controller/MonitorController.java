@@ -0,0 +1,130 @@
+package org.mino.controller;
+
+import org.mino.cache.UserBatchLoader;
+import org.mino.cache.UserCache;
+import org.mino.cache.UserUniquenessIndex;
+import org.mino.datasource.ConnectionLimitingDataSource;
+import org.mino.datasource.ReadWriteRoutingDataSource;
+import org.mino.filter.ResponseCompressionFilter;
+import org.mino.log.OperationLogRetention;
+import org.mino.log.OperationLogWriter;
+import org.mino.model.ApiResponse;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 运行状态监控控制器
+ */
+@RestController
+@RequestMapping("/api/monitor")
+public class MonitorController {
+
+    private final UserCache userCache;
+
+    private final UserUniquenessIndex userUniquenessIndex;
+
+    private final UserBatchLoader userBatchLoader;
+
+    private final ObjectProvider<ReadWriteRoutingDataSource> routingDataSource;
+
+    private final DataSource dataSource;
+
+    private final OperationLogWriter operationLogWriter;
+
+    private final OperationLogRetention operationLogRetention;
+
+    private final ResponseCompressionFilter compressionFilter;
+
+    @Autowired
+    public MonitorController(UserCache userCache, UserUniquenessIndex userUniquenessIndex,
+                             UserBatchLoader userBatchLoader,
+                             ObjectProvider<ReadWriteRoutingDataSource> routingDataSource,
+                             DataSource dataSource,
+                             OperationLogWriter operationLogWriter,
+                             OperationLogRetention operationLogRetention,
+                             ResponseCompressionFilter compressionFilter) {
+        this.userCache = userCache;
+        this.userUniquenessIndex = userUniquenessIndex;
+        this.userBatchLoader = userBatchLoader;
+        this.routingDataSource = routingDataSource;
+        this.dataSource = dataSource;
+        this.operationLogWriter = operationLogWriter;
+        this.operationLogRetention = operationLogRetention;
+        this.compressionFilter = compressionFilter;
+    }
+
+    /**
+     * 用户缓存命中、未命中及淘汰统计
+     */
+    @GetMapping("/cache")
+    public ApiResponse<Map<String, Object>> getCacheStats() {
+        return ApiResponse.success("缓存统计查询成功", userCache.stats());
+    }
+
+    /**
+     * 用户名/邮箱唯一性索引统计
+     */
+    @GetMapping("/user-index")
+    public ApiResponse<Map<String, Object>> getUserIndexStats() {
+        return ApiResponse.success("唯一性索引统计查询成功", userUniquenessIndex.stats());
+    }
+
+    /**
+     * 用户批量加载器合并统计
+     */
+    @GetMapping("/user-loader")
+    public ApiResponse<Map<String, Object>> getUserLoaderStats() {
+        return ApiResponse.success("批量加载统计查询成功", userBatchLoader.stats());
+    }
+
+    /**
+     * 读写分离各路由的分发和连接池统计，以及连接获取限流统计：
+     * 启用读写分离时限流按路由统计，在各路由的 connectionLimit 下，否则在顶层
+     */
+    @GetMapping("/datasource")
+    public ApiResponse<Map<String, Object>> getDataSourceStats() throws SQLException {
+        ReadWriteRoutingDataSource routing = routingDataSource.getIfAvailable();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("routingEnabled", routing != null);
+        if (routing != null) {
+            stats.putAll(routing.stats());
+        }
+        // 限流包装不一定在最外层，按 JDBC Wrapper 查找
+        if (dataSource.isWrapperFor(ConnectionLimitingDataSource.class)) {
+            stats.put("connectionLimit", dataSource.unwrap(ConnectionLimitingDataSource.class).stats());
+        }
+        return ApiResponse.success("数据源统计查询成功", stats);
+    }
+
+    /**
+     * 操作日志写入队列深度、批量大小及丢弃统计
+     */
+    @GetMapping("/operation-log")
+    public ApiResponse<Map<String, Object>> getOperationLogStats() {
+        return ApiResponse.success("操作日志统计查询成功", operationLogWriter.stats());
+    }
+
+    /**
+     * 操作日志过期清理进度统计
+     */
+    @GetMapping("/log-retention")
+    public ApiResponse<Map<String, Object>> getLogRetentionStats() {
+        return ApiResponse.success("日志清理统计查询成功", operationLogRetention.stats());
+    }
+
+    /**
+     * 响应压缩次数、压缩前后字节数及缓冲池统计
+     */
+    @GetMapping("/compression")
+    public ApiResponse<Map<String, Object>> getCompressionStats() {
+        return ApiResponse.success("压缩统计查询成功", compressionFilter.stats());
+    }
+}
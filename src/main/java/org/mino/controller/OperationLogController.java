@@ -0,0 +1,72 @@
+package org.mino.controller;
+
+import org.mino.model.ApiResponse;
+import org.mino.model.CursorPage;
+import org.mino.model.OperationLog;
+import org.mino.service.LogService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * 操作日志控制器
+ */
+@RestController
+@RequestMapping("/api/logs")
+public class OperationLogController {
+    
+    private final LogService logService;
+    
+    @Autowired
+    public OperationLogController(LogService logService) {
+        this.logService = logService;
+    }
+    
+    /**
+     * 游标分页获取操作日志
+     */
+    @GetMapping
+    public ApiResponse<CursorPage<OperationLog>> getLogs(@RequestParam(required = false) String cursor,
+                                                         @RequestParam(defaultValue = "20") int size) {
+        return ApiResponse.success("日志查询成功", logService.getOperationLogsByCursor(cursor, size));
+    }
+    
+    /**
+     * 按页码获取操作日志
+     * @deprecated 仅为兼容旧调用方保留，OFFSET 随页码线性变慢，请使用游标分页 {@code GET /api/logs}
+     */
+    @Deprecated
+    @GetMapping("/page")
+    public ApiResponse<List<OperationLog>> getLogsByPage(@RequestParam(defaultValue = "1") int page,
+                                                         @RequestParam(defaultValue = "20") int size) {
+        return ApiResponse.success("日志查询成功", logService.getOperationLogsByPage(page, size));
+    }
+    
+    /**
+     * 游标分页获取指定用户的操作日志
+     */
+    @GetMapping("/user/{userId}")
+    public ApiResponse<CursorPage<OperationLog>> getLogsByUser(@PathVariable Long userId,
+                                                               @RequestParam(required = false) String cursor,
+                                                               @RequestParam(defaultValue = "20") int size) {
+        return ApiResponse.success("日志查询成功", logService.getOperationLogsByUserId(userId, cursor, size));
+    }
+    
+    /**
+     * 操作日志总数（近似值）：启动时的表统计行数估算值，加上本实例之后写入、减去清理的行数，
+     * 不包含其他实例在本实例启动后的写入；基线在后台加载，加载完成前 data 为null
+     */
+    @GetMapping("/count")
+    public ApiResponse<Long> getLogCount() {
+        Long count = logService.getOperationLogsCount();
+        if (count == null) {
+            return ApiResponse.success("日志总数统计中，请稍后重试", null);
+        }
+        return ApiResponse.success("日志统计成功（近似值）", count);
+    }
+}
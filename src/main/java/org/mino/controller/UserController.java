@@ -1,12 +1,34 @@
 package org.mino.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.servlet.http.HttpServletResponse;
+import org.mino.json.VaryAcceptAdvice;
 import org.mino.model.ApiResponse;
+import org.mino.model.BatchItemResult;
+import org.mino.model.CursorPage;
 import org.mino.model.User;
 import org.mino.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.http.HttpMessageConverters;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.HttpMediaTypeNotAcceptableException;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.accept.ContentNegotiationManager;
+import org.springframework.web.context.request.ServletWebRequest;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * 用户控制器
@@ -15,11 +37,33 @@ import java.util.List;
 @RequestMapping("/api/users")
 public class UserController {
     
+    private static final String NDJSON = "application/x-ndjson";
+    
+    private static final MediaType CBOR = MediaType.parseMediaType("application/cbor");
+    
+    private static final MediaType SMILE = MediaType.parseMediaType("application/x-jackson-smile");
+    
     private final UserService userService;
     
+    private final ObjectMapper objectMapper;
+    
+    private final ObjectWriter userWriter;
+    
+    private final ContentNegotiationManager contentNegotiationManager;
+    
+    // 单个用户接口可返回的格式，取自已注册的消息转换器，顺序与转换器一致（JSON 在前）
+    private final List<MediaType> producibleTypes;
+    
     @Autowired
-    public UserController(UserService userService) {
+    public UserController(UserService userService, ObjectMapper objectMapper,
+                          ContentNegotiationManager contentNegotiationManager,
+                          HttpMessageConverters messageConverters) {
         this.userService = userService;
+        this.objectMapper = objectMapper;
+        this.contentNegotiationManager = contentNegotiationManager;
+        this.producibleTypes = producibleTypes(messageConverters);
+        // 逐条写入时不逐条flush，由缓冲区满时批量写出
+        this.userWriter = objectMapper.writerFor(User.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
     }
     
     /**
@@ -35,24 +79,65 @@ public class UserController {
         }
     }
     
+    /**
+     * 批量创建用户
+     */
+    @PostMapping("/batch")
+    public ApiResponse<List<BatchItemResult<User>>> createUsers(@RequestBody List<User> users) {
+        List<BatchItemResult<User>> results = userService.createUsers(users);
+        long created = results.stream().filter(BatchItemResult::isSuccess).count();
+        return ApiResponse.success("批量创建完成，成功" + created + "个，失败" + (results.size() - created) + "个", results);
+    }
+    
     /**
      * 根据ID获取用户
      */
     @GetMapping("/{id}")
-    public ApiResponse<User> getUserById(@PathVariable Long id) {
-        return userService.findById(id)
-                .map(user -> ApiResponse.success("用户查询成功", user))
-                .orElse(ApiResponse.error(404, "用户不存在"));
+    public ApiResponse<User> getUserById(@PathVariable Long id, ServletWebRequest request) {
+        MediaType format = negotiate(request);
+        // 携带 If-None-Match 时先只查版本号，未变化直接返回 304，不读整行也不序列化
+        if (format != null && request.getHeader(HttpHeaders.IF_NONE_MATCH) != null) {
+            Optional<Integer> version = userService.findVersionById(id);
+            if (version.isPresent() && request.checkNotModified(etag(id, version.get(), format))) {
+                return null;
+            }
+        }
+        Optional<User> user = userService.findById(id);
+        if (user.isEmpty()) {
+            return ApiResponse.error(404, "用户不存在");
+        }
+        writeETag(request, user.get(), format);
+        return ApiResponse.success("用户查询成功", user.get());
     }
     
     /**
      * 根据用户名获取用户
      */
     @GetMapping("/username/{username}")
-    public ApiResponse<User> getUserByUsername(@PathVariable String username) {
-        return userService.findByUsername(username)
-                .map(user -> ApiResponse.success("用户查询成功", user))
-                .orElse(ApiResponse.error(404, "用户不存在"));
+    public ApiResponse<User> getUserByUsername(@PathVariable String username, ServletWebRequest request) {
+        MediaType format = negotiate(request);
+        if (format != null && request.getHeader(HttpHeaders.IF_NONE_MATCH) != null) {
+            Optional<User> validator = userService.findVersionByUsername(username);
+            if (validator.isPresent()
+                    && request.checkNotModified(etag(validator.get().getId(), validator.get().getVersion(), format))) {
+                return null;
+            }
+        }
+        Optional<User> user = userService.findByUsername(username);
+        if (user.isEmpty()) {
+            return ApiResponse.error(404, "用户不存在");
+        }
+        writeETag(request, user.get(), format);
+        return ApiResponse.success("用户查询成功", user.get());
+    }
+    
+    /**
+     * 根据ID批量获取用户，例如 GET /api/users?ids=1,2,3
+     */
+    @GetMapping(params = "ids")
+    public ApiResponse<List<User>> getUsersByIds(@RequestParam List<Long> ids) {
+        List<User> users = userService.findByIds(ids);
+        return ApiResponse.success("用户批量查询成功", users);
     }
     
     /**
@@ -65,17 +150,75 @@ public class UserController {
     }
     
     /**
-     * 更新用户
+     * 以NDJSON格式流式导出所有用户，每行一个用户
+     */
+    @GetMapping(value = "/export", produces = NDJSON)
+    public void exportUsers(HttpServletResponse response) throws IOException {
+        response.setContentType(NDJSON);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(response.getOutputStream())) {
+            // 根值之间不使用默认的空格分隔，由换行分隔
+            generator.setRootValueSeparator(null);
+            userService.exportAllUsers(user -> {
+                try {
+                    userWriter.writeValue(generator, user);
+                    generator.writeRaw('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+    }
+    
+    /**
+     * 游标分页获取用户列表
+     */
+    @GetMapping("/page")
+    public ApiResponse<CursorPage<User>> getUsersByCursor(@RequestParam(required = false) String cursor,
+                                                          @RequestParam(defaultValue = "20") int size) {
+        CursorPage<User> page = userService.findUsersByCursor(cursor, size);
+        return ApiResponse.success("用户分页查询成功", page);
+    }
+    
+    /**
+     * 全量更新用户，必须携带version进行乐观锁校验；只修改部分字段且不关心并发覆盖时使用PATCH
      */
     @PutMapping("/{id}")
     public ApiResponse<User> updateUser(@PathVariable Long id, @RequestBody User user) {
+        if (user.getVersion() == null) {
+            return ApiResponse.error(400, "全量更新必须携带version");
+        }
+        try {
+            user.setId(id);
+            userService.updateUser(user);
+        } catch (OptimisticLockingFailureException e) {
+            return ApiResponse.error(409, e.getMessage());
+        } catch (Exception e) {
+            return ApiResponse.error(e.getMessage());
+        }
+        // 与PATCH一致，事务提交后重新读取，返回数据库中的完整用户信息而不是请求体
+        return userService.findById(id)
+                .map(updated -> ApiResponse.success("用户更新成功", updated))
+                .orElse(ApiResponse.error(404, "用户不存在"));
+    }
+    
+    /**
+     * 部分更新用户，只提交需要修改的字段，可携带version进行乐观锁校验
+     */
+    @PatchMapping("/{id}")
+    public ApiResponse<User> patchUser(@PathVariable Long id, @RequestBody User user) {
         try {
             user.setId(id);
-            User updatedUser = userService.updateUser(user);
-            return ApiResponse.success("用户更新成功", updatedUser);
+            userService.patchUser(user);
+        } catch (OptimisticLockingFailureException e) {
+            return ApiResponse.error(409, e.getMessage());
         } catch (Exception e) {
             return ApiResponse.error(e.getMessage());
         }
+        // 更新事务已提交，再读取完整用户信息，不延长行锁持有时间
+        return userService.findById(id)
+                .map(updated -> ApiResponse.success("用户更新成功", updated))
+                .orElse(ApiResponse.error(404, "用户不存在"));
     }
     
     /**
@@ -99,4 +242,74 @@ public class UserController {
         boolean exists = userService.existsByUsername(username);
         return ApiResponse.success("用户名检查完成", exists);
     }
+    
+    /**
+     * 弱ETag：W/"ID-版本号"，每次UPDATE都会把版本号加1；CBOR / Smile 追加格式后缀，如 W/"1-3-cbor"，
+     * 不同格式的表示不会互相命中 If-None-Match
+     * 响应体中的 timestamp 每次请求都不同，只能保证语义等价，不能用强ETag；If-None-Match 按弱比较命中
+     */
+    private static String etag(Long id, Integer version, MediaType format) {
+        String suffix = CBOR.equalsTypeAndSubtype(format) ? "-cbor" : SMILE.equalsTypeAndSubtype(format) ? "-smile" : "";
+        return "W/\"" + id + "-" + version + suffix + "\"";
+    }
+    
+    /**
+     * 按实际返回的用户写ETag，覆盖校验阶段按版本号写入的值（两次查询之间用户可能被修改）
+     */
+    private static void writeETag(ServletWebRequest request, User user, MediaType format) {
+        if (format != null && user.getVersion() != null && request.getResponse() != null) {
+            request.getResponse().setHeader(HttpHeaders.ETAG, etag(user.getId(), user.getVersion(), format));
+        }
+    }
+    
+    /**
+     * 能写出 ApiResponse 的消息转换器支持的格式，与 Spring MVC 写响应体时计算可返回格式的方式相同
+     */
+    private static List<MediaType> producibleTypes(HttpMessageConverters messageConverters) {
+        List<MediaType> types = new ArrayList<>();
+        for (HttpMessageConverter<?> converter : messageConverters.getConverters()) {
+            if (converter.canWrite(ApiResponse.class, null)) {
+                types.addAll(converter.getSupportedMediaTypes(ApiResponse.class));
+            }
+        }
+        return List.copyOf(types);
+    }
+    
+    /**
+     * 按 Accept 选出响应格式（与 Spring MVC 选择消息转换器的规则一致），并预先设置 Content-Type，
+     * 保证ETag中的格式就是实际写出的格式；同时追加 Vary: Accept（304 响应不经过 VaryAcceptAdvice）。
+     * 没有可接受的格式时返回 null，由 Spring MVC 返回 406
+     */
+    private MediaType negotiate(ServletWebRequest request) {
+        HttpServletResponse response = request.getResponse();
+        if (response != null) {
+            VaryAcceptAdvice.addVaryAccept(response);
+        }
+        List<MediaType> acceptable;
+        try {
+            acceptable = contentNegotiationManager.resolveMediaTypes(request);
+        } catch (HttpMediaTypeNotAcceptableException e) {
+            return null;
+        }
+        List<MediaType> compatible = new ArrayList<>();
+        for (MediaType requested : acceptable) {
+            for (MediaType producible : producibleTypes) {
+                if (requested.isCompatibleWith(producible)) {
+                    MediaType candidate = producible.copyQualityValue(requested);
+                    compatible.add(requested.isLessSpecific(candidate) ? candidate : requested);
+                }
+            }
+        }
+        MimeTypeUtils.sortBySpecificity(compatible);
+        for (MediaType mediaType : compatible) {
+            if (mediaType.isConcrete()) {
+                MediaType format = mediaType.removeQualityValue();
+                if (response != null) {
+                    response.setContentType(format.toString());
+                }
+                return format;
+            }
+        }
+        return null;
+    }
 }
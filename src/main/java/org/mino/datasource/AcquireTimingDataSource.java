@@ -0,0 +1,49 @@
+package org.mino.datasource;
+
+import org.mino.metrics.ConnectionAcquireTime;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * 记录连接获取耗时的数据源，包在连接池（及其限流）外层，
+ * 每次 getConnection 的等待时间计入当前线程的 {@link ConnectionAcquireTime}
+ */
+public class AcquireTimingDataSource extends DelegatingDataSource implements AutoCloseable {
+
+    public AcquireTimingDataSource(DataSource targetDataSource) {
+        super(targetDataSource);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        long start = System.nanoTime();
+        try {
+            return obtainTargetDataSource().getConnection();
+        } finally {
+            ConnectionAcquireTime.record(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        long start = System.nanoTime();
+        try {
+            return obtainTargetDataSource().getConnection(username, password);
+        } finally {
+            ConnectionAcquireTime.record(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * 关闭被包装的连接池
+     */
+    @Override
+    public void close() throws Exception {
+        if (obtainTargetDataSource() instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+    }
+}
@@ -0,0 +1,265 @@
+package org.mino.datasource;
+
+import com.alibaba.druid.pool.DruidDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * 读写分离路由数据源
+ * 只读事务轮询分发到健康的从库，其余请求走主库；从库获取连接失败时标记为不健康并回退主库，
+ * 由 {@link #checkReplicas()} 定期探活恢复。
+ * 写事务提交后的短时间窗口内，同一线程的只读请求仍走主库，避免从库复制延迟读到旧数据。
+ * 结果要写入共享缓存的读取用 {@link #readFromPrimary} 固定走主库：其他线程的写入不在粘滞窗口内，
+ * 从库读到的旧行会在缓存中保留整个TTL。
+ * 需要包在 LazyConnectionDataSourceProxy 内使用，事务的只读标记在开启事务时才可见
+ */
+public class ReadWriteRoutingDataSource extends AbstractDataSource implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReadWriteRoutingDataSource.class);
+
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+
+    private static final ThreadLocal<Boolean> FORCE_PRIMARY = new ThreadLocal<>();
+
+    private final Route primary;
+    private final List<Route> replicas;
+    private final long readAfterWriteNanos;
+    private final AtomicInteger next = new AtomicInteger();
+    private final ThreadLocal<Long> primaryUntil = new ThreadLocal<>();
+    private final LongAdder fallbacks = new LongAdder();
+    private final LongAdder forcedPrimary = new LongAdder();
+
+    public ReadWriteRoutingDataSource(DataSource primary, Map<String, DataSource> replicas, long readAfterWriteMillis) {
+        this.primary = new Route("primary", primary);
+        this.replicas = new ArrayList<>();
+        replicas.forEach((name, dataSource) -> this.replicas.add(new Route(name, dataSource)));
+        this.readAfterWriteNanos = TimeUnit.MILLISECONDS.toNanos(readAfterWriteMillis);
+        logger.info("ReadWriteRoutingDataSource initialized, replicas: {}, readAfterWrite: {}ms",
+                replicas.keySet(), readAfterWriteMillis);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly() && Boolean.TRUE.equals(FORCE_PRIMARY.get())) {
+            forcedPrimary.increment();
+        } else if (TransactionSynchronizationManager.isCurrentTransactionReadOnly() && !stickToPrimary()) {
+            Route replica = nextHealthyReplica();
+            if (replica != null) {
+                try {
+                    return replica.borrow();
+                } catch (SQLException e) {
+                    replica.markDown(e);
+                    fallbacks.increment();
+                }
+            }
+        } else {
+            trackWrite();
+        }
+        return primary.borrow();
+    }
+
+    /**
+     * 在当前线程内让只读请求也走主库，用于回填缓存的读取；未启用读写分离时没有影响。
+     * 只对之后新获取的连接生效，外层只读事务已经绑定从库连接时仍读从库
+     */
+    public static <T> T readFromPrimary(Supplier<T> action) {
+        if (Boolean.TRUE.equals(FORCE_PRIMARY.get())) {
+            return action.get();
+        }
+        FORCE_PRIMARY.set(Boolean.TRUE);
+        try {
+            return action.get();
+        } finally {
+            FORCE_PRIMARY.remove();
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new UnsupportedOperationException("ReadWriteRoutingDataSource does not support explicit credentials");
+    }
+
+    /**
+     * 探测所有从库，恢复可用的从库、摘除不可用的从库
+     */
+    @Scheduled(fixedDelayString = "${app.datasource.routing.health-check-interval:5000}")
+    public void checkReplicas() {
+        for (Route replica : replicas) {
+            try (Connection connection = replica.dataSource.getConnection()) {
+                if (connection.isValid(VALIDATION_TIMEOUT_SECONDS)) {
+                    replica.markUp();
+                } else {
+                    replica.markDown(null);
+                }
+            } catch (SQLException e) {
+                replica.markDown(e);
+            }
+        }
+    }
+
+    /**
+     * 各路由的分发和连接池统计
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("fallbackCount", fallbacks.sum());
+        stats.put("forcedPrimaryCount", forcedPrimary.sum());
+        List<Map<String, Object>> routes = new ArrayList<>();
+        routes.add(primary.stats());
+        for (Route replica : replicas) {
+            routes.add(replica.stats());
+        }
+        stats.put("routes", routes);
+        return stats;
+    }
+
+    /**
+     * 关闭从库连接池，主库连接池由容器管理
+     */
+    @Override
+    public void close() {
+        for (Route replica : replicas) {
+            if (replica.dataSource instanceof AutoCloseable closeable) {
+                try {
+                    closeable.close();
+                } catch (Exception e) {
+                    logger.warn("Error closing replica {}", replica.name, e);
+                }
+            }
+        }
+    }
+
+    private Route nextHealthyReplica() {
+        int size = replicas.size();
+        if (size == 0) {
+            return null;
+        }
+        int start = Math.floorMod(next.getAndIncrement(), size);
+        for (int i = 0; i < size; i++) {
+            Route replica = replicas.get((start + i) % size);
+            if (replica.healthy) {
+                return replica;
+            }
+        }
+        return null;
+    }
+
+    private boolean stickToPrimary() {
+        Long until = primaryUntil.get();
+        if (until == null) {
+            return false;
+        }
+        if (System.nanoTime() - until < 0) {
+            return true;
+        }
+        primaryUntil.remove();
+        return false;
+    }
+
+    /**
+     * 写事务提交后记录当前线程的主库粘滞截止时间
+     */
+    private void trackWrite() {
+        if (readAfterWriteNanos <= 0 || !TransactionSynchronizationManager.isSynchronizationActive()
+                || TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    primaryUntil.set(System.nanoTime() + readAfterWriteNanos);
+                }
+            }
+        });
+    }
+
+    /**
+     * 单个路由目标
+     */
+    private static final class Route {
+        private final String name;
+        private final DataSource dataSource;
+        private final LongAdder borrows = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+        private volatile boolean healthy = true;
+
+        private Route(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+
+        private Connection borrow() throws SQLException {
+            try {
+                Connection connection = dataSource.getConnection();
+                borrows.increment();
+                return connection;
+            } catch (SQLException e) {
+                failures.increment();
+                throw e;
+            }
+        }
+
+        private void markUp() {
+            if (!healthy) {
+                healthy = true;
+                logger.info("Replica {} is back online", name);
+            }
+        }
+
+        private void markDown(SQLException e) {
+            if (healthy) {
+                healthy = false;
+                logger.warn("Replica {} marked down, routing reads to primary: {}",
+                        name, e == null ? "validation failed" : e.getMessage());
+            }
+        }
+
+        /**
+         * 穿过限流等包装取得内层数据源，不存在时返回null
+         */
+        private <T> T unwrap(Class<T> type) {
+            try {
+                return dataSource.isWrapperFor(type) ? dataSource.unwrap(type) : null;
+            } catch (SQLException e) {
+                return null;
+            }
+        }
+
+        private Map<String, Object> stats() {
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("name", name);
+            stats.put("healthy", healthy);
+            stats.put("borrowCount", borrows.sum());
+            stats.put("failureCount", failures.sum());
+            DruidDataSource druid = unwrap(DruidDataSource.class);
+            if (druid != null) {
+                stats.put("activeCount", druid.getActiveCount());
+                stats.put("poolingCount", druid.getPoolingCount());
+                stats.put("maxActive", druid.getMaxActive());
+                stats.put("waitThreadCount", druid.getWaitThreadCount());
+            }
+            ConnectionLimitingDataSource limit = unwrap(ConnectionLimitingDataSource.class);
+            if (limit != null) {
+                stats.put("connectionLimit", limit.stats());
+            }
+            return stats;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package org.mino.datasource;
+
+import org.mino.metrics.SqlBudget;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * 统计借出连接数的数据源，每次 getConnection 计入当前请求的 SQL 预算
+ */
+public class SqlBudgetDataSource extends DelegatingDataSource implements AutoCloseable {
+
+    public SqlBudgetDataSource(DataSource targetDataSource) {
+        super(targetDataSource);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        Connection connection = obtainTargetDataSource().getConnection();
+        SqlBudget.recordConnection();
+        return connection;
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        Connection connection = obtainTargetDataSource().getConnection(username, password);
+        SqlBudget.recordConnection();
+        return connection;
+    }
+
+    /**
+     * 关闭被包装的连接池
+     */
+    @Override
+    public void close() throws Exception {
+        if (obtainTargetDataSource() instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package org.mino.exception;
+
+import org.springframework.dao.DuplicateKeyException;
+
+import java.util.Locale;
+
+/**
+ * 唯一键冲突翻译：根据冲突的约束名转换为业务错误
+ */
+public final class DuplicateKeyTranslator {
+
+    public static final String UK_USERNAME = "uk_username";
+    public static final String UK_EMAIL = "uk_email";
+
+    // MySQL: Duplicate entry 'xxx' for key 'user.uk_username'
+    private static final String MYSQL_KEY_MARKER = "for key '";
+
+    private DuplicateKeyTranslator() {}
+
+    /**
+     * 将用户表唯一键冲突转换为对应的业务异常
+     */
+    public static RuntimeException translateUserConflict(DuplicateKeyException e) {
+        String constraint = constraintName(e);
+        if (UK_USERNAME.equals(constraint)) {
+            return new RuntimeException("用户名已存在");
+        }
+        if (UK_EMAIL.equals(constraint)) {
+            return new RuntimeException("邮箱已存在");
+        }
+        return new RuntimeException("用户名或邮箱已存在");
+    }
+
+    /**
+     * 解析冲突的约束名（小写，不含表名前缀），无法识别时返回null
+     */
+    public static String constraintName(DuplicateKeyException e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            String name = constraintName(t.getMessage());
+            if (name != null) {
+                return name;
+            }
+            if (t.getCause() == t) {
+                break;
+            }
+        }
+        return null;
+    }
+
+    static String constraintName(String message) {
+        if (message == null) {
+            return null;
+        }
+        // 冲突值本身可能包含任意文本，约束名总在消息末尾，因此从后往前找
+        int marker = message.lastIndexOf(MYSQL_KEY_MARKER);
+        if (marker >= 0) {
+            int start = marker + MYSQL_KEY_MARKER.length();
+            int end = message.indexOf('\'', start);
+            String key = end > start ? message.substring(start, end) : message.substring(start);
+            int dot = key.lastIndexOf('.');
+            return (dot >= 0 ? key.substring(dot + 1) : key).toLowerCase(Locale.ROOT);
+        }
+        // 其他数据库（如H2）：约束名出现在冲突值之前
+        String upper = message.toUpperCase(Locale.ROOT);
+        int values = upper.indexOf(" VALUES");
+        String head = values >= 0 ? upper.substring(0, values) : upper;
+        if (head.contains(UK_USERNAME.toUpperCase(Locale.ROOT))) {
+            return UK_USERNAME;
+        }
+        if (head.contains(UK_EMAIL.toUpperCase(Locale.ROOT))) {
+            return UK_EMAIL;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,371 @@
+package org.mino.filter;
+
+import io.airlift.compress.zstd.ZstdOutputStream;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.http.HttpHeaders;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.zip.Deflater;
+
+/**
+ * 延迟决定是否压缩的响应包装
+ * 响应体先写入池化缓冲区；超过阈值时根据内容类型、状态码决定压缩并写出已暂存的部分，之后流式写出；
+ * 请求结束时仍未超过阈值则原样写出并设置 Content-Length。应用设置的 Content-Length 在决定之前都不下发。
+ * 首选 zstd 时暂存到整个缓冲区：写满才用 zstd，结束时没写满则改用 gzip，
+ * 因为每个 zstd 流要分配约 1.7MB 的匹配表，中小响应用 gzip 更省
+ */
+final class CompressingResponseWrapper extends HttpServletResponseWrapper {
+
+    private final ResponseCompressionFilter filter;
+    private final String encoding;
+    private final String fallbackEncoding;
+    private byte[] buffer;
+    private int count;
+    private long contentLength = -1;
+    private long bytesIn;
+    private OutputStream target;
+    private OutputStream compressor;
+    private CountingOutputStream counter;
+    private Deflater deflater;
+    private byte[] deflateBuffer;
+    private ServletOutputStream outputStream;
+    private PrintWriter writer;
+
+    /**
+     * @param encoding 响应体写满缓冲区时使用的压缩编码，null 表示不压缩（仍然暂存以便设置 Content-Length 和 Vary）
+     * @param fallbackEncoding 响应体超过阈值但未写满缓冲区时使用的编码，与 encoding 相同时超过阈值即开始压缩
+     */
+    CompressingResponseWrapper(HttpServletResponse response, ResponseCompressionFilter filter,
+                               String encoding, String fallbackEncoding) {
+        super(response);
+        this.filter = filter;
+        this.encoding = encoding;
+        this.fallbackEncoding = fallbackEncoding;
+        this.buffer = filter.acquireBuffer();
+    }
+
+    @Override
+    public ServletOutputStream getOutputStream() {
+        if (writer != null) {
+            throw new IllegalStateException("getWriter() has already been called for this response");
+        }
+        if (outputStream == null) {
+            outputStream = new BufferingOutputStream();
+        }
+        return outputStream;
+    }
+
+    @Override
+    public PrintWriter getWriter() throws IOException {
+        if (writer == null) {
+            if (outputStream != null) {
+                throw new IllegalStateException("getOutputStream() has already been called for this response");
+            }
+            outputStream = new BufferingOutputStream();
+            writer = new PrintWriter(new OutputStreamWriter(outputStream, getCharacterEncoding()));
+        }
+        return writer;
+    }
+
+    @Override
+    public void setContentLength(int len) {
+        setContentLengthLong(len);
+    }
+
+    @Override
+    public void setContentLengthLong(long len) {
+        if (target != null && compressor == null) {
+            super.setContentLengthLong(len);
+        } else {
+            contentLength = len;
+        }
+    }
+
+    @Override
+    public void setHeader(String name, String value) {
+        if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+            setContentLengthLong(value == null ? -1 : Long.parseLong(value));
+        } else {
+            super.setHeader(name, value);
+        }
+    }
+
+    @Override
+    public void addHeader(String name, String value) {
+        if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+            setContentLengthLong(Long.parseLong(value));
+        } else {
+            super.addHeader(name, value);
+        }
+    }
+
+    @Override
+    public void setIntHeader(String name, int value) {
+        if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+            setContentLengthLong(value);
+        } else {
+            super.setIntHeader(name, value);
+        }
+    }
+
+    @Override
+    public void addIntHeader(String name, int value) {
+        if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+            setContentLengthLong(value);
+        } else {
+            super.addIntHeader(name, value);
+        }
+    }
+
+    @Override
+    public void flushBuffer() throws IOException {
+        // 未决定前 flush 不提交响应，否则无法再设置 Content-Encoding
+        if (writer != null) {
+            writer.flush();
+        }
+        if (target != null) {
+            target.flush();
+            super.flushBuffer();
+        }
+    }
+
+    /**
+     * 压缩开始后已写出的压缩数据无法撤回，也无法重置压缩流的状态，按已提交处理
+     */
+    @Override
+    public void resetBuffer() {
+        checkNotCompressing();
+        if (target == null) {
+            count = 0;
+            bytesIn = 0;
+        } else {
+            super.resetBuffer();
+        }
+    }
+
+    @Override
+    public void reset() {
+        checkNotCompressing();
+        super.reset();
+        if (target == null) {
+            count = 0;
+            bytesIn = 0;
+            contentLength = -1;
+        }
+    }
+
+    private void checkNotCompressing() {
+        if (compressor != null) {
+            throw new IllegalStateException("响应已开始压缩输出，无法重置缓冲区");
+        }
+    }
+
+    @Override
+    public void sendError(int sc, String msg) throws IOException {
+        resetBuffer();
+        super.sendError(sc, msg);
+    }
+
+    @Override
+    public void sendError(int sc) throws IOException {
+        resetBuffer();
+        super.sendError(sc);
+    }
+
+    /**
+     * 请求处理完成：未超过阈值时原样写出，压缩时写出压缩流尾部
+     */
+    void finish() throws IOException {
+        if (writer != null) {
+            writer.flush();
+        }
+        if (target == null && count > filter.getMinResponseSize()) {
+            start(fallbackEncoding);
+        }
+        if (target == null) {
+            if (filter.isCompressible(getContentType())) {
+                addVary();
+            }
+            if (count > 0) {
+                super.setContentLength(count);
+                super.getOutputStream().write(buffer, 0, count);
+            }
+            filter.recordUncompressed();
+            return;
+        }
+        if (compressor != null) {
+            compressor.close();
+            filter.recordCompressed(bytesIn, counter.count);
+        } else {
+            filter.recordUncompressed();
+        }
+        target.flush();
+    }
+
+    /**
+     * 归还缓冲区和 Deflater，无论请求是否正常结束都要调用；可重复调用，异步请求可能由容器线程调用
+     */
+    synchronized void release() {
+        if (buffer != null) {
+            filter.releaseBuffer(buffer);
+            buffer = null;
+        }
+        if (deflateBuffer != null) {
+            filter.releaseBuffer(deflateBuffer);
+            deflateBuffer = null;
+        }
+        if (deflater != null) {
+            filter.releaseDeflater(deflater);
+            deflater = null;
+        }
+    }
+
+    private void write(byte[] b, int off, int len) throws IOException {
+        bytesIn += len;
+        if (target == null) {
+            int limit = Objects.equals(encoding, fallbackEncoding) ? filter.getMinResponseSize() : buffer.length;
+            if (count + len <= limit) {
+                System.arraycopy(b, off, buffer, count, len);
+                count += len;
+                return;
+            }
+            start(encoding);
+        }
+        target.write(b, off, len);
+    }
+
+    /**
+     * 超过阈值：决定输出方式，先写出暂存的数据
+     */
+    private void start(String encoding) throws IOException {
+        boolean compressible = filter.isCompressible(getContentType());
+        if (compressible) {
+            addVary();
+        }
+        int status = getStatus();
+        if (encoding != null && compressible && getHeader(HttpHeaders.CONTENT_ENCODING) == null
+                && status >= 200 && status != HttpServletResponse.SC_NO_CONTENT
+                && status != HttpServletResponse.SC_NOT_MODIFIED) {
+            super.setHeader(HttpHeaders.CONTENT_ENCODING, encoding);
+            // 压缩后的字节与原表示不同，其他接口设置的强ETag降为弱ETag，If-None-Match 仍按弱比较命中
+            String etag = getHeader(HttpHeaders.ETAG);
+            if (etag != null && !etag.startsWith("W/")) {
+                super.setHeader(HttpHeaders.ETAG, "W/" + etag);
+            }
+            counter = new CountingOutputStream(super.getOutputStream());
+            if (ResponseCompressionFilter.ZSTD.equals(encoding)) {
+                compressor = Zstd.wrap(counter);
+            } else {
+                deflater = filter.acquireDeflater();
+                deflateBuffer = filter.acquireBuffer();
+                compressor = new PooledGzipOutputStream(counter, deflater, deflateBuffer);
+            }
+            target = compressor;
+        } else {
+            if (contentLength >= 0) {
+                super.setContentLengthLong(contentLength);
+            }
+            target = super.getOutputStream();
+        }
+        target.write(buffer, 0, count);
+        count = 0;
+    }
+
+    private void addVary() {
+        for (String vary : getHeaders(HttpHeaders.VARY)) {
+            for (String token : vary.split(",")) {
+                String name = token.trim().toLowerCase(Locale.ROOT);
+                if (name.equals("accept-encoding") || name.equals("*")) {
+                    return;
+                }
+            }
+        }
+        super.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+    }
+
+    private final class BufferingOutputStream extends ServletOutputStream {
+
+        private final byte[] single = new byte[1];
+
+        @Override
+        public void write(int b) throws IOException {
+            single[0] = (byte) b;
+            CompressingResponseWrapper.this.write(single, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            CompressingResponseWrapper.this.write(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (target != null) {
+                target.flush();
+            }
+        }
+
+        @Override
+        public boolean isReady() {
+            return true;
+        }
+
+        @Override
+        public void setWriteListener(WriteListener listener) {
+            throw new UnsupportedOperationException("non-blocking output is not supported by compression");
+        }
+    }
+
+    /**
+     * 统计压缩后字节数；close 只 flush，不关闭 servlet 输出流
+     */
+    private static final class CountingOutputStream extends OutputStream {
+
+        private final OutputStream out;
+        private long count;
+
+        CountingOutputStream(OutputStream out) {
+            this.out = out;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+
+        @Override
+        public void flush() throws IOException {
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.flush();
+        }
+    }
+
+    /**
+     * 单独的类引用 aircompressor，类路径上没有时不影响 gzip
+     */
+    private static final class Zstd {
+
+        static OutputStream wrap(OutputStream out) throws IOException {
+            return new ZstdOutputStream(out);
+        }
+    }
+}
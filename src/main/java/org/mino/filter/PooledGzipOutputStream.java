@@ -0,0 +1,60 @@
+package org.mino.filter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * 使用外部 Deflater 和输出缓冲区的 gzip 输出流
+ * GZIPOutputStream 每次都新建 Deflater 和缓冲区，这里两者都由调用方从池中借用；
+ * finish 后写出 gzip 尾部，不关闭 Deflater，也不关闭下层输出流
+ */
+final class PooledGzipOutputStream extends DeflaterOutputStream {
+
+    /** gzip 头：魔数、deflate、无标志、无修改时间、无额外标志、操作系统未知 */
+    private static final byte[] HEADER = {0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff};
+
+    private final CRC32 crc = new CRC32();
+    private boolean finished;
+
+    /**
+     * @param deflater 必须为 nowrap 模式，由调用方负责 reset / end
+     * @param buffer deflate 输出缓冲区
+     */
+    PooledGzipOutputStream(OutputStream out, Deflater deflater, byte[] buffer) throws IOException {
+        super(out, deflater, 1);
+        this.buf = buffer;
+        out.write(HEADER);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        super.write(b, off, len);
+        crc.update(b, off, len);
+    }
+
+    @Override
+    public void finish() throws IOException {
+        if (finished) {
+            return;
+        }
+        finished = true;
+        super.finish();
+        long crcValue = crc.getValue();
+        long size = def.getBytesRead();
+        byte[] trailer = new byte[8];
+        for (int i = 0; i < 4; i++) {
+            trailer[i] = (byte) (crcValue >>> (i * 8));
+            trailer[i + 4] = (byte) (size >>> (i * 8));
+        }
+        out.write(trailer);
+    }
+
+    @Override
+    public void close() throws IOException {
+        finish();
+        out.flush();
+    }
+}
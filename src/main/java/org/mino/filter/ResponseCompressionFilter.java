@@ -0,0 +1,261 @@
+package org.mino.filter;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.mino.config.CompressionProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.ClassUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.WebUtils;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.Deflater;
+
+/**
+ * 响应压缩过滤器
+ * 默认只使用 gzip（app.compression.zstd 默认为 false）：客户端 Accept-Encoding 接受 gzip 时压缩，
+ * 响应体先写入池化缓冲区，超过 minResponseSize 才开始压缩并流式写出，未超过时原样输出并带 Content-Length。
+ * 暂存缓冲区和 Deflater（约 256KB 本地内存）都从池中借用，大响应不会反复分配。
+ * 开启 zstd（aircompressor，纯 Java）后，客户端接受 zstd 时超过 bufferSize 的响应改用 zstd，
+ * 客户端不接受 gzip 时所有响应都用 zstd；默认不开启是因为 aircompressor 不能复用压缩状态，每个流都要新分配约 1.7MB，无法池化。
+ * 异步请求在最后一次异步分派（或异步完成）时才写出并归还缓冲区，避免异步线程写入已被其他请求借走的缓冲区
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class ResponseCompressionFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(ResponseCompressionFilter.class);
+
+    static final String GZIP = "gzip";
+    static final String ZSTD = "zstd";
+
+    private static final boolean ZSTD_PRESENT =
+            ClassUtils.isPresent("io.airlift.compress.zstd.ZstdOutputStream", ResponseCompressionFilter.class.getClassLoader());
+
+    private final CompressionProperties properties;
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final int bufferSize;
+    private final BlockingQueue<byte[]> buffers;
+    private final BlockingQueue<Deflater> deflaters;
+    private final LongAdder compressed = new LongAdder();
+    private final LongAdder uncompressed = new LongAdder();
+    private final LongAdder bytesIn = new LongAdder();
+    private final LongAdder bytesOut = new LongAdder();
+
+    @Autowired
+    public ResponseCompressionFilter(CompressionProperties properties) {
+        this.properties = properties;
+        this.bufferSize = Math.max(properties.getBufferSize(), properties.getMinResponseSize());
+        this.buffers = new ArrayBlockingQueue<>(Math.max(1, properties.getPoolSize()));
+        this.deflaters = new ArrayBlockingQueue<>(Math.max(1, properties.getPoolSize()));
+        logger.info("ResponseCompressionFilter initialized, enabled: {}, minResponseSize: {}, zstd: {}",
+                properties.isEnabled(), properties.getMinResponseSize(), properties.isZstd() && ZSTD_PRESENT);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!properties.isEnabled() || "HEAD".equals(request.getMethod())) {
+            return true;
+        }
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        for (String pattern : properties.getExcludedPaths()) {
+            if (pathMatcher.match(pattern, path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 异步分派也要经过本过滤器，在最后一次分派中写出暂存的数据
+     */
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        // 异步分派时容器传入的是 startAsync 时的响应，即首次分派创建的包装
+        CompressingResponseWrapper existing = WebUtils.getNativeResponse(response, CompressingResponseWrapper.class);
+        CompressingResponseWrapper wrapper = existing != null ? existing : wrap(request, response);
+        try {
+            chain.doFilter(request, existing != null ? response : wrapper);
+            if (!request.isAsyncStarted()) {
+                wrapper.finish();
+            }
+        } finally {
+            if (!request.isAsyncStarted()) {
+                wrapper.release();
+            } else if (existing == null) {
+                // 异步处理可能不再分派回来（直接 complete），在异步结束时兜底归还
+                request.getAsyncContext().addListener(new ReleaseOnComplete(wrapper));
+            }
+        }
+    }
+
+    private CompressingResponseWrapper wrap(HttpServletRequest request, HttpServletResponse response) {
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        String encoding = selectEncoding(acceptEncoding, true);
+        String fallbackEncoding = encoding;
+        if (ZSTD.equals(encoding)) {
+            String gzip = selectEncoding(acceptEncoding, false);
+            fallbackEncoding = gzip != null ? gzip : ZSTD;
+        }
+        return new CompressingResponseWrapper(response, this, encoding, fallbackEncoding);
+    }
+
+    /**
+     * 按 Accept-Encoding 选择编码，q=0 表示不接受；允许 zstd 时 zstd 优先于 gzip，都不接受时返回 null
+     */
+    String selectEncoding(String acceptEncoding, boolean allowZstd) {
+        if (acceptEncoding == null || acceptEncoding.isEmpty()) {
+            return null;
+        }
+        Boolean gzip = null;
+        boolean zstd = false;
+        boolean wildcard = false;
+        for (String token : acceptEncoding.split(",")) {
+            String[] parts = token.split(";");
+            String name = parts[0].trim().toLowerCase(Locale.ROOT);
+            boolean accepted = true;
+            for (int i = 1; i < parts.length; i++) {
+                String param = parts[i].trim();
+                if (param.startsWith("q=")) {
+                    try {
+                        accepted = Double.parseDouble(param.substring(2)) > 0;
+                    } catch (NumberFormatException e) {
+                        accepted = false;
+                    }
+                }
+            }
+            switch (name) {
+                case GZIP, "x-gzip" -> gzip = accepted;
+                case ZSTD -> zstd = accepted;
+                case "*" -> wildcard = accepted;
+                default -> {
+                }
+            }
+        }
+        if (allowZstd && zstd && properties.isZstd() && ZSTD_PRESENT) {
+            return ZSTD;
+        }
+        // gzip 未单独列出时由 * 决定
+        return gzip != null ? (gzip ? GZIP : null) : (wildcard ? GZIP : null);
+    }
+
+    boolean isCompressible(String contentType) {
+        if (contentType == null) {
+            return false;
+        }
+        int separator = contentType.indexOf(';');
+        String mimeType = (separator < 0 ? contentType : contentType.substring(0, separator)).trim();
+        for (String candidate : properties.getMimeTypes()) {
+            if (candidate.equalsIgnoreCase(mimeType)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    int getMinResponseSize() {
+        return properties.getMinResponseSize();
+    }
+
+    byte[] acquireBuffer() {
+        byte[] buffer = buffers.poll();
+        return buffer != null ? buffer : new byte[bufferSize];
+    }
+
+    void releaseBuffer(byte[] buffer) {
+        buffers.offer(buffer);
+    }
+
+    Deflater acquireDeflater() {
+        Deflater deflater = deflaters.poll();
+        return deflater != null ? deflater : new Deflater(properties.getGzipLevel(), true);
+    }
+
+    void releaseDeflater(Deflater deflater) {
+        deflater.reset();
+        if (!deflaters.offer(deflater)) {
+            deflater.end();
+        }
+    }
+
+    void recordCompressed(long in, long out) {
+        compressed.increment();
+        bytesIn.add(in);
+        bytesOut.add(out);
+    }
+
+    void recordUncompressed() {
+        uncompressed.increment();
+    }
+
+    /**
+     * 异步请求结束时归还缓冲区，已在分派中归还时不重复处理
+     */
+    private static final class ReleaseOnComplete implements AsyncListener {
+
+        private final CompressingResponseWrapper wrapper;
+
+        private ReleaseOnComplete(CompressingResponseWrapper wrapper) {
+            this.wrapper = wrapper;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            wrapper.release();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+    }
+
+    /**
+     * 压缩统计
+     */
+    public Map<String, Object> stats() {
+        long in = bytesIn.sum();
+        long out = bytesOut.sum();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", properties.isEnabled());
+        stats.put("zstdAvailable", ZSTD_PRESENT);
+        stats.put("compressed", compressed.sum());
+        stats.put("uncompressed", uncompressed.sum());
+        stats.put("bytesIn", in);
+        stats.put("bytesOut", out);
+        stats.put("ratio", in == 0 ? 0.0 : (double) out / in);
+        stats.put("pooledBuffers", buffers.size());
+        stats.put("pooledDeflaters", deflaters.size());
+        return stats;
+    }
+}
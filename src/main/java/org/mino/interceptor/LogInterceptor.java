@@ -0,0 +1,158 @@
+package org.mino.interceptor;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.mino.config.LogInterceptorProperties;
+import org.mino.model.OperationLog;
+import org.mino.service.LogService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * 日志拦截器
+ * 记录每个 /api/** 请求的方法、路径、客户端IP、用户ID和纳秒级耗时，交给 LogService 异步落库。
+ * 请求线程上只做字段赋值：不反射、不拼接字符串、不读取请求体；查询参数按比例采样并截断，
+ * 路径和IP按 operation_log 的列宽截断，避免整批 INSERT 因单行超长失败
+ */
+@Component
+public class LogInterceptor implements HandlerInterceptor {
+
+    /** 请求开始时间（System.nanoTime）的请求属性名 */
+    public static final String START_TIME_ATTRIBUTE = LogInterceptor.class.getName() + ".startTime";
+
+    /** 调用方传递用户ID的请求头 */
+    public static final String USER_ID_HEADER = "X-User-Id";
+
+    private static final String FORWARDED_FOR_HEADER = "X-Forwarded-For";
+
+    private static final String UNKNOWN_OPERATION = "unknown";
+
+    /** 与 init.sql 中 operation_log.path / ip 的列宽一致 */
+    static final int MAX_PATH_LENGTH = 200;
+    static final int MAX_IP_LENGTH = 50;
+
+    private final LogService logService;
+    private final boolean enabled;
+    private final int paramSampleRate;
+    private final int maxParamLength;
+    private final boolean trustForwardedFor;
+    private final Pattern trustedProxies;
+    private final AtomicLong requestCounter = new AtomicLong();
+
+    @Autowired
+    public LogInterceptor(LogService logService, LogInterceptorProperties properties) {
+        this.logService = logService;
+        this.enabled = properties.isEnabled();
+        this.paramSampleRate = properties.getParamSampleRate();
+        this.maxParamLength = properties.getMaxParamLength();
+        this.trustForwardedFor = properties.isTrustForwardedFor();
+        this.trustedProxies = Pattern.compile(properties.getTrustedProxies());
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (enabled) {
+            request.setAttribute(START_TIME_ATTRIBUTE, System.nanoTime());
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        Object start = request.getAttribute(START_TIME_ATTRIBUTE);
+        if (!(start instanceof Long startNanos)) {
+            return;
+        }
+        long costTime = System.nanoTime() - startNanos;
+
+        OperationLog log = new OperationLog();
+        log.setUserId(parseUserId(request.getHeader(USER_ID_HEADER)));
+        // HandlerMethod 在启动时已解析，这里只取缓存的方法名
+        log.setOperation(handler instanceof HandlerMethod handlerMethod
+                ? handlerMethod.getMethod().getName() : UNKNOWN_OPERATION);
+        log.setMethod(request.getMethod());
+        log.setPath(truncate(request.getRequestURI(), MAX_PATH_LENGTH));
+        log.setParams(sampleParams(request));
+        log.setIp(truncate(clientIp(request), MAX_IP_LENGTH));
+        log.setStatus(response.getStatus());
+        log.setCostTime(costTime);
+        log.setCreateTime(LocalDateTime.now());
+        logService.recordOperationLog(log);
+    }
+
+    /**
+     * 按采样率记录查询参数，超长时截断
+     */
+    private String sampleParams(HttpServletRequest request) {
+        if (paramSampleRate <= 0 || requestCounter.getAndIncrement() % paramSampleRate != 0) {
+            return null;
+        }
+        String query = request.getQueryString();
+        if (query == null || query.length() <= maxParamLength) {
+            return query;
+        }
+        return query.substring(0, maxParamLength);
+    }
+
+    /**
+     * 客户端IP：直连地址是可信代理时，从 X-Forwarded-For 右侧开始跳过可信代理，取第一个其他地址；
+     * 最左侧的地址由客户端填写，不可信
+     */
+    String clientIp(HttpServletRequest request) {
+        String remoteAddr = request.getRemoteAddr();
+        if (!trustForwardedFor || remoteAddr == null || !trustedProxies.matcher(remoteAddr).matches()) {
+            return remoteAddr;
+        }
+        String forwarded = request.getHeader(FORWARDED_FOR_HEADER);
+        if (forwarded == null || forwarded.isEmpty()) {
+            return remoteAddr;
+        }
+        String client = remoteAddr;
+        int end = forwarded.length();
+        while (end > 0) {
+            int comma = forwarded.lastIndexOf(',', end - 1);
+            String address = forwarded.substring(comma + 1, end).trim();
+            end = comma < 0 ? 0 : comma;
+            if (address.isEmpty()) {
+                continue;
+            }
+            client = address;
+            if (!trustedProxies.matcher(address).matches()) {
+                break;
+            }
+        }
+        return client;
+    }
+
+    private static String truncate(String value, int maxLength) {
+        return value == null || value.length() <= maxLength ? value : value.substring(0, maxLength);
+    }
+
+    /**
+     * 解析用户ID，非法值忽略
+     */
+    static Long parseUserId(String value) {
+        if (value == null || value.isEmpty() || value.length() > 19) {
+            return null;
+        }
+        long result = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9') {
+                return null;
+            }
+            result = result * 10 + (c - '0');
+            if (result < 0) {
+                return null;
+            }
+        }
+        return result;
+    }
+}
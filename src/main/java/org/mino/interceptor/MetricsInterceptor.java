@@ -0,0 +1,73 @@
+package org.mino.interceptor;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.mino.metrics.EndpointMetrics;
+import org.mino.metrics.SqlBudget;
+import org.mino.metrics.SqlBudgetMonitor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * 接口指标拦截器
+ * 记录每个 /api/** 请求从进入处理器到完成的纳秒耗时，按处理方法写入延迟直方图；
+ * 同时在请求线程上开启 SQL 往返计数，请求结束时按接口汇总并检查预算
+ */
+@Component
+public class MetricsInterceptor implements HandlerInterceptor {
+
+    /** 请求开始时间（System.nanoTime）的请求属性名 */
+    public static final String START_TIME_ATTRIBUTE = MetricsInterceptor.class.getName() + ".startTime";
+
+    /** 请求SQL计数的请求属性名 */
+    public static final String SQL_USAGE_ATTRIBUTE = MetricsInterceptor.class.getName() + ".sqlUsage";
+
+    private final EndpointMetrics metrics;
+
+    private final SqlBudgetMonitor sqlBudgetMonitor;
+
+    @Autowired
+    public MetricsInterceptor(EndpointMetrics metrics, SqlBudgetMonitor sqlBudgetMonitor) {
+        this.metrics = metrics;
+        this.sqlBudgetMonitor = sqlBudgetMonitor;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!(handler instanceof HandlerMethod)) {
+            return true;
+        }
+        if (metrics.isEnabled()) {
+            request.setAttribute(START_TIME_ATTRIBUTE, System.nanoTime());
+        }
+        if (sqlBudgetMonitor.isEnabled()) {
+            request.setAttribute(SQL_USAGE_ATTRIBUTE, SqlBudget.begin());
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        if (!(handler instanceof HandlerMethod handlerMethod)) {
+            return;
+        }
+        Object start = request.getAttribute(START_TIME_ATTRIBUTE);
+        Object usage = request.getAttribute(SQL_USAGE_ATTRIBUTE);
+        if (start == null && usage == null) {
+            return;
+        }
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : request.getRequestURI();
+        if (start instanceof Long startNanos) {
+            metrics.record(handlerMethod.getMethod(), request.getMethod(), uri, System.nanoTime() - startNanos);
+        }
+        if (usage instanceof SqlBudget.Usage sqlUsage) {
+            sqlUsage.close();
+            sqlBudgetMonitor.record(handlerMethod.getMethod(), request.getMethod(), uri, sqlUsage);
+        }
+    }
+}
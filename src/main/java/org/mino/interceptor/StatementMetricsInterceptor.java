@@ -0,0 +1,219 @@
+package org.mino.interceptor;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.executor.statement.StatementHandler;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.mapping.ParameterMode;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+import org.mino.metrics.ConnectionAcquireTime;
+import org.mino.metrics.SqlBudget;
+import org.mino.metrics.StatementMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.sql.Connection;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * MyBatis 语句耗时插件，由 mybatis-spring-boot-starter 自动注册
+ * Executor 层计总耗时和行数；连接获取耗时取语句执行期间 {@link ConnectionAcquireTime} 的增量，
+ * 由连接池外的计时包装记录，读写分离延迟到 prepare 内借出连接时也计入获取耗时而不是执行耗时；
+ * 事务开始时已经借出的连接不计入。StatementHandler 的 query/update/batch 为执行耗时。
+ * 计时状态放在线程复用的对象里，正常路径不分配对象；只有慢语句才提取SQL和绑定参数。
+ * 访问了数据库的语句同时计入当前请求的 SQL 预算
+ */
+@Component
+@Intercepts({
+        @Signature(type = Executor.class, method = "update", args = {MappedStatement.class, Object.class}),
+        @Signature(type = Executor.class, method = "query",
+                args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class}),
+        @Signature(type = Executor.class, method = "query",
+                args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class,
+                        CacheKey.class, BoundSql.class}),
+        @Signature(type = Executor.class, method = "queryCursor",
+                args = {MappedStatement.class, Object.class, RowBounds.class}),
+        @Signature(type = StatementHandler.class, method = "prepare", args = {Connection.class, Integer.class}),
+        @Signature(type = StatementHandler.class, method = "query", args = {Statement.class, ResultHandler.class}),
+        @Signature(type = StatementHandler.class, method = "update", args = {Statement.class}),
+        @Signature(type = StatementHandler.class, method = "batch", args = {Statement.class})
+})
+public class StatementMetricsInterceptor implements Interceptor {
+
+    private static final int MAX_PARAMETER_LENGTH = 100;
+
+    private static final ThreadLocal<Timing> TIMING = ThreadLocal.withInitial(Timing::new);
+
+    private final StatementMetrics metrics;
+
+    @Autowired
+    public StatementMetricsInterceptor(StatementMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        if (invocation.getTarget() instanceof StatementHandler handler) {
+            return interceptStatement(invocation, handler);
+        }
+        return interceptExecutor(invocation);
+    }
+
+    private Object interceptExecutor(Invocation invocation) throws Throwable {
+        Timing timing = TIMING.get();
+        // 嵌套调用（如执行器内部转调）只在最外层计时
+        if (timing.depth++ > 0) {
+            try {
+                return invocation.proceed();
+            } finally {
+                timing.depth--;
+            }
+        }
+        timing.start = System.nanoTime();
+        timing.acquireStart = ConnectionAcquireTime.total();
+        timing.prepared = 0;
+        timing.executeNanos = 0;
+        timing.boundSql = null;
+        Object result = null;
+        boolean failed = true;
+        try {
+            result = invocation.proceed();
+            failed = false;
+            return result;
+        } finally {
+            timing.depth--;
+            long total = System.nanoTime() - timing.start;
+            long acquire = ConnectionAcquireTime.total() - timing.acquireStart;
+            long rows = rows(result);
+            // 没有 prepare 说明命中了 MyBatis 缓存，不算一次往返
+            if (timing.prepared != 0) {
+                SqlBudget.recordStatement(total);
+            }
+            if (metrics.isEnabled()) {
+                MappedStatement statement = (MappedStatement) invocation.getArgs()[0];
+                metrics.record(statement.getId(), total, acquire, timing.executeNanos, rows, failed);
+                if (metrics.isSlow(total)) {
+                    recordSlow(statement, invocation.getArgs()[1], timing, total, acquire, rows);
+                }
+            }
+            timing.boundSql = null;
+        }
+    }
+
+    private Object interceptStatement(Invocation invocation, StatementHandler handler) throws Throwable {
+        Timing timing = TIMING.get();
+        long start = System.nanoTime();
+        if ("prepare".equals(invocation.getMethod().getName())) {
+            // 嵌套查询也会 prepare，只取第一次
+            if (timing.prepared == 0) {
+                timing.prepared = start;
+                timing.boundSql = handler.getBoundSql();
+            }
+            return invocation.proceed();
+        }
+        try {
+            return invocation.proceed();
+        } finally {
+            timing.executeNanos += System.nanoTime() - start;
+        }
+    }
+
+    private static long rows(Object result) {
+        if (result instanceof Collection<?> collection) {
+            return collection.size();
+        }
+        // BatchExecutor 返回的占位值为负数，不计入
+        if (result instanceof Integer count && count >= 0) {
+            return count;
+        }
+        return -1;
+    }
+
+    private void recordSlow(MappedStatement statement, Object parameterObject, Timing timing, long total,
+                            long acquire, long rows) {
+        BoundSql boundSql = timing.boundSql != null ? timing.boundSql : statement.getBoundSql(parameterObject);
+        metrics.recordSlow(new StatementMetrics.SlowStatement(statement.getId(),
+                boundSql.getSql().replaceAll("\\s+", " ").trim(),
+                parameters(statement.getConfiguration(), boundSql), currentRequest(), total, acquire,
+                timing.executeNanos, rows, LocalDateTime.now()));
+    }
+
+    /**
+     * 按 DefaultParameterHandler 的规则取出绑定参数的值，超长值截断
+     */
+    static List<Object> parameters(Configuration configuration, BoundSql boundSql) {
+        Object parameterObject = boundSql.getParameterObject();
+        List<Object> values = new ArrayList<>();
+        MetaObject metaObject = null;
+        for (ParameterMapping mapping : boundSql.getParameterMappings()) {
+            if (mapping.getMode() == ParameterMode.OUT) {
+                continue;
+            }
+            String property = mapping.getProperty();
+            Object value;
+            if (boundSql.hasAdditionalParameter(property)) {
+                value = boundSql.getAdditionalParameter(property);
+            } else if (parameterObject == null) {
+                value = null;
+            } else if (configuration.getTypeHandlerRegistry().hasTypeHandler(parameterObject.getClass())) {
+                value = parameterObject;
+            } else {
+                if (metaObject == null) {
+                    metaObject = configuration.newMetaObject(parameterObject);
+                }
+                value = metaObject.getValue(property);
+            }
+            if (value instanceof String text && text.length() > MAX_PARAMETER_LENGTH) {
+                value = text.substring(0, MAX_PARAMETER_LENGTH);
+            } else if (value != null && !(value instanceof Number) && !(value instanceof Boolean)) {
+                value = String.valueOf(value);
+            }
+            values.add(value);
+        }
+        return values;
+    }
+
+    private static String currentRequest() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes instanceof ServletRequestAttributes servletAttributes) {
+            HttpServletRequest request = servletAttributes.getRequest();
+            return request.getMethod() + " " + request.getRequestURI();
+        }
+        return null;
+    }
+
+    /**
+     * 当前线程正在执行的语句的计时状态
+     */
+    private static final class Timing {
+
+        int depth;
+
+        long start;
+
+        long acquireStart;
+
+        long prepared;
+
+        long executeNanos;
+
+        BoundSql boundSql;
+    }
+}
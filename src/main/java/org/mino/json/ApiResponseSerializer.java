@@ -0,0 +1,32 @@
+package org.mino.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import org.mino.model.ApiResponse;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * ApiResponse 手写序列化器，data 按运行时类型查找序列化器（User 会再走 UserSerializer）
+ */
+@SuppressWarnings("rawtypes")
+final class ApiResponseSerializer extends ModelSerializer<ApiResponse> {
+
+    /** 与反射序列化的字段顺序一致，ModelJsonModule 据此校验 */
+    static final List<String> PROPERTIES = List.of("code", "message", "data", "timestamp");
+
+    ApiResponseSerializer(JsonSerializer<?> fallback) {
+        super(ApiResponse.class, fallback);
+    }
+
+    @Override
+    protected void writeFields(ApiResponse response, JsonGenerator gen, SerializerProvider provider)
+            throws IOException {
+        gen.writeNumberField("code", response.getCode());
+        gen.writeStringField("message", response.getMessage());
+        provider.defaultSerializeField("data", response.getData(), gen);
+        gen.writeNumberField("timestamp", response.getTimestamp());
+    }
+}
@@ -0,0 +1,88 @@
+package org.mino.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * 按 ISO_LOCAL_DATE_TIME 写出 LocalDateTime（与 JavaTimeModule 默认输出一致，如 2024-01-02T03:04:05.12）
+ * 日期部分 "yyyy-MM-ddT" 按最近一次的日期缓存，同一批数据多落在同一天；
+ * 时间部分直接写入字符缓冲区，不经过 DateTimeFormatter，不产生中间 String。线程安全
+ */
+final class LocalDateTimeWriter {
+
+    private static final int PREFIX_LENGTH = 11;
+
+    /** yyyy-MM-ddTHH:mm:ss.nnnnnnnnn */
+    private static final int MAX_LENGTH = 29;
+
+    private volatile DatePrefix cached;
+
+    void write(LocalDateTime value, JsonGenerator gen) throws IOException {
+        int year = value.getYear();
+        if (year < 0 || year > 9999) {
+            // 超出四位年份时带符号输出，交给标准格式化器
+            gen.writeString(value.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+            return;
+        }
+        char[] buffer = new char[MAX_LENGTH];
+        DatePrefix prefix = cached;
+        if (prefix == null || !prefix.date.equals(value.toLocalDate())) {
+            prefix = new DatePrefix(value.toLocalDate());
+            cached = prefix;
+        }
+        System.arraycopy(prefix.chars, 0, buffer, 0, PREFIX_LENGTH);
+        int pos = PREFIX_LENGTH;
+        pos = writeTwoDigits(buffer, pos, value.getHour());
+        buffer[pos++] = ':';
+        pos = writeTwoDigits(buffer, pos, value.getMinute());
+        buffer[pos++] = ':';
+        pos = writeTwoDigits(buffer, pos, value.getSecond());
+        int nano = value.getNano();
+        if (nano != 0) {
+            // 小数部分去掉末尾的 0
+            buffer[pos++] = '.';
+            int digits = 9;
+            while (nano % 10 == 0) {
+                nano /= 10;
+                digits--;
+            }
+            for (int i = pos + digits - 1; i >= pos; i--) {
+                buffer[i] = (char) ('0' + nano % 10);
+                nano /= 10;
+            }
+            pos += digits;
+        }
+        gen.writeString(buffer, 0, pos);
+    }
+
+    private static int writeTwoDigits(char[] buffer, int pos, int value) {
+        buffer[pos] = (char) ('0' + value / 10);
+        buffer[pos + 1] = (char) ('0' + value % 10);
+        return pos + 2;
+    }
+
+    private static final class DatePrefix {
+
+        private final LocalDate date;
+        private final char[] chars;
+
+        DatePrefix(LocalDate date) {
+            this.date = date;
+            this.chars = new char[PREFIX_LENGTH];
+            int year = date.getYear();
+            chars[0] = (char) ('0' + year / 1000);
+            chars[1] = (char) ('0' + year / 100 % 10);
+            chars[2] = (char) ('0' + year / 10 % 10);
+            chars[3] = (char) ('0' + year % 10);
+            chars[4] = '-';
+            writeTwoDigits(chars, 5, date.getMonthValue());
+            chars[7] = '-';
+            writeTwoDigits(chars, 8, date.getDayOfMonth());
+            chars[10] = 'T';
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package org.mino.json;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializationConfig;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.BeanPropertyWriter;
+import com.fasterxml.jackson.databind.ser.BeanSerializer;
+import com.fasterxml.jackson.databind.ser.BeanSerializerModifier;
+import com.fasterxml.jackson.databind.ser.PropertyWriter;
+import org.mino.model.ApiResponse;
+import org.mino.model.User;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * ApiResponse / User 的手写序列化模块，Spring Boot 自动注册到 ObjectMapper
+ * 在 Jackson 生成 BeanSerializer 之后替换：只有字段名和顺序与手写实现一致、没有空值过滤、
+ * 自定义序列化器或 @JsonFormat 时才替换，否则保留反射序列化器，输出始终与反射序列化逐字节一致
+ */
+@Component
+public class ModelJsonModule extends SimpleModule {
+
+    public ModelJsonModule() {
+        super(ModelJsonModule.class.getSimpleName());
+        LocalDateTimeWriter dateTimeWriter = new LocalDateTimeWriter();
+        setSerializerModifier(new BeanSerializerModifier() {
+            @Override
+            public JsonSerializer<?> modifySerializer(SerializationConfig config, BeanDescription beanDesc,
+                                                      JsonSerializer<?> serializer) {
+                Class<?> type = beanDesc.getBeanClass();
+                if (type == User.class && matches(config, serializer, UserSerializer.PROPERTIES)) {
+                    return new UserSerializer(serializer, dateTimeWriter);
+                }
+                if (type == ApiResponse.class && matches(config, serializer, ApiResponseSerializer.PROPERTIES)) {
+                    return new ApiResponseSerializer(serializer);
+                }
+                return serializer;
+            }
+        });
+    }
+
+    /**
+     * 反射序列化器的属性是否与手写实现完全对应
+     */
+    private static boolean matches(SerializationConfig config, JsonSerializer<?> serializer, List<String> names) {
+        if (serializer.getClass() != BeanSerializer.class || serializer.usesObjectId()) {
+            return false;
+        }
+        Iterator<PropertyWriter> properties = serializer.properties();
+        for (String name : names) {
+            if (!properties.hasNext()) {
+                return false;
+            }
+            PropertyWriter property = properties.next();
+            if (!name.equals(property.getName())
+                    || !(property instanceof BeanPropertyWriter writer)
+                    || writer.willSuppressNulls()
+                    || writer.hasSerializer()
+                    || writer.hasNullSerializer()
+                    || !isDefaultFormat(writer.findPropertyFormat(config, writer.getType().getRawClass()))) {
+                return false;
+            }
+        }
+        return !properties.hasNext();
+    }
+
+    private static boolean isDefaultFormat(JsonFormat.Value format) {
+        return format.getShape() == JsonFormat.Shape.ANY && !format.hasPattern()
+                && !format.hasLocale() && !format.hasTimeZone();
+    }
+}
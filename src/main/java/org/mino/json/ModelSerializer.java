@@ -0,0 +1,94 @@
+package org.mino.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.BeanProperty;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsonFormatVisitors.JsonFormatVisitorWrapper;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+import com.fasterxml.jackson.databind.ser.ContextualSerializer;
+import com.fasterxml.jackson.databind.ser.ResolvableSerializer;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.fasterxml.jackson.databind.util.NameTransformer;
+
+import java.io.IOException;
+
+/**
+ * 手写模型序列化器基类：按固定字段顺序直接写 JsonGenerator，不经过反射和属性写入器
+ * 持有 Jackson 原本生成的 BeanSerializer 作为后备，JsonView、类型信息、@JsonUnwrapped
+ * 以及属性注解改变输出形态等情况都交给后备处理，保证输出与反射序列化一致
+ */
+abstract class ModelSerializer<T> extends StdSerializer<T> implements ContextualSerializer, ResolvableSerializer {
+
+    private final JsonSerializer<Object> fallback;
+
+    @SuppressWarnings("unchecked")
+    protected ModelSerializer(Class<T> type, JsonSerializer<?> fallback) {
+        super(type);
+        this.fallback = (JsonSerializer<Object>) fallback;
+    }
+
+    @Override
+    public final void serialize(T value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        if (provider.getActiveView() != null || !supports(provider)) {
+            fallback.serialize(value, gen, provider);
+            return;
+        }
+        gen.writeStartObject(value);
+        writeFields(value, gen, provider);
+        gen.writeEndObject();
+    }
+
+    /**
+     * 按字段声明顺序写出全部字段（不含对象起止符）
+     */
+    protected abstract void writeFields(T value, JsonGenerator gen, SerializerProvider provider) throws IOException;
+
+    /**
+     * 当前序列化配置下能否走手写路径
+     */
+    protected boolean supports(SerializerProvider provider) {
+        return true;
+    }
+
+    @Override
+    public void serializeWithType(T value, JsonGenerator gen, SerializerProvider provider,
+                                  TypeSerializer typeSer) throws IOException {
+        fallback.serializeWithType(value, gen, provider, typeSer);
+    }
+
+    @Override
+    public JsonSerializer<T> unwrappingSerializer(NameTransformer unwrapper) {
+        @SuppressWarnings("unchecked")
+        JsonSerializer<T> unwrapping = (JsonSerializer<T>) fallback.unwrappingSerializer(unwrapper);
+        return unwrapping;
+    }
+
+    @Override
+    public void resolve(SerializerProvider provider) throws JsonMappingException {
+        if (fallback instanceof ResolvableSerializer resolvable) {
+            resolvable.resolve(provider);
+        }
+    }
+
+    @Override
+    public JsonSerializer<?> createContextual(SerializerProvider provider, BeanProperty property)
+            throws JsonMappingException {
+        if (fallback instanceof ContextualSerializer contextual) {
+            JsonSerializer<?> serializer = contextual.createContextual(provider, property);
+            // 引用属性上的注解（如 @JsonIgnoreProperties、@JsonFormat）改变了输出形态
+            if (serializer != fallback) {
+                return serializer;
+            }
+        }
+        return this;
+    }
+
+    @Override
+    public void acceptJsonFormatVisitor(JsonFormatVisitorWrapper visitor, JavaType typeHint)
+            throws JsonMappingException {
+        fallback.acceptJsonFormatVisitor(visitor, typeHint);
+    }
+}
@@ -0,0 +1,64 @@
+package org.mino.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import org.mino.model.User;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * User 手写序列化器
+ */
+final class UserSerializer extends ModelSerializer<User> {
+
+    /** 与反射序列化的字段顺序一致，ModelJsonModule 据此校验 */
+    static final List<String> PROPERTIES =
+            List.of("id", "username", "email", "phone", "createTime", "updateTime", "version");
+
+    private final LocalDateTimeWriter dateTimeWriter;
+
+    UserSerializer(JsonSerializer<?> fallback, LocalDateTimeWriter dateTimeWriter) {
+        super(User.class, fallback);
+        this.dateTimeWriter = dateTimeWriter;
+    }
+
+    @Override
+    protected boolean supports(SerializerProvider provider) {
+        // 时间戳形式（数组）由 JavaTimeModule 输出
+        return !provider.isEnabled(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    }
+
+    @Override
+    protected void writeFields(User user, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        gen.writeFieldName("id");
+        if (user.getId() == null) {
+            gen.writeNull();
+        } else {
+            gen.writeNumber(user.getId());
+        }
+        gen.writeStringField("username", user.getUsername());
+        gen.writeStringField("email", user.getEmail());
+        gen.writeStringField("phone", user.getPhone());
+        writeDateTime("createTime", user.getCreateTime(), gen);
+        writeDateTime("updateTime", user.getUpdateTime(), gen);
+        gen.writeFieldName("version");
+        if (user.getVersion() == null) {
+            gen.writeNull();
+        } else {
+            gen.writeNumber(user.getVersion());
+        }
+    }
+
+    private void writeDateTime(String name, LocalDateTime value, JsonGenerator gen) throws IOException {
+        gen.writeFieldName(name);
+        if (value == null) {
+            gen.writeNull();
+        } else {
+            dateTimeWriter.write(value, gen);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package org.mino.json;
+
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.AbstractJackson2HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+import java.util.Collection;
+
+/**
+ * Jackson 系列转换器（JSON / CBOR / Smile）写出的响应按 Accept 协商格式，
+ * Spring MVC 不会为 @ResponseBody 的协商结果加 Vary，这里补上 Vary: Accept，避免共享缓存把 CBOR 返回给 JSON 客户端
+ */
+@ControllerAdvice
+public class VaryAcceptAdvice implements ResponseBodyAdvice<Object> {
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return AbstractJackson2HttpMessageConverter.class.isAssignableFrom(converterType);
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        addVaryAccept(response.getHeaders());
+        return body;
+    }
+
+    /**
+     * 不经过消息转换器的响应（如条件请求的 304）直接在 servlet 响应上追加 Vary: Accept
+     */
+    public static void addVaryAccept(HttpServletResponse response) {
+        if (!containsAccept(response.getHeaders(HttpHeaders.VARY))) {
+            response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        }
+    }
+
+    private static void addVaryAccept(HttpHeaders headers) {
+        if (!containsAccept(headers.getVary())) {
+            headers.add(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        }
+    }
+
+    private static boolean containsAccept(Collection<String> vary) {
+        for (String value : vary) {
+            for (String name : value.split(",")) {
+                String trimmed = name.trim();
+                if (trimmed.equalsIgnoreCase(HttpHeaders.ACCEPT) || trimmed.equals("*")) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,485 @@
+package org.mino.log;
+
+import jakarta.annotation.PreDestroy;
+import org.mino.config.OperationLogJournalProperties;
+import org.mino.model.OperationLog;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * 操作日志本地段文件日志（spill journal）
+ * 写库失败时把日志顺序追加到内存映射的段文件，段写满后切换新段；数据库恢复后按顺序回放到 operation_log，
+ * 回放完的段文件删除。回放为至少一次语义：进程在回放中途退出时，当前段会从头重放。
+ * <p>
+ * 记录格式：[int 长度][int CRC32][载荷]，长度为0表示段内数据结束；长度最后写入，写到一半的记录在恢复时被忽略。
+ * 载荷为定长数值字段加 UTF-8 字符串，直接编码进映射缓冲区，追加时不产生临时对象
+ */
+@Component
+public class OperationLogJournal {
+
+    private static final Logger logger = LoggerFactory.getLogger(OperationLogJournal.class);
+
+    private static final String SEGMENT_PREFIX = "oplog-";
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final int HEADER_SIZE = 8;
+
+    private static final int HAS_USER_ID = 1;
+    private static final int HAS_STATUS = 1 << 1;
+    private static final int HAS_COST_TIME = 1 << 2;
+    private static final int HAS_CREATE_TIME = 1 << 3;
+
+    private final boolean enabled;
+    private final Duration retryInterval;
+    private final Path dir;
+    private final int segmentSize;
+    private final CRC32 crc = new CRC32();
+    private final Deque<Path> sealed = new ArrayDeque<>();
+
+    private long nextSequence;
+    private Path activePath;
+    private MappedByteBuffer active;
+    private int replayOffset;
+
+    private long appendedRecords;
+    private long replayedRecords;
+    private long rejectedRecords;
+    private long corruptedSegments;
+
+    public OperationLogJournal(OperationLogJournalProperties properties) {
+        this.enabled = properties.isEnabled();
+        this.retryInterval = properties.getRetryInterval();
+        this.dir = Paths.get(properties.getDir());
+        this.segmentSize = (int) Math.min(Integer.MAX_VALUE, properties.getSegmentSize().toBytes());
+        if (enabled) {
+            recover();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 写库失败后重试回放的间隔
+     */
+    public Duration getRetryInterval() {
+        return retryInterval;
+    }
+
+    /**
+     * 追加一批日志
+     * @return 是否全部写入
+     */
+    public synchronized boolean append(List<OperationLog> logs) {
+        if (!enabled) {
+            return false;
+        }
+        boolean all = true;
+        for (OperationLog log : logs) {
+            all &= append(log);
+        }
+        return all;
+    }
+
+    /**
+     * 追加一条日志
+     * @return 是否写入，单条超过段大小时拒绝
+     */
+    public synchronized boolean append(OperationLog log) {
+        if (!enabled) {
+            return false;
+        }
+        int size = payloadSize(log);
+        // 预留下一条记录的长度位作为结束标记
+        if (HEADER_SIZE + size + 4 > segmentSize) {
+            rejectedRecords++;
+            return false;
+        }
+        if (active == null || active.remaining() < HEADER_SIZE + size + 4) {
+            rotate();
+        }
+        MappedByteBuffer buffer = active;
+        int start = buffer.position();
+        buffer.position(start + HEADER_SIZE);
+        writePayload(buffer, log);
+        int end = buffer.position();
+
+        crc.reset();
+        buffer.limit(end).position(start + HEADER_SIZE);
+        crc.update(buffer);
+        buffer.limit(buffer.capacity()).position(end);
+
+        buffer.putInt(start + 4, (int) crc.getValue());
+        // 长度最后写入，作为记录完整的标志
+        buffer.putInt(start, size);
+        appendedRecords++;
+        return true;
+    }
+
+    /**
+     * 是否有待回放的日志
+     */
+    public synchronized boolean hasPending() {
+        return !sealed.isEmpty() || (active != null && active.position() > 0);
+    }
+
+    /**
+     * 按顺序回放所有段，每批交给 sink 写库；sink 抛出异常时停止，已成功的批次不会重放
+     * @return 本次回放的条数
+     */
+    public synchronized long replay(Consumer<List<OperationLog>> sink, int batchSize) {
+        if (!enabled) {
+            return 0;
+        }
+        if (active != null && active.position() > 0) {
+            seal();
+        }
+        long replayed = 0;
+        List<OperationLog> batch = new ArrayList<>(batchSize);
+        while (!sealed.isEmpty()) {
+            Path segment = sealed.peekFirst();
+            MappedByteBuffer buffer = map(segment, FileChannel.MapMode.READ_ONLY);
+            int offset = replayOffset;
+            while (true) {
+                int next = offset;
+                batch.clear();
+                while (batch.size() < batchSize) {
+                    int recordEnd = readRecord(buffer, next, batch);
+                    if (recordEnd < 0) {
+                        break;
+                    }
+                    next = recordEnd;
+                }
+                if (batch.isEmpty()) {
+                    break;
+                }
+                sink.accept(batch);
+                replayed += batch.size();
+                replayedRecords += batch.size();
+                offset = next;
+                replayOffset = next;
+            }
+            sealed.removeFirst();
+            replayOffset = 0;
+            delete(segment);
+        }
+        if (replayed > 0) {
+            logger.info("Replayed {} operation logs from journal", replayed);
+        }
+        return replayed;
+    }
+
+    /**
+     * 累计回放的条数
+     */
+    public synchronized long getReplayedCount() {
+        return replayedRecords;
+    }
+
+    /**
+     * 日志统计信息
+     */
+    public synchronized Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("dir", dir.toAbsolutePath().toString());
+        stats.put("pendingSegments", sealed.size() + (active != null && active.position() > 0 ? 1 : 0));
+        stats.put("activeSegmentBytes", active == null ? 0 : active.position());
+        stats.put("appendedCount", appendedRecords);
+        stats.put("replayedCount", replayedRecords);
+        stats.put("rejectedCount", rejectedRecords);
+        stats.put("corruptedSegmentCount", corruptedSegments);
+        return stats;
+    }
+
+    /**
+     * 刷盘并关闭当前段，未回放的段保留到下次启动
+     */
+    @PreDestroy
+    public synchronized void close() {
+        if (active != null) {
+            if (active.position() > 0) {
+                seal();
+            } else {
+                active = null;
+                delete(activePath);
+            }
+        }
+    }
+
+    /**
+     * 启动时加载目录中遗留的段文件，按序号排队等待回放
+     */
+    private void recover() {
+        try {
+            Files.createDirectories(dir);
+            List<Path> segments = new ArrayList<>();
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+                for (Path path : stream) {
+                    segments.add(path);
+                }
+            }
+            segments.sort(null);
+            for (Path segment : segments) {
+                nextSequence = Math.max(nextSequence, sequenceOf(segment) + 1);
+                sealed.addLast(segment);
+            }
+            if (!segments.isEmpty()) {
+                logger.info("Found {} operation log journal segments pending replay in {}", segments.size(), dir);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("无法初始化操作日志目录: " + dir, e);
+        }
+    }
+
+    private void rotate() {
+        if (active != null) {
+            seal();
+        }
+        activePath = dir.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, nextSequence++, SEGMENT_SUFFIX));
+        active = map(activePath, FileChannel.MapMode.READ_WRITE);
+    }
+
+    private void seal() {
+        active.force();
+        sealed.addLast(activePath);
+        active = null;
+        activePath = null;
+    }
+
+    private MappedByteBuffer map(Path path, FileChannel.MapMode mode) {
+        try (FileChannel channel = mode == FileChannel.MapMode.READ_WRITE
+                ? FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)
+                : FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = mode == FileChannel.MapMode.READ_WRITE ? segmentSize : channel.size();
+            return channel.map(mode, 0, size);
+        } catch (IOException e) {
+            throw new UncheckedIOException("无法映射操作日志段文件: " + path, e);
+        }
+    }
+
+    private void delete(Path segment) {
+        try {
+            Files.deleteIfExists(segment);
+        } catch (IOException e) {
+            logger.warn("Error deleting journal segment {}: {}", segment, e.getMessage());
+        }
+    }
+
+    /**
+     * 读取一条记录加入列表
+     * @return 下一条记录的偏移，段结束或记录损坏时返回-1
+     */
+    private int readRecord(MappedByteBuffer buffer, int offset, List<OperationLog> target) {
+        if (offset + HEADER_SIZE > buffer.capacity()) {
+            return -1;
+        }
+        int size = buffer.getInt(offset);
+        if (size <= 0) {
+            return -1;
+        }
+        int end = offset + HEADER_SIZE + size;
+        if (end > buffer.capacity()) {
+            corruptedSegments++;
+            return -1;
+        }
+        crc.reset();
+        buffer.limit(end).position(offset + HEADER_SIZE);
+        crc.update(buffer);
+        buffer.limit(buffer.capacity());
+        if ((int) crc.getValue() != buffer.getInt(offset + 4)) {
+            corruptedSegments++;
+            logger.warn("Corrupted operation log record at offset {}, skipping rest of segment", offset);
+            return -1;
+        }
+        buffer.position(offset + HEADER_SIZE);
+        target.add(readPayload(buffer));
+        return end;
+    }
+
+    private static long sequenceOf(Path segment) {
+        String name = segment.getFileName().toString();
+        try {
+            return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    // ---------------- 编解码 ----------------
+
+    static int payloadSize(OperationLog log) {
+        int size = 1;
+        if (log.getUserId() != null) {
+            size += 8;
+        }
+        if (log.getStatus() != null) {
+            size += 4;
+        }
+        if (log.getCostTime() != null) {
+            size += 8;
+        }
+        if (log.getCreateTime() != null) {
+            size += 12;
+        }
+        size += stringSize(log.getOperation());
+        size += stringSize(log.getMethod());
+        size += stringSize(log.getParams());
+        size += stringSize(log.getIp());
+        size += stringSize(log.getPath());
+        return size;
+    }
+
+    private static void writePayload(MappedByteBuffer buffer, OperationLog log) {
+        int flags = 0;
+        if (log.getUserId() != null) {
+            flags |= HAS_USER_ID;
+        }
+        if (log.getStatus() != null) {
+            flags |= HAS_STATUS;
+        }
+        if (log.getCostTime() != null) {
+            flags |= HAS_COST_TIME;
+        }
+        if (log.getCreateTime() != null) {
+            flags |= HAS_CREATE_TIME;
+        }
+        buffer.put((byte) flags);
+        if (log.getUserId() != null) {
+            buffer.putLong(log.getUserId());
+        }
+        if (log.getStatus() != null) {
+            buffer.putInt(log.getStatus());
+        }
+        if (log.getCostTime() != null) {
+            buffer.putLong(log.getCostTime());
+        }
+        LocalDateTime createTime = log.getCreateTime();
+        if (createTime != null) {
+            buffer.putLong(createTime.toEpochSecond(ZoneOffset.UTC));
+            buffer.putInt(createTime.getNano());
+        }
+        writeString(buffer, log.getOperation());
+        writeString(buffer, log.getMethod());
+        writeString(buffer, log.getParams());
+        writeString(buffer, log.getIp());
+        writeString(buffer, log.getPath());
+    }
+
+    private static OperationLog readPayload(MappedByteBuffer buffer) {
+        OperationLog log = new OperationLog();
+        int flags = buffer.get();
+        if ((flags & HAS_USER_ID) != 0) {
+            log.setUserId(buffer.getLong());
+        }
+        if ((flags & HAS_STATUS) != 0) {
+            log.setStatus(buffer.getInt());
+        }
+        if ((flags & HAS_COST_TIME) != 0) {
+            log.setCostTime(buffer.getLong());
+        }
+        if ((flags & HAS_CREATE_TIME) != 0) {
+            long seconds = buffer.getLong();
+            int nanos = buffer.getInt();
+            log.setCreateTime(LocalDateTime.ofEpochSecond(seconds, nanos, ZoneOffset.UTC));
+        }
+        log.setOperation(readString(buffer));
+        log.setMethod(readString(buffer));
+        log.setParams(readString(buffer));
+        log.setIp(readString(buffer));
+        log.setPath(readString(buffer));
+        return log;
+    }
+
+    /**
+     * 字符串编码长度：4字节长度（null 为-1）+ UTF-8 字节数
+     */
+    private static int stringSize(String value) {
+        return value == null ? 4 : 4 + utf8Length(value);
+    }
+
+    private static int utf8Length(String value) {
+        int length = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                length++;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < value.length()
+                    && Character.isLowSurrogate(value.charAt(i + 1))) {
+                length += 4;
+                i++;
+            } else if (Character.isSurrogate(c)) {
+                // 不成对的代理字符按 '?' 写入
+                length++;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+
+    private static void writeString(MappedByteBuffer buffer, String value) {
+        if (value == null) {
+            buffer.putInt(-1);
+            return;
+        }
+        buffer.putInt(utf8Length(value));
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                buffer.put((byte) c);
+            } else if (c < 0x800) {
+                buffer.put((byte) (0xC0 | (c >> 6)));
+                buffer.put((byte) (0x80 | (c & 0x3F)));
+            } else if (Character.isHighSurrogate(c) && i + 1 < value.length()
+                    && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                buffer.put((byte) (0xF0 | (codePoint >> 18)));
+                buffer.put((byte) (0x80 | ((codePoint >> 12) & 0x3F)));
+                buffer.put((byte) (0x80 | ((codePoint >> 6) & 0x3F)));
+                buffer.put((byte) (0x80 | (codePoint & 0x3F)));
+            } else if (Character.isSurrogate(c)) {
+                buffer.put((byte) '?');
+            } else {
+                buffer.put((byte) (0xE0 | (c >> 12)));
+                buffer.put((byte) (0x80 | ((c >> 6) & 0x3F)));
+                buffer.put((byte) (0x80 | (c & 0x3F)));
+            }
+        }
+    }
+
+    private static String readString(MappedByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,301 @@
+package org.mino.log;
+
+import org.mino.config.OperationLogRetentionProperties;
+import org.mino.mapper.OperationLogMapper;
+import org.mino.model.TablePartition;
+import org.mino.util.ThreadFactories;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * 操作日志过期清理
+ * operation_log 按天 RANGE 分区时直接删除过期分区，并提前创建未来几天的分区；
+ * 未分区时按 idx_create_time 分块删除，每块之间停顿，单次执行有时长上限，避免长事务锁表和 binlog 突增
+ */
+@Component
+public class OperationLogRetention {
+
+    private static final Logger logger = LoggerFactory.getLogger(OperationLogRetention.class);
+
+    /** TO_DAYS('1970-01-01') */
+    private static final long TO_DAYS_EPOCH_OFFSET = 719528L;
+
+    private static final Pattern DAILY_PARTITION = Pattern.compile("p\\d{8}");
+
+    private static final DateTimeFormatter PARTITION_NAME = DateTimeFormatter.ofPattern("'p'yyyyMMdd");
+
+    private final OperationLogMapper operationLogMapper;
+    private final OperationLogRetentionProperties properties;
+    private final Clock clock;
+    private final ThreadFactory purgeThreads;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    private final AtomicLong runs = new AtomicLong();
+    private final AtomicLong totalDeletedRows = new AtomicLong();
+    private final AtomicLong totalDroppedPartitions = new AtomicLong();
+    private final AtomicLong totalChunks = new AtomicLong();
+    private volatile String lastMode;
+    private volatile LocalDateTime lastRunTime;
+    private volatile long lastRunMillis;
+    private volatile long lastDeletedRows;
+    private volatile long currentDeletedRows;
+    private volatile boolean lastRunComplete;
+
+    public OperationLogRetention(OperationLogMapper operationLogMapper, OperationLogRetentionProperties properties) {
+        this(operationLogMapper, properties, Clock.systemDefaultZone());
+    }
+
+    OperationLogRetention(OperationLogMapper operationLogMapper, OperationLogRetentionProperties properties,
+                          Clock clock) {
+        this.operationLogMapper = operationLogMapper;
+        this.properties = properties;
+        this.clock = clock;
+        this.purgeThreads = ThreadFactories.create("operation-log-purge-", properties.isVirtualThreads());
+    }
+
+    /**
+     * 启动时补齐分区，避免新日志在第一次定时清理前都写入 pmax
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensurePartitions() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        try {
+            long maxBound = Long.MIN_VALUE;
+            List<TablePartition> partitions = operationLogMapper.selectPartitions();
+            if (partitions.isEmpty()) {
+                return;
+            }
+            for (TablePartition partition : partitions) {
+                if (DAILY_PARTITION.matcher(partition.getName()).matches()) {
+                    maxBound = Math.max(maxBound, partition.upperBound());
+                }
+            }
+            premakePartitions(maxBound);
+        } catch (Exception e) {
+            logger.warn("Error checking operation_log partitions: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 按配置的保留天数定时清理
+     */
+    @Scheduled(cron = "${app.log.retention.cron:0 30 3 * * *}")
+    public void scheduledPurge() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        try {
+            purgeOlderThan(properties.getDays());
+        } catch (Exception e) {
+            logger.error("Error purging operation logs", e);
+        }
+    }
+
+    /**
+     * 清理指定天数之前的日志，在调用线程上执行，可能持续到 maxDuration
+     * @return 删除的行数（删除分区时为 information_schema 中的估算行数）
+     */
+    public long purgeOlderThan(int days) {
+        checkDays(days);
+        if (!running.compareAndSet(false, true)) {
+            logger.info("Operation log purge already running, skipped");
+            return 0;
+        }
+        return purge(days);
+    }
+
+    /**
+     * 在后台线程清理指定天数之前的日志，立即返回，进度见 {@link #stats()}
+     * @return 是否启动了清理；已有清理在执行时返回false
+     */
+    public boolean purgeOlderThanAsync(int days) {
+        checkDays(days);
+        if (!running.compareAndSet(false, true)) {
+            logger.info("Operation log purge already running, skipped");
+            return false;
+        }
+        try {
+            purgeThreads.newThread(() -> {
+                try {
+                    purge(days);
+                } catch (Exception e) {
+                    logger.error("Error purging operation logs", e);
+                }
+            }).start();
+        } catch (RuntimeException | Error e) {
+            running.set(false);
+            throw e;
+        }
+        return true;
+    }
+
+    private static void checkDays(int days) {
+        if (days <= 0) {
+            throw new IllegalArgumentException("保留天数必须大于0");
+        }
+    }
+
+    /**
+     * 执行清理，调用方已经取得 running 标记，结束时释放
+     */
+    private long purge(int days) {
+        long start = System.currentTimeMillis();
+        lastRunTime = LocalDateTime.now(clock);
+        currentDeletedRows = 0;
+        try {
+            LocalDate cutoff = LocalDate.now(clock).minusDays(days);
+            List<TablePartition> partitions = operationLogMapper.selectPartitions();
+            long deleted = partitions.isEmpty() ? deleteInChunks(cutoff.atStartOfDay()) : dropPartitions(partitions, cutoff);
+            lastDeletedRows = deleted;
+            runs.incrementAndGet();
+            logger.info("Purged operation logs before {} in {} mode: {} rows, complete: {}",
+                    cutoff, lastMode, deleted, lastRunComplete);
+            return deleted;
+        } finally {
+            lastRunMillis = System.currentTimeMillis() - start;
+            running.set(false);
+        }
+    }
+
+    /**
+     * 累计删除的日志行数
+     */
+    public long getTotalDeletedRows() {
+        return totalDeletedRows.get();
+    }
+
+    /**
+     * 清理进度和累计统计
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", properties.isEnabled());
+        stats.put("retentionDays", properties.getDays());
+        stats.put("running", running.get());
+        stats.put("mode", lastMode);
+        stats.put("runCount", runs.get());
+        stats.put("lastRunTime", lastRunTime);
+        stats.put("lastRunMillis", lastRunMillis);
+        stats.put("lastDeletedRows", lastDeletedRows);
+        stats.put("lastRunComplete", lastRunComplete);
+        stats.put("currentDeletedRows", currentDeletedRows);
+        stats.put("totalDeletedRows", totalDeletedRows.get());
+        stats.put("totalDroppedPartitions", totalDroppedPartitions.get());
+        stats.put("totalChunks", totalChunks.get());
+        return stats;
+    }
+
+    /**
+     * 删除上界不超过截止日期的按天分区，并补齐未来的分区
+     */
+    private long dropPartitions(List<TablePartition> partitions, LocalDate cutoff) {
+        lastMode = "partition";
+        long cutoffDays = toDays(cutoff);
+        List<String> expired = new ArrayList<>();
+        long rows = 0;
+        long maxBound = Long.MIN_VALUE;
+        for (TablePartition partition : partitions) {
+            if (!DAILY_PARTITION.matcher(partition.getName()).matches()) {
+                continue;
+            }
+            long bound = partition.upperBound();
+            maxBound = Math.max(maxBound, bound);
+            if (bound <= cutoffDays) {
+                expired.add(partition.getName());
+                rows += partition.getTableRows() == null ? 0 : partition.getTableRows();
+            }
+        }
+        if (!expired.isEmpty()) {
+            operationLogMapper.dropPartitions(expired);
+            totalDroppedPartitions.addAndGet(expired.size());
+            totalDeletedRows.addAndGet(rows);
+            currentDeletedRows = rows;
+            logger.info("Dropped operation_log partitions: {}", expired);
+        }
+        premakePartitions(maxBound);
+        lastRunComplete = true;
+        return rows;
+    }
+
+    /**
+     * 从今天起提前创建 premakeDays 天的分区，已存在的跳过
+     */
+    private void premakePartitions(long maxBound) {
+        LocalDate today = LocalDate.now(clock);
+        List<TablePartition> added = new ArrayList<>();
+        for (int i = 0; i <= properties.getPremakeDays(); i++) {
+            LocalDate day = today.plusDays(i);
+            long bound = toDays(day.plusDays(1));
+            if (bound > maxBound) {
+                added.add(new TablePartition(day.format(PARTITION_NAME), String.valueOf(bound), null));
+            }
+        }
+        if (!added.isEmpty()) {
+            operationLogMapper.addPartitions(added);
+            logger.info("Created operation_log partitions: {}", added.stream().map(TablePartition::getName).toList());
+        }
+    }
+
+    /**
+     * 未分区时按 create_time 分块删除，每块独立提交
+     */
+    private long deleteInChunks(LocalDateTime before) {
+        lastMode = "chunked-delete";
+        int chunkSize = Math.max(1, properties.getChunkSize());
+        long pauseMillis = properties.getPause().toMillis();
+        long deadline = System.currentTimeMillis() + properties.getMaxDuration().toMillis();
+        long deleted = 0;
+        lastRunComplete = false;
+        while (true) {
+            int affected = operationLogMapper.deleteBefore(before, chunkSize);
+            deleted += affected;
+            currentDeletedRows = deleted;
+            totalDeletedRows.addAndGet(affected);
+            totalChunks.incrementAndGet();
+            if (affected < chunkSize) {
+                lastRunComplete = true;
+                break;
+            }
+            if (System.currentTimeMillis() >= deadline) {
+                logger.warn("Operation log purge reached max duration {}, {} rows deleted, remaining rows left for next run",
+                        properties.getMaxDuration(), deleted);
+                break;
+            }
+            if (pauseMillis > 0) {
+                try {
+                    Thread.sleep(pauseMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        }
+        return deleted;
+    }
+
+    /**
+     * 与 MySQL TO_DAYS 一致的天数
+     */
+    static long toDays(LocalDate date) {
+        return date.toEpochDay() + TO_DAYS_EPOCH_OFFSET;
+    }
+}
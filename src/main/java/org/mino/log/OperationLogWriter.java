@@ -0,0 +1,315 @@
+package org.mino.log;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.mino.config.OperationLogProperties;
+import org.mino.config.OperationLogProperties.OverflowPolicy;
+import org.mino.mapper.OperationLogMapper;
+import org.mino.model.OperationLog;
+import org.mino.util.BoundedRingBuffer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 操作日志异步写入器
+ * 调用方只把日志放入无锁环形队列后立即返回，后台线程攒批后用一条多值 INSERT 写入 operation_log；
+ * 队列满时按配置的溢出策略处理；数据库不可用等整批失败的批次落盘到 {@link OperationLogJournal}，
+ * 落盘数据回放完之前新日志也先落盘，保证写入顺序，数据库恢复后由本线程回放。
+ * 因某几行数据（超长、违反约束）被拒绝的批次不落盘，而是二分拆批写入其余行，被拒绝的行记 WARN 日志后丢弃，
+ * 否则这一批会被反复回放失败，之后的日志也全部堆积在磁盘上
+ */
+@Component
+public class OperationLogWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(OperationLogWriter.class);
+
+    private static final long BLOCK_PARK_NANOS = 100_000L;
+
+    private final OperationLogMapper operationLogMapper;
+    private final OperationLogJournal journal;
+    private final OperationLogProperties properties;
+    private final BoundedRingBuffer<OperationLog> queue;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final int sampleWatermark;
+
+    private final LongAdder enqueued = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder sampledOut = new LongAdder();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder spilled = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder batchedRows = new LongAdder();
+    private final AtomicLong sampleCounter = new AtomicLong();
+    private final AtomicLong lastBatchSize = new AtomicLong();
+
+    private long nextReplayNanos;
+
+    private volatile Thread writerThread;
+    private volatile boolean running;
+
+    public OperationLogWriter(OperationLogProperties properties, OperationLogMapper operationLogMapper,
+                              OperationLogJournal journal) {
+        this.properties = properties;
+        this.operationLogMapper = operationLogMapper;
+        this.journal = journal;
+        this.queue = new BoundedRingBuffer<>(properties.getCapacity());
+        this.batchSize = Math.max(1, properties.getBatchSize());
+        this.flushIntervalNanos = properties.getFlushInterval().toNanos();
+        this.sampleWatermark = (int) (queue.capacity() * properties.getSampleThreshold());
+        this.nextReplayNanos = System.nanoTime();
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!properties.isEnabled()) {
+            logger.info("OperationLogWriter disabled");
+            return;
+        }
+        running = true;
+        // 常驻的单个消费线程，虚拟线程模式下也保留平台线程：它始终在运行，换成虚拟线程同样一直占着一个载体线程，
+        // 且批量插入在 JDBC 驱动的 synchronized 内执行，会钉住载体线程
+        Thread thread = new Thread(this::runLoop, "operation-log-writer");
+        thread.setDaemon(true);
+        writerThread = thread;
+        thread.start();
+        logger.info("OperationLogWriter started, capacity: {}, batchSize: {}, overflowPolicy: {}",
+                queue.capacity(), batchSize, properties.getOverflowPolicy());
+    }
+
+    /**
+     * 停止后台线程并写完队列中剩余的日志
+     */
+    @PreDestroy
+    public void stop() {
+        Thread thread = writerThread;
+        if (thread == null) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(thread);
+        try {
+            thread.join(5000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        writerThread = null;
+    }
+
+    /**
+     * 提交一条日志，不等待写库
+     * @return 是否进入队列
+     */
+    public boolean submit(OperationLog log) {
+        if (writerThread == null) {
+            return false;
+        }
+        boolean accepted;
+        switch (properties.getOverflowPolicy()) {
+            case BLOCK:
+                accepted = offerBlocking(log);
+                break;
+            case SAMPLE:
+                accepted = offerSampled(log);
+                break;
+            case DROP_OLDEST:
+            default:
+                accepted = offerDropOldest(log);
+                break;
+        }
+        if (accepted) {
+            enqueued.increment();
+            if (queue.size() >= batchSize) {
+                LockSupport.unpark(writerThread);
+            }
+        }
+        return accepted;
+    }
+
+    /**
+     * 已成功写库的日志条数
+     */
+    public long getWrittenCount() {
+        return written.sum();
+    }
+
+    /**
+     * 写入统计信息
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", properties.isEnabled());
+        stats.put("overflowPolicy", properties.getOverflowPolicy());
+        stats.put("queueDepth", queue.size());
+        stats.put("capacity", queue.capacity());
+        stats.put("enqueuedCount", enqueued.sum());
+        stats.put("writtenCount", written.sum());
+        stats.put("droppedCount", dropped.sum());
+        stats.put("sampledOutCount", sampledOut.sum());
+        stats.put("failedCount", failed.sum());
+        stats.put("spilledCount", spilled.sum());
+        stats.put("rejectedCount", rejected.sum());
+        long batchCount = batches.sum();
+        stats.put("batchCount", batchCount);
+        stats.put("lastBatchSize", lastBatchSize.get());
+        stats.put("averageBatchSize", batchCount == 0 ? 0.0 : (double) batchedRows.sum() / batchCount);
+        stats.put("journal", journal.stats());
+        return stats;
+    }
+
+    private boolean offerDropOldest(OperationLog log) {
+        while (!queue.offer(log)) {
+            if (queue.poll() != null) {
+                dropped.increment();
+            }
+        }
+        return true;
+    }
+
+    private boolean offerBlocking(OperationLog log) {
+        long deadline = System.nanoTime() + properties.getBlockTimeout().toNanos();
+        while (!queue.offer(log)) {
+            if (System.nanoTime() - deadline >= 0) {
+                dropped.increment();
+                return false;
+            }
+            LockSupport.unpark(writerThread);
+            LockSupport.parkNanos(BLOCK_PARK_NANOS);
+        }
+        return true;
+    }
+
+    private boolean offerSampled(OperationLog log) {
+        if (queue.size() >= sampleWatermark
+                && sampleCounter.getAndIncrement() % Math.max(1, properties.getSampleRate()) != 0) {
+            sampledOut.increment();
+            return false;
+        }
+        if (!queue.offer(log)) {
+            dropped.increment();
+            return false;
+        }
+        return true;
+    }
+
+    private void runLoop() {
+        List<OperationLog> batch = new ArrayList<>(batchSize);
+        while (running) {
+            if (queue.size() < batchSize) {
+                LockSupport.parkNanos(this, flushIntervalNanos);
+            }
+            replayJournal();
+            while (queue.drainTo(batch, batchSize) > 0) {
+                boolean full = batch.size() == batchSize;
+                flush(batch);
+                batch.clear();
+                if (!full) {
+                    break;
+                }
+            }
+        }
+        // 关闭前写完剩余日志
+        while (queue.drainTo(batch, batchSize) > 0) {
+            flush(batch);
+            batch.clear();
+        }
+    }
+
+    private void flush(List<OperationLog> batch) {
+        batches.increment();
+        batchedRows.add(batch.size());
+        lastBatchSize.set(batch.size());
+        if (journal.hasPending()) {
+            spill(batch);
+            return;
+        }
+        try {
+            insertOrBisect(batch);
+        } catch (Exception e) {
+            logger.error("Error writing {} operation logs, spilling to journal", batch.size(), e);
+            nextReplayNanos = System.nanoTime() + journal.getRetryInterval().toNanos();
+            spill(batch);
+        }
+    }
+
+    /**
+     * 写入一批日志；因数据被拒绝时对半拆分重试，直到定位出被拒绝的单行并丢弃
+     * 其他异常（连接失败、超时等）原样抛出，由调用方落盘或推迟回放
+     */
+    private void insertOrBisect(List<OperationLog> batch) {
+        try {
+            operationLogMapper.insertBatch(batch);
+            written.add(batch.size());
+        } catch (RuntimeException e) {
+            if (!isRowRejection(e)) {
+                throw e;
+            }
+            if (batch.size() == 1) {
+                OperationLog log = batch.get(0);
+                rejected.increment();
+                logger.warn("Operation log rejected by database, dropping: operation={}, path={}, ip={}, userId={}: {}",
+                        log.getOperation(), log.getPath(), log.getIp(), log.getUserId(), e.getMessage());
+                return;
+            }
+            int middle = batch.size() / 2;
+            insertOrBisect(batch.subList(0, middle));
+            insertOrBisect(batch.subList(middle, batch.size()));
+        }
+    }
+
+    /**
+     * 是否为个别行的数据问题：完整性约束、数据超长/格式错误（SQLState 22xxx / 23xxx）
+     */
+    private static boolean isRowRejection(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof DataIntegrityViolationException) {
+                return true;
+            }
+            if (cause instanceof SQLException sqlException) {
+                String state = sqlException.getSQLState();
+                if (state != null && (state.startsWith("22") || state.startsWith("23"))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private void spill(List<OperationLog> batch) {
+        if (journal.append(batch)) {
+            spilled.add(batch.size());
+        } else {
+            failed.add(batch.size());
+        }
+    }
+
+    /**
+     * 到达重试时间后回放落盘日志，失败则推迟到下一个重试间隔
+     */
+    private void replayJournal() {
+        if (!journal.hasPending() || System.nanoTime() - nextReplayNanos < 0) {
+            return;
+        }
+        try {
+            // 被拒绝的行在 insertOrBisect 中丢弃，回放不会卡在同一批上
+            journal.replay(this::insertOrBisect, batchSize);
+        } catch (Exception e) {
+            logger.warn("Operation log journal replay failed, retrying in {}: {}",
+                    journal.getRetryInterval(), e.getMessage());
+            nextReplayNanos = System.nanoTime() + journal.getRetryInterval().toNanos();
+        }
+    }
+}
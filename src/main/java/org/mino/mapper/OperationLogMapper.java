@@ -0,0 +1,89 @@
+package org.mino.mapper;
+
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.mino.model.OperationLog;
+import org.mino.model.TablePartition;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 操作日志数据访问接口
+ */
+@Mapper
+public interface OperationLogMapper {
+    
+    /**
+     * 批量插入操作日志（单条多值INSERT），不回填自增ID
+     * @param logs 日志列表
+     * @return 影响行数
+     */
+    int insertBatch(@Param("logs") List<OperationLog> logs);
+    
+    /**
+     * 游标分页查询日志，按 (create_time, id) 倒序
+     * @param createTime 上一页最后一条的创建时间，首页传null
+     * @param id 上一页最后一条的ID，首页传null
+     * @param limit 查询条数
+     * @return 日志列表
+     */
+    List<OperationLog> selectByCursor(@Param("createTime") LocalDateTime createTime, @Param("id") Long id,
+                                      @Param("limit") int limit);
+    
+    /**
+     * 按用户游标分页查询日志，按 (create_time, id) 倒序
+     * @param userId 用户ID
+     * @param createTime 上一页最后一条的创建时间，首页传null
+     * @param id 上一页最后一条的ID，首页传null
+     * @param limit 查询条数
+     * @return 日志列表
+     */
+    List<OperationLog> selectByUserCursor(@Param("userId") Long userId, @Param("createTime") LocalDateTime createTime,
+                                          @Param("id") Long id, @Param("limit") int limit);
+    
+    /**
+     * 页码分页查询日志（延迟关联）
+     * @param offset 偏移量
+     * @param limit 查询条数
+     * @return 日志列表
+     */
+    List<OperationLog> selectByPage(@Param("offset") int offset, @Param("limit") int limit);
+    
+    /**
+     * 表行数估算值
+     * @return 统计信息中的行数
+     */
+    Long selectApproximateCount();
+    
+    /**
+     * 更新表统计信息，同时刷新 information_schema 中缓存的行数
+     */
+    void analyzeTable();
+    
+    /**
+     * 删除指定时间之前的日志，按 create_time 顺序最多删除 limit 行
+     * @param before 截止时间（不含）
+     * @param limit 最大行数
+     * @return 影响行数
+     */
+    int deleteBefore(@Param("before") LocalDateTime before, @Param("limit") int limit);
+    
+    /**
+     * 查询 operation_log 的分区，未分区时返回空列表
+     * @return 按顺序排列的分区
+     */
+    List<TablePartition> selectPartitions();
+    
+    /**
+     * 删除分区
+     * @param names 分区名，调用方需保证只含字母数字
+     */
+    void dropPartitions(@Param("names") List<String> names);
+    
+    /**
+     * 拆分 pmax，新增按天分区
+     * @param partitions 新分区，description 为 TO_DAYS 上界，调用方需保证分区名只含字母数字
+     */
+    void addPartitions(@Param("partitions") List<TablePartition> partitions);
+}
@@ -2,8 +2,12 @@ package org.mino.mapper;
 
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.session.ResultHandler;
 import org.mino.model.User;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -19,6 +23,13 @@ public interface UserMapper {
      */
     int insert(User user);
     
+    /**
+     * 批量插入用户（单条多值INSERT），回填自增ID
+     * @param users 用户列表
+     * @return 影响行数
+     */
+    int insertBatch(@Param("users") List<User> users);
+    
     /**
      * 根据ID查询用户
      * @param id 用户ID
@@ -26,6 +37,13 @@ public interface UserMapper {
      */
     User selectById(@Param("id") Long id);
     
+    /**
+     * 根据ID批量查询用户
+     * @param ids 用户ID集合
+     * @return 存在的用户，顺序不保证
+     */
+    List<User> selectByIds(@Param("ids") Collection<Long> ids);
+    
     /**
      * 根据用户名查询用户
      * @param username 用户名
@@ -47,12 +65,39 @@ public interface UserMapper {
     List<User> selectAll();
     
     /**
-     * 更新用户信息
-     * @param user 用户信息
-     * @return 影响行数
+     * 以游标方式逐行读取所有用户，需在事务内使用并关闭
+     * @return 用户游标
+     */
+    Cursor<User> selectAllAsCursor();
+    
+    /**
+     * 更新用户信息（全量更新），必须携带version，仅在版本号一致时更新，并将版本号加1
+     * @param user 用户信息，version不能为空
+     * @return 影响行数，版本号不一致时为0
      */
     int update(User user);
     
+    /**
+     * 只更新非空字段，version非空时仅在版本号一致时更新，并将版本号加1
+     * @param user 需要更新的字段
+     * @return 影响行数
+     */
+    int updateSelective(User user);
+    
+    /**
+     * 查询用户当前版本号
+     * @param id 用户ID
+     * @return 版本号，用户不存在时为null
+     */
+    Integer selectVersionById(@Param("id") Long id);
+    
+    /**
+     * 根据用户名查询用户ID和版本号，经唯一索引 uk_username 定位，只取两列
+     * @param username 用户名
+     * @return 只含 id 和 version 的用户，不存在时为null
+     */
+    User selectVersionByUsername(@Param("username") String username);
+    
     /**
      * 根据ID删除用户
      * @param id 用户ID
@@ -75,16 +120,45 @@ public interface UserMapper {
     int countByEmail(@Param("email") String email);
     
     /**
-     * 分页查询用户
+     * 查询已存在的用户名
+     * @param usernames 待检查的用户名
+     * @return 已存在的用户名
+     */
+    List<String> selectExistingUsernames(@Param("usernames") Collection<String> usernames);
+    
+    /**
+     * 查询已存在的邮箱
+     * @param emails 待检查的邮箱
+     * @return 已存在的邮箱
+     */
+    List<String> selectExistingEmails(@Param("emails") Collection<String> emails);
+    
+    /**
+     * 分页查询用户（偏移量分页，深分页请使用 selectByCursor）
      * @param offset 偏移量
      * @param limit 限制数量
      * @return 用户列表
      */
     List<User> selectByPage(@Param("offset") int offset, @Param("limit") int limit);
     
+    /**
+     * 游标分页查询用户，按 (create_time, id) 倒序定位，不随页码增加而变慢
+     * @param createTime 上一页最后一条的创建时间，为空时查询第一页
+     * @param id 上一页最后一条的ID
+     * @param limit 限制数量
+     * @return 用户列表
+     */
+    List<User> selectByCursor(@Param("createTime") LocalDateTime createTime, @Param("id") Long id, @Param("limit") int limit);
+    
     /**
      * 统计用户总数
      * @return 用户总数
      */
     int countTotal();
+    
+    /**
+     * 流式读取所有用户的用户名和邮箱
+     * @param handler 逐行结果处理器
+     */
+    void selectAllUniqueKeys(ResultHandler<User> handler);
 }
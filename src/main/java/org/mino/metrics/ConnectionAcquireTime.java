@@ -0,0 +1,29 @@
+package org.mino.metrics;
+
+/**
+ * 线程级连接获取耗时累计
+ * 由包在各连接池外的 {@link org.mino.datasource.AcquireTimingDataSource} 在真正借出物理连接时累加，
+ * 语句计时插件在语句开始和结束时各取一次差值，得到这条语句等待连接的时间：
+ * 启用读写分离时连接延迟到 prepare 内才借出，事务开始时借出的连接不计入之后的语句
+ */
+public final class ConnectionAcquireTime {
+
+    private static final ThreadLocal<long[]> TOTAL = ThreadLocal.withInitial(() -> new long[1]);
+
+    private ConnectionAcquireTime() {
+    }
+
+    /**
+     * 累加一次借出连接的耗时
+     */
+    public static void record(long nanos) {
+        TOTAL.get()[0] += nanos;
+    }
+
+    /**
+     * 当前线程累计的连接获取耗时（纳秒），只增不减，按差值使用
+     */
+    public static long total() {
+        return TOTAL.get()[0];
+    }
+}
@@ -0,0 +1,121 @@
+package org.mino.metrics;
+
+import org.mino.config.MetricsProperties;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 按接口（处理方法）汇总的延迟直方图
+ * 以 HandlerMethod 解析出的 Method 为键，命中时只做一次 ConcurrentHashMap 读取
+ */
+@Component
+public class EndpointMetrics {
+
+    private final boolean enabled;
+
+    private final int slots;
+
+    private final long slotInterval;
+
+    private final ConcurrentHashMap<Method, Endpoint> endpoints = new ConcurrentHashMap<>();
+
+    @Autowired
+    public EndpointMetrics(MetricsProperties properties) {
+        this.enabled = properties.isEnabled();
+        this.slots = properties.getSlots();
+        this.slotInterval = properties.getSlotInterval();
+    }
+
+    /**
+     * 记录一次请求耗时
+     *
+     * @param method     处理方法
+     * @param httpMethod 请求方法，首次记录时作为标签
+     * @param uri        匹配的路径模板，首次记录时作为标签
+     * @param nanos      耗时（纳秒）
+     */
+    public void record(Method method, String httpMethod, String uri, long nanos) {
+        Endpoint endpoint = endpoints.get(method);
+        if (endpoint == null) {
+            endpoint = endpoints.computeIfAbsent(method, m -> new Endpoint(
+                    m.getDeclaringClass().getSimpleName() + "." + m.getName(), httpMethod, uri,
+                    new LatencyHistogram(slots, slotInterval)));
+        }
+        endpoint.histogram.record(nanos);
+    }
+
+    /**
+     * 滚动窗口前进一个时间片
+     */
+    @Scheduled(initialDelayString = "${app.metrics.slot-interval:10000}",
+            fixedRateString = "${app.metrics.slot-interval:10000}")
+    public void rotate() {
+        for (Endpoint endpoint : endpoints.values()) {
+            endpoint.histogram.rotate();
+        }
+    }
+
+    /**
+     * 已记录的接口，按名称排序
+     */
+    public List<Endpoint> getEndpoints() {
+        List<Endpoint> result = new ArrayList<>(endpoints.values());
+        result.sort(Comparator.comparing(Endpoint::getName));
+        return result;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 滚动窗口长度（毫秒）
+     */
+    public long getWindow() {
+        return slotInterval * slots;
+    }
+
+    /**
+     * 单个接口的标签和直方图
+     */
+    public static final class Endpoint {
+
+        private final String name;
+
+        private final String httpMethod;
+
+        private final String uri;
+
+        private final LatencyHistogram histogram;
+
+        Endpoint(String name, String httpMethod, String uri, LatencyHistogram histogram) {
+            this.name = name;
+            this.httpMethod = httpMethod;
+            this.uri = uri;
+            this.histogram = histogram;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getHttpMethod() {
+            return httpMethod;
+        }
+
+        public String getUri() {
+            return uri;
+        }
+
+        public LatencyHistogram getHistogram() {
+            return histogram;
+        }
+    }
+}
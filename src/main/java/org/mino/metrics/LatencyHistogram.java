@@ -0,0 +1,238 @@
+package org.mino.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 无锁延迟直方图（HDR 风格的对数-线性分桶，单位纳秒）
+ * 每个 2 的幂区间再线性划分为 32 个子桶，分位数相对误差不超过 1/32。
+ * 计数分散在若干时间片上组成滚动窗口：record 只做下标计算和原子自增，O(1) 且稳态下不分配对象；
+ * rotate 由定时任务调用，清空最旧的时间片后切换为当前片，查询时合并所有时间片
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 5;
+
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+
+    /** 可分桶的最大指数，超过 2^41 纳秒（约 36 分钟）的值计入最后一个桶 */
+    private static final int MAX_EXPONENT = 40;
+
+    static final int BUCKET_COUNT = SUB_BUCKET_COUNT + (MAX_EXPONENT - SUB_BUCKET_BITS + 1) * SUB_BUCKET_COUNT;
+
+    private final Slot[] slots;
+
+    private final long slotNanos;
+
+    private final long createdAt;
+
+    private volatile int current;
+
+    private volatile long rotatedAt;
+
+    private final LongAdder totalCount = new LongAdder();
+
+    private final LongAdder totalSum = new LongAdder();
+
+    /**
+     * @param slots         时间片数量
+     * @param slotIntervalMs 每个时间片的长度（毫秒）
+     */
+    public LatencyHistogram(int slots, long slotIntervalMs) {
+        if (slots < 2) {
+            throw new IllegalArgumentException("时间片数量至少为2");
+        }
+        if (slotIntervalMs <= 0) {
+            throw new IllegalArgumentException("时间片长度必须大于0");
+        }
+        this.slots = new Slot[slots];
+        for (int i = 0; i < slots; i++) {
+            this.slots[i] = new Slot();
+        }
+        this.slotNanos = slotIntervalMs * 1_000_000L;
+        this.createdAt = System.nanoTime();
+        this.rotatedAt = createdAt;
+    }
+
+    /**
+     * 记录一次耗时（纳秒），负值按0处理
+     */
+    public void record(long nanos) {
+        long value = Math.max(nanos, 0);
+        Slot slot = slots[current];
+        slot.counts.incrementAndGet(bucketIndex(value));
+        slot.sum.addAndGet(value);
+        long max;
+        while (value > (max = slot.max.get()) && !slot.max.compareAndSet(max, value)) {
+            // 其他线程更新了最大值，重试
+        }
+        totalCount.increment();
+        totalSum.add(value);
+    }
+
+    /**
+     * 滚动窗口前进一个时间片：清空最旧的时间片并切换为当前片
+     * 仍在向上一个时间片写入的线程不受影响，它们的计数会留在窗口内
+     */
+    public synchronized void rotate() {
+        int next = (current + 1) % slots.length;
+        slots[next].clear();
+        current = next;
+        rotatedAt = System.nanoTime();
+    }
+
+    /**
+     * 合并窗口内所有时间片生成快照
+     */
+    public Snapshot snapshot() {
+        long[] counts = new long[BUCKET_COUNT];
+        long count = 0;
+        long sum = 0;
+        long max = 0;
+        for (Slot slot : slots) {
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                long c = slot.counts.get(i);
+                counts[i] += c;
+                count += c;
+            }
+            sum += slot.sum.get();
+            max = Math.max(max, slot.max.get());
+        }
+        long now = System.nanoTime();
+        // 当前时间片尚未写满，窗口实际长度按已经过的时间计算
+        long elapsed = Math.min(now - createdAt, (slots.length - 1) * slotNanos + (now - rotatedAt));
+        return new Snapshot(counts, count, sum, max, elapsed, totalCount.sum(), totalSum.sum());
+    }
+
+    static int bucketIndex(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        if (exponent > MAX_EXPONENT) {
+            return BUCKET_COUNT - 1;
+        }
+        int shift = exponent - SUB_BUCKET_BITS;
+        return SUB_BUCKET_COUNT + shift * SUB_BUCKET_COUNT + (int) ((value >>> shift) - SUB_BUCKET_COUNT);
+    }
+
+    /**
+     * 桶内可能的最大值，分位数按该值上报（不低估）
+     */
+    static long highestValue(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int shift = (index - SUB_BUCKET_COUNT) / SUB_BUCKET_COUNT;
+        int subBucket = (index - SUB_BUCKET_COUNT) % SUB_BUCKET_COUNT;
+        return ((long) (SUB_BUCKET_COUNT + subBucket + 1) << shift) - 1;
+    }
+
+    private static final class Slot {
+
+        final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+
+        final AtomicLong sum = new AtomicLong();
+
+        final AtomicLong max = new AtomicLong();
+
+        void clear() {
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                counts.set(i, 0);
+            }
+            sum.set(0);
+            max.set(0);
+        }
+    }
+
+    /**
+     * 窗口快照
+     */
+    public static final class Snapshot {
+
+        private final long[] counts;
+
+        private final long count;
+
+        private final long sum;
+
+        private final long max;
+
+        private final long elapsedNanos;
+
+        private final long totalCount;
+
+        private final long totalSum;
+
+        Snapshot(long[] counts, long count, long sum, long max, long elapsedNanos, long totalCount, long totalSum) {
+            this.counts = counts;
+            this.count = count;
+            this.sum = sum;
+            this.max = max;
+            this.elapsedNanos = elapsedNanos;
+            this.totalCount = totalCount;
+            this.totalSum = totalSum;
+        }
+
+        /**
+         * 分位数（纳秒），quantile 取值 0~1
+         */
+        public long getValueAtQuantile(double quantile) {
+            if (count == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(quantile * count));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return Math.min(highestValue(i), max);
+                }
+            }
+            return max;
+        }
+
+        /**
+         * 窗口内的请求数
+         */
+        public long getCount() {
+            return count;
+        }
+
+        /**
+         * 窗口内的平均耗时（纳秒）
+         */
+        public double getMean() {
+            return count == 0 ? 0 : (double) sum / count;
+        }
+
+        /**
+         * 窗口内的最大耗时（纳秒）
+         */
+        public long getMax() {
+            return max;
+        }
+
+        /**
+         * 窗口内的吞吐量（次/秒）
+         */
+        public double getThroughput() {
+            return elapsedNanos <= 0 ? 0 : count * 1_000_000_000d / elapsedNanos;
+        }
+
+        /**
+         * 启动以来的请求总数
+         */
+        public long getTotalCount() {
+            return totalCount;
+        }
+
+        /**
+         * 启动以来的耗时总和（纳秒）
+         */
+        public long getTotalSum() {
+            return totalSum;
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package org.mino.metrics;
+
+/**
+ * 请求级SQL往返计数
+ * 在当前线程上统计语句数、数据库耗时和借出的连接数，由 MetricsInterceptor 按请求开启，
+ * 测试中也可以直接包住一段调用来断言往返次数：
+ * <pre>
+ * try (SqlBudget.Usage usage = SqlBudget.begin()) {
+ *     userService.createUser(user);
+ *     assertTrue(usage.getStatements() &lt;= 1);
+ * }
+ * </pre>
+ * 只统计发起请求的线程，合并查询等在其他线程执行的语句由执行方按份额通过 {@link #recordShare} 计入
+ */
+public final class SqlBudget {
+
+    private static final ThreadLocal<Usage> CURRENT = new ThreadLocal<>();
+
+    private SqlBudget() {
+    }
+
+    /**
+     * 在当前线程开始计数，关闭返回的 Usage 时恢复外层的计数
+     */
+    public static Usage begin() {
+        Usage usage = new Usage(CURRENT.get());
+        CURRENT.set(usage);
+        return usage;
+    }
+
+    /**
+     * 当前线程正在进行的计数，没有时为 null
+     */
+    public static Usage current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * 记录一次访问数据库的语句（命中 MyBatis 缓存的不算）
+     */
+    public static void recordStatement(long nanos) {
+        Usage usage = CURRENT.get();
+        if (usage != null) {
+            usage.statements++;
+            usage.dbNanos += nanos;
+        }
+    }
+
+    /**
+     * 记录一次从数据源借出连接
+     */
+    public static void recordConnection() {
+        Usage usage = CURRENT.get();
+        if (usage != null) {
+            usage.connections++;
+        }
+    }
+
+    /**
+     * 记录在其他线程执行、分摊给当前请求的开销
+     */
+    public static void recordShare(int statements, int connections, long nanos) {
+        Usage usage = CURRENT.get();
+        if (usage != null) {
+            usage.statements += statements;
+            usage.connections += connections;
+            usage.dbNanos += nanos;
+        }
+    }
+
+    /**
+     * 一次计数的结果
+     */
+    public static final class Usage implements AutoCloseable {
+
+        private final Usage parent;
+
+        private int statements;
+
+        private int connections;
+
+        private long dbNanos;
+
+        private boolean closed;
+
+        private Usage(Usage parent) {
+            this.parent = parent;
+        }
+
+        public int getStatements() {
+            return statements;
+        }
+
+        public int getConnections() {
+            return connections;
+        }
+
+        /**
+         * 语句总耗时（纳秒）
+         */
+        public long getDbNanos() {
+            return dbNanos;
+        }
+
+        /**
+         * 结束计数，外层计数同样累加本次的结果
+         */
+        @Override
+        public void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            if (parent != null) {
+                parent.statements += statements;
+                parent.connections += connections;
+                parent.dbNanos += dbNanos;
+                CURRENT.set(parent);
+            } else {
+                CURRENT.remove();
+            }
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package org.mino.metrics;
+
+import org.mino.config.SqlBudgetProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 按接口汇总每个请求的SQL往返，超出预算的请求记 WARN 日志并计数
+ */
+@Component
+public class SqlBudgetMonitor {
+
+    private static final Logger logger = LoggerFactory.getLogger(SqlBudgetMonitor.class);
+
+    private final boolean enabled;
+
+    private final int maxStatements;
+
+    private final int maxConnections;
+
+    private final long maxDbNanos;
+
+    private final int topOffenders;
+
+    private final ConcurrentHashMap<Method, Endpoint> endpoints = new ConcurrentHashMap<>();
+
+    @Autowired
+    public SqlBudgetMonitor(SqlBudgetProperties properties) {
+        this.enabled = properties.isEnabled();
+        this.maxStatements = properties.getMaxStatements();
+        this.maxConnections = properties.getMaxConnections();
+        this.maxDbNanos = properties.getMaxDbTime() * 1_000_000L;
+        this.topOffenders = properties.getTopOffenders();
+    }
+
+    /**
+     * 汇总一个请求的SQL往返并检查预算
+     *
+     * @param method     处理方法
+     * @param httpMethod 请求方法
+     * @param uri        匹配的路径模板
+     * @param usage      请求期间的计数
+     * @return 是否超出预算
+     */
+    public boolean record(Method method, String httpMethod, String uri, SqlBudget.Usage usage) {
+        Endpoint endpoint = endpoints.get(method);
+        if (endpoint == null) {
+            endpoint = endpoints.computeIfAbsent(method, m -> new Endpoint(
+                    m.getDeclaringClass().getSimpleName() + "." + m.getName(), httpMethod, uri));
+        }
+        endpoint.requests.increment();
+        endpoint.statements.add(usage.getStatements());
+        endpoint.connections.add(usage.getConnections());
+        endpoint.dbNanos.add(usage.getDbNanos());
+        endpoint.maxStatements.accumulateAndGet(usage.getStatements(), Math::max);
+        endpoint.maxConnections.accumulateAndGet(usage.getConnections(), Math::max);
+        endpoint.maxDbNanos.accumulateAndGet(usage.getDbNanos(), Math::max);
+
+        boolean exceeded = usage.getStatements() > maxStatements || usage.getConnections() > maxConnections
+                || usage.getDbNanos() > maxDbNanos;
+        if (exceeded) {
+            endpoint.violations.increment();
+            logger.warn("SQL budget exceeded by {} {}: statements {}/{}, connections {}/{}, dbTime {}ms/{}ms",
+                    httpMethod, uri, usage.getStatements(), maxStatements, usage.getConnections(), maxConnections,
+                    usage.getDbNanos() / 1_000_000, maxDbNanos / 1_000_000);
+        }
+        return exceeded;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 已记录的接口，按名称排序
+     */
+    public List<Endpoint> getEndpoints() {
+        List<Endpoint> result = new ArrayList<>(endpoints.values());
+        result.sort(Comparator.comparing(Endpoint::getName));
+        return result;
+    }
+
+    /**
+     * 预算和超出预算最多的接口（按超出次数、单请求最大语句数排序）
+     */
+    public Map<String, Object> stats() {
+        List<Endpoint> sorted = new ArrayList<>(endpoints.values());
+        sorted.sort(Comparator.comparingLong(Endpoint::getViolations)
+                .thenComparingLong(Endpoint::getMaxStatements).reversed());
+        List<Map<String, Object>> offenders = new ArrayList<>();
+        for (Endpoint endpoint : sorted) {
+            if (offenders.size() >= topOffenders || endpoint.getViolations() == 0) {
+                break;
+            }
+            offenders.add(endpoint.toMap());
+        }
+        List<Map<String, Object>> all = new ArrayList<>();
+        for (Endpoint endpoint : getEndpoints()) {
+            all.add(endpoint.toMap());
+        }
+        Map<String, Object> budget = new LinkedHashMap<>();
+        budget.put("maxStatements", maxStatements);
+        budget.put("maxConnections", maxConnections);
+        budget.put("maxDbTime", maxDbNanos / 1_000_000);
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("budget", budget);
+        stats.put("offenders", offenders);
+        stats.put("endpoints", all);
+        return stats;
+    }
+
+    /**
+     * 单个接口的SQL往返统计
+     */
+    public static final class Endpoint {
+
+        private final String name;
+
+        private final String httpMethod;
+
+        private final String uri;
+
+        private final LongAdder requests = new LongAdder();
+
+        private final LongAdder statements = new LongAdder();
+
+        private final LongAdder connections = new LongAdder();
+
+        private final LongAdder dbNanos = new LongAdder();
+
+        private final LongAdder violations = new LongAdder();
+
+        private final AtomicLong maxStatements = new AtomicLong();
+
+        private final AtomicLong maxConnections = new AtomicLong();
+
+        private final AtomicLong maxDbNanos = new AtomicLong();
+
+        Endpoint(String name, String httpMethod, String uri) {
+            this.name = name;
+            this.httpMethod = httpMethod;
+            this.uri = uri;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getHttpMethod() {
+            return httpMethod;
+        }
+
+        public String getUri() {
+            return uri;
+        }
+
+        public long getRequests() {
+            return requests.sum();
+        }
+
+        public long getStatements() {
+            return statements.sum();
+        }
+
+        public long getConnections() {
+            return connections.sum();
+        }
+
+        public long getDbNanos() {
+            return dbNanos.sum();
+        }
+
+        public long getViolations() {
+            return violations.sum();
+        }
+
+        public long getMaxStatements() {
+            return maxStatements.get();
+        }
+
+        Map<String, Object> toMap() {
+            long count = getRequests();
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("endpoint", name);
+            map.put("method", httpMethod);
+            map.put("uri", uri);
+            map.put("requests", count);
+            map.put("violations", getViolations());
+            map.put("avgStatements", count == 0 ? 0 : Math.round(getStatements() * 100d / count) / 100d);
+            map.put("maxStatements", getMaxStatements());
+            map.put("avgConnections", count == 0 ? 0 : Math.round(getConnections() * 100d / count) / 100d);
+            map.put("maxConnections", maxConnections.get());
+            map.put("maxDbTime", Math.round(maxDbNanos.get() / 1000d) / 1000d);
+            return map;
+        }
+    }
+}
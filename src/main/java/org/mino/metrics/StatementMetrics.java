@@ -0,0 +1,289 @@
+package org.mino.metrics;
+
+import org.mino.config.MetricsProperties;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 按 MyBatis 语句ID（如 org.mino.mapper.UserMapper.selectById）汇总的SQL耗时
+ * 总耗时和连接获取耗时各用一个滚动窗口直方图，执行耗时、返回行数和异常次数累计；
+ * 超过阈值的慢语句连同绑定参数保留最近若干条样本
+ */
+@Component
+public class StatementMetrics {
+
+    private final boolean enabled;
+
+    private final int slots;
+
+    private final long slotInterval;
+
+    private final long slowThresholdNanos;
+
+    private final int maxSlowSamples;
+
+    private final ConcurrentHashMap<String, Statement> statements = new ConcurrentHashMap<>();
+
+    private final Deque<SlowStatement> slowStatements = new ArrayDeque<>();
+
+    @Autowired
+    public StatementMetrics(MetricsProperties properties) {
+        this.enabled = properties.isEnabled();
+        this.slots = properties.getSlots();
+        this.slotInterval = properties.getSlotInterval();
+        this.slowThresholdNanos = properties.getSlowStatementThreshold() * 1_000_000L;
+        this.maxSlowSamples = properties.getSlowStatementSamples();
+    }
+
+    /**
+     * 记录一次语句执行
+     *
+     * @param id           语句ID
+     * @param totalNanos   总耗时
+     * @param acquireNanos 语句执行期间等待连接池借出连接的耗时，复用已借出的连接或命中二级缓存时为0
+     * @param executeNanos 语句执行和结果映射耗时
+     * @param rows         返回或影响的行数，未知时为负数
+     * @param failed       是否抛出异常
+     */
+    public void record(String id, long totalNanos, long acquireNanos, long executeNanos, long rows, boolean failed) {
+        Statement statement = statements.get(id);
+        if (statement == null) {
+            statement = statements.computeIfAbsent(id, key -> new Statement(key,
+                    new LatencyHistogram(slots, slotInterval), new LatencyHistogram(slots, slotInterval)));
+        }
+        statement.total.record(totalNanos);
+        statement.acquire.record(acquireNanos);
+        statement.acquireSum.add(acquireNanos);
+        statement.executeSum.add(executeNanos);
+        if (acquireNanos == 0 && executeNanos == 0 && !failed) {
+            statement.cacheHits.increment();
+        }
+        if (rows >= 0) {
+            statement.rows.add(rows);
+        }
+        if (failed) {
+            statement.errors.increment();
+        }
+    }
+
+    /**
+     * 是否达到慢语句阈值，调用方据此决定是否提取绑定参数
+     */
+    public boolean isSlow(long totalNanos) {
+        return maxSlowSamples > 0 && totalNanos >= slowThresholdNanos;
+    }
+
+    /**
+     * 保存一条慢语句样本，超出数量上限时淘汰最早的样本
+     */
+    public void recordSlow(SlowStatement sample) {
+        synchronized (slowStatements) {
+            if (slowStatements.size() >= maxSlowSamples) {
+                slowStatements.pollFirst();
+            }
+            slowStatements.addLast(sample);
+        }
+    }
+
+    /**
+     * 最近的慢语句样本，最新的在前
+     */
+    public List<SlowStatement> getSlowStatements() {
+        List<SlowStatement> result;
+        synchronized (slowStatements) {
+            result = new ArrayList<>(slowStatements);
+        }
+        Collections.reverse(result);
+        return result;
+    }
+
+    /**
+     * 滚动窗口前进一个时间片
+     */
+    @Scheduled(initialDelayString = "${app.metrics.slot-interval:10000}",
+            fixedRateString = "${app.metrics.slot-interval:10000}")
+    public void rotate() {
+        for (Statement statement : statements.values()) {
+            statement.total.rotate();
+            statement.acquire.rotate();
+        }
+    }
+
+    /**
+     * 已记录的语句，按语句ID排序
+     */
+    public List<Statement> getStatements() {
+        List<Statement> result = new ArrayList<>(statements.values());
+        result.sort(Comparator.comparing(Statement::getId));
+        return result;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 单条语句的统计
+     */
+    public static final class Statement {
+
+        private final String id;
+
+        private final LatencyHistogram total;
+
+        private final LatencyHistogram acquire;
+
+        private final LongAdder acquireSum = new LongAdder();
+
+        private final LongAdder executeSum = new LongAdder();
+
+        private final LongAdder rows = new LongAdder();
+
+        private final LongAdder errors = new LongAdder();
+
+        private final LongAdder cacheHits = new LongAdder();
+
+        Statement(String id, LatencyHistogram total, LatencyHistogram acquire) {
+            this.id = id;
+            this.total = total;
+            this.acquire = acquire;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        /**
+         * 总耗时直方图
+         */
+        public LatencyHistogram getTotal() {
+            return total;
+        }
+
+        /**
+         * 连接获取耗时直方图
+         */
+        public LatencyHistogram getAcquire() {
+            return acquire;
+        }
+
+        /**
+         * 累计连接获取耗时（纳秒）
+         */
+        public long getAcquireSum() {
+            return acquireSum.sum();
+        }
+
+        /**
+         * 累计执行耗时（纳秒）
+         */
+        public long getExecuteSum() {
+            return executeSum.sum();
+        }
+
+        /**
+         * 累计返回或影响的行数
+         */
+        public long getRows() {
+            return rows.sum();
+        }
+
+        public long getErrors() {
+            return errors.sum();
+        }
+
+        /**
+         * 命中 MyBatis 缓存、未访问数据库的次数
+         */
+        public long getCacheHits() {
+            return cacheHits.sum();
+        }
+    }
+
+    /**
+     * 慢语句样本
+     */
+    public static final class SlowStatement {
+
+        private final String id;
+
+        private final String sql;
+
+        private final List<Object> parameters;
+
+        private final String request;
+
+        private final long totalNanos;
+
+        private final long acquireNanos;
+
+        private final long executeNanos;
+
+        private final long rows;
+
+        private final LocalDateTime time;
+
+        public SlowStatement(String id, String sql, List<Object> parameters, String request, long totalNanos,
+                             long acquireNanos, long executeNanos, long rows, LocalDateTime time) {
+            this.id = id;
+            this.sql = sql;
+            this.parameters = parameters;
+            this.request = request;
+            this.totalNanos = totalNanos;
+            this.acquireNanos = acquireNanos;
+            this.executeNanos = executeNanos;
+            this.rows = rows;
+            this.time = time;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public String getSql() {
+            return sql;
+        }
+
+        public List<Object> getParameters() {
+            return parameters;
+        }
+
+        /**
+         * 发起该语句的HTTP请求（方法和路径），非请求线程为 null
+         */
+        public String getRequest() {
+            return request;
+        }
+
+        public long getTotalNanos() {
+            return totalNanos;
+        }
+
+        public long getAcquireNanos() {
+            return acquireNanos;
+        }
+
+        public long getExecuteNanos() {
+            return executeNanos;
+        }
+
+        public long getRows() {
+            return rows;
+        }
+
+        public LocalDateTime getTime() {
+            return time;
+        }
+    }
+}
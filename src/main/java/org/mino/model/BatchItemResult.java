@@ -0,0 +1,62 @@
+package org.mino.model;
+
+/**
+ * 批量操作单项结果
+ */
+public class BatchItemResult<T> {
+    private int index;
+    private boolean success;
+    private String message;
+    private T data;
+
+    // 构造函数
+    public BatchItemResult() {}
+
+    public BatchItemResult(int index, boolean success, String message, T data) {
+        this.index = index;
+        this.success = success;
+        this.message = message;
+        this.data = data;
+    }
+
+    public static <T> BatchItemResult<T> success(int index, T data) {
+        return new BatchItemResult<>(index, true, "操作成功", data);
+    }
+
+    public static <T> BatchItemResult<T> failure(int index, String message, T data) {
+        return new BatchItemResult<>(index, false, message, data);
+    }
+
+    // Getter和Setter方法
+    public int getIndex() {
+        return index;
+    }
+
+    public void setIndex(int index) {
+        this.index = index;
+    }
+
+    public boolean isSuccess() {
+        return success;
+    }
+
+    public void setSuccess(boolean success) {
+        this.success = success;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+
+    public T getData() {
+        return data;
+    }
+
+    public void setData(T data) {
+        this.data = data;
+    }
+}
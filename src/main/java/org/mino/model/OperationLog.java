@@ -12,6 +12,9 @@ public class OperationLog {
     private String method;
     private String params;
     private String ip;
+    private String path;
+    private Integer status;
+    private Long costTime;
     private LocalDateTime createTime;
     
     // 构造函数
@@ -75,6 +78,30 @@ public class OperationLog {
         this.ip = ip;
     }
     
+    public String getPath() {
+        return path;
+    }
+    
+    public void setPath(String path) {
+        this.path = path;
+    }
+    
+    public Integer getStatus() {
+        return status;
+    }
+    
+    public void setStatus(Integer status) {
+        this.status = status;
+    }
+    
+    public Long getCostTime() {
+        return costTime;
+    }
+    
+    public void setCostTime(Long costTime) {
+        this.costTime = costTime;
+    }
+    
     public LocalDateTime getCreateTime() {
         return createTime;
     }
@@ -92,6 +119,9 @@ public class OperationLog {
                 ", method='" + method + '\'' +
                 ", params='" + params + '\'' +
                 ", ip='" + ip + '\'' +
+                ", path='" + path + '\'' +
+                ", status=" + status +
+                ", costTime=" + costTime +
                 ", createTime=" + createTime +
                 '}';
     }
@@ -0,0 +1,63 @@
+package org.mino.model;
+
+/**
+ * 表分区信息（来自 information_schema.PARTITIONS）
+ */
+public class TablePartition {
+    private String name;
+    private String description;
+    private Long tableRows;
+    
+    // 构造函数
+    public TablePartition() {}
+    
+    public TablePartition(String name, String description, Long tableRows) {
+        this.name = name;
+        this.description = description;
+        this.tableRows = tableRows;
+    }
+    
+    /**
+     * RANGE 分区的上界，MAXVALUE 分区返回 Long.MAX_VALUE
+     */
+    public long upperBound() {
+        if (description == null || "MAXVALUE".equalsIgnoreCase(description)) {
+            return Long.MAX_VALUE;
+        }
+        return Long.parseLong(description.trim());
+    }
+    
+    // Getter和Setter方法
+    public String getName() {
+        return name;
+    }
+    
+    public void setName(String name) {
+        this.name = name;
+    }
+    
+    public String getDescription() {
+        return description;
+    }
+    
+    public void setDescription(String description) {
+        this.description = description;
+    }
+    
+    public Long getTableRows() {
+        return tableRows;
+    }
+    
+    public void setTableRows(Long tableRows) {
+        this.tableRows = tableRows;
+    }
+    
+    @Override
+    public String toString() {
+        return "TablePartition{" +
+                "name='" + name + '\'' +
+                ", description='" + description + '\'' +
+                ", tableRows=" + tableRows +
+                '}';
+    }
+}
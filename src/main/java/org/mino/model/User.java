@@ -12,6 +12,7 @@ public class User {
     private String phone;
     private LocalDateTime createTime;
     private LocalDateTime updateTime;
+    private Integer version;
 
     // 构造函数
     public User() {}
@@ -74,6 +75,14 @@ public class User {
         this.updateTime = updateTime;
     }
 
+    public Integer getVersion() {
+        return version;
+    }
+
+    public void setVersion(Integer version) {
+        this.version = version;
+    }
+
     @Override
     public String toString() {
         return "User{" +
@@ -83,6 +92,7 @@ public class User {
                 ", phone='" + phone + '\'' +
                 ", createTime=" + createTime +
                 ", updateTime=" + updateTime +
+                ", version=" + version +
                 '}';
     }
 }
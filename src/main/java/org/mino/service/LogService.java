@@ -1,8 +1,10 @@
 package org.mino.service;
 
+import org.mino.model.CursorPage;
 import org.mino.model.OperationLog;
 
 import java.util.List;
+import java.util.Map;
 
 /**
  * 日志服务接口
@@ -16,30 +18,49 @@ public interface LogService {
     void recordOperationLog(OperationLog operationLog);
     
     /**
-     * 根据用户ID查询操作日志
+     * 根据用户ID查询最近的操作日志（最多一页），完整列表请使用游标分页
      * @param userId 用户ID
      * @return 操作日志列表
      */
     List<OperationLog> getOperationLogsByUserId(Long userId);
     
     /**
-     * 分页查询操作日志
-     * @param page 页码
+     * 根据用户ID游标分页查询操作日志
+     * @param userId 用户ID
+     * @param cursor 上一页返回的游标，首页传null
+     * @param size 每页大小
+     * @return 分页结果
+     */
+    CursorPage<OperationLog> getOperationLogsByUserId(Long userId, String cursor, int size);
+    
+    /**
+     * 分页查询操作日志，页码越大越慢
+     * @param page 页码（从1开始）
      * @param size 每页大小
      * @return 操作日志列表
+     * @deprecated 仅为兼容 {@code GET /api/logs/page} 保留，新调用方请使用 {@link #getOperationLogsByCursor}
      */
+    @Deprecated
     List<OperationLog> getOperationLogsByPage(int page, int size);
     
     /**
-     * 统计操作日志总数
-     * @return 总数
+     * 游标分页查询操作日志
+     * @param cursor 上一页返回的游标，首页传null
+     * @param size 每页大小
+     * @return 分页结果
+     */
+    CursorPage<OperationLog> getOperationLogsByCursor(String cursor, int size);
+    
+    /**
+     * 统计操作日志总数（近似值）
+     * @return 总数，启动后基线尚未加载时返回null
      */
-    long getOperationLogsCount();
+    Long getOperationLogsCount();
     
     /**
-     * 清理指定天数之前的日志
+     * 在后台清理指定天数之前的日志，不等待清理完成
      * @param days 天数
-     * @return 清理的日志数量
+     * @return 清理任务状态：started 表示本次是否启动了清理（已有清理在执行时为false），其余为清理进度
      */
-    int cleanOldLogs(int days);
+    Map<String, Object> cleanOldLogs(int days);
 }
@@ -1,8 +1,12 @@
 package org.mino.service;
 
+import org.mino.model.BatchItemResult;
+import org.mino.model.CursorPage;
 import org.mino.model.User;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 /**
  * 用户服务接口
@@ -16,6 +20,13 @@ public interface UserService {
      */
     User createUser(User user);
     
+    /**
+     * 批量创建用户，逐项返回成功或失败原因
+     * @param users 用户列表
+     * @return 与入参顺序一致的结果列表
+     */
+    List<BatchItemResult<User>> createUsers(List<User> users);
+    
     /**
      * 根据ID查找用户
      * @param id 用户ID
@@ -23,6 +34,20 @@ public interface UserService {
      */
     Optional<User> findById(Long id);
     
+    /**
+     * 查找用户版本号，用于条件请求（ETag）校验：优先读缓存，未命中时只查询版本号列
+     * @param id 用户ID
+     * @return 版本号，用户不存在时为空
+     */
+    Optional<Integer> findVersionById(Long id);
+    
+    /**
+     * 根据ID批量查找用户
+     * @param ids 用户ID集合
+     * @return 按入参顺序排列的存在的用户（去重）
+     */
+    List<User> findByIds(Collection<Long> ids);
+    
     /**
      * 根据用户名查找用户
      * @param username 用户名
@@ -30,6 +55,13 @@ public interface UserService {
      */
     Optional<User> findByUsername(String username);
     
+    /**
+     * 根据用户名查找用户ID和版本号，用于条件请求（ETag）校验：优先读缓存，未命中时只查询两列
+     * @param username 用户名
+     * @return 只保证包含 id 和 version 的用户
+     */
+    Optional<User> findVersionByUsername(String username);
+    
     /**
      * 获取所有用户
      * @return 用户列表
@@ -37,12 +69,35 @@ public interface UserService {
     List<User> findAllUsers();
     
     /**
-     * 更新用户信息
+     * 流式导出所有用户，逐条交给consumer处理，内存占用与用户总数无关
+     * @param consumer 用户处理器
+     * @return 导出的用户数量
+     */
+    long exportAllUsers(Consumer<User> consumer);
+    
+    /**
+     * 游标分页查询用户，按创建时间倒序
+     * @param cursor 上一页返回的游标，为空时查询第一页
+     * @param size 每页大小
+     * @return 分页结果
+     */
+    CursorPage<User> findUsersByCursor(String cursor, int size);
+    
+    /**
+     * 全量更新用户信息，必须携带 version，按乐观锁条件更新
      * @param user 用户信息
      * @return 更新后的用户
+     * @throws IllegalArgumentException 未携带 version
      */
     User updateUser(User user);
     
+    /**
+     * 部分更新用户信息，只更新非空字段；携带version时进行乐观锁校验
+     * @param user 需要更新的字段
+     * @return 更新后的字段及新版本号
+     */
+    User patchUser(User user);
+    
     /**
      * 删除用户
      * @param id 用户ID
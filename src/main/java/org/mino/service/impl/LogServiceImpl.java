@@ -1,13 +1,22 @@
 package org.mino.service.impl;
 
+import org.mino.log.OperationLogCounter;
+import org.mino.log.OperationLogRetention;
+import org.mino.log.OperationLogWriter;
+import org.mino.mapper.OperationLogMapper;
+import org.mino.model.CursorPage;
 import org.mino.model.OperationLog;
 import org.mino.service.LogService;
+import org.mino.util.CursorCodec;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-import java.util.ArrayList;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * 日志服务实现类
@@ -17,48 +26,122 @@ public class LogServiceImpl implements LogService {
     
     private static final Logger logger = LoggerFactory.getLogger(LogServiceImpl.class);
     
-    // 这里简化实现，实际项目中应该使用数据库存储
-    // 暂时使用内存存储，避免循环依赖问题
+    /**
+     * 单页最大条数
+     */
+    private static final int MAX_PAGE_SIZE = 100;
+    
+    private final OperationLogMapper operationLogMapper;
+    
+    private final OperationLogWriter operationLogWriter;
+    
+    private final OperationLogRetention operationLogRetention;
+    
+    private final OperationLogCounter operationLogCounter;
+    
+    @Autowired
+    public LogServiceImpl(OperationLogMapper operationLogMapper, OperationLogWriter operationLogWriter,
+                          OperationLogRetention operationLogRetention, OperationLogCounter operationLogCounter) {
+        this.operationLogMapper = operationLogMapper;
+        this.operationLogWriter = operationLogWriter;
+        this.operationLogRetention = operationLogRetention;
+        this.operationLogCounter = operationLogCounter;
+    }
     
     @Override
     public void recordOperationLog(OperationLog operationLog) {
-        try {
-            // 异步记录日志，避免阻塞主流程
-            logger.info("Operation Log: {} - {} - {} - {}ms", 
-                operationLog.getOperation(),
-                operationLog.getMethod(),
-                operationLog.getParams(),
-                System.currentTimeMillis() - operationLog.getCreateTime().toInstant(java.time.ZoneOffset.UTC).toEpochMilli());
-        } catch (Exception e) {
-            logger.error("Error recording operation log", e);
+        if (operationLog == null) {
+            return;
+        }
+        if (operationLog.getCreateTime() == null) {
+            operationLog.setCreateTime(LocalDateTime.now());
+        }
+        // 只放入队列，由后台线程批量写库，不阻塞主流程
+        if (!operationLogWriter.submit(operationLog)) {
+            logger.debug("Operation log not queued: {} - {}", operationLog.getOperation(), operationLog.getMethod());
         }
     }
     
     @Override
     public List<OperationLog> getOperationLogsByUserId(Long userId) {
         logger.debug("Getting operation logs for user: {}", userId);
-        // 简化实现，返回空列表
-        return new ArrayList<>();
+        return getOperationLogsByUserId(userId, null, MAX_PAGE_SIZE).getItems();
+    }
+    
+    @Override
+    public CursorPage<OperationLog> getOperationLogsByUserId(Long userId, String cursor, int size) {
+        logger.debug("Getting operation logs for user: {}, cursor: {}, size: {}", userId, cursor, size);
+        if (userId == null) {
+            throw new IllegalArgumentException("用户ID不能为空");
+        }
+        checkPageSize(size);
+        CursorCodec.Position position = CursorCodec.decode(cursor);
+        // 多取一条用于判断是否还有下一页
+        List<OperationLog> logs = position == null
+                ? operationLogMapper.selectByUserCursor(userId, null, null, size + 1)
+                : operationLogMapper.selectByUserCursor(userId, position.getCreateTime(), position.getId(), size + 1);
+        return toPage(logs, size);
     }
     
     @Override
+    @Deprecated
     public List<OperationLog> getOperationLogsByPage(int page, int size) {
         logger.debug("Getting operation logs page: {}, size: {}", page, size);
-        // 简化实现，返回空列表
-        return new ArrayList<>();
+        if (page < 1) {
+            throw new IllegalArgumentException("页码必须从1开始");
+        }
+        checkPageSize(size);
+        long offset = (long) (page - 1) * size;
+        if (offset > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("页码过大，请使用游标分页");
+        }
+        return operationLogMapper.selectByPage((int) offset, size);
+    }
+    
+    @Override
+    public CursorPage<OperationLog> getOperationLogsByCursor(String cursor, int size) {
+        logger.debug("Getting operation logs by cursor: {}, size: {}", cursor, size);
+        checkPageSize(size);
+        CursorCodec.Position position = CursorCodec.decode(cursor);
+        List<OperationLog> logs = position == null
+                ? operationLogMapper.selectByCursor(null, null, size + 1)
+                : operationLogMapper.selectByCursor(position.getCreateTime(), position.getId(), size + 1);
+        return toPage(logs, size);
     }
     
     @Override
-    public long getOperationLogsCount() {
+    public Long getOperationLogsCount() {
         logger.debug("Getting operation logs count");
-        // 简化实现，返回0
-        return 0L;
+        return operationLogCounter.count();
     }
     
     @Override
-    public int cleanOldLogs(int days) {
+    public Map<String, Object> cleanOldLogs(int days) {
         logger.debug("Cleaning old logs older than {} days", days);
-        // 简化实现，返回0
-        return 0;
+        // 按分区删除或分块删除，可能持续到 maxDuration，在后台线程执行，不占用请求线程
+        boolean started = operationLogRetention.purgeOlderThanAsync(days);
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("started", started);
+        status.putAll(operationLogRetention.stats());
+        return status;
+    }
+    
+    private void checkPageSize(int size) {
+        if (size <= 0 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("每页大小必须在1到" + MAX_PAGE_SIZE + "之间");
+        }
+    }
+    
+    private CursorPage<OperationLog> toPage(List<OperationLog> logs, int size) {
+        boolean hasMore = logs.size() > size;
+        if (hasMore) {
+            logs = logs.subList(0, size);
+        }
+        String nextCursor = null;
+        if (hasMore) {
+            OperationLog last = logs.get(logs.size() - 1);
+            nextCursor = CursorCodec.encode(last.getCreateTime(), last.getId());
+        }
+        return new CursorPage<>(logs, nextCursor, hasMore);
     }
 }
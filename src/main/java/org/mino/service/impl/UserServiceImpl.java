@@ -1,17 +1,43 @@
 package org.mino.service.impl;
 
+import org.mino.cache.UserBatchLoader;
+import org.mino.cache.UserCache;
+import org.mino.cache.UserUniquenessIndex;
+import org.mino.config.UserProperties;
+import org.mino.datasource.ReadWriteRoutingDataSource;
+import org.mino.exception.DuplicateKeyTranslator;
+import org.apache.ibatis.cursor.Cursor;
 import org.mino.mapper.UserMapper;
+import org.mino.model.BatchItemResult;
+import org.mino.model.CursorPage;
 import org.mino.model.User;
 import org.mino.service.UserService;
+import org.mino.util.CursorCodec;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
 
 /**
  * 用户服务实现类
@@ -22,37 +48,64 @@ public class UserServiceImpl implements UserService {
     
     private static final Logger logger = LoggerFactory.getLogger(UserServiceImpl.class);
     
+    private static final int MAX_PAGE_SIZE = 100;
+    
+    private static final int MAX_BATCH_SIZE = 1000;
+    
+    // 单条SQL中 IN 列表和多值INSERT的最大行数
+    private static final int BATCH_CHUNK_SIZE = 500;
+    
     private final UserMapper userMapper;
     
+    private final UserCache userCache;
+    
+    private final UserUniquenessIndex userUniquenessIndex;
+    
+    private final UserBatchLoader userBatchLoader;
+    
+    private final UserProperties userProperties;
+    
     @Autowired
-    public UserServiceImpl(UserMapper userMapper) {
+    public UserServiceImpl(UserMapper userMapper, UserCache userCache, UserUniquenessIndex userUniquenessIndex,
+                           UserBatchLoader userBatchLoader, UserProperties userProperties) {
         this.userMapper = userMapper;
+        this.userProperties = userProperties;
+        this.userCache = userCache;
+        this.userUniquenessIndex = userUniquenessIndex;
+        this.userBatchLoader = userBatchLoader;
         logger.info("UserServiceImpl initialized with UserMapper");
     }
     
     @Override
     public User createUser(User user) {
-        logger.debug("Creating user with username: {}", user.getUsername());
-        
         if (user == null) {
             logger.error("User object is null");
             throw new IllegalArgumentException("用户信息不能为空");
         }
         
-        if (existsByUsername(user.getUsername())) {
-            logger.warn("Username already exists: {}", user.getUsername());
-            throw new RuntimeException("用户名已存在");
-        }
+        logger.debug("Creating user with username: {}", user.getUsername());
         
-        if (userMapper.countByEmail(user.getEmail()) > 0) {
-            logger.warn("Email already exists: {}", user.getEmail());
-            throw new RuntimeException("邮箱已存在");
+        // 插入优先模式下不预先检查，由唯一约束判定冲突，只需一次往返且不存在并发竞争
+        if (!userProperties.isInsertFirst()) {
+            if (usernameExists(user.getUsername())) {
+                logger.warn("Username already exists: {}", user.getUsername());
+                throw new RuntimeException("用户名已存在");
+            }
+            
+            if (emailExists(user.getEmail())) {
+                logger.warn("Email already exists: {}", user.getEmail());
+                throw new RuntimeException("邮箱已存在");
+            }
         }
         
         // 设置创建时间和更新时间
         LocalDateTime now = LocalDateTime.now();
         user.setCreateTime(now);
         user.setUpdateTime(now);
+        user.setVersion(0);
+        
+        // 先登记唯一性索引再写库，保证索引始终覆盖数据库
+        userUniquenessIndex.add(user);
         
         try {
             int result = userMapper.insert(user);
@@ -63,6 +116,10 @@ public class UserServiceImpl implements UserService {
                 logger.error("Failed to create user: {}", user.getUsername());
                 throw new RuntimeException("用户创建失败");
             }
+        } catch (DuplicateKeyException e) {
+            RuntimeException conflict = DuplicateKeyTranslator.translateUserConflict(e);
+            logger.warn("Duplicate key creating user {}: {}", user.getUsername(), conflict.getMessage());
+            throw conflict;
         } catch (Exception e) {
             logger.error("Error creating user: {}", user.getUsername(), e);
             throw new RuntimeException("用户创建失败: " + e.getMessage());
@@ -70,6 +127,73 @@ public class UserServiceImpl implements UserService {
     }
     
     @Override
+    public List<BatchItemResult<User>> createUsers(List<User> users) {
+        if (users == null || users.isEmpty()) {
+            logger.error("User list is null or empty");
+            throw new IllegalArgumentException("用户列表不能为空");
+        }
+        if (users.size() > MAX_BATCH_SIZE) {
+            logger.error("Batch size {} exceeds limit {}", users.size(), MAX_BATCH_SIZE);
+            throw new IllegalArgumentException("单次最多创建" + MAX_BATCH_SIZE + "个用户");
+        }
+        logger.debug("Batch creating {} users", users.size());
+        
+        // 整批用户名、邮箱各用一次 IN 查询检查，索引判定一定不存在的不参与查询
+        Set<String> existingUsernames = findExisting(users, User::getUsername,
+                userUniquenessIndex::mightContainUsername, userMapper::selectExistingUsernames);
+        Set<String> existingEmails = findExisting(users, User::getEmail,
+                userUniquenessIndex::mightContainEmail, userMapper::selectExistingEmails);
+        
+        List<BatchItemResult<User>> results = new ArrayList<>(Collections.nCopies(users.size(), null));
+        Set<String> batchUsernames = new HashSet<>();
+        Set<String> batchEmails = new HashSet<>();
+        List<Integer> pending = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < users.size(); i++) {
+            User user = users.get(i);
+            if (user == null || isBlank(user.getUsername()) || isBlank(user.getEmail())) {
+                results.set(i, BatchItemResult.failure(i, "用户名和邮箱不能为空", user));
+                continue;
+            }
+            String username = normalizeKey(user.getUsername());
+            String email = normalizeKey(user.getEmail());
+            if (existingUsernames.contains(username) || batchUsernames.contains(username)) {
+                results.set(i, BatchItemResult.failure(i, "用户名已存在", user));
+                continue;
+            }
+            if (existingEmails.contains(email) || batchEmails.contains(email)) {
+                results.set(i, BatchItemResult.failure(i, "邮箱已存在", user));
+                continue;
+            }
+            batchUsernames.add(username);
+            batchEmails.add(email);
+            user.setCreateTime(now);
+            user.setUpdateTime(now);
+            user.setVersion(0);
+            userUniquenessIndex.add(user);
+            pending.add(i);
+        }
+        
+        try {
+            for (int from = 0; from < pending.size(); from += BATCH_CHUNK_SIZE) {
+                insertChunk(users, pending.subList(from, Math.min(from + BATCH_CHUNK_SIZE, pending.size())), results);
+            }
+        } catch (Exception e) {
+            logger.error("Error batch creating users", e);
+            throw new RuntimeException("批量创建用户失败: " + e.getMessage());
+        }
+        
+        long created = results.stream().filter(BatchItemResult::isSuccess).count();
+        logger.info("Batch created {} of {} users", created, users.size());
+        return results;
+    }
+    
+    /**
+     * SUPPORTS：缓存命中时不开启事务，也不占用连接池连接
+     * 未命中时的查询结果会写入缓存，固定读主库，避免从库的旧数据在缓存中保留整个TTL
+     */
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public Optional<User> findById(Long id) {
         logger.debug("Finding user by ID: {}", id);
         
@@ -79,7 +203,8 @@ public class UserServiceImpl implements UserService {
         }
         
         try {
-            User user = userMapper.selectById(id);
+            // 缓存未命中时经批量加载器合并并发查询，加载器固定走主库
+            User user = userCache.getById(id, userBatchLoader::load);
             if (user != null) {
                 logger.debug("User found by ID: {}", id);
             } else {
@@ -92,7 +217,79 @@ public class UserServiceImpl implements UserService {
         }
     }
     
+    /**
+     * 缓存命中时直接取版本号；未命中时只查版本号，不回填缓存，也不经过批量加载器
+     */
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public Optional<Integer> findVersionById(Long id) {
+        if (id == null) {
+            return Optional.empty();
+        }
+        User cached = userCache.peek(id);
+        if (cached != null && cached.getVersion() != null) {
+            return Optional.of(cached.getVersion());
+        }
+        try {
+            return Optional.ofNullable(userMapper.selectVersionById(id));
+        } catch (Exception e) {
+            logger.error("Error finding user version by ID: {}", id, e);
+            throw new RuntimeException("查询用户版本失败: " + e.getMessage());
+        }
+    }
+    
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public List<User> findByIds(Collection<Long> ids) {
+        logger.debug("Finding users by IDs: {}", ids);
+        
+        if (ids == null || ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Set<Long> uniqueIds = new LinkedHashSet<>();
+        for (Long id : ids) {
+            if (id != null) {
+                uniqueIds.add(id);
+            }
+        }
+        if (uniqueIds.size() > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("单次最多查询" + MAX_PAGE_SIZE + "个用户");
+        }
+        
+        try {
+            Map<Long, User> cached = userCache.getAllPresent(uniqueIds);
+            Map<Long, User> found = new HashMap<>(cached);
+            List<Long> misses = new ArrayList<>();
+            for (Long id : uniqueIds) {
+                if (!cached.containsKey(id)) {
+                    misses.add(id);
+                }
+            }
+            if (!misses.isEmpty()) {
+                long stamp = userCache.generation();
+                List<User> loaded = ReadWriteRoutingDataSource.readFromPrimary(() -> userMapper.selectByIds(misses));
+                for (User user : loaded) {
+                    userCache.put(user, stamp);
+                    found.put(user.getId(), user);
+                }
+            }
+            List<User> users = new ArrayList<>(found.size());
+            for (Long id : uniqueIds) {
+                User user = found.get(id);
+                if (user != null) {
+                    users.add(user);
+                }
+            }
+            logger.debug("Found {} of {} users by IDs, {} from cache", users.size(), uniqueIds.size(), cached.size());
+            return users;
+        } catch (Exception e) {
+            logger.error("Error finding users by IDs: {}", ids, e);
+            throw new RuntimeException("批量查询用户失败: " + e.getMessage());
+        }
+    }
+    
     @Override
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public Optional<User> findByUsername(String username) {
         logger.debug("Finding user by username: {}", username);
         
@@ -102,7 +299,8 @@ public class UserServiceImpl implements UserService {
         }
         
         try {
-            User user = userMapper.selectByUsername(username);
+            User user = userCache.getByUsername(username,
+                    key -> ReadWriteRoutingDataSource.readFromPrimary(() -> userMapper.selectByUsername(key)));
             if (user != null) {
                 logger.debug("User found by username: {}", username);
             } else {
@@ -116,6 +314,25 @@ public class UserServiceImpl implements UserService {
     }
     
     @Override
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public Optional<User> findVersionByUsername(String username) {
+        if (isBlank(username)) {
+            return Optional.empty();
+        }
+        User cached = userCache.peekByUsername(username);
+        if (cached != null && cached.getVersion() != null) {
+            return Optional.of(cached);
+        }
+        try {
+            return Optional.ofNullable(userMapper.selectVersionByUsername(username));
+        } catch (Exception e) {
+            logger.error("Error finding user version by username: {}", username, e);
+            throw new RuntimeException("查询用户版本失败: " + e.getMessage());
+        }
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
     public List<User> findAllUsers() {
         logger.debug("Finding all users");
         
@@ -130,50 +347,84 @@ public class UserServiceImpl implements UserService {
     }
     
     @Override
-    public User updateUser(User user) {
-        logger.debug("Updating user with ID: {}", user.getId());
+    @Transactional(readOnly = true)
+    public long exportAllUsers(Consumer<User> consumer) {
+        logger.debug("Exporting all users");
         
+        long count = 0;
+        try (Cursor<User> cursor = userMapper.selectAllAsCursor()) {
+            for (User user : cursor) {
+                consumer.accept(user);
+                count++;
+            }
+        } catch (IOException e) {
+            logger.error("Error closing user cursor after {} users", count, e);
+            throw new RuntimeException("导出用户失败: " + e.getMessage());
+        }
+        logger.info("Exported {} users", count);
+        return count;
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<User> findUsersByCursor(String cursor, int size) {
+        logger.debug("Finding users by cursor: {}, size: {}", cursor, size);
+        
+        if (size <= 0 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("每页大小必须在1到" + MAX_PAGE_SIZE + "之间");
+        }
+        CursorCodec.Position position = CursorCodec.decode(cursor);
+        
+        try {
+            // 多取一条用于判断是否还有下一页
+            List<User> users = position == null
+                    ? userMapper.selectByCursor(null, null, size + 1)
+                    : userMapper.selectByCursor(position.getCreateTime(), position.getId(), size + 1);
+            boolean hasMore = users.size() > size;
+            if (hasMore) {
+                users = users.subList(0, size);
+            }
+            String nextCursor = null;
+            if (hasMore) {
+                User last = users.get(users.size() - 1);
+                nextCursor = CursorCodec.encode(last.getCreateTime(), last.getId());
+            }
+            logger.debug("Found {} users by cursor, hasMore: {}", users.size(), hasMore);
+            return new CursorPage<>(users, nextCursor, hasMore);
+        } catch (Exception e) {
+            logger.error("Error finding users by cursor: {}", cursor, e);
+            throw new RuntimeException("分页查询用户失败: " + e.getMessage());
+        }
+    }
+    
+    @Override
+    public User updateUser(User user) {
         if (user == null || user.getId() == null) {
             logger.error("User or user ID is null");
             throw new IllegalArgumentException("用户信息或ID不能为空");
         }
         
-        // 检查用户是否存在
-        Optional<User> existingUser = findById(user.getId());
-        if (existingUser.isEmpty()) {
-            logger.warn("User not found with ID: {}", user.getId());
-            throw new RuntimeException("用户不存在");
+        // 全量更新会覆盖所有字段，不允许无条件覆盖他人的修改
+        if (user.getVersion() == null) {
+            throw new IllegalArgumentException("全量更新必须携带version");
         }
         
-        // 检查用户名是否重复（排除当前用户）
-        User existing = existingUser.get();
-        if (!existing.getUsername().equals(user.getUsername()) && existsByUsername(user.getUsername())) {
-            logger.warn("Username already exists: {}", user.getUsername());
-            throw new RuntimeException("用户名已存在");
+        logger.debug("Updating user with ID: {}", user.getId());
+        return applyUpdate(user, false);
+    }
+    
+    @Override
+    public User patchUser(User user) {
+        if (user == null || user.getId() == null) {
+            logger.error("User or user ID is null");
+            throw new IllegalArgumentException("用户信息或ID不能为空");
         }
-        
-        // 检查邮箱是否重复（排除当前用户）
-        if (!existing.getEmail().equals(user.getEmail()) && userMapper.countByEmail(user.getEmail()) > 0) {
-            logger.warn("Email already exists: {}", user.getEmail());
-            throw new RuntimeException("邮箱已存在");
+        if (user.getUsername() == null && user.getEmail() == null && user.getPhone() == null) {
+            throw new IllegalArgumentException("没有需要更新的字段");
         }
         
-        // 设置更新时间
-        user.setUpdateTime(LocalDateTime.now());
-        
-        try {
-            int result = userMapper.update(user);
-            if (result > 0) {
-                logger.info("User updated successfully: {}", user.getUsername());
-                return user;
-            } else {
-                logger.error("Failed to update user: {}", user.getUsername());
-                throw new RuntimeException("用户更新失败");
-            }
-        } catch (Exception e) {
-            logger.error("Error updating user: {}", user.getUsername(), e);
-            throw new RuntimeException("用户更新失败: " + e.getMessage());
-        }
+        logger.debug("Patching user with ID: {}", user.getId());
+        return applyUpdate(user, true);
     }
     
     @Override
@@ -187,6 +438,7 @@ public class UserServiceImpl implements UserService {
         
         try {
             int result = userMapper.deleteById(id);
+            userCache.evict(id);
             if (result > 0) {
                 logger.info("User deleted successfully: {}", id);
                 return true;
@@ -201,6 +453,7 @@ public class UserServiceImpl implements UserService {
     }
     
     @Override
+    @Transactional(readOnly = true)
     public boolean existsByUsername(String username) {
         logger.debug("Checking if username exists: {}", username);
         
@@ -208,6 +461,11 @@ public class UserServiceImpl implements UserService {
             return false;
         }
         
+        // 索引只覆盖本实例的写入，只有配置为权威（单实例、唯一写入方）时才以"不存在"为结论
+        if (userUniquenessIndex.isAuthoritative() && !userUniquenessIndex.mightContainUsername(username)) {
+            logger.debug("Username '{}' absent in authoritative index", username);
+            return false;
+        }
         try {
             int count = userMapper.countByUsername(username);
             boolean exists = count > 0;
@@ -218,5 +476,125 @@ public class UserServiceImpl implements UserService {
             throw new RuntimeException("检查用户名失败: " + e.getMessage());
         }
     }
+    
+    /**
+     * 创建前检查用户名是否存在，索引判定不存在时不查询数据库；
+     * 其他实例写入的用户名不在本实例的索引中，由唯一约束兜底
+     */
+    private boolean usernameExists(String username) {
+        if (!userUniquenessIndex.mightContainUsername(username)) {
+            logger.debug("Username '{}' absent in index, leaving it to the unique constraint", username);
+            return false;
+        }
+        return existsByUsername(username);
+    }
+    
+    /**
+     * 创建前检查邮箱是否存在，索引判定不存在时不查询数据库，由唯一约束兜底
+     */
+    private boolean emailExists(String email) {
+        if (!userUniquenessIndex.mightContainEmail(email)) {
+            logger.debug("Email '{}' definitely absent in index", email);
+            return false;
+        }
+        return userMapper.countByEmail(email) > 0;
+    }
+    
+    /**
+     * 多值INSERT写入一组用户；并发写入导致唯一键冲突时逐条重试以定位失败项
+     */
+    private void insertChunk(List<User> users, List<Integer> indexes, List<BatchItemResult<User>> results) {
+        List<User> rows = new ArrayList<>(indexes.size());
+        for (int index : indexes) {
+            rows.add(users.get(index));
+        }
+        try {
+            userMapper.insertBatch(rows);
+            for (int index : indexes) {
+                results.set(index, BatchItemResult.success(index, users.get(index)));
+            }
+        } catch (DuplicateKeyException e) {
+            logger.warn("Duplicate key in batch insert of {} users, retrying one by one", rows.size());
+            for (int index : indexes) {
+                User user = users.get(index);
+                try {
+                    userMapper.insert(user);
+                    results.set(index, BatchItemResult.success(index, user));
+                } catch (DuplicateKeyException ex) {
+                    results.set(index, BatchItemResult.failure(index,
+                            DuplicateKeyTranslator.translateUserConflict(ex).getMessage(), user));
+                }
+            }
+        }
+    }
+    
+    /**
+     * 查询一批用户中某个唯一字段已存在的值（归一化后）
+     */
+    private Set<String> findExisting(List<User> users, Function<User, String> field, Predicate<String> mightExist,
+                                     Function<Collection<String>, List<String>> query) {
+        List<String> candidates = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        for (User user : users) {
+            String value = user == null ? null : field.apply(user);
+            if (!isBlank(value) && seen.add(value) && mightExist.test(value)) {
+                candidates.add(value);
+            }
+        }
+        Set<String> existing = new HashSet<>();
+        for (int from = 0; from < candidates.size(); from += BATCH_CHUNK_SIZE) {
+            for (String value : query.apply(candidates.subList(from, Math.min(from + BATCH_CHUNK_SIZE, candidates.size())))) {
+                existing.add(normalizeKey(value));
+            }
+        }
+        return existing;
+    }
+    
+    // 与 utf8mb4_unicode_ci 一致按忽略大小写比较
+    private static String normalizeKey(String value) {
+        return value.toLowerCase(Locale.ROOT);
+    }
+    
+    private static boolean isBlank(String value) {
+        return value == null || value.trim().isEmpty();
+    }
+    
+    /**
+     * 单条UPDATE完成更新：存在性、版本号和唯一性均由同一条语句判定，
+     * 只有未更新到行时才额外查询一次版本号区分"不存在"和"版本冲突"
+     */
+    private User applyUpdate(User user, boolean selective) {
+        // 设置更新时间
+        user.setUpdateTime(LocalDateTime.now());
+        userUniquenessIndex.add(user);
+        
+        int result;
+        try {
+            result = selective ? userMapper.updateSelective(user) : userMapper.update(user);
+            userCache.evict(user.getId());
+        } catch (DuplicateKeyException e) {
+            RuntimeException conflict = DuplicateKeyTranslator.translateUserConflict(e);
+            logger.warn("Duplicate key updating user {}: {}", user.getId(), conflict.getMessage());
+            throw conflict;
+        } catch (Exception e) {
+            logger.error("Error updating user: {}", user.getId(), e);
+            throw new RuntimeException("用户更新失败: " + e.getMessage());
+        }
+        
+        if (result > 0) {
+            if (user.getVersion() != null) {
+                user.setVersion(user.getVersion() + 1);
+            }
+            logger.info("User updated successfully: {}", user.getId());
+            return user;
+        }
+        
+        Integer currentVersion = userMapper.selectVersionById(user.getId());
+        if (currentVersion == null) {
+            logger.warn("User not found with ID: {}", user.getId());
+            throw new RuntimeException("用户不存在");
+        }
+        logger.warn("Version conflict updating user {}: expected {}, current {}", user.getId(), user.getVersion(), currentVersion);
+        throw new OptimisticLockingFailureException("用户信息已被修改，请刷新后重试");
+    }
 }
-
@@ -0,0 +1,68 @@
+package org.mino.util;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * 分页游标编解码：将 (create_time, id) 编码为不透明的字符串
+ */
+public final class CursorCodec {
+
+    private static final char SEPARATOR = '|';
+
+    private CursorCodec() {}
+
+    /**
+     * 编码游标
+     */
+    public static String encode(LocalDateTime createTime, Long id) {
+        if (createTime == null || id == null) {
+            throw new IllegalArgumentException("游标字段不能为空");
+        }
+        String raw = createTime + String.valueOf(SEPARATOR) + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 解码游标，空游标返回null表示从第一页开始
+     */
+    public static Position decode(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int index = raw.lastIndexOf(SEPARATOR);
+            if (index <= 0) {
+                throw new IllegalArgumentException("无效的分页游标");
+            }
+            return new Position(LocalDateTime.parse(raw.substring(0, index)), Long.parseLong(raw.substring(index + 1)));
+        } catch (DateTimeParseException | IllegalArgumentException e) {
+            // NumberFormatException 是 IllegalArgumentException 的子类
+            throw new IllegalArgumentException("无效的分页游标");
+        }
+    }
+
+    /**
+     * 游标位置
+     */
+    public static final class Position {
+        private final LocalDateTime createTime;
+        private final Long id;
+
+        public Position(LocalDateTime createTime, Long id) {
+            this.createTime = createTime;
+            this.id = id;
+        }
+
+        public LocalDateTime getCreateTime() {
+            return createTime;
+        }
+
+        public Long getId() {
+            return id;
+        }
+    }
+}
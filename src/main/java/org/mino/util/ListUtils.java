@@ -1,12 +1,32 @@
 package org.mino.util;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * 列表工具类：交集、并集、差集
+ * *Longs 版本处理 long[]，语义与集合版本相同（结果唯一，保持出现顺序），内部使用 LongHashSet，不装箱；
+ * 不与集合版本重载同名，intersection(null, null) 这样的调用不会产生歧义；
+ * *Sorted 版本要求输入升序（允许重复），用归并代替哈希；
+ * parallel* 版本把探测侧分段交给公共 ForkJoinPool，结果顺序与串行版本一致，规模较小或只有一个并行度时自动走串行；
+ * *Iterator / *Stream 版本惰性产出结果，只物化查找用的集合，不构建结果列表
  */
 public final class ListUtils {
 
+    /** 两个输入的元素总数低于该值时并行版本直接走串行 */
+    static final int PARALLEL_THRESHOLD = 1 << 16;
+
+    /** 每个并行度划分的分段数，分段更细可以平衡各段命中率不均 */
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    /** ConcurrentHashMap 不允许 null 键，用该对象代替 null */
+    private static final Object NULL_KEY = new Object();
+
     private ListUtils() {}
 
     /**
@@ -74,4 +94,437 @@ public final class ListUtils {
         }
         return union(a, b);
     }
+
+    /**
+     * 取交集（long 版本，唯一，保持按第一个数组出现顺序）
+     */
+    public static long[] intersectionLongs(long[] first, long[] second) {
+        if (first == null || second == null || first.length == 0 || second.length == 0) {
+            return new long[0];
+        }
+        LongHashSet secondSet = toSet(second, second.length);
+        long[] result = new long[Math.min(first.length, secondSet.size())];
+        int count = 0;
+        for (long item : first) {
+            // 命中后移出集合，first 中的重复元素不会再次命中
+            if (secondSet.remove(item)) {
+                result[count++] = item;
+                if (secondSet.isEmpty()) {
+                    break;
+                }
+            }
+        }
+        return trim(result, count);
+    }
+
+    /**
+     * 取并集（long 版本，唯一，保持先first后second的出现顺序）
+     */
+    public static long[] unionLongs(long[] first, long[] second) {
+        int firstLength = first == null ? 0 : first.length;
+        int secondLength = second == null ? 0 : second.length;
+        // 第一遍只统计去重后的数量，第二遍按顺序输出并移出集合，结果数组无需截断
+        LongHashSet remaining = new LongHashSet(firstLength + secondLength);
+        if (first != null) {
+            for (long item : first) {
+                remaining.add(item);
+            }
+        }
+        if (second != null) {
+            for (long item : second) {
+                remaining.add(item);
+            }
+        }
+        long[] result = new long[remaining.size()];
+        int count = 0;
+        if (first != null) {
+            for (long item : first) {
+                if (remaining.remove(item)) {
+                    result[count++] = item;
+                }
+            }
+        }
+        if (second != null) {
+            for (int i = 0; i < secondLength && !remaining.isEmpty(); i++) {
+                if (remaining.remove(second[i])) {
+                    result[count++] = second[i];
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 取差集（long 版本，first中存在且second中不存在，唯一，保持first顺序）
+     */
+    public static long[] differenceLongs(long[] first, long[] second) {
+        if (first == null || first.length == 0) {
+            return new long[0];
+        }
+        int secondLength = second == null ? 0 : second.length;
+        // 输出过的元素也加入排除集合，同一个集合同时完成排除和去重
+        LongHashSet exclude = second == null
+                ? new LongHashSet(first.length) : toSet(second, secondLength + first.length);
+        long[] result = new long[first.length];
+        int count = 0;
+        for (long item : first) {
+            if (exclude.add(item)) {
+                result[count++] = item;
+            }
+        }
+        return trim(result, count);
+    }
+
+    /**
+     * 取交集（升序输入，归并，结果升序唯一）
+     * @throws IllegalArgumentException 输入不是升序
+     */
+    public static long[] intersectionSorted(long[] first, long[] second) {
+        if (first == null || second == null || first.length == 0 || second.length == 0) {
+            return new long[0];
+        }
+        long[] result = new long[Math.min(first.length, second.length)];
+        int count = 0;
+        int i = 0;
+        int j = 0;
+        while (i < first.length && j < second.length) {
+            long a = first[i];
+            long b = second[j];
+            if (a < b) {
+                i = next(first, i);
+            } else if (a > b) {
+                j = next(second, j);
+            } else {
+                result[count++] = a;
+                i = next(first, i);
+                j = next(second, j);
+            }
+        }
+        return trim(result, count);
+    }
+
+    /**
+     * 取并集（升序输入，归并）
+     * 顺序与 union 相同：先是 first 去重后的元素，再是 second 中不在 first 里的元素，两段各自升序
+     * @throws IllegalArgumentException 输入不是升序
+     */
+    public static long[] unionSorted(long[] first, long[] second) {
+        int firstLength = first == null ? 0 : first.length;
+        int secondLength = second == null ? 0 : second.length;
+        long[] result = new long[firstLength + secondLength];
+        int count = 0;
+        for (int i = 0; i < firstLength; i = next(first, i)) {
+            result[count++] = first[i];
+        }
+        count = appendDifferenceSorted(second, first, result, count);
+        return trim(result, count);
+    }
+
+    /**
+     * 取差集（升序输入，归并，结果升序唯一）
+     * @throws IllegalArgumentException 输入不是升序
+     */
+    public static long[] differenceSorted(long[] first, long[] second) {
+        if (first == null || first.length == 0) {
+            return new long[0];
+        }
+        long[] result = new long[first.length];
+        return trim(result, appendDifferenceSorted(first, second, result, 0));
+    }
+
+    /**
+     * 把 first 中不在 second 里的元素（去重）追加到 result，返回新的长度
+     */
+    private static int appendDifferenceSorted(long[] first, long[] second, long[] result, int count) {
+        if (first == null) {
+            return count;
+        }
+        int secondLength = second == null ? 0 : second.length;
+        int j = 0;
+        for (int i = 0; i < first.length; i = next(first, i)) {
+            long a = first[i];
+            while (j < secondLength && second[j] < a) {
+                j = next(second, j);
+            }
+            if (j >= secondLength || second[j] != a) {
+                result[count++] = a;
+            }
+        }
+        // second 剩余部分也要校验顺序
+        while (j < secondLength) {
+            j = next(second, j);
+        }
+        return count;
+    }
+
+    /**
+     * 跳过与当前元素相同的重复值，返回下一个不同元素的下标；发现降序时抛出异常
+     */
+    private static int next(long[] values, int index) {
+        long current = values[index];
+        int i = index + 1;
+        while (i < values.length && values[i] == current) {
+            i++;
+        }
+        if (i < values.length && values[i] < current) {
+            throw new IllegalArgumentException("input must be sorted in ascending order, found "
+                    + values[i] + " after " + current + " at index " + i);
+        }
+        return i;
+    }
+
+    private static LongHashSet toSet(long[] values, int expectedSize) {
+        LongHashSet set = new LongHashSet(expectedSize);
+        for (long value : values) {
+            set.add(value);
+        }
+        return set;
+    }
+
+    private static long[] trim(long[] values, int length) {
+        return length == values.length ? values : Arrays.copyOf(values, length);
+    }
+
+    /**
+     * 并行取交集，结果与 intersection 相同
+     */
+    public static <T> List<T> parallelIntersection(Collection<T> first, Collection<T> second) {
+        return parallelIntersection(first, second, parallelThreshold());
+    }
+
+    /**
+     * 并行取并集，结果与 union 相同
+     */
+    public static <T> List<T> parallelUnion(Collection<T> first, Collection<T> second) {
+        return parallelUnion(first, second, parallelThreshold());
+    }
+
+    /**
+     * 并行取差集，结果与 difference 相同
+     */
+    public static <T> List<T> parallelDifference(Collection<T> first, Collection<T> second) {
+        return parallelDifference(first, second, parallelThreshold());
+    }
+
+    static <T> List<T> parallelIntersection(Collection<T> first, Collection<T> second, int threshold) {
+        if (first == null || second == null || first.size() + second.size() < threshold) {
+            return intersection(first, second);
+        }
+        Set<Object> lookup = concurrentSet(second);
+        return distinctInOrder(first.toArray(), item -> lookup.contains(mask(item)));
+    }
+
+    static <T> List<T> parallelUnion(Collection<T> first, Collection<T> second, int threshold) {
+        int firstSize = first == null ? 0 : first.size();
+        int secondSize = second == null ? 0 : second.size();
+        if (firstSize + secondSize < threshold) {
+            return union(first, second);
+        }
+        Object[] items = new Object[firstSize + secondSize];
+        int index = 0;
+        if (first != null) {
+            for (T item : first) {
+                items[index++] = item;
+            }
+        }
+        if (second != null) {
+            for (T item : second) {
+                items[index++] = item;
+            }
+        }
+        return distinctInOrder(items, item -> true);
+    }
+
+    static <T> List<T> parallelDifference(Collection<T> first, Collection<T> second, int threshold) {
+        if (first == null || first.size() + (second == null ? 0 : second.size()) < threshold) {
+            return difference(first, second);
+        }
+        Set<Object> exclude = second == null ? Collections.emptySet() : concurrentSet(second);
+        return distinctInOrder(first.toArray(), item -> !exclude.contains(mask(item)));
+    }
+
+    /**
+     * 惰性取交集：迭代时才逐个产出结果，顺序与 intersection 相同
+     * second 会立即复制为查找集合，命中的元素从集合中移出，不需要额外的去重集合
+     */
+    public static <T> Iterator<T> intersectionIterator(Collection<T> first, Collection<T> second) {
+        if (first == null || second == null) {
+            return Collections.emptyIterator();
+        }
+        Set<T> remaining = new HashSet<>(second);
+        return new FilteringIterator<>(first.iterator(), remaining::remove);
+    }
+
+    /**
+     * 惰性取并集，顺序与 union 相同
+     */
+    public static <T> Iterator<T> unionIterator(Collection<T> first, Collection<T> second) {
+        Iterator<T> firstIterator = first == null ? Collections.emptyIterator() : first.iterator();
+        Iterator<T> secondIterator = second == null ? Collections.emptyIterator() : second.iterator();
+        Set<T> seen = new HashSet<>();
+        return new FilteringIterator<>(new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return firstIterator.hasNext() || secondIterator.hasNext();
+            }
+
+            @Override
+            public T next() {
+                return firstIterator.hasNext() ? firstIterator.next() : secondIterator.next();
+            }
+        }, seen::add);
+    }
+
+    /**
+     * 惰性取差集，顺序与 difference 相同
+     * 产出过的元素加入排除集合，同一个集合同时完成排除和去重
+     */
+    public static <T> Iterator<T> differenceIterator(Collection<T> first, Collection<T> second) {
+        if (first == null) {
+            return Collections.emptyIterator();
+        }
+        Set<T> exclude = second == null ? new HashSet<>() : new HashSet<>(second);
+        return new FilteringIterator<>(first.iterator(), exclude::add);
+    }
+
+    /**
+     * 惰性取交集的顺序流，适合边计算边写文件；过滤在迭代器内完成，对返回的流调用 parallel() 也是安全的
+     */
+    public static <T> Stream<T> intersectionStream(Collection<T> first, Collection<T> second) {
+        return toStream(intersectionIterator(first, second));
+    }
+
+    /**
+     * 惰性取并集的顺序流
+     */
+    public static <T> Stream<T> unionStream(Collection<T> first, Collection<T> second) {
+        return toStream(unionIterator(first, second));
+    }
+
+    /**
+     * 惰性取差集的顺序流
+     */
+    public static <T> Stream<T> differenceStream(Collection<T> first, Collection<T> second) {
+        return toStream(differenceIterator(first, second));
+    }
+
+    private static int parallelThreshold() {
+        // 只有一个并行度时并行版本没有收益
+        return ForkJoinPool.getCommonPoolParallelism() > 1 ? PARALLEL_THRESHOLD : Integer.MAX_VALUE;
+    }
+
+    /**
+     * 并行构建查找集合
+     */
+    private static Set<Object> concurrentSet(Collection<?> values) {
+        Set<Object> set = ConcurrentHashMap.newKeySet(values.size());
+        Object[] items = values.toArray();
+        forEachChunk(items.length, (from, to) -> {
+            for (int i = from; i < to; i++) {
+                set.add(mask(items[i]));
+            }
+        });
+        return set;
+    }
+
+    /**
+     * 并行筛选满足条件的元素并按首次出现去重，结果保持原数组顺序
+     * 第一遍记录每个元素首次出现的下标，第二遍各分段只保留下标等于首次下标的元素，再按分段顺序拼接
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> List<T> distinctInOrder(Object[] items, Predicate<Object> filter) {
+        ConcurrentHashMap<Object, Integer> firstIndex = new ConcurrentHashMap<>();
+        forEachChunk(items.length, (from, to) -> {
+            for (int i = from; i < to; i++) {
+                if (filter.test(items[i])) {
+                    firstIndex.merge(mask(items[i]), i, Math::min);
+                }
+            }
+        });
+        int chunks = chunkCount(items.length);
+        int chunkSize = (items.length + chunks - 1) / chunks;
+        List<List<T>> parts = IntStream.range(0, chunks).parallel()
+                .mapToObj(chunk -> {
+                    int from = chunk * chunkSize;
+                    int to = Math.min(items.length, from + chunkSize);
+                    List<T> part = new ArrayList<>();
+                    for (int i = from; i < to; i++) {
+                        Integer index = firstIndex.get(mask(items[i]));
+                        if (index != null && index == i) {
+                            part.add((T) items[i]);
+                        }
+                    }
+                    return part;
+                })
+                .toList();
+        List<T> result = new ArrayList<>(firstIndex.size());
+        for (List<T> part : parts) {
+            result.addAll(part);
+        }
+        return result;
+    }
+
+    private static void forEachChunk(int length, ChunkTask task) {
+        int chunks = chunkCount(length);
+        int chunkSize = (length + chunks - 1) / chunks;
+        IntStream.range(0, chunks).parallel()
+                .forEach(chunk -> task.run(chunk * chunkSize, Math.min(length, (chunk + 1) * chunkSize)));
+    }
+
+    private static int chunkCount(int length) {
+        return Math.max(1, Math.min(length, ForkJoinPool.getCommonPoolParallelism() * CHUNKS_PER_THREAD));
+    }
+
+    private static Object mask(Object item) {
+        return item == null ? NULL_KEY : item;
+    }
+
+    private static <T> Stream<T> toStream(Iterator<T> iterator) {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator,
+                Spliterator.ORDERED | Spliterator.DISTINCT), false);
+    }
+
+    @FunctionalInterface
+    private interface ChunkTask {
+        void run(int from, int to);
+    }
+
+    /**
+     * 按条件过滤的迭代器，条件可以有副作用（如加入去重集合），每个元素只判断一次
+     */
+    private static final class FilteringIterator<T> implements Iterator<T> {
+
+        private final Iterator<T> source;
+        private final Predicate<T> filter;
+        private T next;
+        private boolean ready;
+
+        FilteringIterator(Iterator<T> source, Predicate<T> filter) {
+            this.source = source;
+            this.filter = filter;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (!ready && source.hasNext()) {
+                T candidate = source.next();
+                if (filter.test(candidate)) {
+                    next = candidate;
+                    ready = true;
+                }
+            }
+            return ready;
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            ready = false;
+            T result = next;
+            next = null;
+            return result;
+        }
+    }
 }
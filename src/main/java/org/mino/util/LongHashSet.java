@@ -0,0 +1,161 @@
+package org.mino.util;
+
+import java.util.Arrays;
+
+/**
+ * long 开放寻址哈希集合（线性探测，非线程安全）
+ * 元素直接存放在 long[] 中，不装箱；0 作为空槽标记，集合中的 0 单独用标志位记录。
+ * 删除采用后移法（backward shift），不留墓碑，探测链长度不随删除退化
+ */
+public final class LongHashSet {
+
+    private static final float LOAD_FACTOR = 0.75f;
+    private static final int MIN_CAPACITY = 8;
+
+    private long[] table;
+    private int mask;
+    private int size;
+    private int resizeThreshold;
+    private boolean containsZero;
+
+    public LongHashSet() {
+        this(MIN_CAPACITY);
+    }
+
+    /**
+     * @param expectedSize 预期元素数量，在此数量内不扩容
+     */
+    public LongHashSet(int expectedSize) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("expectedSize must not be negative");
+        }
+        allocate(tableSizeFor(expectedSize));
+    }
+
+    /**
+     * 加入元素
+     * @return 元素原本不存在时返回 true
+     */
+    public boolean add(long value) {
+        if (value == 0) {
+            if (containsZero) {
+                return false;
+            }
+            containsZero = true;
+            size++;
+            return true;
+        }
+        int index = slot(value);
+        long current;
+        while ((current = table[index]) != 0) {
+            if (current == value) {
+                return false;
+            }
+            index = (index + 1) & mask;
+        }
+        table[index] = value;
+        if (++size > resizeThreshold) {
+            rehash(table.length << 1);
+        }
+        return true;
+    }
+
+    public boolean contains(long value) {
+        if (value == 0) {
+            return containsZero;
+        }
+        int index = slot(value);
+        long current;
+        while ((current = table[index]) != 0) {
+            if (current == value) {
+                return true;
+            }
+            index = (index + 1) & mask;
+        }
+        return false;
+    }
+
+    /**
+     * 删除元素
+     * @return 元素原本存在时返回 true
+     */
+    public boolean remove(long value) {
+        if (value == 0) {
+            if (!containsZero) {
+                return false;
+            }
+            containsZero = false;
+            size--;
+            return true;
+        }
+        int index = slot(value);
+        long current;
+        while ((current = table[index]) != value) {
+            if (current == 0) {
+                return false;
+            }
+            index = (index + 1) & mask;
+        }
+        // 把后续探测链上可以前移的元素移到空出的位置
+        int gap = index;
+        int next = (index + 1) & mask;
+        while ((current = table[next]) != 0) {
+            int home = slot(current);
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                table[gap] = current;
+                gap = next;
+            }
+            next = (next + 1) & mask;
+        }
+        table[gap] = 0;
+        size--;
+        return true;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        Arrays.fill(table, 0);
+        containsZero = false;
+        size = 0;
+    }
+
+    private int slot(long value) {
+        // Fibonacci 哈希：乘以黄金分割常数后取高位，连续ID也能均匀分布
+        return (int) ((value * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+    }
+
+    private void rehash(int capacity) {
+        long[] old = table;
+        allocate(capacity);
+        for (long value : old) {
+            if (value != 0) {
+                int index = slot(value);
+                while (table[index] != 0) {
+                    index = (index + 1) & mask;
+                }
+                table[index] = value;
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        table = new long[capacity];
+        mask = capacity - 1;
+        resizeThreshold = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private static int tableSizeFor(int expectedSize) {
+        long required = (long) Math.ceil(expectedSize / (double) LOAD_FACTOR) + 1;
+        if (required > 1 << 30) {
+            throw new IllegalArgumentException("expectedSize too large: " + expectedSize);
+        }
+        return Math.max(MIN_CAPACITY, Integer.highestOneBit((int) required - 1) << 1);
+    }
+}
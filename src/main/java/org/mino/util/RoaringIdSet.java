@@ -0,0 +1,807 @@
+package org.mino.util;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/**
+ * 压缩位图ID集合（Roaring 风格，非线程安全）
+ * 按高位（id >>> 16）把ID分到 64K 一块的容器中：块内不超过 4096 个元素时用有序 char[]（数组容器），
+ * 超过时用 1024 个 long 的位图（位图容器）。自增主键这类稠密ID几乎全部落在位图容器里，每个ID约 1 bit；
+ * and / or / andNot 按块归并，位图容器之间按 long 逐字运算。
+ * 只支持非负ID；运算结果是新集合，不与输入共享容器
+ */
+public final class RoaringIdSet implements Iterable<Long> {
+
+    /** 序列化格式标识 "RID1" */
+    private static final int MAGIC = 0x52494431;
+
+    private static final byte ARRAY_TYPE = 0;
+    private static final byte BITMAP_TYPE = 1;
+
+    /** 数组容器的最大元素数，超过后位图（8KB）更省空间 */
+    private static final int ARRAY_MAX_SIZE = 4096;
+
+    private static final int BITMAP_WORDS = 1024;
+
+    private long[] keys;
+    private Container[] containers;
+    private int size;
+
+    public RoaringIdSet() {
+        this.keys = new long[4];
+        this.containers = new Container[4];
+    }
+
+    private RoaringIdSet(long[] keys, Container[] containers, int size) {
+        this.keys = keys;
+        this.containers = containers;
+        this.size = size;
+    }
+
+    /**
+     * 由ID数组构建，升序输入时每次加入都命中最后一个容器，无需查找
+     */
+    public static RoaringIdSet of(long... ids) {
+        RoaringIdSet set = new RoaringIdSet();
+        if (ids != null) {
+            for (long id : ids) {
+                set.add(id);
+            }
+        }
+        return set;
+    }
+
+    /**
+     * 由ID集合构建，忽略 null
+     */
+    public static RoaringIdSet of(Collection<Long> ids) {
+        RoaringIdSet set = new RoaringIdSet();
+        if (ids != null) {
+            for (Long id : ids) {
+                if (id != null) {
+                    set.add(id);
+                }
+            }
+        }
+        return set;
+    }
+
+    /**
+     * 加入ID
+     * @return ID原本不存在时返回 true
+     */
+    public boolean add(long id) {
+        checkId(id);
+        long key = id >>> 16;
+        char low = (char) id;
+        int index = indexOf(key);
+        if (index < 0) {
+            index = -index - 1;
+            insertContainer(index, key, new ArrayContainer(low));
+            return true;
+        }
+        Container container = containers[index];
+        int before = container.cardinality();
+        containers[index] = container.add(low);
+        return containers[index].cardinality() > before;
+    }
+
+    /**
+     * 删除ID
+     * @return ID原本存在时返回 true
+     */
+    public boolean remove(long id) {
+        if (id < 0) {
+            return false;
+        }
+        int index = indexOf(id >>> 16);
+        if (index < 0) {
+            return false;
+        }
+        Container container = containers[index];
+        int before = container.cardinality();
+        Container updated = container.remove((char) id);
+        if (updated.cardinality() == before) {
+            return false;
+        }
+        if (updated.cardinality() == 0) {
+            removeContainer(index);
+        } else {
+            containers[index] = updated;
+        }
+        return true;
+    }
+
+    public boolean contains(long id) {
+        if (id < 0) {
+            return false;
+        }
+        int index = indexOf(id >>> 16);
+        return index >= 0 && containers[index].contains((char) id);
+    }
+
+    /**
+     * 元素数量
+     */
+    public long cardinality() {
+        long cardinality = 0;
+        for (int i = 0; i < size; i++) {
+            cardinality += containers[i].cardinality();
+        }
+        return cardinality;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * 交集
+     */
+    public RoaringIdSet and(RoaringIdSet other) {
+        RoaringIdSet result = new RoaringIdSet(new long[Math.max(1, Math.min(size, other.size))],
+                new Container[Math.max(1, Math.min(size, other.size))], 0);
+        int i = 0;
+        int j = 0;
+        while (i < size && j < other.size) {
+            if (keys[i] < other.keys[j]) {
+                i++;
+            } else if (keys[i] > other.keys[j]) {
+                j++;
+            } else {
+                Container container = containers[i].and(other.containers[j]);
+                if (container.cardinality() > 0) {
+                    result.append(keys[i], container);
+                }
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 并集
+     */
+    public RoaringIdSet or(RoaringIdSet other) {
+        RoaringIdSet result = new RoaringIdSet(new long[Math.max(1, size + other.size)],
+                new Container[Math.max(1, size + other.size)], 0);
+        int i = 0;
+        int j = 0;
+        while (i < size || j < other.size) {
+            if (j == other.size || (i < size && keys[i] < other.keys[j])) {
+                result.append(keys[i], containers[i].copy());
+                i++;
+            } else if (i == size || keys[i] > other.keys[j]) {
+                result.append(other.keys[j], other.containers[j].copy());
+                j++;
+            } else {
+                result.append(keys[i], containers[i].or(other.containers[j]));
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 差集（当前集合中存在且 other 中不存在）
+     */
+    public RoaringIdSet andNot(RoaringIdSet other) {
+        RoaringIdSet result = new RoaringIdSet(new long[Math.max(1, size)], new Container[Math.max(1, size)], 0);
+        int j = 0;
+        for (int i = 0; i < size; i++) {
+            while (j < other.size && other.keys[j] < keys[i]) {
+                j++;
+            }
+            Container container = j < other.size && other.keys[j] == keys[i]
+                    ? containers[i].andNot(other.containers[j])
+                    : containers[i].copy();
+            if (container.cardinality() > 0) {
+                result.append(keys[i], container);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 按升序遍历，不装箱
+     */
+    @Override
+    public PrimitiveIterator.OfLong iterator() {
+        return new IdIterator();
+    }
+
+    /**
+     * 升序ID数组，可直接交给 ListUtils 的 *Sorted 方法
+     */
+    public long[] toArray() {
+        long cardinality = cardinality();
+        if (cardinality > Integer.MAX_VALUE - 8) {
+            throw new IllegalStateException("cardinality too large for an array: " + cardinality);
+        }
+        long[] result = new long[(int) cardinality];
+        int offset = 0;
+        char[] buffer = new char[1 << 16];
+        for (int i = 0; i < size; i++) {
+            int count = containers[i].fill(buffer);
+            long high = keys[i] << 16;
+            for (int k = 0; k < count; k++) {
+                result[offset++] = high | buffer[k];
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 升序ID列表
+     */
+    public List<Long> toList() {
+        long[] ids = toArray();
+        List<Long> list = new ArrayList<>(ids.length);
+        for (long id : ids) {
+            list.add(id);
+        }
+        return list;
+    }
+
+    /**
+     * 序列化后的字节数
+     */
+    public int serializedSizeInBytes() {
+        int bytes = 8;
+        for (int i = 0; i < size; i++) {
+            bytes += 8 + 1 + containers[i].serializedSizeInBytes();
+        }
+        return bytes;
+    }
+
+    /**
+     * 序列化为紧凑字节格式：标识、容器数，之后每个容器为 高位键、类型、内容
+     * 数组容器写元素数和 char 值，位图容器写 1024 个 long
+     */
+    public byte[] serialize() {
+        ByteBuffer buffer = ByteBuffer.allocate(serializedSizeInBytes());
+        buffer.putInt(MAGIC);
+        buffer.putInt(size);
+        for (int i = 0; i < size; i++) {
+            buffer.putLong(keys[i]);
+            containers[i].serialize(buffer);
+        }
+        return buffer.array();
+    }
+
+    /**
+     * 从 serialize 的输出恢复集合
+     */
+    public static RoaringIdSet deserialize(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        try {
+            if (buffer.getInt() != MAGIC) {
+                throw new IllegalArgumentException("not a serialized RoaringIdSet");
+            }
+            int count = buffer.getInt();
+            if (count < 0) {
+                throw new IllegalArgumentException("invalid container count: " + count);
+            }
+            RoaringIdSet set = new RoaringIdSet(new long[Math.max(1, count)], new Container[Math.max(1, count)], 0);
+            long previous = -1;
+            for (int i = 0; i < count; i++) {
+                long key = buffer.getLong();
+                if (key <= previous || key > (Long.MAX_VALUE >>> 16)) {
+                    throw new IllegalArgumentException("container keys must be ascending and non-negative");
+                }
+                previous = key;
+                set.append(key, deserializeContainer(buffer));
+            }
+            if (buffer.hasRemaining()) {
+                throw new IllegalArgumentException("trailing bytes after serialized RoaringIdSet");
+            }
+            return set;
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("truncated serialized RoaringIdSet", e);
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof RoaringIdSet other) || size != other.size) {
+            return false;
+        }
+        for (int i = 0; i < size; i++) {
+            // 容器类型只由元素数决定，相同内容的容器类型也相同
+            if (keys[i] != other.keys[i] || !containers[i].equals(other.containers[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 1;
+        for (int i = 0; i < size; i++) {
+            hash = 31 * hash + Long.hashCode(keys[i]);
+            hash = 31 * hash + containers[i].hashCode();
+        }
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return "RoaringIdSet{cardinality=" + cardinality() + ", containers=" + size + "}";
+    }
+
+    private static void checkId(long id) {
+        if (id < 0) {
+            throw new IllegalArgumentException("id must not be negative: " + id);
+        }
+    }
+
+    private int indexOf(long key) {
+        // 升序加入时总是命中最后一个容器
+        if (size > 0 && keys[size - 1] == key) {
+            return size - 1;
+        }
+        return Arrays.binarySearch(keys, 0, size, key);
+    }
+
+    private void append(long key, Container container) {
+        insertContainer(size, key, container);
+    }
+
+    private void insertContainer(int index, long key, Container container) {
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size << 1);
+            containers = Arrays.copyOf(containers, size << 1);
+        }
+        System.arraycopy(keys, index, keys, index + 1, size - index);
+        System.arraycopy(containers, index, containers, index + 1, size - index);
+        keys[index] = key;
+        containers[index] = container;
+        size++;
+    }
+
+    private void removeContainer(int index) {
+        System.arraycopy(keys, index + 1, keys, index, size - index - 1);
+        System.arraycopy(containers, index + 1, containers, index, size - index - 1);
+        containers[--size] = null;
+    }
+
+    private static Container deserializeContainer(ByteBuffer buffer) {
+        byte type = buffer.get();
+        if (type == ARRAY_TYPE) {
+            int cardinality = buffer.getShort() + 1;
+            if (cardinality < 1 || cardinality > ARRAY_MAX_SIZE) {
+                throw new IllegalArgumentException("invalid array container size: " + cardinality);
+            }
+            char[] values = new char[cardinality];
+            for (int i = 0; i < cardinality; i++) {
+                values[i] = buffer.getChar();
+                if (i > 0 && values[i] <= values[i - 1]) {
+                    throw new IllegalArgumentException("array container values must be ascending");
+                }
+            }
+            return new ArrayContainer(values, cardinality);
+        }
+        if (type == BITMAP_TYPE) {
+            long[] words = new long[BITMAP_WORDS];
+            int cardinality = 0;
+            for (int i = 0; i < BITMAP_WORDS; i++) {
+                words[i] = buffer.getLong();
+                cardinality += Long.bitCount(words[i]);
+            }
+            if (cardinality <= ARRAY_MAX_SIZE) {
+                throw new IllegalArgumentException("invalid bitmap container size: " + cardinality);
+            }
+            return new BitmapContainer(words, cardinality);
+        }
+        throw new IllegalArgumentException("unknown container type: " + type);
+    }
+
+    /**
+     * 按升序遍历：每个容器的低 16 位先展开到复用的缓冲区，再拼上高位
+     */
+    private final class IdIterator implements PrimitiveIterator.OfLong {
+
+        private final char[] buffer = new char[1 << 16];
+        private int containerIndex;
+        private int count;
+        private int position;
+        private long high;
+
+        @Override
+        public boolean hasNext() {
+            while (position == count) {
+                if (containerIndex == size) {
+                    return false;
+                }
+                high = keys[containerIndex] << 16;
+                count = containers[containerIndex++].fill(buffer);
+                position = 0;
+            }
+            return true;
+        }
+
+        @Override
+        public long nextLong() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return high | buffer[position++];
+        }
+    }
+
+    /**
+     * 一个 64K 块内的低 16 位集合；add / remove 可能换成另一种容器，调用方使用返回值
+     */
+    private abstract static class Container {
+
+        abstract int cardinality();
+
+        abstract boolean contains(char value);
+
+        abstract Container add(char value);
+
+        abstract Container remove(char value);
+
+        abstract Container and(Container other);
+
+        abstract Container or(Container other);
+
+        abstract Container andNot(Container other);
+
+        abstract Container copy();
+
+        /**
+         * 把元素按升序写入 buffer，返回元素数
+         */
+        abstract int fill(char[] buffer);
+
+        abstract int serializedSizeInBytes();
+
+        abstract void serialize(ByteBuffer buffer);
+    }
+
+    private static final class ArrayContainer extends Container {
+
+        private char[] values;
+        private int cardinality;
+
+        ArrayContainer(char value) {
+            this.values = new char[]{value, 0, 0, 0};
+            this.cardinality = 1;
+        }
+
+        ArrayContainer(char[] values, int cardinality) {
+            this.values = values;
+            this.cardinality = cardinality;
+        }
+
+        @Override
+        int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        boolean contains(char value) {
+            return Arrays.binarySearch(values, 0, cardinality, value) >= 0;
+        }
+
+        @Override
+        Container add(char value) {
+            int index = cardinality > 0 && values[cardinality - 1] < value
+                    ? -cardinality - 1
+                    : Arrays.binarySearch(values, 0, cardinality, value);
+            if (index >= 0) {
+                return this;
+            }
+            if (cardinality == ARRAY_MAX_SIZE) {
+                return toBitmap().add(value);
+            }
+            index = -index - 1;
+            if (cardinality == values.length) {
+                values = Arrays.copyOf(values, Math.min(ARRAY_MAX_SIZE, cardinality << 1));
+            }
+            System.arraycopy(values, index, values, index + 1, cardinality - index);
+            values[index] = value;
+            cardinality++;
+            return this;
+        }
+
+        @Override
+        Container remove(char value) {
+            int index = Arrays.binarySearch(values, 0, cardinality, value);
+            if (index >= 0) {
+                System.arraycopy(values, index + 1, values, index, cardinality - index - 1);
+                cardinality--;
+            }
+            return this;
+        }
+
+        @Override
+        Container and(Container other) {
+            char[] result = new char[Math.min(cardinality, other.cardinality())];
+            int count = 0;
+            if (other instanceof ArrayContainer array) {
+                int i = 0;
+                int j = 0;
+                while (i < cardinality && j < array.cardinality) {
+                    if (values[i] < array.values[j]) {
+                        i++;
+                    } else if (values[i] > array.values[j]) {
+                        j++;
+                    } else {
+                        result[count++] = values[i];
+                        i++;
+                        j++;
+                    }
+                }
+            } else {
+                for (int i = 0; i < cardinality; i++) {
+                    if (other.contains(values[i])) {
+                        result[count++] = values[i];
+                    }
+                }
+            }
+            return new ArrayContainer(result, count);
+        }
+
+        @Override
+        Container or(Container other) {
+            if (other instanceof BitmapContainer) {
+                return other.or(this);
+            }
+            ArrayContainer array = (ArrayContainer) other;
+            char[] result = new char[cardinality + array.cardinality];
+            int count = 0;
+            int i = 0;
+            int j = 0;
+            while (i < cardinality || j < array.cardinality) {
+                if (j == array.cardinality || (i < cardinality && values[i] < array.values[j])) {
+                    result[count++] = values[i++];
+                } else if (i == cardinality || values[i] > array.values[j]) {
+                    result[count++] = array.values[j++];
+                } else {
+                    result[count++] = values[i];
+                    i++;
+                    j++;
+                }
+            }
+            ArrayContainer merged = new ArrayContainer(result, count);
+            return count > ARRAY_MAX_SIZE ? merged.toBitmap() : merged;
+        }
+
+        @Override
+        Container andNot(Container other) {
+            char[] result = new char[cardinality];
+            int count = 0;
+            for (int i = 0; i < cardinality; i++) {
+                if (!other.contains(values[i])) {
+                    result[count++] = values[i];
+                }
+            }
+            return new ArrayContainer(result, count);
+        }
+
+        @Override
+        Container copy() {
+            return new ArrayContainer(Arrays.copyOf(values, cardinality), cardinality);
+        }
+
+        @Override
+        int fill(char[] buffer) {
+            System.arraycopy(values, 0, buffer, 0, cardinality);
+            return cardinality;
+        }
+
+        @Override
+        int serializedSizeInBytes() {
+            return 2 + cardinality * 2;
+        }
+
+        @Override
+        void serialize(ByteBuffer buffer) {
+            buffer.put(ARRAY_TYPE);
+            buffer.putShort((short) (cardinality - 1));
+            for (int i = 0; i < cardinality; i++) {
+                buffer.putChar(values[i]);
+            }
+        }
+
+        /**
+         * 转为位图容器，用于元素数超过 ARRAY_MAX_SIZE 时
+         */
+        BitmapContainer toBitmap() {
+            long[] words = new long[BITMAP_WORDS];
+            for (int i = 0; i < cardinality; i++) {
+                words[values[i] >>> 6] |= 1L << values[i];
+            }
+            return new BitmapContainer(words, cardinality);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof ArrayContainer other && cardinality == other.cardinality
+                    && Arrays.equals(values, 0, cardinality, other.values, 0, cardinality);
+        }
+
+        @Override
+        public int hashCode() {
+            int hash = 1;
+            for (int i = 0; i < cardinality; i++) {
+                hash = 31 * hash + values[i];
+            }
+            return hash;
+        }
+    }
+
+    private static final class BitmapContainer extends Container {
+
+        private final long[] words;
+        private int cardinality;
+
+        BitmapContainer(long[] words, int cardinality) {
+            this.words = words;
+            this.cardinality = cardinality;
+        }
+
+        @Override
+        int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        boolean contains(char value) {
+            return (words[value >>> 6] & (1L << value)) != 0;
+        }
+
+        @Override
+        Container add(char value) {
+            long word = words[value >>> 6];
+            long updated = word | (1L << value);
+            if (updated != word) {
+                words[value >>> 6] = updated;
+                cardinality++;
+            }
+            return this;
+        }
+
+        @Override
+        Container remove(char value) {
+            long word = words[value >>> 6];
+            long updated = word & ~(1L << value);
+            if (updated != word) {
+                words[value >>> 6] = updated;
+                cardinality--;
+            }
+            return cardinality > ARRAY_MAX_SIZE ? this : toArray();
+        }
+
+        @Override
+        Container and(Container other) {
+            if (other instanceof ArrayContainer) {
+                return other.and(this);
+            }
+            long[] otherWords = ((BitmapContainer) other).words;
+            long[] result = new long[BITMAP_WORDS];
+            int count = 0;
+            for (int i = 0; i < BITMAP_WORDS; i++) {
+                result[i] = words[i] & otherWords[i];
+                count += Long.bitCount(result[i]);
+            }
+            return normalize(result, count);
+        }
+
+        @Override
+        Container or(Container other) {
+            long[] result = words.clone();
+            int count = cardinality;
+            if (other instanceof ArrayContainer array) {
+                for (int i = 0; i < array.cardinality; i++) {
+                    char value = array.values[i];
+                    long word = result[value >>> 6];
+                    long updated = word | (1L << value);
+                    if (updated != word) {
+                        result[value >>> 6] = updated;
+                        count++;
+                    }
+                }
+            } else {
+                long[] otherWords = ((BitmapContainer) other).words;
+                count = 0;
+                for (int i = 0; i < BITMAP_WORDS; i++) {
+                    result[i] |= otherWords[i];
+                    count += Long.bitCount(result[i]);
+                }
+            }
+            return new BitmapContainer(result, count);
+        }
+
+        @Override
+        Container andNot(Container other) {
+            long[] result = words.clone();
+            int count = cardinality;
+            if (other instanceof ArrayContainer array) {
+                for (int i = 0; i < array.cardinality; i++) {
+                    char value = array.values[i];
+                    long word = result[value >>> 6];
+                    long updated = word & ~(1L << value);
+                    if (updated != word) {
+                        result[value >>> 6] = updated;
+                        count--;
+                    }
+                }
+            } else {
+                long[] otherWords = ((BitmapContainer) other).words;
+                count = 0;
+                for (int i = 0; i < BITMAP_WORDS; i++) {
+                    result[i] &= ~otherWords[i];
+                    count += Long.bitCount(result[i]);
+                }
+            }
+            return normalize(result, count);
+        }
+
+        @Override
+        Container copy() {
+            return new BitmapContainer(words.clone(), cardinality);
+        }
+
+        @Override
+        int fill(char[] buffer) {
+            int count = 0;
+            for (int i = 0; i < BITMAP_WORDS; i++) {
+                long word = words[i];
+                while (word != 0) {
+                    buffer[count++] = (char) ((i << 6) + Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+            return count;
+        }
+
+        @Override
+        int serializedSizeInBytes() {
+            return BITMAP_WORDS * 8;
+        }
+
+        @Override
+        void serialize(ByteBuffer buffer) {
+            buffer.put(BITMAP_TYPE);
+            for (long word : words) {
+                buffer.putLong(word);
+            }
+        }
+
+        private ArrayContainer toArray() {
+            char[] values = new char[cardinality];
+            return new ArrayContainer(values, fill(values));
+        }
+
+        private static Container normalize(long[] words, int cardinality) {
+            BitmapContainer bitmap = new BitmapContainer(words, cardinality);
+            return cardinality > ARRAY_MAX_SIZE ? bitmap : bitmap.toArray();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof BitmapContainer other && cardinality == other.cardinality
+                    && Arrays.equals(words, other.words);
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(words);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package org.mino.util;
+
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 后台线程工厂
+ * 虚拟线程模式（spring.threads.virtual.enabled，需 Java 21）下创建虚拟线程，否则创建守护平台线程；
+ * 线程名为前缀加序号。Java 17 上开启虚拟线程时创建工厂会抛出 UnsupportedOperationException
+ */
+public final class ThreadFactories {
+
+    private ThreadFactories() {}
+
+    public static ThreadFactory create(String prefix, boolean virtual) {
+        if (virtual) {
+            return new VirtualThreadTaskExecutor(prefix).getVirtualThreadFactory();
+        }
+        AtomicInteger index = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + index.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -11,11 +11,15 @@ CREATE TABLE IF NOT EXISTS `user` (
     `phone` VARCHAR(20) COMMENT '手机号',
     `create_time` DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
     `update_time` DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+    `version` INT NOT NULL DEFAULT 0 COMMENT '版本号（乐观锁）',
     PRIMARY KEY (`id`),
     UNIQUE KEY `uk_username` (`username`),
-    UNIQUE KEY `uk_email` (`email`)
+    UNIQUE KEY `uk_email` (`email`),
+    KEY `idx_create_time_id` (`create_time`, `id`)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='用户表';
 
+-- 已有库升级：ALTER TABLE `user` ADD COLUMN `version` INT NOT NULL DEFAULT 0 COMMENT '版本号（乐观锁）';
+
 -- 插入初始数据
 INSERT INTO `user` (`username`, `email`, `phone`) VALUES
 ('admin', 'admin@example.com', '13800138000'),
@@ -30,11 +34,25 @@ CREATE TABLE IF NOT EXISTS `operation_log` (
     `method` VARCHAR(200) COMMENT '请求方法',
     `params` TEXT COMMENT '请求参数',
     `ip` VARCHAR(50) COMMENT 'IP地址',
+    `path` VARCHAR(200) COMMENT '请求路径',
+    `status` INT COMMENT '响应状态码',
+    `cost_time` BIGINT COMMENT '请求耗时（纳秒）',
     `create_time` DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
-    PRIMARY KEY (`id`),
-    KEY `idx_user_id` (`user_id`),
+    PRIMARY KEY (`id`, `create_time`),
+    KEY `idx_user_create_time` (`user_id`, `create_time`),
     KEY `idx_create_time` (`create_time`)
-) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='操作日志表';
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='操作日志表'
+-- 按天 RANGE 分区，过期数据直接 DROP PARTITION；按天分区由应用启动和定时清理时从 pmax 拆分创建
+PARTITION BY RANGE (TO_DAYS(`create_time`)) (
+    PARTITION `pmax` VALUES LESS THAN MAXVALUE
+);
+
+-- 已有库升级：ALTER TABLE `operation_log` ADD COLUMN `path` VARCHAR(200) COMMENT '请求路径' AFTER `ip`,
+--   ADD COLUMN `status` INT COMMENT '响应状态码' AFTER `path`, ADD COLUMN `cost_time` BIGINT COMMENT '请求耗时（纳秒）' AFTER `status`;
+-- 已有库升级用户维度索引：ALTER TABLE `operation_log` DROP INDEX `idx_user_id`, ADD INDEX `idx_user_create_time` (`user_id`, `create_time`);
+-- 已有库改为分区表（会重建表，需在低峰期执行；不分区时清理任务自动改用分块删除）：
+--   ALTER TABLE `operation_log` DROP PRIMARY KEY, ADD PRIMARY KEY (`id`, `create_time`);
+--   ALTER TABLE `operation_log` PARTITION BY RANGE (TO_DAYS(`create_time`)) (PARTITION `pmax` VALUES LESS THAN MAXVALUE);
 
 -- 创建系统配置表
 CREATE TABLE IF NOT EXISTS `system_config` (
@@ -0,0 +1,109 @@
+package org.mino.benchmark;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 平台线程 / 虚拟线程模式压测
+ * 分别以两种模式启动应用，用相同参数运行本类，对比吞吐量和 p99：
+ * <pre>
+ * mvn spring-boot:run                       # 平台线程模式
+ * mvn -Pjava21 spring-boot:run              # 虚拟线程模式
+ * java -cp target/test-classes org.mino.benchmark.ThreadModeLoadBenchmark \
+ *      http://localhost:8081/api/users/page?size=20 400 30
+ * </pre>
+ * 参数依次为：目标URL、并发客户端数、持续秒数（前 5 秒为预热，不计入结果）。
+ * 并发数应明显大于 Tomcat 最大线程数（默认200），数据库越慢两种模式差异越明显
+ */
+public class ThreadModeLoadBenchmark {
+
+    private static final long WARMUP_NANOS = Duration.ofSeconds(5).toNanos();
+
+    public static void main(String[] args) throws Exception {
+        String url = args.length > 0 ? args[0] : "http://localhost:8081/api/users/page?size=20";
+        int concurrency = args.length > 1 ? Integer.parseInt(args[1]) : 400;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 30;
+
+        HttpClient client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(Executors.newFixedThreadPool(8))
+                .build();
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+                .timeout(Duration.ofSeconds(60))
+                .GET()
+                .build();
+
+        long start = System.nanoTime();
+        long measureFrom = start + WARMUP_NANOS;
+        long end = start + WARMUP_NANOS + Duration.ofSeconds(seconds).toNanos();
+        List<long[]> latencies = new ArrayList<>();
+        int[] counts = new int[concurrency];
+        AtomicLong errors = new AtomicLong();
+        CountDownLatch done = new CountDownLatch(concurrency);
+        ExecutorService clients = Executors.newFixedThreadPool(concurrency);
+
+        for (int i = 0; i < concurrency; i++) {
+            long[] samples = new long[1 << 16];
+            latencies.add(samples);
+            int index = i;
+            clients.execute(() -> {
+                try {
+                    long now;
+                    while ((now = System.nanoTime()) < end) {
+                        try {
+                            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                            long elapsed = System.nanoTime() - now;
+                            if (response.statusCode() != 200) {
+                                errors.incrementAndGet();
+                            } else if (now >= measureFrom && counts[index] < samples.length) {
+                                samples[counts[index]++] = elapsed;
+                            }
+                        } catch (Exception e) {
+                            errors.incrementAndGet();
+                        }
+                    }
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        done.await();
+        clients.shutdown();
+
+        int total = 0;
+        for (int count : counts) {
+            total += count;
+        }
+        long[] all = new long[total];
+        int offset = 0;
+        for (int i = 0; i < concurrency; i++) {
+            System.arraycopy(latencies.get(i), 0, all, offset, counts[i]);
+            offset += counts[i];
+        }
+        Arrays.sort(all);
+
+        System.out.printf("url=%s concurrency=%d duration=%ds%n", url, concurrency, seconds);
+        System.out.printf("requests=%d errors=%d throughput=%.1f req/s%n", total, errors.get(), (double) total / seconds);
+        System.out.printf("p50=%.2fms p99=%.2fms max=%.2fms%n",
+                percentile(all, 0.50), percentile(all, 0.99), total == 0 ? 0.0 : all[total - 1] / 1e6);
+        System.exit(0);
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0.0;
+        }
+        int index = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+}
@@ -0,0 +1,180 @@
+package org.mino.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mino.config.UserLoaderProperties;
+import org.mino.mapper.UserMapper;
+import org.mino.metrics.SqlBudget;
+import org.mino.model.User;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class UserBatchLoaderTest {
+
+    @Mock
+    private UserMapper userMapper;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private UserLoaderProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        properties = new UserLoaderProperties();
+        properties.setThreads(1);
+        properties.setMaxBatchSize(100);
+    }
+
+    @Test
+    @DisplayName("load: 没有查询在执行时立即在专用线程上以只读事务查询，开销计入调用方的 SQL 预算")
+    void testDispatchImmediately() {
+        List<String> threads = new ArrayList<>();
+        when(userMapper.selectByIds(anyCollection())).thenAnswer(invocation -> {
+            threads.add(Thread.currentThread().getName());
+            SqlBudget.recordConnection();
+            SqlBudget.recordStatement(1000);
+            return List.of(new User(1L, "alice", "alice@example.com", "1"));
+        });
+        UserBatchLoader loader = new UserBatchLoader(properties, userMapper, transactionManager);
+
+        try (SqlBudget.Usage usage = SqlBudget.begin()) {
+            assertEquals("alice", loader.load(1L).getUsername());
+            assertEquals(1, usage.getStatements());
+            assertEquals(1, usage.getConnections());
+            assertEquals(1000, usage.getDbNanos());
+        }
+        assertTrue(threads.get(0).startsWith("user-batch-loader"));
+        ArgumentCaptor<TransactionDefinition> definition = ArgumentCaptor.forClass(TransactionDefinition.class);
+        verify(transactionManager).getTransaction(definition.capture());
+        assertTrue(definition.getValue().isReadOnly());
+        loader.shutdown();
+    }
+
+    @Test
+    @DisplayName("load: 查询执行期间到达的请求合并为下一次 IN 查询，各请求分摊语句数")
+    void testCoalescing() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(userMapper.selectByIds(anyCollection())).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            SqlBudget.recordStatement(1000);
+            Collection<Long> ids = invocation.getArgument(0);
+            List<User> users = new ArrayList<>();
+            for (Long id : ids) {
+                if (id % 2 == 0) {
+                    users.add(new User(id, "user" + id, "user" + id + "@example.com", "1"));
+                }
+            }
+            return users;
+        });
+        UserBatchLoader loader = new UserBatchLoader(properties, userMapper, transactionManager);
+
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<User>> results = new ArrayList<>();
+        AtomicInteger statements = new AtomicInteger();
+        for (long id = 1; id <= threads; id++) {
+            long userId = id;
+            results.add(executor.submit(() -> {
+                try (SqlBudget.Usage usage = SqlBudget.begin()) {
+                    User user = loader.load(userId);
+                    statements.addAndGet(usage.getStatements());
+                    return user;
+                }
+            }));
+            if (id == 1) {
+                // 第一个请求立即分派，之后的请求在它执行期间排队
+                while (loader.stats().get("batchCount").equals(0L)) {
+                    Thread.sleep(1);
+                }
+            }
+        }
+        while (!loader.stats().get("queued").equals(threads - 1)) {
+            Thread.sleep(1);
+        }
+        release.countDown();
+        for (int i = 0; i < threads; i++) {
+            User user = results.get(i).get();
+            long id = i + 1;
+            if (id % 2 == 0) {
+                assertEquals("user" + id, user.getUsername());
+            } else {
+                assertNull(user);
+            }
+        }
+        executor.shutdown();
+
+        verify(userMapper, times(2)).selectByIds(anyCollection());
+        assertEquals(2, statements.get());
+        assertEquals(8L, loader.stats().get("requestCount"));
+        assertEquals(2L, loader.stats().get("batchCount"));
+        loader.shutdown();
+    }
+
+    @Test
+    @DisplayName("load: 关闭合并时直接按ID查询")
+    void testDisabled() {
+        properties.setEnabled(false);
+        User user = new User(1L, "alice", "alice@example.com", "1");
+        when(userMapper.selectById(1L)).thenReturn(user);
+        UserBatchLoader loader = new UserBatchLoader(properties, userMapper, transactionManager);
+
+        assertSame(user, loader.load(1L));
+        verify(userMapper, never()).selectByIds(anyCollection());
+    }
+
+    @Test
+    @DisplayName("load: 调用方处在写事务中时在调用线程上查询，能读到本事务的修改")
+    void testWriteTransaction() {
+        User user = new User(1L, "alice", "alice@example.com", "1");
+        when(userMapper.selectById(1L)).thenReturn(user);
+        UserBatchLoader loader = new UserBatchLoader(properties, userMapper, transactionManager);
+
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        try {
+            assertSame(user, loader.load(1L));
+        } finally {
+            TransactionSynchronizationManager.setActualTransactionActive(false);
+        }
+        verify(userMapper, never()).selectByIds(anyCollection());
+        verify(transactionManager, never()).getTransaction(any());
+        assertEquals(1L, loader.stats().get("directCount"));
+        loader.shutdown();
+    }
+
+    @Test
+    @DisplayName("load: 查询异常传递给所有等待者")
+    void testFailure() {
+        when(userMapper.selectByIds(anyCollection())).thenThrow(new IllegalStateException("db down"));
+        UserBatchLoader loader = new UserBatchLoader(properties, userMapper, transactionManager);
+
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> loader.load(1L));
+        assertEquals("db down", e.getMessage());
+        loader.shutdown();
+    }
+}
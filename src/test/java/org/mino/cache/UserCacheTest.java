@@ -0,0 +1,77 @@
+package org.mino.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mino.config.UserCacheProperties;
+import org.mino.model.User;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserCacheTest {
+
+    private UserCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new UserCache(new UserCacheProperties());
+    }
+
+    private static User user(long id, String username, int version) {
+        User user = new User(id, username, username + "@example.com", "1");
+        user.setVersion(version);
+        return user;
+    }
+
+    @Test
+    @DisplayName("getById: 未命中时加载并回填，之后直接命中")
+    void testGetByIdFills() {
+        User alice = user(1L, "alice", 1);
+        assertSame(alice, cache.getById(1L, id -> alice));
+        assertSame(alice, cache.getById(1L, id -> fail("不应再次加载")));
+        assertSame(alice, cache.peekByUsername("alice"));
+    }
+
+    @Test
+    @DisplayName("getById: 加载期间发生失效时返回加载结果但不回填，旧版本不会留在缓存里")
+    void testGetByIdEvictedDuringLoad() {
+        User stale = user(1L, "alice", 1);
+        assertSame(stale, cache.getById(1L, id -> {
+            cache.evict(id);
+            return stale;
+        }));
+        assertNull(cache.peek(1L));
+
+        User fresh = user(1L, "alice", 2);
+        assertSame(fresh, cache.getById(1L, id -> fresh));
+        assertEquals(2, cache.peek(1L).getVersion());
+    }
+
+    @Test
+    @DisplayName("getByUsername: 加载期间发生失效时不回填")
+    void testGetByUsernameEvictedDuringLoad() {
+        User stale = user(1L, "alice", 1);
+        assertSame(stale, cache.getByUsername("alice", username -> {
+            cache.evict(1L);
+            return stale;
+        }));
+        assertNull(cache.peek(1L));
+        assertNull(cache.peekByUsername("alice"));
+
+        User fresh = user(1L, "alice", 2);
+        assertSame(fresh, cache.getByUsername("alice", username -> fresh));
+        assertSame(fresh, cache.getByUsername("alice", username -> fail("不应再次加载")));
+    }
+
+    @Test
+    @DisplayName("put: 取得代数之后有失效时放弃写入")
+    void testPutWithStaleGeneration() {
+        long stamp = cache.generation();
+        cache.evict(2L);
+        cache.put(user(1L, "alice", 1), stamp);
+        assertNull(cache.peek(1L));
+
+        cache.put(user(1L, "alice", 1), cache.generation());
+        assertNotNull(cache.peek(1L));
+    }
+}
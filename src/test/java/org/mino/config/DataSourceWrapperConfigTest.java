@@ -0,0 +1,98 @@
+package org.mino.config;
+
+import com.alibaba.druid.pool.DruidDataSource;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mino.datasource.AcquireTimingDataSource;
+import org.mino.datasource.ConnectionLimitingDataSource;
+import org.mino.datasource.ReadWriteRoutingDataSource;
+import org.mino.datasource.SqlBudgetDataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class DataSourceWrapperConfigTest {
+
+    private static DruidDataSource pool(int maxActive) {
+        DruidDataSource pool = new DruidDataSource();
+        pool.setMaxActive(maxActive);
+        return pool;
+    }
+
+    private static ConnectionLimitingDataSource limiter(DataSource pool) {
+        AcquireTimingDataSource timing = assertInstanceOf(AcquireTimingDataSource.class, pool);
+        return assertInstanceOf(ConnectionLimitingDataSource.class, timing.getTargetDataSource());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static BeanPostProcessor postProcessor(boolean limit, int permits, boolean sqlBudget) {
+        ConnectionLimitProperties limitProperties = new ConnectionLimitProperties();
+        limitProperties.setEnabled(limit);
+        limitProperties.setPermits(permits);
+        SqlBudgetProperties budgetProperties = new SqlBudgetProperties();
+        budgetProperties.setEnabled(sqlBudget);
+        ObjectProvider<ConnectionLimitProperties> limitProvider = mock(ObjectProvider.class);
+        when(limitProvider.getObject()).thenReturn(limitProperties);
+        ObjectProvider<SqlBudgetProperties> budgetProvider = mock(ObjectProvider.class);
+        when(budgetProvider.getObject()).thenReturn(budgetProperties);
+        return DataSourceWrapperConfig.dataSourceWrapperPostProcessor(limitProvider, budgetProvider);
+    }
+
+    @Test
+    @DisplayName("按固定顺序包装：连接计数在外、计时其次、限流在内，连接池仍可 unwrap；许可数默认取 max-active")
+    void testWrapOrder() throws Exception {
+        DruidDataSource pool = pool(7);
+        Object bean = postProcessor(true, 0, true).postProcessAfterInitialization(pool, "dataSource");
+
+        SqlBudgetDataSource budget = assertInstanceOf(SqlBudgetDataSource.class, bean);
+        AcquireTimingDataSource timing = assertInstanceOf(AcquireTimingDataSource.class,
+                budget.getTargetDataSource());
+        ConnectionLimitingDataSource limit = assertInstanceOf(ConnectionLimitingDataSource.class,
+                timing.getTargetDataSource());
+        assertSame(pool, limit.getTargetDataSource());
+        assertEquals(7, limit.stats().get("permits"));
+        assertSame(pool, budget.unwrap(DruidDataSource.class));
+        assertSame(limit, budget.unwrap(ConnectionLimitingDataSource.class));
+
+        // 其他数据源 bean 不包装
+        assertSame(pool, postProcessor(true, 0, true).postProcessAfterInitialization(pool, "primaryDataSource"));
+    }
+
+    @Test
+    @DisplayName("读写分离时按连接池分别限流，各自取 max-active，路由之外不再包一层限流；显式配置优先")
+    @SuppressWarnings("unchecked")
+    void testRoutingPermits() {
+        ConnectionLimitProperties limit = new ConnectionLimitProperties();
+        limit.setEnabled(true);
+        DataSource primary = DataSourceWrapperConfig.wrapPool("primary", pool(20), limit);
+        DataSource replica = DataSourceWrapperConfig.wrapPool("replica-0", pool(10), limit);
+        assertEquals(20, limiter(primary).stats().get("permits"));
+        assertEquals(10, limiter(replica).stats().get("permits"));
+
+        ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(primary, Map.of("replica-0", replica), 0);
+        List<Map<String, Object>> routes = (List<Map<String, Object>>) routing.stats().get("routes");
+        assertEquals(20, routes.get(0).get("maxActive"));
+        assertEquals(20, ((Map<String, Object>) routes.get(0).get("connectionLimit")).get("permits"));
+        assertEquals(10, ((Map<String, Object>) routes.get(1).get("connectionLimit")).get("permits"));
+
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routing);
+        assertSame(dataSource, postProcessor(true, 0, false).postProcessAfterInitialization(dataSource, "dataSource"));
+
+        limit.setPermits(5);
+        DataSource configured = DataSourceWrapperConfig.wrapPool("primary", pool(20), limit);
+        assertEquals(5, limiter(configured).stats().get("permits"));
+        limit.setEnabled(false);
+        DruidDataSource unlimited = pool(20);
+        AcquireTimingDataSource timing = assertInstanceOf(AcquireTimingDataSource.class,
+                DataSourceWrapperConfig.wrapPool("primary", unlimited, limit));
+        assertSame(unlimited, timing.getTargetDataSource());
+    }
+}
@@ -0,0 +1,76 @@
+package org.mino.controller;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mino.config.CompressionProperties;
+import org.mino.config.LogInterceptorProperties;
+import org.mino.config.MetricsProperties;
+import org.mino.config.SqlBudgetProperties;
+import org.mino.metrics.EndpointMetrics;
+import org.mino.metrics.SqlBudgetMonitor;
+import org.mino.metrics.StatementMetrics;
+import org.mino.service.LogService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ExtendWith(SpringExtension.class)
+@WebMvcTest(controllers = {MetricsController.class, HelloController.class})
+@Import({EndpointMetrics.class, StatementMetrics.class, SqlBudgetMonitor.class})
+@EnableConfigurationProperties({LogInterceptorProperties.class, MetricsProperties.class, SqlBudgetProperties.class,
+        CompressionProperties.class})
+class MetricsControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private LogService logService;
+
+    @Test
+    @DisplayName("GET /api/metrics 返回各接口的分位数和吞吐量")
+    void testJsonMetrics() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            mockMvc.perform(get("/api/hello/mino")).andExpect(status().isOk());
+        }
+        mockMvc.perform(get("/api/metrics"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.unit").value("ms"))
+                .andExpect(jsonPath("$.data.endpoints.length()").value(1))
+                .andExpect(jsonPath("$.data.endpoints[0].endpoint").value("HelloController.helloWithName"))
+                .andExpect(jsonPath("$.data.endpoints[0].method").value("GET"))
+                .andExpect(jsonPath("$.data.endpoints[0].uri").value("/api/hello/{name}"))
+                .andExpect(jsonPath("$.data.endpoints[0].count").value(3))
+                .andExpect(jsonPath("$.data.endpoints[0].p99").isNumber())
+                .andExpect(jsonPath("$.data.statements").isArray());
+    }
+
+    @Test
+    @DisplayName("GET /api/metrics/prometheus 返回 Prometheus 文本格式")
+    void testPrometheusMetrics() throws Exception {
+        mockMvc.perform(get("/api/hello")).andExpect(status().isOk());
+        String body = mockMvc.perform(get("/api/metrics/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("text/plain"))
+                .andReturn().getResponse().getContentAsString();
+        String labels = "endpoint=\"HelloController.hello\",method=\"GET\",uri=\"/api/hello\"";
+        assertTrue(body.contains("# TYPE http_server_requests_seconds summary"));
+        assertTrue(body.contains("http_server_requests_seconds{" + labels + ",quantile=\"0.99\"} "));
+        assertTrue(body.contains("http_server_requests_seconds_count{" + labels + "} 1"));
+        assertTrue(body.contains("http_server_requests_per_second{" + labels + "} "));
+        assertTrue(body.contains("# TYPE mybatis_statement_seconds summary"));
+        assertFalse(body.contains("MetricsController"));
+    }
+}
@@ -1,29 +1,62 @@
 package org.mino.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mino.config.CompressionProperties;
+import org.mino.config.LogInterceptorProperties;
+import org.mino.config.MetricsProperties;
+import org.mino.config.SqlBudgetProperties;
+import org.mino.metrics.EndpointMetrics;
+import org.mino.metrics.SqlBudgetMonitor;
+import org.mino.model.BatchItemResult;
+import org.mino.model.CursorPage;
+import org.mino.model.OperationLog;
 import org.mino.model.User;
+import org.mino.service.LogService;
 import org.mino.service.UserService;
+import org.mockito.ArgumentCaptor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.io.ByteArrayInputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
 
+import static org.hamcrest.Matchers.hasItem;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @ExtendWith(SpringExtension.class)
 @WebMvcTest(controllers = UserController.class)
+@Import({EndpointMetrics.class, SqlBudgetMonitor.class})
+@EnableConfigurationProperties({LogInterceptorProperties.class, MetricsProperties.class, SqlBudgetProperties.class,
+        CompressionProperties.class})
 class UserControllerTest {
 
     @Autowired
@@ -32,6 +65,9 @@ class UserControllerTest {
     @MockBean
     private UserService userService;
 
+    @MockBean
+    private LogService logService;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -44,6 +80,108 @@ class UserControllerTest {
                 .andExpect(jsonPath("$.code").value(200));
     }
 
+    @Test
+    @DisplayName("GET /api/users 按 Accept 返回 CBOR/Smile，默认仍为JSON；大响应按 Accept-Encoding 压缩")
+    void testGetAllUsersNegotiation() throws Exception {
+        List<User> users = new ArrayList<>();
+        for (long i = 1; i <= 100; i++) {
+            users.add(new User(i, "user" + i, "user" + i + "@example.com", "138" + i));
+        }
+        when(userService.findAllUsers()).thenReturn(users);
+
+        byte[] cbor = mockMvc.perform(get("/api/users").accept("application/cbor"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/cbor"))
+                .andExpect(header().stringValues("Vary", hasItem("Accept")))
+                .andReturn().getResponse().getContentAsByteArray();
+        JsonNode cborTree = new ObjectMapper(new CBORFactory()).readTree(cbor);
+        assertEquals(200, cborTree.get("code").asInt());
+        assertEquals("user100", cborTree.get("data").get(99).get("username").asText());
+
+        byte[] smile = mockMvc.perform(get("/api/users").accept("application/x-jackson-smile"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-jackson-smile"))
+                .andReturn().getResponse().getContentAsByteArray();
+        // timestamp 每次请求不同只比较 data；数值节点类型随格式不同（Smile 保留 long），按文本比较
+        assertEquals(cborTree.get("data").toString(),
+                new ObjectMapper(new SmileFactory()).readTree(smile).get("data").toString());
+
+        byte[] gzipped = mockMvc.perform(get("/api/users").header("Accept-Encoding", "gzip"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(header().string("Content-Encoding", "gzip"))
+                .andReturn().getResponse().getContentAsByteArray();
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gzipped))) {
+            assertEquals(cborTree.get("data").toString(), objectMapper.readTree(in).get("data").toString());
+        }
+    }
+
+    @Test
+    @DisplayName("LogInterceptor 记录请求方法、路径、IP、用户ID和耗时")
+    void testOperationLogRecorded() throws Exception {
+        when(userService.findById(1L)).thenReturn(Optional.of(new User(1L, "alice", "alice@example.com", "1")));
+        mockMvc.perform(get("/api/users/1")
+                        .header("X-User-Id", "42")
+                        .header("X-Forwarded-For", "10.0.0.1, 10.0.0.2"))
+                .andExpect(status().isOk());
+
+        ArgumentCaptor<OperationLog> captor = ArgumentCaptor.forClass(OperationLog.class);
+        verify(logService).recordOperationLog(captor.capture());
+        OperationLog log = captor.getValue();
+        assertEquals(42L, log.getUserId());
+        assertEquals("getUserById", log.getOperation());
+        assertEquals("GET", log.getMethod());
+        assertEquals("/api/users/1", log.getPath());
+        // 默认不信任 X-Forwarded-For，记录直连地址
+        assertEquals("127.0.0.1", log.getIp());
+        assertEquals(200, log.getStatus());
+        assertTrue(log.getCostTime() > 0);
+    }
+
+    @Test
+    @DisplayName("GET /api/users/export 流式导出NDJSON")
+    @SuppressWarnings("unchecked")
+    void testExportUsers() throws Exception {
+        doAnswer(invocation -> {
+            Consumer<User> consumer = invocation.getArgument(0);
+            consumer.accept(new User(1L, "alice", "alice@example.com", "1"));
+            consumer.accept(new User(2L, "bob", "bob@example.com", "2"));
+            return 2L;
+        }).when(userService).exportAllUsers(any(Consumer.class));
+
+        String body = mockMvc.perform(get("/api/users/export"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("application/x-ndjson"))
+                .andReturn().getResponse().getContentAsString();
+        String[] lines = body.split("\n");
+        assertEquals(2, lines.length);
+        assertEquals("alice", objectMapper.readValue(lines[0], User.class).getUsername());
+        assertEquals("bob", objectMapper.readValue(lines[1], User.class).getUsername());
+    }
+
+    @Test
+    @DisplayName("GET /api/users/page 游标分页")
+    void testGetUsersByCursor() throws Exception {
+        when(userService.findUsersByCursor(null, 1))
+                .thenReturn(new CursorPage<>(List.of(new User(1L, "alice", "alice@example.com", "1")), "next", true));
+        mockMvc.perform(get("/api/users/page").param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.items[0].username").value("alice"))
+                .andExpect(jsonPath("$.data.nextCursor").value("next"))
+                .andExpect(jsonPath("$.data.hasMore").value(true));
+    }
+
+    @Test
+    @DisplayName("GET /api/users?ids= 批量查询")
+    void testGetUsersByIds() throws Exception {
+        when(userService.findByIds(List.of(1L, 2L))).thenReturn(List.of(
+                new User(1L, "alice", "alice@example.com", "1"), new User(2L, "bob", "bob@example.com", "2")));
+        mockMvc.perform(get("/api/users").param("ids", "1,2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.length()").value(2))
+                .andExpect(jsonPath("$.data[1].username").value("bob"));
+    }
+
     @Test
     @DisplayName("GET /api/users/{id} 返回详情")
     void testGetUserById() throws Exception {
@@ -68,16 +206,76 @@ class UserControllerTest {
     }
 
     @Test
-    @DisplayName("PUT /api/users/{id} 更新用户")
+    @DisplayName("POST /api/users/batch 批量创建用户")
+    void testCreateUsers() throws Exception {
+        List<User> req = List.of(new User(null, "bob", "bob@example.com", "2"), new User(null, "bob", "b2@example.com", "3"));
+        when(userService.createUsers(any())).thenReturn(List.of(
+                BatchItemResult.success(0, new User(2L, "bob", "bob@example.com", "2")),
+                BatchItemResult.failure(1, "用户名已存在", req.get(1))));
+        mockMvc.perform(post("/api/users/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(req)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data[0].success").value(true))
+                .andExpect(jsonPath("$.data[0].data.id").value(2))
+                .andExpect(jsonPath("$.data[1].success").value(false))
+                .andExpect(jsonPath("$.data[1].message").value("用户名已存在"));
+    }
+
+    @Test
+    @DisplayName("PUT /api/users/{id} 更新用户，返回提交后重新读取的用户")
     void testUpdateUser() throws Exception {
         User req = new User(1L, "alice", "alice@example.com", "9");
+        req.setVersion(1);
+        User updated = new User(1L, "alice", "alice@example.com", "9");
+        updated.setVersion(2);
+        updated.setCreateTime(LocalDateTime.of(2024, 1, 1, 8, 0));
         when(userService.updateUser(any(User.class))).thenReturn(req);
+        when(userService.findById(1L)).thenReturn(Optional.of(updated));
         mockMvc.perform(put("/api/users/1")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(req)))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.code").value(200))
-                .andExpect(jsonPath("$.data.phone").value("9"));
+                .andExpect(jsonPath("$.data.phone").value("9"))
+                .andExpect(jsonPath("$.data.version").value(2))
+                .andExpect(jsonPath("$.data.createTime").exists());
+    }
+
+    @Test
+    @DisplayName("PUT /api/users/{id} 未携带version返回400")
+    void testUpdateUserWithoutVersion() throws Exception {
+        mockMvc.perform(put("/api/users/1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\":\"alice\",\"email\":\"alice@example.com\",\"phone\":\"9\"}"))
+                .andExpect(jsonPath("$.code").value(400));
+        verify(userService, never()).updateUser(any(User.class));
+    }
+
+    @Test
+    @DisplayName("PATCH /api/users/{id} 部分更新用户")
+    void testPatchUser() throws Exception {
+        User updated = new User(1L, "alice", "alice@example.com", "9");
+        updated.setVersion(2);
+        when(userService.patchUser(any(User.class))).thenReturn(updated);
+        when(userService.findById(1L)).thenReturn(Optional.of(updated));
+        mockMvc.perform(patch("/api/users/1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"phone\":\"9\",\"version\":1}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.code").value(200))
+                .andExpect(jsonPath("$.data.username").value("alice"))
+                .andExpect(jsonPath("$.data.version").value(2));
+    }
+
+    @Test
+    @DisplayName("PATCH /api/users/{id} 版本冲突返回409")
+    void testPatchUserConflict() throws Exception {
+        when(userService.patchUser(any(User.class))).thenThrow(new OptimisticLockingFailureException("用户信息已被修改，请刷新后重试"));
+        mockMvc.perform(patch("/api/users/1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"phone\":\"9\",\"version\":1}"))
+                .andExpect(jsonPath("$.code").value(409));
     }
 
     @Test
@@ -89,4 +287,82 @@ class UserControllerTest {
                 .andExpect(jsonPath("$.code").value(200))
                 .andExpect(jsonPath("$.data").value(true));
     }
+
+    @Test
+    @DisplayName("GET /api/users/{id} 返回弱ETag，If-None-Match 命中时只查版本号并返回304")
+    void testGetUserByIdConditional() throws Exception {
+        User user = new User(1L, "alice", "alice@example.com", "1");
+        user.setVersion(3);
+        when(userService.findById(1L)).thenReturn(Optional.of(user));
+        mockMvc.perform(get("/api/users/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "W/\"1-3\""))
+                .andExpect(jsonPath("$.data.version").value(3));
+        verify(userService, never()).findVersionById(1L);
+
+        when(userService.findVersionById(1L)).thenReturn(Optional.of(3));
+        mockMvc.perform(get("/api/users/1").header("If-None-Match", "W/\"1-3\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "W/\"1-3\""))
+                .andExpect(content().string(""));
+        verify(userService).findById(1L);
+        // 弱比较：不带 W/ 前缀的同值ETag也命中
+        mockMvc.perform(get("/api/users/1").header("If-None-Match", "\"1-3\""))
+                .andExpect(status().isNotModified());
+
+        // 版本已变化：返回完整用户和新ETag
+        mockMvc.perform(get("/api/users/1").header("If-None-Match", "\"1-2\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "W/\"1-3\""))
+                .andExpect(jsonPath("$.data.username").value("alice"));
+    }
+
+    @Test
+    @DisplayName("GET /api/users/{id} 按 Accept 返回不同格式：带 Vary: Accept，ETag 带格式后缀，不跨格式命中")
+    void testGetUserByIdNegotiatedETag() throws Exception {
+        User user = new User(1L, "alice", "alice@example.com", "1");
+        user.setVersion(3);
+        when(userService.findById(1L)).thenReturn(Optional.of(user));
+        when(userService.findVersionById(1L)).thenReturn(Optional.of(3));
+
+        mockMvc.perform(get("/api/users/1").accept("application/cbor"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/cbor"))
+                .andExpect(header().stringValues("Vary", hasItem("Accept")))
+                .andExpect(header().string("ETag", "W/\"1-3-cbor\""));
+        mockMvc.perform(get("/api/users/1").accept("application/x-jackson-smile;q=0.5, application/cbor;q=0.1"))
+                .andExpect(content().contentType("application/x-jackson-smile"))
+                .andExpect(header().string("ETag", "W/\"1-3-smile\""));
+
+        // JSON 客户端带着 CBOR 表示的ETag：格式不同，返回完整 JSON
+        mockMvc.perform(get("/api/users/1").header("If-None-Match", "W/\"1-3-cbor\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "W/\"1-3\""))
+                .andExpect(jsonPath("$.data.username").value("alice"));
+        mockMvc.perform(get("/api/users/1").accept("application/cbor").header("If-None-Match", "W/\"1-3-cbor\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().stringValues("Vary", hasItem("Accept")));
+
+        mockMvc.perform(get("/api/users/1").accept("application/xml"))
+                .andExpect(status().isNotAcceptable());
+    }
+
+    @Test
+    @DisplayName("GET /api/users/username/{username} 支持 If-None-Match，用户不存在时不返回ETag")
+    void testGetUserByUsernameConditional() throws Exception {
+        User validator = new User();
+        validator.setId(2L);
+        validator.setVersion(0);
+        when(userService.findVersionByUsername("bob")).thenReturn(Optional.of(validator));
+        mockMvc.perform(get("/api/users/username/bob").header("If-None-Match", "W/\"2-0\", \"9-9\""))
+                .andExpect(status().isNotModified());
+        verify(userService, never()).findByUsername("bob");
+
+        when(userService.findVersionByUsername("ghost")).thenReturn(Optional.empty());
+        when(userService.findByUsername("ghost")).thenReturn(Optional.empty());
+        mockMvc.perform(get("/api/users/username/ghost").header("If-None-Match", "\"2-0\""))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("ETag"))
+                .andExpect(jsonPath("$.code").value(404));
+    }
 }
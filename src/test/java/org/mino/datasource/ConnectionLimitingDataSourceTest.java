@@ -0,0 +1,37 @@
+package org.mino.datasource;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.sql.Connection;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConnectionLimitingDataSourceTest {
+
+    private final ConnectionLimitingDataSource dataSource = new ConnectionLimitingDataSource(
+            new DriverManagerDataSource("jdbc:h2:mem:limit;DB_CLOSE_DELAY=-1"), 2, Duration.ofMillis(50));
+
+    @Test
+    @DisplayName("持有连接数达到许可上限后等待超时")
+    void testLimit() throws Exception {
+        try (Connection first = dataSource.getConnection(); Connection second = dataSource.getConnection()) {
+            assertTrue(first.isValid(1));
+            assertThrows(SQLTransientConnectionException.class, dataSource::getConnection);
+            assertEquals(1L, dataSource.stats().get("timeoutCount"));
+        }
+        assertEquals(2, dataSource.stats().get("availablePermits"));
+    }
+
+    @Test
+    @DisplayName("重复关闭连接只归还一次许可")
+    void testDoubleClose() throws Exception {
+        Connection connection = dataSource.getConnection();
+        connection.close();
+        connection.close();
+        assertEquals(2, dataSource.stats().get("availablePermits"));
+    }
+}
@@ -0,0 +1,108 @@
+package org.mino.datasource;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReadWriteRoutingDataSourceTest {
+
+    private DriverManagerDataSource primary;
+    private DriverManagerDataSource replica;
+    private ReadWriteRoutingDataSource routing;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate readOnlyTx;
+    private TransactionTemplate writeTx;
+
+    @BeforeEach
+    void setUp() {
+        primary = h2("primary");
+        replica = h2("replica");
+        createRouting(0);
+    }
+
+    private void createRouting(long readAfterWriteMillis) {
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        replicas.put("replica-0", replica);
+        routing = new ReadWriteRoutingDataSource(primary, replicas, readAfterWriteMillis);
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(routing);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        readOnlyTx = new TransactionTemplate(transactionManager);
+        readOnlyTx.setReadOnly(true);
+        writeTx = new TransactionTemplate(transactionManager);
+    }
+
+    private static DriverManagerDataSource h2(String name) {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1");
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("DROP TABLE IF EXISTS node");
+        jdbc.execute("CREATE TABLE node (name VARCHAR(20))");
+        jdbc.update("INSERT INTO node VALUES (?)", name);
+        return dataSource;
+    }
+
+    private String currentNode(TransactionTemplate tx) {
+        return tx.execute(status -> jdbcTemplate.queryForObject("SELECT name FROM node", String.class));
+    }
+
+    @Test
+    @DisplayName("只读事务走从库，读写事务走主库")
+    void testRouting() {
+        assertEquals("replica", currentNode(readOnlyTx));
+        assertEquals("primary", currentNode(writeTx));
+        assertEquals("primary", jdbcTemplate.queryForObject("SELECT name FROM node", String.class));
+    }
+
+    @Test
+    @DisplayName("从库不可用时回退主库，健康检查后恢复")
+    void testFallbackAndRecovery() {
+        replica.setUrl("jdbc:invalid:replica");
+        assertEquals("primary", currentNode(readOnlyTx));
+        assertEquals(1L, routing.stats().get("fallbackCount"));
+
+        // 已摘除的从库不再尝试
+        assertEquals("primary", currentNode(readOnlyTx));
+        assertEquals(1L, routing.stats().get("fallbackCount"));
+
+        replica.setUrl("jdbc:h2:mem:replica;DB_CLOSE_DELAY=-1");
+        routing.checkReplicas();
+        assertEquals("replica", currentNode(readOnlyTx));
+
+        @SuppressWarnings("unchecked")
+        List<Map<String, Object>> routes = (List<Map<String, Object>>) routing.stats().get("routes");
+        assertEquals("replica-0", routes.get(1).get("name"));
+        assertEquals(true, routes.get(1).get("healthy"));
+        assertEquals(1L, routes.get(1).get("failureCount"));
+    }
+
+    @Test
+    @DisplayName("写事务提交后窗口内的只读请求仍走主库")
+    void testReadAfterWrite() {
+        createRouting(60_000);
+        assertEquals("replica", currentNode(readOnlyTx));
+        writeTx.executeWithoutResult(status -> jdbcTemplate.update("UPDATE node SET name = 'primary'"));
+        assertEquals("primary", currentNode(readOnlyTx));
+    }
+
+    @Test
+    @DisplayName("readFromPrimary 内的只读请求走主库，结束后恢复从库")
+    void testReadFromPrimary() {
+        assertEquals("primary", ReadWriteRoutingDataSource.readFromPrimary(() -> currentNode(readOnlyTx)));
+        assertEquals("primary", ReadWriteRoutingDataSource.readFromPrimary(
+                () -> ReadWriteRoutingDataSource.readFromPrimary(() -> currentNode(readOnlyTx))));
+        assertEquals("replica", currentNode(readOnlyTx));
+        assertEquals(2L, routing.stats().get("forcedPrimaryCount"));
+    }
+}
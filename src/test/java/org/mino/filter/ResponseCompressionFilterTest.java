@@ -0,0 +1,207 @@
+package org.mino.filter;
+
+import io.airlift.compress.zstd.ZstdInputStream;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mino.config.CompressionProperties;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResponseCompressionFilterTest {
+
+    private static final String JSON = "application/json";
+
+    private final ResponseCompressionFilter filter = new ResponseCompressionFilter(zstdEnabled());
+
+    private static CompressionProperties zstdEnabled() {
+        CompressionProperties properties = new CompressionProperties();
+        properties.setZstd(true);
+        return properties;
+    }
+
+    @Test
+    @DisplayName("按 Accept-Encoding 选择编码：zstd 优先，q=0 表示拒绝，* 兜底为 gzip")
+    void testSelectEncoding() {
+        assertNull(filter.selectEncoding(null, true));
+        assertNull(filter.selectEncoding("identity", true));
+        assertEquals("gzip", filter.selectEncoding("gzip, deflate, br", true));
+        assertEquals("zstd", filter.selectEncoding("gzip, zstd", true));
+        assertEquals("gzip", filter.selectEncoding("zstd;q=0, gzip;q=0.5", true));
+        assertNull(filter.selectEncoding("gzip;q=0", true));
+        assertEquals("gzip", filter.selectEncoding("*", true));
+        assertNull(filter.selectEncoding("*, gzip;q=0", true));
+
+        // 默认关闭 zstd
+        assertEquals("gzip", new ResponseCompressionFilter(new CompressionProperties()).selectEncoding("zstd, gzip", true));
+        assertEquals("gzip", filter.selectEncoding("zstd, gzip", false));
+        assertNull(filter.selectEncoding("zstd", false));
+    }
+
+    @Test
+    @DisplayName("超过阈值的 JSON 分多次写出，gzip/zstd 解压后与原文一致，强ETag降为弱ETag；zstd 只用于大响应")
+    void testCompressLargeBody() throws Exception {
+        byte[] body = largeBody();
+        assertTrue(body.length > new CompressionProperties().getBufferSize());
+        for (String encoding : new String[]{"gzip", "zstd"}) {
+            MockHttpServletResponse response = execute("/api/users", "gzip, " + encoding, JSON, res -> {
+                res.setHeader(HttpHeaders.ETAG, "\"1-0\"");
+                res.setContentLength(body.length);
+                // 跨过阈值的分段写入，前一部分暂存后一起压缩
+                res.getOutputStream().write(body, 0, 100);
+                res.getOutputStream().write(body, 100, body.length - 100);
+            });
+            assertEquals(encoding, response.getHeader(HttpHeaders.CONTENT_ENCODING));
+            assertEquals(HttpHeaders.ACCEPT_ENCODING, response.getHeader(HttpHeaders.VARY));
+            assertEquals("W/\"1-0\"", response.getHeader(HttpHeaders.ETAG));
+            assertNull(response.getHeader(HttpHeaders.CONTENT_LENGTH));
+            byte[] compressed = response.getContentAsByteArray();
+            assertTrue(compressed.length < body.length / 4);
+            assertArrayEquals(body, decode(encoding, compressed));
+        }
+        // 超过阈值但未写满缓冲区的响应即使接受 zstd 也用 gzip；不接受 gzip 时仍用 zstd
+        byte[] medium = Arrays.copyOf(body, 8192);
+        for (String acceptEncoding : new String[]{"zstd, gzip", "zstd"}) {
+            MockHttpServletResponse response = execute("/api/users", acceptEncoding, JSON,
+                    res -> res.getOutputStream().write(medium));
+            String encoding = acceptEncoding.contains("gzip") ? "gzip" : "zstd";
+            assertEquals(encoding, response.getHeader(HttpHeaders.CONTENT_ENCODING));
+            assertArrayEquals(medium, decode(encoding, response.getContentAsByteArray()));
+        }
+        assertEquals(4L, filter.stats().get("compressed"));
+        assertEquals(2, filter.stats().get("pooledBuffers"));
+        assertEquals(1, filter.stats().get("pooledDeflaters"));
+    }
+
+    @Test
+    @DisplayName("未超过阈值原样输出并带 Content-Length；不可压缩类型、客户端不接受时不压缩")
+    void testUncompressed() throws Exception {
+        byte[] small = "{\"code\":200}".getBytes(StandardCharsets.UTF_8);
+        MockHttpServletResponse response = execute("/api/users/1", "gzip", JSON,
+                res -> res.getWriter().write(new String(small, StandardCharsets.UTF_8)));
+        assertNull(response.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(HttpHeaders.ACCEPT_ENCODING, response.getHeader(HttpHeaders.VARY));
+        assertEquals(small.length, response.getContentLength());
+        assertArrayEquals(small, response.getContentAsByteArray());
+
+        byte[] body = largeBody();
+        response = execute("/api/users", "gzip", "image/png", res -> {
+            res.setContentLength(body.length);
+            res.getOutputStream().write(body);
+        });
+        assertNull(response.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertNull(response.getHeader(HttpHeaders.VARY));
+        assertEquals(body.length, response.getContentLength());
+        assertArrayEquals(body, response.getContentAsByteArray());
+
+        response = execute("/api/users", null, JSON, res -> res.getOutputStream().write(body));
+        assertNull(response.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(HttpHeaders.ACCEPT_ENCODING, response.getHeader(HttpHeaders.VARY));
+        assertArrayEquals(body, response.getContentAsByteArray());
+    }
+
+    @Test
+    @DisplayName("resetBuffer：压缩开始前清空暂存内容，压缩开始后抛出 IllegalStateException")
+    void testResetBuffer() throws Exception {
+        byte[] body = largeBody();
+        MockHttpServletResponse response = execute("/api/users", "gzip", JSON, res -> {
+            res.getOutputStream().write(body, 0, 100);
+            res.resetBuffer();
+            res.getOutputStream().write(body);
+            assertThrows(IllegalStateException.class, res::resetBuffer);
+            assertThrows(IllegalStateException.class, res::reset);
+        });
+        assertEquals("gzip", response.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertArrayEquals(body, decode("gzip", response.getContentAsByteArray()));
+    }
+
+    @Test
+    @DisplayName("排除路径不经过过滤器，flush 立即下发")
+    void testExcludedPath() throws Exception {
+        byte[] body = largeBody();
+        MockHttpServletResponse response = execute("/api/users/export", "gzip", JSON, res -> {
+            res.getOutputStream().write(body, 0, 10);
+            res.flushBuffer();
+            assertTrue(res.isCommitted());
+            res.getOutputStream().write(body, 10, body.length - 10);
+        });
+        assertNull(response.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertArrayEquals(body, response.getContentAsByteArray());
+    }
+
+    @Test
+    @DisplayName("异步请求：首次分派结束时不写出也不归还缓冲区，最后一次异步分派写出后归还")
+    void testAsyncRequest() throws Exception {
+        byte[] body = largeBody();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/users");
+        request.setAsyncSupported(true);
+        request.addHeader(HttpHeaders.ACCEPT_ENCODING, "gzip");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, (req, res) -> {
+            req.startAsync(req, res);
+            res.setContentType(JSON);
+            res.getOutputStream().write(body, 0, 100);
+        });
+        assertTrue(request.isAsyncStarted());
+        assertEquals(0, response.getContentAsByteArray().length);
+        assertEquals(0, filter.stats().get("pooledBuffers"));
+
+        // 异步处理完成后分派回来，容器传入 startAsync 时的响应包装
+        HttpServletResponse asyncResponse = (HttpServletResponse) request.getAsyncContext().getResponse();
+        request.setAsyncStarted(false);
+        request.setDispatcherType(DispatcherType.ASYNC);
+        filter.doFilter(request, asyncResponse,
+                (req, res) -> res.getOutputStream().write(body, 100, body.length - 100));
+        assertEquals("gzip", response.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertArrayEquals(body, decode("gzip", response.getContentAsByteArray()));
+        assertEquals(2, filter.stats().get("pooledBuffers"));
+    }
+
+    private MockHttpServletResponse execute(String uri, String acceptEncoding, String contentType,
+                                            ResponseBody writer) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", uri);
+        if (acceptEncoding != null) {
+            request.addHeader(HttpHeaders.ACCEPT_ENCODING, acceptEncoding);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        response.setCharacterEncoding("UTF-8");
+        filter.doFilter(request, response, (req, res) -> {
+            res.setContentType(contentType);
+            writer.write((HttpServletResponse) res);
+        });
+        return response;
+    }
+
+    private static byte[] largeBody() {
+        StringBuilder json = new StringBuilder("{\"code\":200,\"data\":[");
+        for (int i = 0; i < 500; i++) {
+            json.append(i == 0 ? "" : ",").append("{\"id\":").append(i)
+                    .append(",\"username\":\"user").append(i).append("\",\"email\":\"user").append(i)
+                    .append("@example.com\"}");
+        }
+        return json.append("]}").toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] decode(String encoding, byte[] compressed) throws Exception {
+        ByteArrayInputStream in = new ByteArrayInputStream(compressed);
+        try (InputStream decoder = "zstd".equals(encoding) ? new ZstdInputStream(in) : new GZIPInputStream(in)) {
+            return decoder.readAllBytes();
+        }
+    }
+
+    @FunctionalInterface
+    private interface ResponseBody {
+        void write(HttpServletResponse response) throws IOException;
+    }
+}
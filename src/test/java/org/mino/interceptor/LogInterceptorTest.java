@@ -0,0 +1,68 @@
+package org.mino.interceptor;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mino.config.LogInterceptorProperties;
+import org.mino.model.OperationLog;
+import org.mino.service.LogService;
+import org.mockito.ArgumentCaptor;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class LogInterceptorTest {
+
+    private static MockHttpServletRequest request(String remoteAddr, String forwardedFor) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/users/1");
+        request.setRemoteAddr(remoteAddr);
+        if (forwardedFor != null) {
+            request.addHeader("X-Forwarded-For", forwardedFor);
+        }
+        return request;
+    }
+
+    private static LogInterceptor interceptor(boolean trustForwardedFor) {
+        LogInterceptorProperties properties = new LogInterceptorProperties();
+        properties.setTrustForwardedFor(trustForwardedFor);
+        return new LogInterceptor(mock(LogService.class), properties);
+    }
+
+    @Test
+    @DisplayName("默认不读取 X-Forwarded-For；开启后只信任可信代理转发的头，从右往左跳过可信代理")
+    void testClientIp() {
+        assertEquals("203.0.113.9", interceptor(false).clientIp(request("203.0.113.9", "1.2.3.4")));
+
+        LogInterceptor trusting = interceptor(true);
+        // 直连地址不是可信代理：请求头由客户端直接填写，忽略
+        assertEquals("203.0.113.9", trusting.clientIp(request("203.0.113.9", "1.2.3.4")));
+        // 客户端伪造的最左侧地址被忽略，取代理追加的真实地址
+        assertEquals("198.51.100.7", trusting.clientIp(request("10.0.0.2", "1.2.3.4, 198.51.100.7, 10.0.0.1")));
+        assertEquals("198.51.100.7", trusting.clientIp(request("127.0.0.1", "198.51.100.7")));
+        // 全部是可信代理时取最左侧地址
+        assertEquals("10.0.0.5", trusting.clientIp(request("10.0.0.2", "10.0.0.5, 192.168.1.1")));
+        assertEquals("10.0.0.2", trusting.clientIp(request("10.0.0.2", " , ")));
+    }
+
+    @Test
+    @DisplayName("路径和IP按 operation_log 列宽截断")
+    void testTruncateToColumnWidth() {
+        LogService logService = mock(LogService.class);
+        LogInterceptorProperties properties = new LogInterceptorProperties();
+        properties.setTrustForwardedFor(true);
+        LogInterceptor interceptor = new LogInterceptor(logService, properties);
+
+        MockHttpServletRequest request = request("10.0.0.1", "1".repeat(80));
+        request.setRequestURI("/api/users/" + "x".repeat(300));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        interceptor.preHandle(request, response, null);
+        interceptor.afterCompletion(request, response, null, null);
+
+        ArgumentCaptor<OperationLog> captor = ArgumentCaptor.forClass(OperationLog.class);
+        verify(logService).recordOperationLog(captor.capture());
+        assertEquals(LogInterceptor.MAX_PATH_LENGTH, captor.getValue().getPath().length());
+        assertEquals(LogInterceptor.MAX_IP_LENGTH, captor.getValue().getIp().length());
+    }
+}
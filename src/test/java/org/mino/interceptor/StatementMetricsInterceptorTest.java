@@ -0,0 +1,161 @@
+package org.mino.interceptor;
+
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mino.config.MetricsProperties;
+import org.mino.datasource.AcquireTimingDataSource;
+import org.mino.metrics.StatementMetrics;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StatementMetricsInterceptorTest {
+
+    interface ItemMapper {
+
+        @Insert("CREATE TABLE IF NOT EXISTS item (id BIGINT PRIMARY KEY, name VARCHAR(50))")
+        void createTable();
+
+        @Delete("DELETE FROM item")
+        void clear();
+
+        @Insert("INSERT INTO item (id, name) VALUES (#{id}, #{name})")
+        int insert(@Param("id") long id, @Param("name") String name);
+
+        @Select("SELECT name FROM item WHERE id > #{minId} ORDER BY id")
+        List<String> selectNames(@Param("minId") long minId);
+
+        @Select("SELECT name FROM item WHERE nope = 1")
+        List<String> selectBroken();
+    }
+
+    private StatementMetrics metrics;
+
+    private SqlSessionFactory factory;
+
+    @BeforeEach
+    void setUp() {
+        MetricsProperties properties = new MetricsProperties();
+        properties.setSlowStatementThreshold(0);
+        properties.setSlowStatementSamples(2);
+        metrics = new StatementMetrics(properties);
+
+        factory = factory(new AcquireTimingDataSource(
+                new DriverManagerDataSource("jdbc:h2:mem:statement-metrics;DB_CLOSE_DELAY=-1")));
+        try (SqlSession session = factory.openSession(true)) {
+            session.getMapper(ItemMapper.class).createTable();
+            session.getMapper(ItemMapper.class).clear();
+        }
+    }
+
+    private SqlSessionFactory factory(DataSource dataSource) {
+        Configuration configuration = new Configuration(new Environment("test", new JdbcTransactionFactory(),
+                dataSource));
+        configuration.addInterceptor(new StatementMetricsInterceptor(metrics));
+        configuration.addMapper(ItemMapper.class);
+        return new SqlSessionFactoryBuilder().build(configuration);
+    }
+
+    private StatementMetrics.Statement statement(String method) {
+        String id = ItemMapper.class.getName() + "." + method;
+        return metrics.getStatements().stream().filter(s -> s.getId().equals(id)).findFirst().orElseThrow();
+    }
+
+    @Test
+    @DisplayName("按语句ID记录次数、行数、连接获取和执行耗时")
+    void testRecordsByStatementId() {
+        try (SqlSession session = factory.openSession(true)) {
+            ItemMapper mapper = session.getMapper(ItemMapper.class);
+            mapper.insert(1, "a");
+            mapper.insert(2, "b");
+            mapper.insert(3, "c");
+            assertEquals(List.of("b", "c"), mapper.selectNames(1));
+        }
+
+        StatementMetrics.Statement insert = statement("insert");
+        assertEquals(3, insert.getTotal().snapshot().getCount());
+        assertEquals(3, insert.getRows());
+        // 会话在第一条语句时借出连接，之后的语句复用，不再计入连接获取耗时
+        assertTrue(insert.getAcquireSum() > 0);
+        assertTrue(insert.getExecuteSum() > 0);
+
+        StatementMetrics.Statement select = statement("selectNames");
+        assertEquals(1, select.getTotal().snapshot().getTotalCount());
+        assertEquals(2, select.getRows());
+        assertEquals(0, select.getAcquireSum());
+        assertTrue(select.getExecuteSum() > 0);
+        assertEquals(0, select.getErrors());
+    }
+
+    @Test
+    @DisplayName("延迟获取连接时，prepare 内等待连接池的时间计为连接获取耗时，而不是执行耗时")
+    void testLazyAcquire() {
+        long poolWait = TimeUnit.MILLISECONDS.toNanos(50);
+        DataSource slowPool = new DelegatingDataSource(
+                new DriverManagerDataSource("jdbc:h2:mem:statement-metrics;DB_CLOSE_DELAY=-1")) {
+            @Override
+            public Connection getConnection() throws SQLException {
+                LockSupport.parkNanos(poolWait);
+                return super.getConnection();
+            }
+        };
+        SqlSessionFactory lazyFactory = factory(new LazyConnectionDataSourceProxy(new AcquireTimingDataSource(slowPool)));
+        try (SqlSession session = lazyFactory.openSession(true)) {
+            session.getMapper(ItemMapper.class).selectNames(0);
+        }
+
+        StatementMetrics.Statement select = statement("selectNames");
+        assertTrue(select.getAcquireSum() >= poolWait);
+        assertTrue(select.getExecuteSum() < poolWait);
+    }
+
+    @Test
+    @DisplayName("慢语句样本包含SQL和绑定参数，只保留最近的样本")
+    void testSlowSamples() {
+        try (SqlSession session = factory.openSession(true)) {
+            ItemMapper mapper = session.getMapper(ItemMapper.class);
+            mapper.insert(10, "x");
+            mapper.selectNames(5);
+            mapper.selectNames(7);
+        }
+
+        List<StatementMetrics.SlowStatement> samples = metrics.getSlowStatements();
+        assertEquals(2, samples.size());
+        StatementMetrics.SlowStatement latest = samples.get(0);
+        assertTrue(latest.getId().endsWith(".selectNames"));
+        assertEquals("SELECT name FROM item WHERE id > ? ORDER BY id", latest.getSql());
+        assertEquals(List.of(7L), latest.getParameters());
+        assertNull(latest.getRequest());
+        assertEquals(List.of(5L), samples.get(1).getParameters());
+    }
+
+    @Test
+    @DisplayName("语句异常计入错误数")
+    void testErrors() {
+        try (SqlSession session = factory.openSession(true)) {
+            ItemMapper mapper = session.getMapper(ItemMapper.class);
+            assertThrows(RuntimeException.class, mapper::selectBroken);
+        }
+        assertEquals(1, statement("selectBroken").getErrors());
+    }
+}
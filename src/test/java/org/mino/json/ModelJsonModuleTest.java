@@ -0,0 +1,82 @@
+package org.mino.json;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mino.model.ApiResponse;
+import org.mino.model.BatchItemResult;
+import org.mino.model.CursorPage;
+import org.mino.model.User;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ModelJsonModuleTest {
+
+    /** 与 Spring Boot 默认 ObjectMapper 相同的配置（JavaTimeModule，日期不写成时间戳） */
+    private static Jackson2ObjectMapperBuilder builder() {
+        return Jackson2ObjectMapperBuilder.json().featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    }
+
+    private final ObjectMapper reflective = builder().build();
+
+    private final ObjectMapper handWritten = builder().modulesToInstall(new ModelJsonModule()).build();
+
+    @Test
+    @DisplayName("手写序列化输出与反射序列化逐字节一致（含 null、转义、纳秒、嵌套泛型）")
+    void testByteIdenticalOutput() throws Exception {
+        List<User> users = new ArrayList<>();
+        int[] nanos = {0, 1, 10, 120_000_000, 123_456_000, 123_456_789, 999_999_999, 5_000};
+        for (int i = 0; i < nanos.length; i++) {
+            User user = new User((long) i, "user\"" + i + "\n用户", "u" + i + "@example.com", i % 2 == 0 ? null : "1380013800" + i);
+            user.setCreateTime(LocalDateTime.of(2024, 1 + i, 9 + i, i, 59 - i, i * 7, nanos[i]));
+            user.setUpdateTime(i == 3 ? null : LocalDateTime.of(1999 + i * 1000, 12, 31, 23, 0));
+            user.setVersion(i == 5 ? null : i);
+            users.add(user);
+        }
+        users.add(new User());
+
+        List<Object> payloads = List.of(
+                ApiResponse.success("用户查询成功", users.get(1)),
+                ApiResponse.success(users),
+                ApiResponse.success("分页", new CursorPage<>(users, "abc", true)),
+                ApiResponse.success(List.of(BatchItemResult.success(0, users.get(2)), BatchItemResult.failure(1, "失败", null))),
+                ApiResponse.error(404, "用户不存在"),
+                ApiResponse.error(null),
+                users);
+        for (Object payload : payloads) {
+            assertEquals(reflective.writeValueAsString(payload), handWritten.writeValueAsString(payload));
+            assertArrayEquals(reflective.writeValueAsBytes(payload), handWritten.writeValueAsBytes(payload));
+        }
+        assertInstanceOf(UserSerializer.class,
+                handWritten.getSerializerProviderInstance().findValueSerializer(User.class));
+        assertInstanceOf(ApiResponseSerializer.class,
+                handWritten.getSerializerProviderInstance().findValueSerializer(ApiResponse.class));
+    }
+
+    @Test
+    @DisplayName("配置改变输出形态时回退到反射序列化")
+    void testFallback() throws Exception {
+        User user = new User(1L, "admin", "admin@example.com", null);
+        user.setCreateTime(LocalDateTime.of(2024, 5, 6, 7, 8, 9, 100));
+        Object payload = ApiResponse.success(Arrays.asList(user, null));
+
+        ObjectMapper timestamps = Jackson2ObjectMapperBuilder.json().modulesToInstall(new ModelJsonModule()).build();
+        assertEquals(Jackson2ObjectMapperBuilder.json().build().writeValueAsString(payload),
+                timestamps.writeValueAsString(payload));
+        assertTrue(timestamps.writeValueAsString(payload).contains("[2024,5,6,7,8,9,100]"));
+
+        ObjectMapper nonNull = builder().serializationInclusion(JsonInclude.Include.NON_NULL)
+                .modulesToInstall(new ModelJsonModule()).build();
+        assertEquals(builder().serializationInclusion(JsonInclude.Include.NON_NULL)
+                .build().writeValueAsString(payload), nonNull.writeValueAsString(payload));
+        assertFalse(UserSerializer.class.isInstance(nonNull.getSerializerProviderInstance().findValueSerializer(User.class)));
+    }
+}
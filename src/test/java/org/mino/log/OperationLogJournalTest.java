@@ -0,0 +1,150 @@
+package org.mino.log;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mino.config.OperationLogJournalProperties;
+import org.mino.model.OperationLog;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OperationLogJournalTest {
+
+    @TempDir
+    Path dir;
+
+    private OperationLogJournal open(int segmentBytes) {
+        OperationLogJournalProperties properties = new OperationLogJournalProperties();
+        properties.setDir(dir.toString());
+        properties.setSegmentSize(DataSize.ofBytes(segmentBytes));
+        return new OperationLogJournal(properties);
+    }
+
+    private static OperationLog log(long id) {
+        OperationLog log = new OperationLog(id, "op" + id, "GET", "q=" + id, "127.0.0.1");
+        log.setPath("/api/users/" + id);
+        log.setStatus(200);
+        log.setCostTime(1_234_567L + id);
+        log.setCreateTime(LocalDateTime.of(2024, 1, 1, 12, 0, 0, 123_456_789));
+        return log;
+    }
+
+    private long segmentCount() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.count();
+        }
+    }
+
+    @Test
+    @DisplayName("编解码保留所有字段，包括 null、多字节字符和代理对")
+    void testRoundTrip() {
+        OperationLog full = log(1);
+        full.setParams("name=张三&emoji=😀&é");
+        OperationLog sparse = new OperationLog();
+        sparse.setOperation("unknown");
+
+        OperationLogJournal journal = open(4096);
+        assertTrue(journal.append(List.of(full, sparse)));
+        List<OperationLog> replayed = new ArrayList<>();
+        assertEquals(2, journal.replay(replayed::addAll, 10));
+
+        OperationLog first = replayed.get(0);
+        assertEquals(full.getUserId(), first.getUserId());
+        assertEquals(full.getOperation(), first.getOperation());
+        assertEquals(full.getMethod(), first.getMethod());
+        assertEquals(full.getParams(), first.getParams());
+        assertEquals(full.getIp(), first.getIp());
+        assertEquals(full.getPath(), first.getPath());
+        assertEquals(full.getStatus(), first.getStatus());
+        assertEquals(full.getCostTime(), first.getCostTime());
+        assertEquals(full.getCreateTime(), first.getCreateTime());
+
+        OperationLog second = replayed.get(1);
+        assertEquals("unknown", second.getOperation());
+        assertNull(second.getUserId());
+        assertNull(second.getParams());
+        assertNull(second.getCreateTime());
+        assertFalse(journal.hasPending());
+    }
+
+    @Test
+    @DisplayName("段写满后切换新段，回放按顺序进行并删除段文件")
+    void testRotationAndReclaim() throws Exception {
+        OperationLogJournal journal = open(512);
+        for (long i = 0; i < 40; i++) {
+            assertTrue(journal.append(log(i)));
+        }
+        journal.close();
+        assertTrue(segmentCount() > 1);
+
+        List<Long> ids = new ArrayList<>();
+        journal.replay(batch -> batch.forEach(l -> ids.add(l.getUserId())), 7);
+        assertEquals(40, ids.size());
+        for (int i = 0; i < 40; i++) {
+            assertEquals(i, ids.get(i));
+        }
+        assertEquals(0, segmentCount());
+    }
+
+    @Test
+    @DisplayName("回放失败时保留进度，已写入的批次不重复回放")
+    void testReplayResume() {
+        OperationLogJournal journal = open(4096);
+        for (long i = 0; i < 10; i++) {
+            journal.append(log(i));
+        }
+        List<Long> ids = new ArrayList<>();
+        int[] calls = {0};
+        assertThrows(IllegalStateException.class, () -> journal.replay(batch -> {
+            if (++calls[0] == 2) {
+                throw new IllegalStateException("db down");
+            }
+            batch.forEach(l -> ids.add(l.getUserId()));
+        }, 4));
+        assertEquals(4, ids.size());
+        assertTrue(journal.hasPending());
+
+        journal.replay(batch -> batch.forEach(l -> ids.add(l.getUserId())), 4);
+        assertEquals(10, ids.size());
+        assertEquals(List.of(0L, 1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L), ids);
+    }
+
+    @Test
+    @DisplayName("重启后恢复遗留段，校验失败的尾部记录被忽略")
+    void testRecoverAndTornTail() throws Exception {
+        OperationLogJournal journal = open(4096);
+        for (long i = 0; i < 3; i++) {
+            journal.append(log(i));
+        }
+        journal.close();
+
+        // 模拟写到一半：破坏最后一条记录的载荷
+        Path segment;
+        try (Stream<Path> files = Files.list(dir)) {
+            segment = files.findFirst().orElseThrow();
+        }
+        int recordSize = 8 + OperationLogJournal.payloadSize(log(0));
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{0x7f}), 2L * recordSize + 20);
+        }
+
+        OperationLogJournal reopened = open(4096);
+        assertTrue(reopened.hasPending());
+        List<OperationLog> replayed = new ArrayList<>();
+        reopened.replay(replayed::addAll, 10);
+        assertEquals(2, replayed.size());
+        assertEquals(0, segmentCount());
+    }
+}
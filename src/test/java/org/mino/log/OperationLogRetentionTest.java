@@ -0,0 +1,146 @@
+package org.mino.log;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mino.config.OperationLogRetentionProperties;
+import org.mino.mapper.OperationLogMapper;
+import org.mino.model.TablePartition;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class OperationLogRetentionTest {
+
+    private static final ZoneId ZONE = ZoneId.of("Asia/Shanghai");
+
+    @Mock
+    private OperationLogMapper operationLogMapper;
+
+    private OperationLogRetentionProperties properties;
+
+    private OperationLogRetention retention;
+
+    @BeforeEach
+    void setUp() {
+        properties = new OperationLogRetentionProperties();
+        properties.setChunkSize(100);
+        properties.setPause(Duration.ZERO);
+        properties.setPremakeDays(1);
+        Clock clock = Clock.fixed(Instant.parse("2024-03-10T04:00:00Z"), ZONE);
+        retention = new OperationLogRetention(operationLogMapper, properties, clock);
+    }
+
+    private static TablePartition daily(LocalDate day, long rows) {
+        return new TablePartition("p" + day.toString().replace("-", ""),
+                String.valueOf(OperationLogRetention.toDays(day.plusDays(1))), rows);
+    }
+
+    @Test
+    @DisplayName("toDays 与 MySQL TO_DAYS 一致")
+    void testToDays() {
+        // SELECT TO_DAYS('2024-03-10') = 739320
+        assertEquals(739320L, OperationLogRetention.toDays(LocalDate.of(2024, 3, 10)));
+    }
+
+    @Test
+    @DisplayName("未分区: 按块删除直到不足一块")
+    void testChunkedDelete() {
+        when(operationLogMapper.selectPartitions()).thenReturn(List.of());
+        when(operationLogMapper.deleteBefore(any(LocalDateTime.class), eq(100))).thenReturn(100, 100, 30);
+
+        assertEquals(230L, retention.purgeOlderThan(7));
+        verify(operationLogMapper, times(3)).deleteBefore(LocalDateTime.of(2024, 3, 3, 0, 0), 100);
+        assertEquals("chunked-delete", retention.stats().get("mode"));
+        assertEquals(3L, retention.stats().get("totalChunks"));
+        assertEquals(true, retention.stats().get("lastRunComplete"));
+    }
+
+    @Test
+    @DisplayName("未分区: 超过最长执行时间后停止，留待下次")
+    void testChunkedDeleteMaxDuration() {
+        properties.setMaxDuration(Duration.ZERO);
+        when(operationLogMapper.selectPartitions()).thenReturn(List.of());
+        when(operationLogMapper.deleteBefore(any(LocalDateTime.class), eq(100))).thenReturn(100);
+
+        assertEquals(100L, retention.purgeOlderThan(7));
+        assertEquals(false, retention.stats().get("lastRunComplete"));
+    }
+
+    @Test
+    @DisplayName("已分区: 删除过期分区并补齐未来分区")
+    @SuppressWarnings("unchecked")
+    void testDropPartitions() {
+        LocalDate today = LocalDate.of(2024, 3, 10);
+        when(operationLogMapper.selectPartitions()).thenReturn(List.of(
+                daily(today.minusDays(9), 10),
+                daily(today.minusDays(8), 20),
+                daily(today.minusDays(7), 30),
+                daily(today, 40),
+                new TablePartition("pmax", "MAXVALUE", 0L)));
+
+        assertEquals(30L, retention.purgeOlderThan(7));
+
+        ArgumentCaptor<List<String>> dropped = ArgumentCaptor.forClass(List.class);
+        verify(operationLogMapper).dropPartitions(dropped.capture());
+        assertEquals(List.of("p20240301", "p20240302"), dropped.getValue());
+
+        ArgumentCaptor<List<TablePartition>> added = ArgumentCaptor.forClass(List.class);
+        verify(operationLogMapper).addPartitions(added.capture());
+        assertEquals(1, added.getValue().size());
+        assertEquals("p20240311", added.getValue().get(0).getName());
+        verify(operationLogMapper, never()).deleteBefore(any(), anyInt());
+    }
+
+    @Test
+    @DisplayName("后台清理: 立即返回，执行期间再次触发被跳过")
+    void testPurgeAsync() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(operationLogMapper.selectPartitions()).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return List.of();
+        });
+        when(operationLogMapper.deleteBefore(any(LocalDateTime.class), eq(100))).thenReturn(30);
+
+        assertTrue(retention.purgeOlderThanAsync(7));
+        assertEquals(true, retention.stats().get("running"));
+        assertFalse(retention.purgeOlderThanAsync(7));
+        release.countDown();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (retention.stats().get("running").equals(true) && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertEquals(30L, retention.getTotalDeletedRows());
+        assertEquals(1L, retention.stats().get("runCount"));
+    }
+
+    @Test
+    @DisplayName("保留天数必须大于0")
+    void testInvalidDays() {
+        assertThrows(IllegalArgumentException.class, () -> retention.purgeOlderThan(0));
+        assertThrows(IllegalArgumentException.class, () -> retention.purgeOlderThanAsync(0));
+        verify(operationLogMapper, never()).dropPartitions(anyList());
+    }
+}
@@ -0,0 +1,299 @@
+package org.mino.log;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mino.config.OperationLogJournalProperties;
+import org.mino.config.OperationLogProperties;
+import org.mino.config.OperationLogProperties.OverflowPolicy;
+import org.mino.mapper.OperationLogMapper;
+import org.mino.model.OperationLog;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.stubbing.Answer;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class OperationLogWriterTest {
+
+    @Mock
+    private OperationLogMapper operationLogMapper;
+
+    private OperationLogProperties properties;
+
+    private OperationLogWriter writer;
+
+    private OperationLogJournal journal;
+
+    @TempDir
+    Path journalDir;
+
+    @BeforeEach
+    void setUp() {
+        OperationLogJournalProperties journalProperties = new OperationLogJournalProperties();
+        journalProperties.setDir(journalDir.toString());
+        journalProperties.setSegmentSize(DataSize.ofKilobytes(64));
+        journalProperties.setRetryInterval(Duration.ZERO);
+        journal = new OperationLogJournal(journalProperties);
+        properties = new OperationLogProperties();
+        properties.setCapacity(8);
+        properties.setBatchSize(4);
+        properties.setFlushInterval(Duration.ofMillis(20));
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (writer != null) {
+            writer.stop();
+        }
+    }
+
+    private static OperationLog log(int i) {
+        return new OperationLog(1L, "op" + i, "GET /api/users", null, "127.0.0.1");
+    }
+
+    @Test
+    @DisplayName("submit: 后台线程按批写库，关闭时写完剩余日志")
+    void testBatchedWrite() {
+        List<Integer> batchSizes = new ArrayList<>();
+        when(operationLogMapper.insertBatch(anyList())).thenAnswer(invocation -> {
+            List<OperationLog> logs = invocation.getArgument(0);
+            synchronized (batchSizes) {
+                batchSizes.add(logs.size());
+            }
+            return logs.size();
+        });
+        properties.setCapacity(16);
+        writer = new OperationLogWriter(properties, operationLogMapper, journal);
+        writer.start();
+
+        for (int i = 0; i < 10; i++) {
+            assertTrue(writer.submit(log(i)));
+        }
+        writer.stop();
+
+        assertEquals(10, batchSizes.stream().mapToInt(Integer::intValue).sum());
+        assertTrue(batchSizes.stream().allMatch(size -> size <= 4));
+        assertEquals(10L, writer.stats().get("writtenCount"));
+        assertEquals(0, writer.stats().get("queueDepth"));
+    }
+
+    @Test
+    @DisplayName("DROP_OLDEST: 队满时丢弃最旧日志，调用方不等待")
+    void testDropOldest() throws Exception {
+        CountDownLatch release = blockWriter();
+        writer = new OperationLogWriter(properties, operationLogMapper, journal);
+        writer.start();
+
+        for (int i = 0; i < 20; i++) {
+            assertTrue(writer.submit(log(i)));
+        }
+        assertTrue((Long) writer.stats().get("droppedCount") > 0);
+        release.countDown();
+    }
+
+    @Test
+    @DisplayName("SAMPLE: 超过水位后按比例采样")
+    void testSample() throws Exception {
+        properties.setOverflowPolicy(OverflowPolicy.SAMPLE);
+        properties.setSampleThreshold(0.5);
+        properties.setSampleRate(2);
+        CountDownLatch release = blockWriter();
+        writer = new OperationLogWriter(properties, operationLogMapper, journal);
+        writer.start();
+
+        int accepted = 0;
+        for (int i = 0; i < 20; i++) {
+            if (writer.submit(log(i))) {
+                accepted++;
+            }
+        }
+        assertTrue(accepted < 20);
+        assertTrue((Long) writer.stats().get("sampledOutCount") > 0);
+        release.countDown();
+    }
+
+    @Test
+    @DisplayName("BLOCK: 队满超时后放弃并计入丢弃")
+    void testBlockTimeout() throws Exception {
+        properties.setOverflowPolicy(OverflowPolicy.BLOCK);
+        properties.setBlockTimeout(Duration.ofMillis(10));
+        CountDownLatch release = blockWriter();
+        writer = new OperationLogWriter(properties, operationLogMapper, journal);
+        writer.start();
+
+        int rejected = 0;
+        for (int i = 0; i < 20; i++) {
+            if (!writer.submit(log(i))) {
+                rejected++;
+            }
+        }
+        assertTrue(rejected > 0);
+        assertEquals((long) rejected, writer.stats().get("droppedCount"));
+        release.countDown();
+    }
+
+    @Test
+    @DisplayName("写库失败时落盘，数据库恢复后回放并删除段文件")
+    void testSpillAndReplay() throws Exception {
+        List<OperationLog> persisted = new ArrayList<>();
+        boolean[] down = {true};
+        when(operationLogMapper.insertBatch(anyList())).thenAnswer(invocation -> {
+            if (down[0]) {
+                throw new IllegalStateException("db down");
+            }
+            List<OperationLog> logs = invocation.getArgument(0);
+            synchronized (persisted) {
+                persisted.addAll(logs);
+            }
+            return logs.size();
+        });
+        properties.setCapacity(16);
+        writer = new OperationLogWriter(properties, operationLogMapper, journal);
+        writer.start();
+
+        for (int i = 0; i < 6; i++) {
+            assertTrue(writer.submit(log(i)));
+        }
+        long deadline = System.currentTimeMillis() + 5000;
+        while ((Long) writer.stats().get("spilledCount") < 6 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(6L, writer.stats().get("spilledCount"));
+        assertTrue(journal.hasPending());
+
+        down[0] = false;
+        writer.stop();
+        writer.start();
+        deadline = System.currentTimeMillis() + 5000;
+        while (journal.hasPending() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertFalse(journal.hasPending());
+        synchronized (persisted) {
+            assertEquals(6, persisted.size());
+            assertEquals("op0", persisted.get(0).getOperation());
+            assertEquals("op5", persisted.get(5).getOperation());
+        }
+        try (Stream<Path> files = Files.list(journalDir)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    @DisplayName("批次中某行超过 VARCHAR(50) 被拒绝时二分拆批，其余行写入，坏行丢弃且不落盘")
+    void testRejectedRowIsBisectedOut() throws Exception {
+        List<OperationLog> persisted = new ArrayList<>();
+        when(operationLogMapper.insertBatch(anyList())).thenAnswer(strictInsert(persisted, new boolean[]{false}));
+        writer = new OperationLogWriter(properties, operationLogMapper, journal);
+        writer.start();
+
+        for (int i = 0; i < 4; i++) {
+            OperationLog log = log(i);
+            if (i == 2) {
+                log.setIp("1".repeat(51));
+            }
+            assertTrue(writer.submit(log));
+        }
+        writer.stop();
+
+        assertEquals(List.of("op0", "op1", "op3"), persisted.stream().map(OperationLog::getOperation).toList());
+        assertEquals(3L, writer.stats().get("writtenCount"));
+        assertEquals(1L, writer.stats().get("rejectedCount"));
+        assertEquals(0L, writer.stats().get("spilledCount"));
+        assertFalse(journal.hasPending());
+    }
+
+    @Test
+    @DisplayName("回放落盘日志时遇到被拒绝的行：跳过坏行继续回放，之后的新日志直接写库")
+    void testReplaySkipsRejectedRow() throws Exception {
+        List<OperationLog> persisted = new ArrayList<>();
+        boolean[] down = {true};
+        when(operationLogMapper.insertBatch(anyList())).thenAnswer(strictInsert(persisted, down));
+        writer = new OperationLogWriter(properties, operationLogMapper, journal);
+        writer.start();
+
+        for (int i = 0; i < 4; i++) {
+            OperationLog log = log(i);
+            if (i == 1) {
+                log.setPath("/" + "p".repeat(300));
+            }
+            assertTrue(writer.submit(log));
+        }
+        long deadline = System.currentTimeMillis() + 5000;
+        while ((Long) writer.stats().get("spilledCount") < 4 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(4L, writer.stats().get("spilledCount"));
+
+        down[0] = false;
+        deadline = System.currentTimeMillis() + 5000;
+        while (journal.hasPending() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertFalse(journal.hasPending());
+        assertTrue(writer.submit(log(4)));
+        writer.stop();
+
+        synchronized (persisted) {
+            assertEquals(List.of("op0", "op2", "op3", "op4"),
+                    persisted.stream().map(OperationLog::getOperation).toList());
+        }
+        assertEquals(1L, writer.stats().get("rejectedCount"));
+        assertEquals(4L, writer.stats().get("writtenCount"));
+    }
+
+    /**
+     * 模拟 MySQL 严格模式：整批中任一行 ip 超过 50 或 path 超过 200 个字符时整条 INSERT 失败
+     */
+    private static Answer<Integer> strictInsert(List<OperationLog> persisted, boolean[] down) {
+        return invocation -> {
+            if (down[0]) {
+                throw new DataAccessResourceFailureException("db down");
+            }
+            List<OperationLog> logs = invocation.getArgument(0);
+            for (OperationLog log : logs) {
+                if ((log.getIp() != null && log.getIp().length() > 50)
+                        || (log.getPath() != null && log.getPath().length() > 200)) {
+                    throw new DataIntegrityViolationException("Data too long for column",
+                            new SQLException("Data truncation: Data too long for column", "22001", 1406));
+                }
+            }
+            synchronized (persisted) {
+                persisted.addAll(logs);
+            }
+            return logs.size();
+        };
+    }
+
+    /**
+     * 让写库卡住，使队列能够被写满
+     */
+    private CountDownLatch blockWriter() {
+        CountDownLatch release = new CountDownLatch(1);
+        when(operationLogMapper.insertBatch(anyList())).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return 0;
+        });
+        return release;
+    }
+}
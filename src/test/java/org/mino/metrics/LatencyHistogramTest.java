@@ -0,0 +1,100 @@
+package org.mino.metrics;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyHistogramTest {
+
+    @Test
+    @DisplayName("分桶：下标单调且桶上界覆盖桶内所有值，相对误差不超过 1/32")
+    void testBuckets() {
+        int previous = -1;
+        for (long value = 0; value < 1_000_000; value += 7) {
+            int index = LatencyHistogram.bucketIndex(value);
+            assertTrue(index >= previous);
+            long highest = LatencyHistogram.highestValue(index);
+            assertTrue(highest >= value);
+            assertTrue(highest - value <= Math.max(1, value / 32));
+            previous = index;
+        }
+        assertEquals(LatencyHistogram.BUCKET_COUNT - 1, LatencyHistogram.bucketIndex(Long.MAX_VALUE));
+    }
+
+    @Test
+    @DisplayName("分位数：1..10000 微秒均匀分布")
+    void testQuantiles() {
+        LatencyHistogram histogram = new LatencyHistogram(6, 10000);
+        for (long i = 1; i <= 10000; i++) {
+            histogram.record(i * 1000);
+        }
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals(10000, snapshot.getCount());
+        assertEquals(10_000_000, snapshot.getMax());
+        assertEquals(5_000_000, snapshot.getValueAtQuantile(0.5), 5_000_000 / 32.0);
+        assertEquals(9_900_000, snapshot.getValueAtQuantile(0.99), 9_900_000 / 32.0);
+        assertEquals(9_990_000, snapshot.getValueAtQuantile(0.999), 9_990_000 / 32.0);
+        assertEquals(5_000_500, snapshot.getMean(), 1);
+        assertTrue(snapshot.getThroughput() > 0);
+    }
+
+    @Test
+    @DisplayName("滚动窗口：旋转 slots 次后旧数据移出窗口，累计计数保留")
+    void testRotation() {
+        LatencyHistogram histogram = new LatencyHistogram(3, 10000);
+        histogram.record(1_000_000);
+        histogram.rotate();
+        histogram.record(2_000_000);
+        assertEquals(2, histogram.snapshot().getCount());
+
+        histogram.rotate();
+        histogram.rotate();
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals(1, snapshot.getCount());
+        assertEquals(2_000_000, snapshot.getMax());
+
+        histogram.rotate();
+        snapshot = histogram.snapshot();
+        assertEquals(0, snapshot.getCount());
+        assertEquals(0, snapshot.getValueAtQuantile(0.99));
+        assertEquals(2, snapshot.getTotalCount());
+        assertEquals(3_000_000, snapshot.getTotalSum());
+    }
+
+    @Test
+    @DisplayName("并发记录不丢失计数")
+    void testConcurrentRecord() throws Exception {
+        LatencyHistogram histogram = new LatencyHistogram(6, 10000);
+        int threads = 4;
+        int perThread = 20000;
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            Thread worker = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (int i = 0; i < perThread; i++) {
+                    histogram.record(i);
+                }
+            });
+            worker.start();
+            workers.add(worker);
+        }
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals((long) threads * perThread, snapshot.getCount());
+        assertEquals(perThread - 1, snapshot.getMax());
+    }
+}
@@ -0,0 +1,70 @@
+package org.mino.metrics;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mino.config.SqlBudgetProperties;
+
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SqlBudgetMonitorTest {
+
+    @SuppressWarnings("unused")
+    static class Handlers {
+
+        void cheap() {
+        }
+
+        void chatty() {
+        }
+    }
+
+    private static SqlBudget.Usage usage(int statements, int connections) {
+        try (SqlBudget.Usage usage = SqlBudget.begin()) {
+            for (int i = 0; i < statements; i++) {
+                SqlBudget.recordStatement(1000);
+            }
+            for (int i = 0; i < connections; i++) {
+                SqlBudget.recordConnection();
+            }
+            return usage;
+        }
+    }
+
+    @Test
+    @DisplayName("超出语句数或连接数预算的请求计为违规，按接口列出")
+    @SuppressWarnings("unchecked")
+    void testOffenders() throws Exception {
+        SqlBudgetProperties properties = new SqlBudgetProperties();
+        properties.setMaxStatements(3);
+        properties.setMaxConnections(1);
+        SqlBudgetMonitor monitor = new SqlBudgetMonitor(properties);
+        Method cheap = Handlers.class.getDeclaredMethod("cheap");
+        Method chatty = Handlers.class.getDeclaredMethod("chatty");
+
+        assertFalse(monitor.record(cheap, "GET", "/api/cheap", usage(1, 1)));
+        assertTrue(monitor.record(chatty, "POST", "/api/chatty", usage(4, 1)));
+        assertTrue(monitor.record(chatty, "POST", "/api/chatty", usage(2, 2)));
+
+        Map<String, Object> stats = monitor.stats();
+        List<Map<String, Object>> offenders = (List<Map<String, Object>>) stats.get("offenders");
+        assertEquals(1, offenders.size());
+        Map<String, Object> offender = offenders.get(0);
+        assertEquals("Handlers.chatty", offender.get("endpoint"));
+        assertEquals(2L, offender.get("violations"));
+        assertEquals(4L, offender.get("maxStatements"));
+        assertEquals(3.0, offender.get("avgStatements"));
+        assertEquals(2, ((List<?>) stats.get("endpoints")).size());
+    }
+
+    @Test
+    @DisplayName("没有开启计数时记录语句不产生影响")
+    void testNoActiveUsage() {
+        SqlBudget.recordStatement(1000);
+        SqlBudget.recordConnection();
+        assertNull(SqlBudget.current());
+    }
+}
@@ -0,0 +1,136 @@
+package org.mino.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mino.config.OperationLogJournalProperties;
+import org.mino.config.OperationLogProperties;
+import org.mino.config.OperationLogRetentionProperties;
+import org.mino.log.OperationLogCounter;
+import org.mino.log.OperationLogJournal;
+import org.mino.log.OperationLogRetention;
+import org.mino.log.OperationLogWriter;
+import org.mino.mapper.OperationLogMapper;
+import org.mino.model.CursorPage;
+import org.mino.model.OperationLog;
+import org.mino.service.impl.LogServiceImpl;
+import org.mino.util.CursorCodec;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class LogServiceImplTest {
+
+    private static final LocalDateTime TIME = LocalDateTime.of(2024, 1, 1, 12, 0, 0);
+
+    @Mock
+    private OperationLogMapper operationLogMapper;
+
+    private LogServiceImpl logService;
+
+    private OperationLogCounter counter;
+
+    @BeforeEach
+    void setUp() {
+        OperationLogJournalProperties journalProperties = new OperationLogJournalProperties();
+        journalProperties.setEnabled(false);
+        OperationLogWriter writer = new OperationLogWriter(new OperationLogProperties(), operationLogMapper,
+                new OperationLogJournal(journalProperties));
+        OperationLogRetention retention = new OperationLogRetention(operationLogMapper,
+                new OperationLogRetentionProperties());
+        counter = new OperationLogCounter(operationLogMapper, writer, retention);
+        logService = new LogServiceImpl(operationLogMapper, writer, retention, counter);
+    }
+
+    private static List<OperationLog> logs(long fromId, int count) {
+        List<OperationLog> logs = new ArrayList<>();
+        for (long id = fromId; id > fromId - count; id--) {
+            OperationLog log = new OperationLog(7L, "getUserById", "GET", null, "127.0.0.1");
+            log.setId(id);
+            log.setCreateTime(TIME);
+            logs.add(log);
+        }
+        return logs;
+    }
+
+    @Test
+    @DisplayName("getOperationLogsByCursor: 按 (create_time, id) 游标翻页")
+    void testGetOperationLogsByCursor() {
+        when(operationLogMapper.selectByCursor(null, null, 3)).thenReturn(logs(10, 3));
+
+        CursorPage<OperationLog> first = logService.getOperationLogsByCursor(null, 2);
+        assertEquals(2, first.getItems().size());
+        assertTrue(first.isHasMore());
+
+        CursorCodec.Position position = CursorCodec.decode(first.getNextCursor());
+        assertEquals(TIME, position.getCreateTime());
+        assertEquals(9L, position.getId());
+
+        when(operationLogMapper.selectByCursor(TIME, 9L, 3)).thenReturn(logs(8, 1));
+        CursorPage<OperationLog> second = logService.getOperationLogsByCursor(first.getNextCursor(), 2);
+        assertEquals(1, second.getItems().size());
+        assertFalse(second.isHasMore());
+        assertNull(second.getNextCursor());
+    }
+
+    @Test
+    @DisplayName("getOperationLogsByUserId: 按用户游标分页，列表接口只取最近一页")
+    void testGetOperationLogsByUserId() {
+        when(operationLogMapper.selectByUserCursor(7L, null, null, 101)).thenReturn(logs(5, 5));
+        assertEquals(5, logService.getOperationLogsByUserId(7L).size());
+
+        assertThrows(IllegalArgumentException.class, () -> logService.getOperationLogsByUserId(null, null, 10));
+    }
+
+    @Test
+    @DisplayName("getOperationLogsByPage: 页码换算为偏移量，非法参数拒绝")
+    void testGetOperationLogsByPage() {
+        when(operationLogMapper.selectByPage(40, 20)).thenReturn(logs(60, 20));
+        assertEquals(20, logService.getOperationLogsByPage(3, 20).size());
+
+        assertThrows(IllegalArgumentException.class, () -> logService.getOperationLogsByPage(0, 20));
+        assertThrows(IllegalArgumentException.class, () -> logService.getOperationLogsByPage(1, 101));
+        verify(operationLogMapper, times(1)).selectByPage(anyInt(), anyInt());
+    }
+
+    @Test
+    @DisplayName("getOperationLogsCount: 以 ANALYZE 后的统计信息为基线，之后不再重读统计信息，不执行 COUNT(*)")
+    void testGetOperationLogsCount() {
+        when(operationLogMapper.selectApproximateCount()).thenReturn(12345L, 99L);
+        counter.loadBaseline();
+        counter.loadBaseline();
+        assertEquals(12345L, logService.getOperationLogsCount());
+        assertEquals(12345L, logService.getOperationLogsCount());
+        InOrder inOrder = inOrder(operationLogMapper);
+        inOrder.verify(operationLogMapper).analyzeTable();
+        inOrder.verify(operationLogMapper).selectApproximateCount();
+        verify(operationLogMapper, times(1)).selectApproximateCount();
+    }
+
+    @Test
+    @DisplayName("getOperationLogsCount: 基线加载失败时不在调用线程上重试，返回null，后台按退避时间重试")
+    void testGetOperationLogsCountWithoutBaseline() {
+        doThrow(new IllegalStateException("db down")).when(operationLogMapper).analyzeTable();
+        counter.loadBaseline();
+        assertNull(logService.getOperationLogsCount());
+        assertNull(logService.getOperationLogsCount());
+        // 退避时间内的调度不再尝试
+        counter.loadBaseline();
+        verify(operationLogMapper, times(1)).analyzeTable();
+        assertEquals(false, counter.stats().get("baselineLoaded"));
+    }
+}
@@ -4,20 +4,38 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mino.cache.UserBatchLoader;
+import org.mino.cache.UserCache;
+import org.mino.cache.UserUniquenessIndex;
+import org.mino.config.UserCacheProperties;
+import org.mino.config.UserIndexProperties;
+import org.mino.config.UserLoaderProperties;
+import org.mino.config.UserProperties;
 import org.mino.mapper.UserMapper;
+import org.mino.model.BatchItemResult;
+import org.mino.model.CursorPage;
 import org.mino.model.User;
 import org.mino.service.impl.UserServiceImpl;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -27,18 +45,30 @@ class UserServiceImplTest {
     @Mock
     private UserMapper userMapper;
 
-    @InjectMocks
     private UserServiceImpl userService;
 
+    private UserUniquenessIndex userUniquenessIndex;
+
     private User sample;
 
     @BeforeEach
     void setUp() {
+        userUniquenessIndex = new UserUniquenessIndex(new UserIndexProperties(), userMapper);
+        userService = createService(false);
         sample = new User(1L, "alice", "alice@example.com", "13000000000");
         sample.setCreateTime(LocalDateTime.now());
         sample.setUpdateTime(LocalDateTime.now());
     }
 
+    private UserServiceImpl createService(boolean insertFirst) {
+        UserLoaderProperties loaderProperties = new UserLoaderProperties();
+        loaderProperties.setEnabled(false);
+        UserProperties userProperties = new UserProperties();
+        userProperties.setInsertFirst(insertFirst);
+        return new UserServiceImpl(userMapper, new UserCache(new UserCacheProperties()), userUniquenessIndex,
+                new UserBatchLoader(loaderProperties, userMapper, mock(PlatformTransactionManager.class)), userProperties);
+    }
+
     @Test
     @DisplayName("createUser: 正常创建")
     void testCreateUser() {
@@ -59,6 +89,67 @@ class UserServiceImplTest {
         assertThrows(RuntimeException.class, () -> userService.createUser(new User(null, "alice", "a@a.com", "1")));
     }
 
+    @Test
+    @DisplayName("createUser: 插入优先模式只执行一次插入")
+    void testCreateUserInsertFirst() {
+        UserServiceImpl service = createService(true);
+        when(userMapper.insert(any(User.class))).thenReturn(1);
+
+        User created = service.createUser(new User(null, "alice", "alice@example.com", "13000000000"));
+        assertEquals("alice", created.getUsername());
+        verify(userMapper, never()).countByUsername(anyString());
+        verify(userMapper, never()).countByEmail(anyString());
+    }
+
+    @Test
+    @DisplayName("createUser: 插入优先模式按约束名翻译唯一键冲突")
+    void testCreateUserInsertFirstConflict() {
+        UserServiceImpl service = createService(true);
+        when(userMapper.insert(any(User.class)))
+                .thenThrow(new DuplicateKeyException("Duplicate entry 'alice' for key 'user.uk_username'"))
+                .thenThrow(new DuplicateKeyException("Duplicate entry 'uk_username@x.com' for key 'user.uk_email'"));
+
+        RuntimeException usernameConflict = assertThrows(RuntimeException.class,
+                () -> service.createUser(new User(null, "alice", "alice@example.com", "1")));
+        assertEquals("用户名已存在", usernameConflict.getMessage());
+        RuntimeException emailConflict = assertThrows(RuntimeException.class,
+                () -> service.createUser(new User(null, "bob", "uk_username@x.com", "1")));
+        assertEquals("邮箱已存在", emailConflict.getMessage());
+    }
+
+    @Test
+    @DisplayName("createUsers: 批量创建，逐项返回结果")
+    void testCreateUsers() {
+        when(userMapper.selectExistingUsernames(anyList())).thenReturn(List.of("Alice"));
+        when(userMapper.selectExistingEmails(anyList())).thenReturn(Collections.emptyList());
+        when(userMapper.insertBatch(anyList())).thenAnswer(invocation -> {
+            List<User> rows = invocation.getArgument(0);
+            long id = 10;
+            for (User row : rows) {
+                row.setId(id++);
+            }
+            return rows.size();
+        });
+
+        List<BatchItemResult<User>> results = userService.createUsers(List.of(
+                new User(null, "alice", "a1@example.com", "1"),
+                new User(null, "bob", "bob@example.com", "2"),
+                new User(null, "carol", "BOB@example.com", "3"),
+                new User(null, "dave", null, "4"),
+                new User(null, "erin", "erin@example.com", "5")));
+
+        assertEquals(5, results.size());
+        assertEquals("用户名已存在", results.get(0).getMessage());
+        assertTrue(results.get(1).isSuccess());
+        assertEquals(10L, results.get(1).getData().getId());
+        assertEquals("邮箱已存在", results.get(2).getMessage());
+        assertFalse(results.get(3).isSuccess());
+        assertTrue(results.get(4).isSuccess());
+        assertEquals(11L, results.get(4).getData().getId());
+        verify(userMapper, times(1)).insertBatch(anyList());
+        verify(userMapper, never()).insert(any(User.class));
+    }
+
     @Test
     @DisplayName("findById: 查询存在用户")
     void testFindById() {
@@ -68,6 +159,61 @@ class UserServiceImplTest {
         assertEquals("alice", res.get().getUsername());
     }
 
+    @Test
+    @DisplayName("findById: 缓存命中不再查询数据库")
+    void testFindByIdCached() {
+        when(userMapper.selectById(1L)).thenReturn(sample);
+        userService.findById(1L);
+        Optional<User> res = userService.findByUsername("alice");
+        assertTrue(res.isPresent());
+        assertEquals(1L, res.get().getId());
+        verify(userMapper, times(1)).selectById(1L);
+    }
+
+    @Test
+    @DisplayName("findVersionById / findVersionByUsername: 缓存命中读缓存，未命中只查版本号")
+    void testFindVersion() {
+        when(userMapper.selectVersionById(1L)).thenReturn(4);
+        assertEquals(Optional.of(4), userService.findVersionById(1L));
+        verify(userMapper, never()).selectById(1L);
+
+        sample.setVersion(5);
+        when(userMapper.selectById(1L)).thenReturn(sample);
+        userService.findById(1L);
+        assertEquals(Optional.of(5), userService.findVersionById(1L));
+        assertEquals(5, userService.findVersionByUsername("alice").orElseThrow().getVersion());
+        verify(userMapper, times(1)).selectVersionById(1L);
+        verify(userMapper, never()).selectVersionByUsername("alice");
+
+        when(userMapper.selectVersionByUsername("bob")).thenReturn(null);
+        assertTrue(userService.findVersionByUsername("bob").isEmpty());
+        assertTrue(userService.findVersionById(null).isEmpty());
+    }
+
+    @Test
+    @DisplayName("deleteUser: 删除后缓存失效")
+    void testDeleteUserEvictsCache() {
+        when(userMapper.selectById(1L)).thenReturn(sample, (User) null);
+        when(userMapper.deleteById(1L)).thenReturn(1);
+        assertTrue(userService.findById(1L).isPresent());
+        assertTrue(userService.deleteUser(1L));
+        assertFalse(userService.findById(1L).isPresent());
+    }
+
+    @Test
+    @DisplayName("findByIds: 缓存命中部分不再查询，结果按入参顺序")
+    void testFindByIds() {
+        when(userMapper.selectById(1L)).thenReturn(sample);
+        userService.findById(1L);
+
+        User bob = new User(2L, "bob", "bob@example.com", "2");
+        when(userMapper.selectByIds(List.of(2L, 3L))).thenReturn(List.of(bob));
+        List<User> users = userService.findByIds(List.of(2L, 1L, 3L, 2L));
+        assertEquals(2, users.size());
+        assertEquals("bob", users.get(0).getUsername());
+        assertEquals("alice", users.get(1).getUsername());
+    }
+
     @Test
     @DisplayName("findAllUsers: 返回用户列表")
     void testFindAllUsers() {
@@ -76,18 +222,100 @@ class UserServiceImplTest {
         assertEquals(1, list.size());
     }
 
+    @Test
+    @DisplayName("findUsersByCursor: 按游标翻页")
+    void testFindUsersByCursor() {
+        LocalDateTime time = LocalDateTime.of(2024, 1, 1, 12, 0, 0);
+        List<User> rows = new ArrayList<>();
+        for (long id = 3; id >= 1; id--) {
+            User u = new User(id, "u" + id, "u" + id + "@example.com", "1");
+            u.setCreateTime(time);
+            rows.add(u);
+        }
+        when(userMapper.selectByCursor(null, null, 3)).thenReturn(rows);
+
+        CursorPage<User> first = userService.findUsersByCursor(null, 2);
+        assertEquals(2, first.getItems().size());
+        assertTrue(first.isHasMore());
+        assertNotNull(first.getNextCursor());
+
+        when(userMapper.selectByCursor(eq(time), eq(2L), eq(3))).thenReturn(rows.subList(2, 3));
+        CursorPage<User> second = userService.findUsersByCursor(first.getNextCursor(), 2);
+        assertEquals(1, second.getItems().size());
+        assertFalse(second.isHasMore());
+        assertNull(second.getNextCursor());
+    }
+
+    @Test
+    @DisplayName("findUsersByCursor: 非法游标")
+    void testFindUsersByInvalidCursor() {
+        assertThrows(IllegalArgumentException.class, () -> userService.findUsersByCursor("not-a-cursor", 10));
+        assertThrows(IllegalArgumentException.class, () -> userService.findUsersByCursor(null, 0));
+    }
+
     @Test
     @DisplayName("updateUser: 正常更新")
     void testUpdateUser() {
-        when(userMapper.selectById(1L)).thenReturn(sample);
         when(userMapper.update(any(User.class))).thenReturn(1);
 
         User toUpdate = new User(1L, "alice", "alice@example.com", "13999999999");
+        toUpdate.setVersion(0);
         User updated = userService.updateUser(toUpdate);
         assertEquals("13999999999", updated.getPhone());
+        assertEquals(1, updated.getVersion());
         verify(userMapper).update(any(User.class));
     }
 
+    @Test
+    @DisplayName("updateUser: 未携带版本号时拒绝无条件覆盖")
+    void testUpdateUserWithoutVersion() {
+        assertThrows(IllegalArgumentException.class,
+                () -> userService.updateUser(new User(1L, "alice", "alice@example.com", "1")));
+        verify(userMapper, never()).update(any(User.class));
+    }
+
+    @Test
+    @DisplayName("updateUser: 版本号不一致时抛出乐观锁异常")
+    void testUpdateUserVersionConflict() {
+        when(userMapper.update(any(User.class))).thenReturn(0);
+        when(userMapper.selectVersionById(1L)).thenReturn(3);
+
+        User toUpdate = new User(1L, "alice", "alice@example.com", "13999999999");
+        toUpdate.setVersion(2);
+        assertThrows(OptimisticLockingFailureException.class, () -> userService.updateUser(toUpdate));
+    }
+
+    @Test
+    @DisplayName("updateUser: 用户不存在")
+    void testUpdateUserNotFound() {
+        when(userMapper.update(any(User.class))).thenReturn(0);
+        when(userMapper.selectVersionById(1L)).thenReturn(null);
+
+        User toUpdate = new User(1L, "alice", "alice@example.com", "1");
+        toUpdate.setVersion(0);
+        RuntimeException e = assertThrows(RuntimeException.class, () -> userService.updateUser(toUpdate));
+        assertEquals("用户不存在", e.getMessage());
+    }
+
+    @Test
+    @DisplayName("patchUser: 只更新非空字段并递增版本号")
+    void testPatchUser() {
+        when(userMapper.updateSelective(any(User.class))).thenReturn(1);
+
+        User patch = new User();
+        patch.setId(1L);
+        patch.setPhone("13999999999");
+        patch.setVersion(5);
+        User patched = userService.patchUser(patch);
+        assertEquals(6, patched.getVersion());
+        verify(userMapper).updateSelective(patch);
+        verify(userMapper, never()).update(any(User.class));
+
+        User empty = new User();
+        empty.setId(1L);
+        assertThrows(IllegalArgumentException.class, () -> userService.patchUser(empty));
+    }
+
     @Test
     @DisplayName("deleteUser: 正常删除")
     void testDeleteUser() {
@@ -101,4 +329,46 @@ class UserServiceImplTest {
         when(userMapper.countByUsername("alice")).thenReturn(1);
         assertTrue(userService.existsByUsername("alice"));
     }
+
+    @Test
+    @DisplayName("existsByUsername: 索引判定不存在时仍查询数据库，其他实例写入的用户名不会被漏判")
+    void testExistsByUsernameIndexMiss() {
+        userUniquenessIndex.load();
+        userUniquenessIndex.add(sample);
+        when(userMapper.countByUsername("bob")).thenReturn(1);
+        assertTrue(userService.existsByUsername("bob"));
+    }
+
+    @Test
+    @DisplayName("existsByUsername: 权威模式下索引判定不存在时不查询数据库，可能存在时仍以数据库为准")
+    void testExistsByUsernameAuthoritative() {
+        UserIndexProperties properties = new UserIndexProperties();
+        properties.setAuthoritative(true);
+        userUniquenessIndex = new UserUniquenessIndex(properties, userMapper);
+        userService = createService(true);
+        assertFalse(userUniquenessIndex.isAuthoritative());
+
+        userUniquenessIndex.load();
+        assertTrue(userUniquenessIndex.isAuthoritative());
+        userUniquenessIndex.add(sample);
+        assertFalse(userService.existsByUsername("bob"));
+        verify(userMapper, never()).countByUsername("bob");
+
+        when(userMapper.countByUsername("alice")).thenReturn(1);
+        assertTrue(userService.existsByUsername("alice"));
+    }
+
+    @Test
+    @DisplayName("createUser: 索引判定不存在时跳过预检查，冲突由唯一约束判定")
+    void testCreateUserIndexMiss() {
+        userUniquenessIndex.load();
+        when(userMapper.insert(any(User.class)))
+                .thenThrow(new DuplicateKeyException("Duplicate entry 'bob' for key 'user.uk_username'"));
+
+        RuntimeException conflict = assertThrows(RuntimeException.class,
+                () -> userService.createUser(new User(null, "bob", "bob@example.com", "1")));
+        assertEquals("用户名已存在", conflict.getMessage());
+        verify(userMapper, never()).countByUsername(anyString());
+        verify(userMapper, never()).countByEmail(anyString());
+    }
 }
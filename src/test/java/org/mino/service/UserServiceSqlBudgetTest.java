@@ -0,0 +1,175 @@
+package org.mino.service;
+
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mino.cache.UserBatchLoader;
+import org.mino.cache.UserCache;
+import org.mino.cache.UserUniquenessIndex;
+import org.mino.config.MetricsProperties;
+import org.mino.config.UserCacheProperties;
+import org.mino.config.UserIndexProperties;
+import org.mino.config.UserLoaderProperties;
+import org.mino.config.UserProperties;
+import org.mino.datasource.SqlBudgetDataSource;
+import org.mino.interceptor.StatementMetricsInterceptor;
+import org.mino.mapper.UserMapper;
+import org.mino.metrics.SqlBudget;
+import org.mino.metrics.StatementMetrics;
+import org.mino.model.User;
+import org.mino.service.impl.UserServiceImpl;
+import org.mybatis.spring.SqlSessionFactoryBean;
+import org.mybatis.spring.mapper.MapperFactoryBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.EnableTransactionManagement;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 用户服务的SQL往返预算回归测试：真实的 UserMapper.xml + H2，断言每个操作的语句数和借出连接数
+ */
+@SpringJUnitConfig(UserServiceSqlBudgetTest.Config.class)
+class UserServiceSqlBudgetTest {
+
+    @Configuration
+    @EnableTransactionManagement
+    static class Config {
+
+        @Bean
+        DataSource dataSource() {
+            DataSource target = new DriverManagerDataSource(
+                    "jdbc:h2:mem:sql-budget;MODE=MySQL;NON_KEYWORDS=USER;DB_CLOSE_DELAY=-1");
+            new ResourceDatabasePopulator(new ByteArrayResource((
+                    "CREATE TABLE IF NOT EXISTS user (id BIGINT AUTO_INCREMENT PRIMARY KEY, "
+                            + "username VARCHAR(50) NOT NULL UNIQUE, email VARCHAR(100) NOT NULL UNIQUE, "
+                            + "phone VARCHAR(20), create_time DATETIME, update_time DATETIME, "
+                            + "version INT NOT NULL DEFAULT 0)").getBytes(StandardCharsets.UTF_8)))
+                    .execute(target);
+            return new SqlBudgetDataSource(target);
+        }
+
+        @Bean
+        PlatformTransactionManager transactionManager(DataSource dataSource) {
+            return new DataSourceTransactionManager(dataSource);
+        }
+
+        @Bean
+        SqlSessionFactory sqlSessionFactory(DataSource dataSource) throws Exception {
+            SqlSessionFactoryBean factory = new SqlSessionFactoryBean();
+            factory.setDataSource(dataSource);
+            factory.setMapperLocations(new ClassPathResource("mapper/UserMapper.xml"));
+            factory.setPlugins(new Interceptor[]{
+                    new StatementMetricsInterceptor(new StatementMetrics(new MetricsProperties()))});
+            org.apache.ibatis.session.Configuration configuration = new org.apache.ibatis.session.Configuration();
+            configuration.setMapUnderscoreToCamelCase(true);
+            factory.setConfiguration(configuration);
+            return factory.getObject();
+        }
+
+        @Bean
+        MapperFactoryBean<UserMapper> userMapper(SqlSessionFactory sqlSessionFactory) {
+            MapperFactoryBean<UserMapper> factory = new MapperFactoryBean<>(UserMapper.class);
+            factory.setSqlSessionFactory(sqlSessionFactory);
+            return factory;
+        }
+
+        @Bean
+        UserService userService(UserMapper userMapper, PlatformTransactionManager transactionManager) {
+            // 关闭请求合并，findById 在调用线程上查询
+            UserLoaderProperties loaderProperties = new UserLoaderProperties();
+            loaderProperties.setEnabled(false);
+            return new UserServiceImpl(userMapper, new UserCache(new UserCacheProperties()),
+                    new UserUniquenessIndex(new UserIndexProperties(), userMapper),
+                    new UserBatchLoader(loaderProperties, userMapper, transactionManager), new UserProperties());
+        }
+    }
+
+    @Autowired
+    private UserService userService;
+
+    private User newUser(String name) {
+        return new User(null, name, name + "@example.com", "13800000000");
+    }
+
+    @Test
+    @DisplayName("POST /api/users：创建用户 1 条语句、1 个连接")
+    void testCreateUserBudget() {
+        try (SqlBudget.Usage usage = SqlBudget.begin()) {
+            userService.createUser(newUser("budget-create"));
+            assertTrue(usage.getStatements() <= 1, "statements: " + usage.getStatements());
+            assertTrue(usage.getConnections() <= 1, "connections: " + usage.getConnections());
+        }
+    }
+
+    @Test
+    @DisplayName("PUT /api/users/{id}：更新用户 1 条语句、1 个连接")
+    void testUpdateUserBudget() {
+        User user = userService.createUser(newUser("budget-update"));
+        user.setPhone("13900000000");
+        try (SqlBudget.Usage usage = SqlBudget.begin()) {
+            userService.updateUser(user);
+            assertTrue(usage.getStatements() <= 1, "statements: " + usage.getStatements());
+            assertTrue(usage.getConnections() <= 1, "connections: " + usage.getConnections());
+        }
+    }
+
+    @Test
+    @DisplayName("GET /api/users/{id}：首次查询 1 条语句，缓存命中后不访问数据库")
+    void testFindByIdBudget() {
+        User user = userService.createUser(newUser("budget-find"));
+        try (SqlBudget.Usage usage = SqlBudget.begin()) {
+            assertTrue(userService.findById(user.getId()).isPresent());
+            assertEquals(1, usage.getStatements());
+        }
+        try (SqlBudget.Usage usage = SqlBudget.begin()) {
+            assertTrue(userService.findById(user.getId()).isPresent());
+            assertEquals(0, usage.getStatements());
+            assertEquals(0, usage.getConnections());
+        }
+    }
+
+    @Test
+    @DisplayName("条件GET校验：版本号查询 1 条语句，缓存命中后不访问数据库")
+    void testFindVersionBudget() {
+        User user = userService.createUser(newUser("budget-etag"));
+        try (SqlBudget.Usage usage = SqlBudget.begin()) {
+            assertEquals(0, userService.findVersionById(user.getId()).orElseThrow());
+            assertEquals(user.getId(), userService.findVersionByUsername("budget-etag").orElseThrow().getId());
+            assertEquals(2, usage.getStatements());
+        }
+        userService.findById(user.getId());
+        try (SqlBudget.Usage usage = SqlBudget.begin()) {
+            assertEquals(0, userService.findVersionById(user.getId()).orElseThrow());
+            assertEquals(0, userService.findVersionByUsername("budget-etag").orElseThrow().getVersion());
+            assertEquals(0, usage.getStatements());
+        }
+    }
+
+    @Test
+    @DisplayName("嵌套计数：内层结果累加到外层")
+    void testNestedUsage() {
+        try (SqlBudget.Usage outer = SqlBudget.begin()) {
+            userService.createUser(newUser("budget-outer"));
+            try (SqlBudget.Usage inner = SqlBudget.begin()) {
+                userService.createUser(newUser("budget-inner"));
+                assertEquals(1, inner.getStatements());
+            }
+            assertEquals(2, outer.getStatements());
+            assertTrue(outer.getDbNanos() > 0);
+        }
+        assertNull(SqlBudget.current());
+    }
+}
@@ -0,0 +1,80 @@
+package org.mino.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoundedRingBufferTest {
+
+    @Test
+    @DisplayName("容量取整为2的幂，队满时 offer 返回 false，先进先出")
+    void testOfferAndPoll() {
+        BoundedRingBuffer<Integer> buffer = new BoundedRingBuffer<>(3);
+        assertEquals(4, buffer.capacity());
+        for (int i = 0; i < 4; i++) {
+            assertTrue(buffer.offer(i));
+        }
+        assertFalse(buffer.offer(4));
+        assertEquals(4, buffer.size());
+
+        assertEquals(0, buffer.poll());
+        assertTrue(buffer.offer(4));
+        List<Integer> drained = new ArrayList<>();
+        assertEquals(4, buffer.drainTo(drained, 10));
+        assertEquals(List.of(1, 2, 3, 4), drained);
+        assertNull(buffer.poll());
+        assertTrue(buffer.isEmpty());
+    }
+
+    @Test
+    @DisplayName("多生产者多消费者并发下元素不丢不重")
+    void testConcurrent() throws Exception {
+        BoundedRingBuffer<Integer> buffer = new BoundedRingBuffer<>(64);
+        int producers = 4;
+        int perProducer = 5_000;
+        Set<Integer> received = ConcurrentHashMap.newKeySet();
+        AtomicInteger consumed = new AtomicInteger();
+        CountDownLatch producersDone = new CountDownLatch(producers);
+        ExecutorService executor = Executors.newFixedThreadPool(producers + 2);
+
+        for (int p = 0; p < producers; p++) {
+            int base = p * perProducer;
+            executor.execute(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    while (!buffer.offer(base + i)) {
+                        Thread.yield();
+                    }
+                }
+                producersDone.countDown();
+            });
+        }
+        for (int c = 0; c < 2; c++) {
+            executor.execute(() -> {
+                while (consumed.get() < producers * perProducer) {
+                    Integer value = buffer.poll();
+                    if (value != null) {
+                        assertTrue(received.add(value));
+                        consumed.incrementAndGet();
+                    } else {
+                        Thread.yield();
+                    }
+                }
+            });
+        }
+        assertTrue(producersDone.await(30, TimeUnit.SECONDS));
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+        assertEquals(producers * perProducer, received.size());
+    }
+}
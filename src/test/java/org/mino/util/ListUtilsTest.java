@@ -3,11 +3,18 @@ package org.mino.util;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.stream.Collectors;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 class ListUtilsTest {
 
@@ -54,4 +61,112 @@ class ListUtilsTest {
         assertEquals(Collections.emptyList(), ListUtils.difference(null, List.of(1)));
         assertEquals(Collections.singletonList(1), ListUtils.union(List.of(1), null));
     }
+
+    @Test
+    @DisplayName("long[] 版本：结果和顺序与集合版本一致")
+    void testLongArrayMatchesBoxed() {
+        Random random = new Random(11);
+        for (int round = 0; round < 50; round++) {
+            long[] a = randomArray(random, random.nextInt(200));
+            long[] b = randomArray(random, random.nextInt(200));
+            List<Long> boxedA = box(a);
+            List<Long> boxedB = box(b);
+            assertEquals(ListUtils.intersection(boxedA, boxedB), box(ListUtils.intersectionLongs(a, b)));
+            assertEquals(ListUtils.union(boxedA, boxedB), box(ListUtils.unionLongs(a, b)));
+            assertEquals(ListUtils.difference(boxedA, boxedB), box(ListUtils.differenceLongs(a, b)));
+        }
+    }
+
+    @Test
+    @DisplayName("long[] 有序归并版本与哈希版本结果一致")
+    void testSortedMatchesHashed() {
+        Random random = new Random(13);
+        for (int round = 0; round < 50; round++) {
+            long[] a = randomArray(random, random.nextInt(200));
+            long[] b = randomArray(random, random.nextInt(200));
+            Arrays.sort(a);
+            Arrays.sort(b);
+            assertArrayEquals(ListUtils.intersectionLongs(a, b), ListUtils.intersectionSorted(a, b));
+            assertArrayEquals(ListUtils.unionLongs(a, b), ListUtils.unionSorted(a, b));
+            assertArrayEquals(ListUtils.differenceLongs(a, b), ListUtils.differenceSorted(a, b));
+        }
+        assertArrayEquals(new long[]{1, 2, 3, 0, 4}, ListUtils.unionSorted(new long[]{1, 2, 2, 3}, new long[]{0, 3, 4}));
+    }
+
+    @Test
+    @DisplayName("long[] 版本：null 容错，有序版本拒绝乱序输入")
+    void testLongArrayEdgeCases() {
+        assertArrayEquals(new long[0], ListUtils.intersectionLongs(null, new long[]{1}));
+        assertArrayEquals(new long[]{1, 2}, ListUtils.unionLongs(new long[]{1, 2, 1}, null));
+        assertArrayEquals(new long[]{0, 1}, ListUtils.differenceLongs(new long[]{0, 1, 0}, null));
+        assertArrayEquals(new long[0], ListUtils.differenceSorted(null, new long[]{1}));
+        assertThrows(IllegalArgumentException.class,
+                () -> ListUtils.intersectionSorted(new long[]{3, 1}, new long[]{1, 3}));
+        assertThrows(IllegalArgumentException.class,
+                () -> ListUtils.differenceSorted(new long[]{1, 2}, new long[]{5, 4}));
+    }
+
+    @Test
+    @DisplayName("parallel 版本：强制走并行路径时结果与串行版本一致（含重复与 null）")
+    void testParallelMatchesSequential() {
+        Random random = new Random(42);
+        for (int round = 0; round < 20; round++) {
+            List<Long> first = withNulls(random, box(randomArray(random, random.nextInt(2000))));
+            List<Long> second = withNulls(random, box(randomArray(random, random.nextInt(2000))));
+            assertEquals(ListUtils.intersection(first, second), ListUtils.parallelIntersection(first, second, 0));
+            assertEquals(ListUtils.union(first, second), ListUtils.parallelUnion(first, second, 0));
+            assertEquals(ListUtils.difference(first, second), ListUtils.parallelDifference(first, second, 0));
+        }
+        assertEquals(List.of(), ListUtils.parallelIntersection(null, List.of(1), 0));
+        assertEquals(List.of(1, 2), ListUtils.parallelUnion(List.of(1, 2), null, 0));
+        assertEquals(List.of(1, 2), ListUtils.parallelDifference(List.of(1, 2, 1), null, 0));
+        assertEquals(List.of(2, 3), ListUtils.parallelIntersection(Arrays.asList(2, 3), Arrays.asList(3, 2)));
+    }
+
+    @Test
+    @DisplayName("Iterator / Stream 版本：惰性结果与列表版本一致")
+    void testLazyMatchesEager() {
+        Random random = new Random(7);
+        for (int round = 0; round < 20; round++) {
+            List<Long> first = withNulls(random, box(randomArray(random, random.nextInt(500))));
+            List<Long> second = withNulls(random, box(randomArray(random, random.nextInt(500))));
+            assertEquals(ListUtils.intersection(first, second),
+                    ListUtils.intersectionStream(first, second).collect(Collectors.toList()));
+            assertEquals(ListUtils.union(first, second),
+                    ListUtils.unionStream(first, second).collect(Collectors.toList()));
+            assertEquals(ListUtils.difference(first, second),
+                    ListUtils.differenceStream(first, second).collect(Collectors.toList()));
+        }
+        assertEquals(0, ListUtils.intersectionStream(null, List.of(1)).count());
+        assertEquals(List.of(1, 2), ListUtils.unionStream(null, List.of(1, 2, 1)).toList());
+
+        Iterator<Integer> iterator = ListUtils.differenceIterator(List.of(1, 2, 3), List.of(2));
+        assertEquals(1, iterator.next());
+        assertEquals(3, iterator.next());
+        assertThrows(NoSuchElementException.class, iterator::next);
+    }
+
+    private static List<Long> withNulls(Random random, List<Long> values) {
+        List<Long> list = new ArrayList<>(values);
+        if (!list.isEmpty() && random.nextBoolean()) {
+            list.set(random.nextInt(list.size()), null);
+        }
+        return list;
+    }
+
+    private static long[] randomArray(Random random, int length) {
+        long[] values = new long[length];
+        for (int i = 0; i < length; i++) {
+            values[i] = random.nextInt(300) - 50;
+        }
+        return values;
+    }
+
+    private static List<Long> box(long[] values) {
+        List<Long> list = new ArrayList<>(values.length);
+        for (long value : values) {
+            list.add(value);
+        }
+        return list;
+    }
 }
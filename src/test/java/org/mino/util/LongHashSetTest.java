@@ -0,0 +1,49 @@
+package org.mino.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LongHashSetTest {
+
+    @Test
+    @DisplayName("随机增删与 HashSet 结果一致，包括 0 和负数")
+    void testAgainstHashSet() {
+        Random random = new Random(7);
+        LongHashSet set = new LongHashSet();
+        Set<Long> expected = new HashSet<>();
+        for (int i = 0; i < 200_000; i++) {
+            long value = random.nextInt(5000) - 2500;
+            switch (random.nextInt(3)) {
+                case 0 -> assertEquals(expected.add(value), set.add(value));
+                case 1 -> assertEquals(expected.remove(value), set.remove(value));
+                default -> assertEquals(expected.contains(value), set.contains(value));
+            }
+            assertEquals(expected.size(), set.size());
+        }
+        for (long value = -2500; value < 2500; value++) {
+            assertEquals(expected.contains(value), set.contains(value));
+        }
+    }
+
+    @Test
+    @DisplayName("扩容后元素保留，clear 清空")
+    void testGrowAndClear() {
+        LongHashSet set = new LongHashSet(4);
+        for (long i = 0; i < 100_000; i++) {
+            assertTrue(set.add(i << 32));
+        }
+        assertEquals(100_000, set.size());
+        assertTrue(set.contains(99_999L << 32));
+        assertFalse(set.contains(1));
+        set.clear();
+        assertTrue(set.isEmpty());
+        assertFalse(set.contains(0));
+        assertFalse(set.contains(5L << 32));
+    }
+}
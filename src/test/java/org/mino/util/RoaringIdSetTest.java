@@ -0,0 +1,103 @@
+package org.mino.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PrimitiveIterator;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RoaringIdSetTest {
+
+    @Test
+    @DisplayName("随机增删与集合运算与 TreeSet 结果一致，覆盖数组/位图容器互相转换")
+    void testAgainstTreeSet() {
+        Random random = new Random(11);
+        for (int round = 0; round < 10; round++) {
+            // 值域跨 4 个块，元素数在 ARRAY_MAX_SIZE 上下浮动
+            int bound = 4 << 16;
+            int count = random.nextInt(40_000);
+            RoaringIdSet first = new RoaringIdSet();
+            RoaringIdSet second = new RoaringIdSet();
+            TreeSet<Long> expectedFirst = new TreeSet<>();
+            TreeSet<Long> expectedSecond = new TreeSet<>();
+            for (int i = 0; i < count; i++) {
+                long a = random.nextInt(bound);
+                long b = random.nextInt(round % 2 == 0 ? bound : 1 << 16);
+                assertEquals(expectedFirst.add(a), first.add(a));
+                assertEquals(expectedSecond.add(b), second.add(b));
+                if (random.nextInt(4) == 0) {
+                    long removed = random.nextInt(bound);
+                    assertEquals(expectedFirst.remove(removed), first.remove(removed));
+                }
+            }
+            assertEquals(expectedFirst.size(), first.cardinality());
+            assertEquals(new ArrayList<>(expectedFirst), first.toList());
+
+            TreeSet<Long> and = new TreeSet<>(expectedFirst);
+            and.retainAll(expectedSecond);
+            TreeSet<Long> or = new TreeSet<>(expectedFirst);
+            or.addAll(expectedSecond);
+            TreeSet<Long> andNot = new TreeSet<>(expectedFirst);
+            andNot.removeAll(expectedSecond);
+            assertEquals(new ArrayList<>(and), first.and(second).toList());
+            assertEquals(new ArrayList<>(or), first.or(second).toList());
+            assertEquals(new ArrayList<>(andNot), first.andNot(second).toList());
+            assertEquals(RoaringIdSet.of(new ArrayList<>(or)), first.or(second));
+            assertEquals(or.size(), first.or(second).cardinality());
+        }
+    }
+
+    @Test
+    @DisplayName("稠密自增ID：序列化往返一致，体积约 1 bit/ID，运算不修改输入")
+    void testDenseIdsAndSerialization() {
+        RoaringIdSet all = new RoaringIdSet();
+        for (long id = 1; id <= 1_000_000; id++) {
+            all.add(id);
+        }
+        RoaringIdSet even = new RoaringIdSet();
+        for (long id = 2; id <= 1_000_000; id += 2) {
+            even.add(id);
+        }
+        RoaringIdSet odd = all.andNot(even);
+        assertEquals(500_000, odd.cardinality());
+        assertTrue(odd.contains(999_999));
+        assertFalse(odd.contains(1_000_000));
+        assertEquals(all, odd.or(even));
+        assertTrue(odd.and(even).isEmpty());
+        assertEquals(1_000_000, all.cardinality());
+
+        byte[] bytes = all.serialize();
+        assertEquals(all.serializedSizeInBytes(), bytes.length);
+        assertTrue(bytes.length < 1_000_000 / 8 + 16 * 1024);
+        RoaringIdSet restored = RoaringIdSet.deserialize(bytes);
+        assertEquals(all, restored);
+        assertEquals(all.hashCode(), restored.hashCode());
+
+        RoaringIdSet sparse = RoaringIdSet.of(3, 1L << 40, 70_000, 3);
+        assertEquals(List.of(3L, 70_000L, 1L << 40), RoaringIdSet.deserialize(sparse.serialize()).toList());
+
+        PrimitiveIterator.OfLong iterator = sparse.iterator();
+        assertEquals(3, iterator.nextLong());
+        assertEquals(70_000, iterator.nextLong());
+        assertEquals(1L << 40, iterator.nextLong());
+        assertFalse(iterator.hasNext());
+    }
+
+    @Test
+    @DisplayName("拒绝负数ID和损坏的序列化数据")
+    void testInvalidInput() {
+        assertThrows(IllegalArgumentException.class, () -> new RoaringIdSet().add(-1));
+        assertFalse(new RoaringIdSet().contains(-1));
+        byte[] bytes = RoaringIdSet.of(1, 2, 3).serialize();
+        assertThrows(IllegalArgumentException.class,
+                () -> RoaringIdSet.deserialize(Arrays.copyOf(bytes, bytes.length - 1)));
+        bytes[0] = 0;
+        assertThrows(IllegalArgumentException.class, () -> RoaringIdSet.deserialize(bytes));
+    }
+}
@@ -0,0 +1,34 @@
+package org.mino.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ThreadFactory;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ThreadFactoriesTest {
+
+    @Test
+    @DisplayName("平台线程：守护线程，名称为前缀加序号")
+    void testPlatform() {
+        ThreadFactory factory = ThreadFactories.create("worker-", false);
+        Thread first = factory.newThread(() -> {});
+        Thread second = factory.newThread(() -> {});
+        assertTrue(first.isDaemon());
+        assertEquals("worker-1", first.getName());
+        assertEquals("worker-2", second.getName());
+    }
+
+    @Test
+    @DisplayName("虚拟线程：Java 21 上创建虚拟线程，更早的版本拒绝创建")
+    void testVirtual() {
+        if (Runtime.version().feature() < 21) {
+            assertThrows(UnsupportedOperationException.class, () -> ThreadFactories.create("worker-", true));
+            return;
+        }
+        Thread thread = ThreadFactories.create("worker-", true).newThread(() -> {});
+        assertTrue(thread.isDaemon());
+        assertTrue(thread.getName().startsWith("worker-"));
+    }
+}